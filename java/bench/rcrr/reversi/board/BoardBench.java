@@ -0,0 +1,260 @@
+/*
+ *  BoardBench.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the {@code Board} methods, for each {@code BoardFactory} implementation.
+ * <p>
+ * The fixtures are the boards met along random games played from the initial board,
+ * the games are generated by a {@code Random} object having the given seed, so every factory,
+ * and every run, measures the same boards. Each fixture has the player to move, one of its legal moves,
+ * and a square picked at random, that can be a legal move or not.
+ * <p>
+ * Boards cache their hash code, and some implementations cache the legal moves, so each board must be
+ * used once to measure the computation rather than a cache hit. Before every iteration, as a
+ * {@code Level.Iteration} setup, the factory builds a fresh copy of each fixture from its square map.
+ * Every iteration is then a single invocation that goes once over all the fresh boards, the mode is
+ * {@code Mode.SingleShotTime}, and {@code OperationsPerInvocation} reports the time of one board.
+ * No setup runs between two measured calls, and the loop results are consumed by a {@code Blackhole}.
+ * The {@code perft} benchmark counts the leaves of the game tree rooted at the initial board, passes included.
+ * <p>
+ * Run it with: {@code ant bench}, the factory can be selected by
+ * {@code ant bench -Dbench.args="-p factory=rcrr.reversi.board.BitBoardFactory\$Type4"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 200)
+@Measurement(iterations = 200)
+@Fork(1)
+public class BoardBench {
+
+    /** The number of fixtures, each invocation goes over all of them. */
+    private static final int FIXTURES = 4096;
+
+    /** The board factory class name. */
+    @Param({"rcrr.reversi.board.EnumMapBoardFactory",
+            "rcrr.reversi.board.BitBoardFactory$Type0",
+            "rcrr.reversi.board.BitBoardFactory$Type1",
+            "rcrr.reversi.board.BitBoardFactory$Type2",
+            "rcrr.reversi.board.BitBoardFactory$Type3",
+            "rcrr.reversi.board.BitBoardFactory$Type4"})
+    private String factory;
+
+    /** The seed of the random games. */
+    @Param({"20120401"})
+    private long seed;
+
+    /** The perft depth. */
+    @Param({"6"})
+    private int perftDepth;
+
+    /** The factory that was set before the trial. */
+    private BoardFactory previousFactory;
+
+    /** The board factory. */
+    private BoardFactory bf;
+
+    /** The square maps of the fixture boards. */
+    private List<Map<Square, SquareState>> squareMaps;
+
+    /** The player to move of the fixtures. */
+    private Player[] players;
+
+    /** A legal move of the fixtures. */
+    private Square[] moves;
+
+    /** A random square of the fixtures. */
+    private Square[] squares;
+
+    /** The initial board, built by the factory. */
+    private Board initialBoard;
+
+    /** The fresh copies of the fixture boards, built before each iteration. */
+    private Board[] boards;
+
+    /**
+     * Sets the board factory, and generates the fixtures.
+     *
+     * @throws Exception when the factory cannot be instantiated
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        bf = (BoardFactory) Class.forName(factory).getDeclaredConstructor().newInstance();
+        previousFactory = BoardFactoryHolder.getInstance().boardFactory();
+        BoardFactoryHolder.getInstance().setBoardFactory(bf);
+
+        final Random random = new Random(seed);
+        final Square[] squareValues = Square.values();
+        squareMaps = new ArrayList<Map<Square, SquareState>>(FIXTURES);
+        players = new Player[FIXTURES];
+        moves = new Square[FIXTURES];
+        squares = new Square[FIXTURES];
+        boards = new Board[FIXTURES];
+        initialBoard = bf.initialBoard();
+        int i = 0;
+        while (i < FIXTURES) {
+            Board b = initialBoard;
+            Player p = Player.BLACK;
+            while (i < FIXTURES) {
+                List<Square> legalMoves = b.legalMoves(p);
+                if (legalMoves.isEmpty()) {
+                    p = p.opponent();
+                    legalMoves = b.legalMoves(p);
+                    if (legalMoves.isEmpty()) { break; }
+                }
+                final Square m = legalMoves.get(random.nextInt(legalMoves.size()));
+                squareMaps.add(squareMap(b));
+                players[i] = p;
+                moves[i] = m;
+                squares[i] = squareValues[random.nextInt(squareValues.length)];
+                i++;
+                b = b.makeMove(m, p);
+                p = p.opponent();
+            }
+        }
+    }
+
+    /**
+     * Returns the square map of the board.
+     *
+     * @param b the board
+     * @return  the square map
+     */
+    private static Map<Square, SquareState> squareMap(final Board b) {
+        final Map<Square, SquareState> map = new EnumMap<Square, SquareState>(Square.class);
+        for (final Square sq : Square.values()) { map.put(sq, b.get(sq)); }
+        return map;
+    }
+
+    /** Restores the board factory. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BoardFactoryHolder.getInstance().setBoardFactory(previousFactory);
+    }
+
+    /**
+     * Builds a fresh copy of every fixture board, none of them has cached values.
+     */
+    @Setup(Level.Iteration)
+    public void buildBoards() {
+        for (int i = 0; i < FIXTURES; i++) { boards[i] = bf.valueOf(squareMaps.get(i)); }
+    }
+
+    /**
+     * Benchmarks the {@code legalMoves(Player)} method.
+     *
+     * @param bh the blackhole consuming the legal moves
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIXTURES)
+    public void legalMoves(final Blackhole bh) {
+        for (int i = 0; i < FIXTURES; i++) { bh.consume(boards[i].legalMoves(players[i])); }
+    }
+
+    /**
+     * Benchmarks the {@code isLegal(Square, Player)} method.
+     *
+     * @param bh the blackhole consuming the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIXTURES)
+    public void isLegal(final Blackhole bh) {
+        for (int i = 0; i < FIXTURES; i++) { bh.consume(boards[i].isLegal(squares[i], players[i])); }
+    }
+
+    /**
+     * Benchmarks the {@code makeMove(Square, Player)} method.
+     *
+     * @param bh the blackhole consuming the updated boards
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIXTURES)
+    public void makeMove(final Blackhole bh) {
+        for (int i = 0; i < FIXTURES; i++) { bh.consume(boards[i].makeMove(moves[i], players[i])); }
+    }
+
+    /**
+     * Benchmarks the {@code countPieces(SquareState)} method.
+     *
+     * @param bh the blackhole consuming the disc counts
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIXTURES)
+    public void countPieces(final Blackhole bh) {
+        for (int i = 0; i < FIXTURES; i++) { bh.consume(boards[i].countPieces(players[i].color())); }
+    }
+
+    /**
+     * Benchmarks the {@code hashCode()} method.
+     *
+     * @param bh the blackhole consuming the hash codes
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIXTURES)
+    public void hashCodeBoard(final Blackhole bh) {
+        for (int i = 0; i < FIXTURES; i++) { bh.consume(boards[i].hashCode()); }
+    }
+
+    /**
+     * Benchmarks a full perft from the initial board, to {@code perftDepth} plies.
+     *
+     * @return the leaf count
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public long perft() {
+        return Perft.count(initialBoard, Player.BLACK, perftDepth);
+    }
+
+}
@@ -24,9 +24,13 @@
 
 package rcrr.reversi;
 
+import org.joda.time.Duration;
+
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SearchBoard;
+import rcrr.reversi.board.SquareState;
 
 /**
  * This abstract class provide a searcher implementation
@@ -36,6 +40,40 @@ import rcrr.reversi.board.Player;
  */
 public abstract class AbstractDecisionRule implements DecisionRule {
 
+    /**
+     * The exception is thrown by a search that has reached its deadline.
+     * It unwinds the search stack up to the {@code timedSearcher} strategy, that
+     * discards the unfinished iteration.
+     */
+    protected static final class SearchTimeoutException extends RuntimeException {
+
+        /** The serialVersionUID requested by the specification for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** Class constructor. */
+        public SearchTimeoutException() {
+            super("The search has reached its deadline.");
+        }
+    }
+
+    /** The deadline value meaning that the search has no time limit. */
+    protected static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * The number of moves added to the moves that the player has still to play,
+     * when the time budget for a move is computed. It keeps a reserve on the clock.
+     */
+    private static final int MOVES_TO_GO_MARGIN = 2;
+
+    /**
+     * A new iteration is not started when the time elapsed is greater than the budget
+     * divided by this factor, because it would not complete anyway.
+     */
+    private static final int NEXT_ITERATION_FACTOR = 3;
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     /**
      * The winning value.
      * <p>
@@ -55,6 +93,17 @@ public abstract class AbstractDecisionRule implements DecisionRule {
      */
     protected static final int LOSING_VALUE = -2000000000;
 
+    /**
+     * Throws a {@code SearchTimeoutException} when {@code System.nanoTime()} has passed the {@code deadline}.
+     * Searches call it at every node, so that an iteration is stopped soon after the deadline.
+     *
+     * @param deadline the deadline as a {@code System.nanoTime()} value, or {@code NO_DEADLINE}
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    protected static void checkDeadline(final long deadline) {
+        if (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) { throw new SearchTimeoutException(); }
+    }
+
     /**
      * Returns the board final value.
      * <p>
@@ -75,6 +124,23 @@ public abstract class AbstractDecisionRule implements DecisionRule {
         }
     }
 
+    /**
+     * Returns the final value of the game held by the search board, for the player that has to move,
+     * as done by {@code finalValue(Board, Player)}.
+     *
+     * @param board the search board
+     * @return      the game final value
+     */
+    protected static int finalValue(final SearchBoard board) {
+        assert (board != null) : "Parameter board must be not null";
+        switch (Integer.signum(board.countDifference())) {
+        case -1: return LOSING_VALUE;
+        case  0: return 0;
+        case +1: return WINNING_VALUE;
+        default: throw new RuntimeException("Unreachable condition found. board=" + board);
+        }
+    }
+
     /**
      * Returns a {@code Strategy} that maximixes the value obtained
      * applying the evaluation function to the avalilable legal moves.
@@ -115,9 +181,92 @@ public abstract class AbstractDecisionRule implements DecisionRule {
         };
     }
 
+    /**
+     * Returns the time budget for the next move, in milliseconds.
+     * <p>
+     * The remaining time is shared evenly among the moves that the player has still to play,
+     * estimated as half of the empty squares, plus a margin.
+     *
+     * @param remaining the time left on the player's clock
+     * @param empties   the number of empty squares on the board
+     * @return          the time budget in milliseconds
+     */
+    static long moveBudget(final Duration remaining, final int empties) {
+        final long movesToGo = (empties + 1) / 2 + MOVES_TO_GO_MARGIN;
+        return Math.max(0L, remaining.getMillis()) / movesToGo;
+    }
+
     /** Class constructor. */
     public AbstractDecisionRule() { }
 
+    /**
+     * Returns a new strategy that deepens the search iteratively, managing the time
+     * given by the clock of the game snapshot.
+     * <p>
+     * Each iteration searches one ply deeper than the previous one, trying first the best move
+     * it has found. The budget for the move is computed by {@code moveBudget} from the player's clock
+     * and from the empty squares. When the deadline is reached the running iteration is dropped
+     * and the move selected by the last completed one is returned. The first iteration is always
+     * completed. Iterations stop when the search reaches the end of the game.
+     *
+     * @param ef the evaluation function
+     * @return   a time managed strategy
+     * @throws NullPointerException when parameter {@code ef} is null
+     */
+    public final Strategy timedSearcher(final EvalFunction ef) {
+        if (ef == null) { throw new NullPointerException("Parameter ef must be not null."); }
+        return new Strategy() {
+            public Move move(final GameSnapshot gameSnapshot) {
+                if (gameSnapshot == null) {
+                    throw new NullPointerException("Parameter gameSnapshot cannot be null.");
+                }
+                if (!gameSnapshot.hasAnyLegalMove()) {
+                    return Move.valueOf(Move.Action.PASS);
+                }
+                final long start = System.nanoTime();
+                final int empties = gameSnapshot.board().countPieces(SquareState.EMPTY);
+                final long budget = moveBudget(gameSnapshot.clock().get(gameSnapshot.player()), empties)
+                    * NANOS_PER_MILLI;
+                final long deadline = start + budget;
+                SearchNode node = timedSearch(gameSnapshot.position(), 1, ef, null, NO_DEADLINE);
+                for (int ply = 2; ply <= empties; ply++) {
+                    if (System.nanoTime() - start > budget / NEXT_ITERATION_FACTOR) { break; }
+                    try {
+                        node = timedSearch(gameSnapshot.position(), ply, ef, node, deadline);
+                    } catch (SearchTimeoutException ste) {
+                        break;
+                    }
+                }
+                return Move.valueOf(node.move());
+            }
+        };
+    }
+
+    /**
+     * Searches the game position, trying first the move of the {@code previous} search node
+     * when it is not null, and throwing a {@code SearchTimeoutException} if the search is running when
+     * {@code System.nanoTime()} passes the {@code deadline}.
+     * <p>
+     * The {@code previous} node is the result of the last completed iteration, one ply less deep.
+     * Its value can be used by subclasses as a guess of the value that is searched, implementations
+     * are free to ignore it. The deadline must be honoured: implementations check it, by calling
+     * {@code checkDeadline}, at every node of the tree, so that {@code timedSearcher} returns soon after
+     * the time budget is spent.
+     *
+     * @param position  the game position
+     * @param ply       the search depth
+     * @param ef        the evaluation function
+     * @param previous  the search node returned by the previous iteration, can be null
+     * @param deadline  the deadline as a {@code System.nanoTime()} value, or {@code NO_DEADLINE}
+     * @return          a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    protected abstract SearchNode timedSearch(GamePosition position,
+                                              int ply,
+                                              EvalFunction ef,
+                                              SearchNode previous,
+                                              long deadline);
+
     /**
      * Returns a new strategy that searches ply levels deep
      * applying the ef evaluation function.
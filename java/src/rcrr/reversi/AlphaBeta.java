@@ -63,7 +63,21 @@ public final class AlphaBeta extends AbstractDecisionRule {
     public SearchNode search(final GamePosition position,
                              final int ply,
                              final EvalFunction ef) {
-        return searchImpl(position.player(), position.board(), LOSING_VALUE, WINNING_VALUE, ply, ef);
+        return searchImpl(position.player(), position.board(), LOSING_VALUE, WINNING_VALUE, ply, ef, NO_DEADLINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The previous node is not used, moves are searched in the order given by the board.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        return searchImpl(position.player(), position.board(), LOSING_VALUE, WINNING_VALUE, ply, ef, deadline);
     }
 
     /**
@@ -75,14 +89,18 @@ public final class AlphaBeta extends AbstractDecisionRule {
      * @param cutoff     the search window upper bound (also know as beta)
      * @param ply        the search depth
      * @param ef         the evaluation function
+     * @param deadline   the search deadline as a {@code System.nanoTime()} value
      * @return a new search node
+     * @throws SearchTimeoutException when the deadline is reached
      */
     private SearchNode searchImpl(final Player player,
                                   final Board board,
                                   final int achievable,
                                   final int cutoff,
                                   final int ply,
-                                  final EvalFunction ef) {
+                                  final EvalFunction ef,
+                                  final long deadline) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -91,7 +109,7 @@ public final class AlphaBeta extends AbstractDecisionRule {
             List<Square> moves = board.legalMoves(player);
             if (moves.isEmpty()) {
                 if (board.hasAnyLegalMove(opponent)) {
-                    node = searchImpl(opponent, board, -cutoff, -achievable, ply - 1, ef).negated();
+                    node = searchImpl(opponent, board, -cutoff, -achievable, ply - 1, ef, deadline).negated();
                 } else {
                     node = SearchNode.valueOf(null, finalValue(board, player));
                 }
@@ -99,7 +117,8 @@ public final class AlphaBeta extends AbstractDecisionRule {
                 node = SearchNode.valueOf(moves.get(0), achievable);
                 outer: for (Square move : moves) {
                     Board board2 = board.makeMove(move, player);
-                    int val = searchImpl(opponent, board2, -cutoff, -node.value(), ply - 1, ef).negated().value();
+                    int val = searchImpl(opponent, board2, -cutoff, -node.value(), ply - 1, ef, deadline)
+                        .negated().value();
                     if (val > node.value()) {
                         node = SearchNode.valueOf(move, val);
                     }
@@ -81,6 +81,9 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
 
     private final Variant variant;
 
+    /** The deadline of the running search as a {@code System.nanoTime()} value, checked at every node. */
+    private long deadline = NO_DEADLINE;
+
     /**
      * Class static factory.
      *
@@ -150,6 +153,26 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The previous node is not used. The deadline is kept by the instance for the duration of the search,
+     * as the statistics counters are.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        this.deadline = deadline;
+        try {
+            return search(position, ply, ef);
+        } finally {
+            this.deadline = NO_DEADLINE;
+        }
+    }
+
     /**
      * The minimax function.
      *
@@ -163,6 +186,7 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
                                   final Board board,
                                   final int ply,
                                   final EvalFunction ef) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -208,6 +232,7 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
                                    final int cutoff,
                                    final int ply,
                                    final EvalFunction ef) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -258,6 +283,7 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
                                    final int cutoff,
                                    final int ply,
                                    final EvalFunction ef) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -306,6 +332,7 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
                                    final int ply,
                                    final EvalFunction ef,
                                    final boolean log) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -361,6 +388,7 @@ public final class AlphaBeta2 extends AbstractDecisionRule {
                                            final EvalFunction ef,
                                            final int efNodeValue,
                                            final boolean log) {
+        checkDeadline(deadline);
         SearchNode node;
         final Board board = position.board();
         final Player player = position.player();
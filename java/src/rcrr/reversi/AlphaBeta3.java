@@ -24,6 +24,7 @@
 
 package rcrr.reversi;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.HashMap;
@@ -33,6 +34,7 @@ import java.util.List;
 
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SearchBoard;
 import rcrr.reversi.board.Square;
 
 /**
@@ -42,10 +44,53 @@ import rcrr.reversi.board.Square;
  * <p>
  * The alpha-beta family of algorithms is described by the wikipedia
  * page: <a href="http://en.wikipedia.org/wiki/Alpha-beta_pruning" target="_blank">alpha-beta pruning</a>.
+ * <p>
+ * When an instance is obtained by the {@code getInstance(TranspositionTable)} factory, the search
+ * reuses the results stored for game positions reached by transposition, and tries first the best
+ * move found by a previous search of the same position.
+ * <p>
+ * When the evaluation function implements {@code SearchBoardEvalFunction}, the search runs on a
+ * {@code SearchBoard}, playing and taking back the moves in place: the boards, the game positions,
+ * the move lists, and the search nodes of the inner nodes are not created. The returned search node
+ * is the same of the search running on the immutable boards, that is used by the other evaluation functions.
  */
 public final class AlphaBeta3 extends AbstractDecisionRule {
 
-    private static final class MoveData {
+    /** The value marking the absence of a move in the search board path. */
+    static final int NO_MOVE = -1;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /**
+     * The buffers used by a search running on a {@code SearchBoard}, allocated once for each search.
+     * <p>
+     * Each remaining depth has its own row of moves and values, so that a node keeps its ordered moves
+     * while the children are searched. The best move of the node last searched at a given depth is
+     * recorded by its square ordinal, or by {@code NO_MOVE}.
+     */
+    static final class BoardSearchBuffers {
+        private final int[][] moves;
+        private final int[][] values;
+        private final int[] bestMoves;
+        BoardSearchBuffers(final int ply) {
+            this.moves = new int[ply + 1][SQUARE_VALUES.length];
+            this.values = new int[ply + 1][SQUARE_VALUES.length];
+            this.bestMoves = new int[ply + 1];
+        }
+        int[] moves(final int ply) { return this.moves[ply]; }
+        int[] values(final int ply) { return this.values[ply]; }
+        int bestMove(final int ply) { return this.bestMoves[ply]; }
+        void setBestMove(final int ply, final int move) { this.bestMoves[ply] = move; }
+        Square bestSquare(final int ply) {
+            return (bestMoves[ply] == NO_MOVE) ? null : SQUARE_VALUES[bestMoves[ply]];
+        }
+    }
+
+    /**
+     * The game position reached by a move, joined with its value as given by the evaluation function.
+     */
+    static final class MoveData {
         private final int value;
         private final GamePosition position;
         MoveData(final GamePosition position, final int value) {
@@ -96,9 +141,18 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
         }
     }
 
-    private SortedMap<Square, MoveData> dynamicSortedLegalMoves(final Player player,
-                                                                final Board board,
-                                                                final EvalFunction ef) {
+    /**
+     * Returns the legal moves of the {@code player}, sorted by the value that the evaluation function
+     * gives to the reached game positions. Higher value comes first.
+     *
+     * @param player the player that has to move
+     * @param board  the board
+     * @param ef     the evaluation function
+     * @return       the sorted legal moves, each one associated with its move data
+     */
+    static SortedMap<Square, MoveData> dynamicSortedLegalMoves(final Player player,
+                                                               final Board board,
+                                                               final EvalFunction ef) {
         final List<Square> moves = board.legalMoves(player);
         final Map<Square, MoveData> values = new HashMap<Square, MoveData>();
         for (Square move : moves) {
@@ -111,17 +165,90 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
         return results;
     }
 
+    /**
+     * Fills {@code moves} with the legal moves of the player that has to move on the search board, as square
+     * ordinals, and {@code values} with the value that the evaluation function gives to the reached positions.
+     * Moves are sorted as done by {@code dynamicSortedLegalMoves}: higher value comes first, and two moves
+     * having the same value are sorted by their square.
+     * <p>
+     * Each move is played and taken back, the search board is left unchanged.
+     *
+     * @param board  the search board
+     * @param ef     the evaluation function
+     * @param moves  the array receiving the moves
+     * @param values the array receiving the values
+     * @return       the number of legal moves
+     */
+    static int sortedLegalMoves(final SearchBoard board,
+                                final SearchBoardEvalFunction ef,
+                                final int[] moves,
+                                final int[] values) {
+        int count = 0;
+        long legalMoves = board.legalMoves();
+        while (legalMoves != 0L) {
+            final int move = Long.numberOfTrailingZeros(legalMoves);
+            legalMoves &= legalMoves - 1L;
+            final int token = board.play(1L << move);
+            final int value = -ef.eval(board);
+            board.undo(token);
+            int i = count;
+            while (i > 0 && values[i - 1] < value) {
+                moves[i] = moves[i - 1];
+                values[i] = values[i - 1];
+                i--;
+            }
+            moves[i] = move;
+            values[i] = value;
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Class static factory.
      *
      * @return a new alphabeta instance
      */
     public static AlphaBeta3 getInstance() {
-        return new AlphaBeta3();
+        return new AlphaBeta3(null);
     }
 
-    /** Class constructor. */
-    private AlphaBeta3() { };
+    /**
+     * Class static factory that returns an instance backed by the given transposition table.
+     * <p>
+     * The table is probed before searching a game position, and updated after it.
+     * Entries hold values computed by a given evaluation function, the table must then be cleared
+     * when the evaluation function changes.
+     *
+     * @param table the transposition table
+     * @return      a new alphabeta instance
+     * @throws NullPointerException when parameter {@code table} is null
+     */
+    public static AlphaBeta3 getInstance(final TranspositionTable table) {
+        if (table == null) { throw new NullPointerException("Parameter table must be not null."); }
+        return new AlphaBeta3(table);
+    }
+
+    /** The transposition table field, it is null when the table is not used. */
+    private final TranspositionTable table;
+
+    /**
+     * Class constructor.
+     *
+     * @param table the transposition table, can be null
+     */
+    private AlphaBeta3(final TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the transposition table, or null when the instance doesn't use it.
+     *
+     * @return the transposition table
+     */
+    public TranspositionTable table() {
+        return this.table;
+    }
 
     /**
      * Implemented by means of the alpha-beta algorithm.
@@ -134,7 +261,217 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
     public SearchNode search(final GamePosition position,
                              final int ply,
                              final EvalFunction ef) {
-        return multiLevelOrderingSearch(position, LOSING_VALUE, WINNING_VALUE, ply, ef, 0);
+        return search(position, LOSING_VALUE, WINNING_VALUE, ply, ef, 0, null, NO_DEADLINE);
+    }
+
+    /**
+     * Searches the game position within the given window.
+     * <p>
+     * The returned value is exact when it is strictly inside the {@code (achievable, cutoff)} interval.
+     * A value greater than or equal to {@code cutoff} is a lower bound of the position value, and a value
+     * less than or equal to {@code achievable} is an upper bound. Values are not clamped to the interval:
+     * a bound can lie outside it, when it is taken from a transposition table entry, from a leaf evaluation,
+     * from a final position, or from the move causing the cutoff.
+     *
+     * @param position    the game position
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @return            a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    SearchNode search(final GamePosition position,
+                      final int achievable,
+                      final int cutoff,
+                      final int ply,
+                      final EvalFunction ef,
+                      final int efNodeValue,
+                      final long deadline) {
+        return search(position, achievable, cutoff, ply, ef, efNodeValue, null, deadline);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The move of the previous node is searched first, the deadline is checked at every node of the tree.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        final Square firstMove = (previous == null) ? null : previous.move();
+        return search(position, LOSING_VALUE, WINNING_VALUE, ply, ef, 0, firstMove, deadline);
+    }
+
+    /**
+     * Searches the game position on a {@code SearchBoard} when the evaluation function allows it,
+     * otherwise on the immutable boards.
+     *
+     * @param position    the game position
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param firstMove   the move searched first, can be null
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @return            a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode search(final GamePosition position,
+                              final int achievable,
+                              final int cutoff,
+                              final int ply,
+                              final EvalFunction ef,
+                              final int efNodeValue,
+                              final Square firstMove,
+                              final long deadline) {
+        if (!(ef instanceof SearchBoardEvalFunction)) {
+            return multiLevelOrderingSearch(position, achievable, cutoff, ply, ef, efNodeValue, firstMove, deadline);
+        }
+        final SearchBoard board = SearchBoard.valueOf(position.board(), position.player());
+        final BoardSearchBuffers buffers = new BoardSearchBuffers(ply);
+        final int value = boardSearch(board, achievable, cutoff, ply, (SearchBoardEvalFunction) ef, efNodeValue,
+                                      (firstMove == null) ? NO_MOVE : firstMove.ordinal(), deadline, buffers);
+        return SearchNode.valueOf(buffers.bestSquare(ply), value);
+    }
+
+    /**
+     * Implemented by means of the alpha-beta algorithm applying a dynamic ordering of the moves,
+     * as done by {@code multiLevelOrderingSearch}, playing and taking back the moves on the search board.
+     * <p>
+     * The best move of the node is recorded into the buffers. When the deadline is reached the search board
+     * is left in the state of the interrupted node.
+     *
+     * @param board       the search board
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param firstMove   the square ordinal of the move searched first, or {@code NO_MOVE}
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @param buffers     the search buffers
+     * @return            the node value
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private int boardSearch(final SearchBoard board,
+                            final int achievable,
+                            final int cutoff,
+                            final int ply,
+                            final SearchBoardEvalFunction ef,
+                            final int efNodeValue,
+                            final int firstMove,
+                            final long deadline,
+                            final BoardSearchBuffers buffers) {
+        checkDeadline(deadline);
+        if (ply == 0) {
+            buffers.setBestMove(ply, NO_MOVE);
+            return efNodeValue;
+        }
+        long key = 0L;
+        int hashMove = firstMove;
+        if (table != null) {
+            key = board.zobrist();
+            final long entry = table.probe(key);
+            if (entry != TranspositionTable.NOT_FOUND) {
+                final Square entryMove = TranspositionTable.move(entry);
+                final int entryMoveOrdinal = (entryMove == null) ? NO_MOVE : entryMove.ordinal();
+                if (TranspositionTable.depth(entry) >= ply) {
+                    final int value = TranspositionTable.value(entry);
+                    boolean hit;
+                    switch (TranspositionTable.bound(entry)) {
+                    case EXACT: hit = true; break;
+                    case LOWER: hit = value >= cutoff; break;
+                    case UPPER: hit = value <= achievable; break;
+                    default: throw new RuntimeException("Unreachable condition found. entry="
+                                                       + TranspositionTable.entryToString(entry));
+                    }
+                    if (hit) {
+                        buffers.setBestMove(ply, entryMoveOrdinal);
+                        return value;
+                    }
+                }
+                if (hashMove == NO_MOVE) { hashMove = entryMoveOrdinal; }
+            }
+        }
+        final int[] moves = buffers.moves(ply);
+        final int[] values = buffers.values(ply);
+        final int count = sortedLegalMoves(board, ef, moves, values);
+        int value;
+        int bestMove;
+        if (count == 0) {
+            if (board.opponentLegalMoves() != 0L) {
+                final int token = board.pass();
+                value = -boardSearch(board, -cutoff, -achievable, ply - 1, ef, -efNodeValue,
+                                     NO_MOVE, deadline, buffers);
+                board.undo(token);
+                bestMove = buffers.bestMove(ply - 1);
+            } else {
+                value = finalValue(board);
+                bestMove = NO_MOVE;
+            }
+        } else {
+            value = achievable;
+            bestMove = moves[0];
+            if (hashMove != NO_MOVE) { moveToFront(moves, values, count, hashMove); }
+            for (int i = 0; i < count; i++) {
+                final int token = board.play(1L << moves[i]);
+                final int val = -boardSearch(board, -cutoff, -value, ply - 1, ef, -values[i],
+                                             NO_MOVE, deadline, buffers);
+                board.undo(token);
+                if (val > value) {
+                    value = val;
+                    bestMove = moves[i];
+                }
+                if (value >= cutoff) { break; }
+            }
+        }
+        if (table != null) {
+            final TranspositionTable.Bound bound;
+            if (value >= cutoff) {
+                bound = TranspositionTable.Bound.LOWER;
+            } else if (value <= achievable) {
+                bound = TranspositionTable.Bound.UPPER;
+            } else {
+                bound = TranspositionTable.Bound.EXACT;
+            }
+            table.store(key, ply, bound, value, (bestMove == NO_MOVE) ? null : SQUARE_VALUES[bestMove]);
+        }
+        buffers.setBestMove(ply, bestMove);
+        return value;
+    }
+
+    /**
+     * Moves the {@code move} square ordinal, and its value, in front of the first {@code count} moves,
+     * keeping the order of the others. Nothing changes when the move is not found.
+     *
+     * @param moves  the moves
+     * @param values the values
+     * @param count  the number of moves
+     * @param move   the move to put first
+     */
+    private static void moveToFront(final int[] moves,
+                                    final int[] values,
+                                    final int count,
+                                    final int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                final int value = values[i];
+                for (int j = i; j > 0; j--) {
+                    moves[j] = moves[j - 1];
+                    values[j] = values[j - 1];
+                }
+                moves[0] = move;
+                values[0] = value;
+                return;
+            }
+        }
     }
 
     /**
@@ -147,14 +484,20 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
      * @param ply         the search depth
      * @param ef          the evaluation function
      * @param efNodeValue the node value as returned by the evaluation function
+     * @param firstMove   the move searched first, can be null
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
      * @return            a new search node
+     * @throws SearchTimeoutException when the deadline is reached
      */
     private SearchNode multiLevelOrderingSearch(final GamePosition position,
                                                 final int achievable,
                                                 final int cutoff,
                                                 final int ply,
                                                 final EvalFunction ef,
-                                                final int efNodeValue) {
+                                                final int efNodeValue,
+                                                final Square firstMove,
+                                                final long deadline) {
+        checkDeadline(deadline);
         SearchNode node;
         final Board board = position.board();
         final Player player = position.player();
@@ -162,23 +505,49 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
         if (ply == 0) {
             node = SearchNode.valueOf(null, efNodeValue);
         } else {
+            long key = 0L;
+            Square hashMove = firstMove;
+            if (table != null) {
+                key = position.zobrist();
+                final long entry = table.probe(key);
+                if (entry != TranspositionTable.NOT_FOUND) {
+                    final Square entryMove = TranspositionTable.move(entry);
+                    if (TranspositionTable.depth(entry) >= ply) {
+                        final int value = TranspositionTable.value(entry);
+                        switch (TranspositionTable.bound(entry)) {
+                        case EXACT: return SearchNode.valueOf(entryMove, value);
+                        case LOWER: if (value >= cutoff) { return SearchNode.valueOf(entryMove, value); } break;
+                        case UPPER: if (value <= achievable) { return SearchNode.valueOf(entryMove, value); } break;
+                        default: throw new RuntimeException("Unreachable condition found. entry="
+                                                           + TranspositionTable.entryToString(entry));
+                        }
+                    }
+                    if (hashMove == null) { hashMove = entryMove; }
+                }
+            }
             SortedMap<Square, MoveData> moves = dynamicSortedLegalMoves(player, board, ef);
             if (moves.isEmpty()) {
                 if (board.hasAnyLegalMove(opponent)) {
                     node = multiLevelOrderingSearch(GamePosition.valueOf(board, opponent),
-                                                    -cutoff, -achievable, ply - 1, ef, -efNodeValue).negated();
+                                                    -cutoff, -achievable, ply - 1, ef, -efNodeValue,
+                                                    null, deadline).negated();
                 } else {
                     node = SearchNode.valueOf(null, finalValue(board, player));
                 }
             } else {
                 node = SearchNode.valueOf(moves.firstKey(), achievable);
-                // README: Change the keySet into an entrySet .....
-                outer: for (Square move : moves.keySet()) {
+                final List<Square> orderedMoves = new ArrayList<Square>(moves.keySet());
+                if (hashMove != null && orderedMoves.remove(hashMove)) {
+                    orderedMoves.add(0, hashMove);
+                }
+                outer: for (Square move : orderedMoves) {
                     int val = multiLevelOrderingSearch(moves.get(move).position(),
                                                        -cutoff, -node.value(),
                                                        ply - 1,
                                                        ef,
-                                                       -moves.get(move).value())
+                                                       -moves.get(move).value(),
+                                                       null,
+                                                       deadline)
                         .negated().value();
                     if (val > node.value()) {
                         node = SearchNode.valueOf(move, val);
@@ -186,6 +555,17 @@ public final class AlphaBeta3 extends AbstractDecisionRule {
                     if (node.value() >= cutoff) { break outer; }
                 }
             }
+            if (table != null) {
+                final TranspositionTable.Bound bound;
+                if (node.value() >= cutoff) {
+                    bound = TranspositionTable.Bound.LOWER;
+                } else if (node.value() <= achievable) {
+                    bound = TranspositionTable.Bound.UPPER;
+                } else {
+                    bound = TranspositionTable.Bound.EXACT;
+                }
+                table.store(key, ply, bound, node.value(), node.move());
+            }
         }
         return node;
     }
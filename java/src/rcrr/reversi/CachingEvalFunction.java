@@ -0,0 +1,208 @@
+/*
+ *  CachingEvalFunction.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.Arrays;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An evaluation function that decorates another one, caching the values it returns.
+ * <p>
+ * A search evaluates the same positions many times: {@code AlphaBeta3} evaluates the children of every
+ * interior node to sort the moves, and evaluates them again as leaves, and the next move searches most
+ * of them once more. The cache returns the value already computed instead of calling the decorated function.
+ * <p>
+ * The cache is a fixed size table indexed by the position Zobrist key, backed by a preallocated {@code long}
+ * array. Each slot is made by two words, the key xored with the data, and the data, that holds the value.
+ * A slot is always replaced. As in {@code TranspositionTable}, readers and writers are not synchronized:
+ * a slot written concurrently, or read while being written, has words that don't xor back to the key,
+ * and it is a miss. The decorated function is then called, and must be thread-safe itself.
+ * <p>
+ * The hits and misses are counted by {@code LongAdder} instances, that don't make the threads contend.
+ * <p>
+ * {@code CachingEvalFunction} is mutable, and it is thread-safe.
+ */
+public final class CachingEvalFunction implements EvalFunction {
+
+    /** The number of long words in a slot. */
+    private static final int SLOT_SIZE = 2;
+
+    /** The number of bytes of a slot. */
+    private static final int SLOT_BYTES = SLOT_SIZE * Long.SIZE / Byte.SIZE;
+
+    /** The number of bytes of a megabyte. */
+    private static final int MEGABYTE = 1 << 20;
+
+    /** The maximum size of the cache in megabytes. */
+    private static final int MAX_MEGABYTES = 1 << 12;
+
+    /** The value mask. */
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    /** The bit that marks a slot as used. An empty slot has all the bits set to zero. */
+    private static final long USED = 1L << 63;
+
+    /**
+     * Static factory for the class.
+     * <p>
+     * The size is rounded down to a power of two, each slot takes sixteen bytes.
+     *
+     * @param ef         the decorated evaluation function
+     * @param megabytes  the size of the cache in megabytes
+     * @return           a new caching evaluation function having an empty cache
+     * @throws NullPointerException     if parameter {@code ef} is null
+     * @throws IllegalArgumentException if parameter {@code megabytes} is not positive, or if it is too large
+     */
+    public static CachingEvalFunction valueOf(final EvalFunction ef, final int megabytes) {
+        if (ef == null) { throw new NullPointerException("Parameter ef cannot be null."); }
+        if (megabytes <= 0 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Parameter megabytes must be in the range 1-" + MAX_MEGABYTES
+                                               + ". megabytes=" + megabytes);
+        }
+        final int slots = (int) ((long) Integer.highestOneBit(megabytes) * MEGABYTE / SLOT_BYTES);
+        return new CachingEvalFunction(ef, slots);
+    }
+
+    /** The decorated evaluation function. */
+    private final EvalFunction ef;
+
+    /** The table field. */
+    private final long[] table;
+
+    /** The slot index mask. */
+    private final int mask;
+
+    /** The hits counter. */
+    private final LongAdder hits = new LongAdder();
+
+    /** The misses counter. */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Class constructor.
+     *
+     * @param ef    the decorated evaluation function
+     * @param slots the number of slots, it must be a power of two
+     */
+    private CachingEvalFunction(final EvalFunction ef, final int slots) {
+        assert (Integer.bitCount(slots) == 1) : "Parameter slots must be a power of two.";
+        this.ef = ef;
+        this.table = new long[slots * SLOT_SIZE];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Returns the value of the position, taken from the cache when it is there,
+     * otherwise computed by the decorated function and stored.
+     *
+     * @param position the game position to evaluate
+     * @return         the position value
+     * @throws NullPointerException if parameter {@code position} is null
+     */
+    public int eval(final GamePosition position) {
+        if (position == null) { throw new NullPointerException("Parameter position cannot be null."); }
+        final long key = position.zobrist();
+        final int slot = ((int) (key ^ (key >>> Integer.SIZE)) & mask) * SLOT_SIZE;
+        final long check = table[slot];
+        final long data = table[slot + 1];
+        if ((data & USED) != 0L && (check ^ data) == key) {
+            hits.increment();
+            return (int) data;
+        }
+        misses.increment();
+        final int value = ef.eval(position);
+        final long newData = USED | (value & VALUE_MASK);
+        table[slot] = key ^ newData;
+        table[slot + 1] = newData;
+        return value;
+    }
+
+    /**
+     * Returns the decorated evaluation function.
+     *
+     * @return the decorated evaluation function
+     */
+    public EvalFunction evalFunction() {
+        return ef;
+    }
+
+    /**
+     * Returns the number of values that the cache can hold.
+     *
+     * @return the cache capacity
+     */
+    public int capacity() {
+        return table.length / SLOT_SIZE;
+    }
+
+    /**
+     * Returns the hits counter.
+     *
+     * @return the number of values taken from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the misses counter.
+     *
+     * @return the number of values computed by the decorated function
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of the hits to the evaluations, or zero when nothing has been evaluated.
+     *
+     * @return the hit rate
+     */
+    public double hitRate() {
+        final long h = hits();
+        final long total = h + misses();
+        return (total == 0L) ? 0. : (double) h / total;
+    }
+
+    /**
+     * Removes all the values, and resets the counters.
+     * <p>
+     * The method must not be called while a search is using the function.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        resetCounters();
+    }
+
+    /**
+     * Resets the hits and misses counters.
+     */
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+    }
+
+}
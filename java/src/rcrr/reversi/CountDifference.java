@@ -24,11 +24,13 @@
 
 package rcrr.reversi;
 
+import rcrr.reversi.board.SearchBoard;
+
 /**
  * An {@code EvalFunction} implementation that counts the
  * difference between the player's disks and the opponent's ones.
  */
-public class CountDifference implements EvalFunction {
+public class CountDifference implements SearchBoardEvalFunction {
 
     /**
      * Class constructor.
@@ -48,4 +50,16 @@ public class CountDifference implements EvalFunction {
         return position.board().countDifference(position.player());
     }
 
+    /**
+     * Returns the difference between the player's discs and the opponent's ones.
+     *
+     * @param board the search board to evaluate
+     * @return      the board value
+     * @throws NullPointerException if parameter {@code board} is null
+     */
+    public final int eval(final SearchBoard board) {
+        if (board == null) { throw new NullPointerException("Parameter board cannot be null."); }
+        return board.countDifference();
+    }
+
 }
@@ -28,6 +28,8 @@ import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Player;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.BoardFactoryHolder;
+import rcrr.reversi.board.Zobrist;
+
 /**
  * A game position is a value object joining the board
  * and the moving player.
@@ -140,12 +142,6 @@ public final class GamePosition {
 
     }
 
-    /** Prime number 17. */
-    private static final int PRIME_NUMBER_17 = 17;
-
-    /** Prime number 31. */
-    private static final int PRIME_NUMBER_31 = 31;
-
     /**
      * Static factory that returns a new initial game position.
      * <p>
@@ -241,14 +237,24 @@ public final class GamePosition {
     @Override
     public int hashCode() {
         if (hashCode == 0) {
-            int result = PRIME_NUMBER_17;
-            result = PRIME_NUMBER_31 * result + board().hashCode();
-            result = PRIME_NUMBER_31 * result + player().hashCode();
-            hashCode = result;
+            final long key = zobrist();
+            hashCode = (int) (key ^ (key >>> Integer.SIZE));
         }
         return hashCode;
     }
 
+    /**
+     * Returns the 64 bit Zobrist key of the game position.
+     * <p>
+     * It is the board key xored with the key of the player that has to move.
+     *
+     * @return the game position Zobrist key
+     * @see Zobrist
+     */
+    public long zobrist() {
+        return board().zobrist() ^ Zobrist.playerKey(player());
+    }
+
     /**
      * Returns the player field.
      *
@@ -0,0 +1,461 @@
+/*
+ *  GamePositionDb.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.BoardFactoryHolder;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.Square;
+import rcrr.reversi.board.SquareState;
+
+/**
+ * A database of game positions, indexed by a unique id.
+ * It is the Java counterpart of the {@code GamePositionDb} C structure.
+ * <p>
+ * Entries are not kept as objects: the board is packed into two {@code long} arrays, one
+ * for the black discs and one for the white ones, the player into a bit set, and the id to entry lookup
+ * is an open addressing hash table of {@code int} values. Game positions are built when an entry is
+ * looked up, the database can hold millions of records.
+ * <p>
+ * Entries are kept in load order, trying to insert an id already loaded generates a
+ * {@code DUPLICATE_ENTRY_KEY} syntax error, and the first entry is kept.
+ * <p>
+ * {@code GamePositionDb} is mutable, and it is not thread-safe.
+ */
+public final class GamePositionDb {
+
+    /**
+     * An entry of the database: the id, the game position, and the description.
+     * <p>
+     * {@code GamePositionDb.Entry} is immutable.
+     */
+    public static final class Entry {
+
+        /** The id field. */
+        private final String id;
+
+        /** The black discs field. */
+        private final long blacks;
+
+        /** The white discs field. */
+        private final long whites;
+
+        /** The player field. */
+        private final Player player;
+
+        /** The description field. */
+        private final String description;
+
+        /**
+         * Class constructor.
+         *
+         * @param id          the entry id
+         * @param blacks      the black discs
+         * @param whites      the white discs
+         * @param player      the player that has to move
+         * @param description the entry description
+         */
+        Entry(final String id, final long blacks, final long whites, final Player player, final String description) {
+            assert (id != null) : "Parameter id cannot be null.";
+            assert (player != null) : "Parameter player cannot be null.";
+            assert (description != null) : "Parameter description cannot be null.";
+            assert ((blacks & whites) == 0L) : "Parameters blacks and whites cannot overlap.";
+            this.id = id;
+            this.blacks = blacks;
+            this.whites = whites;
+            this.player = player;
+            this.description = description;
+        }
+
+        /**
+         * Returns the entry id.
+         *
+         * @return the id
+         */
+        public String id() {
+            return id;
+        }
+
+        /**
+         * Returns the black discs, square {@code sq} is bit {@code sq.ordinal()}.
+         *
+         * @return the black discs
+         */
+        public long blacks() {
+            return blacks;
+        }
+
+        /**
+         * Returns the white discs, square {@code sq} is bit {@code sq.ordinal()}.
+         *
+         * @return the white discs
+         */
+        public long whites() {
+            return whites;
+        }
+
+        /**
+         * Returns the player that has to move.
+         *
+         * @return the player
+         */
+        public Player player() {
+            return player;
+        }
+
+        /**
+         * Returns the entry description.
+         *
+         * @return the description
+         */
+        public String description() {
+            return description;
+        }
+
+        /**
+         * Returns a new game position, having the board built by the current board factory.
+         *
+         * @return the game position
+         */
+        public GamePosition gamePosition() {
+            return GamePosition.valueOf(board(blacks, whites), player);
+        }
+
+        /**
+         * Returns a string representing the {@code Entry} object.
+         *
+         * @return a string representing the entry
+         */
+        @Override
+        public String toString() {
+            return "[" + id + ", player=" + player + ", description=" + description + "]";
+        }
+    }
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** The initial capacity of the entry arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The value of an empty hash table slot. */
+    private static final int EMPTY_SLOT = -1;
+
+    /**
+     * Returns a new board, built by the current board factory.
+     *
+     * @param blacks the black discs
+     * @param whites the white discs
+     * @return       the board
+     */
+    private static Board board(final long blacks, final long whites) {
+        final Map<Square, SquareState> squares = new EnumMap<Square, SquareState>(Square.class);
+        for (final Square sq : SQUARE_VALUES) {
+            final long mask = 1L << sq.ordinal();
+            if ((blacks & mask) != 0L) {
+                squares.put(sq, SquareState.BLACK);
+            } else if ((whites & mask) != 0L) {
+                squares.put(sq, SquareState.WHITE);
+            } else {
+                squares.put(sq, SquareState.EMPTY);
+            }
+        }
+        return BoardFactoryHolder.getInstance().boardFactory().valueOf(squares);
+    }
+
+    /**
+     * Returns the slot of the hash table for the id.
+     *
+     * @param id   the id
+     * @param mask the hash table size less one
+     * @return     the first slot probed
+     */
+    private static int slot(final String id, final int mask) {
+        final int h = id.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Reads a database file, encoded as UTF-8, into a new database.
+     *
+     * @param path           the database file
+     * @param syntaxErrorLog the list collecting the syntax errors
+     * @return               the new database
+     * @throws IOException          when the file cannot be read
+     * @throws NullPointerException when parameter {@code path} or {@code syntaxErrorLog} is null
+     */
+    public static GamePositionDb valueOf(final String path,
+                                         final List<GamePositionDbSyntaxError> syntaxErrorLog) throws IOException {
+        if (path == null) { throw new NullPointerException("Parameter path cannot be null."); }
+        final GamePositionDb db = new GamePositionDb(path);
+        db.load(new InputStreamReader(new FileInputStream(path), Charset.forName("UTF-8")), path, syntaxErrorLog);
+        return db;
+    }
+
+    /** The description field. */
+    private final String description;
+
+    /** The entry count. */
+    private int size = 0;
+
+    /** The entry ids, in load order. */
+    private String[] ids = new String[INITIAL_CAPACITY];
+
+    /** The black discs of the entries. */
+    private long[] blacks = new long[INITIAL_CAPACITY];
+
+    /** The white discs of the entries. */
+    private long[] whites = new long[INITIAL_CAPACITY];
+
+    /** The entry descriptions. */
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+
+    /** The players of the entries, a bit is set when white has to move. */
+    private final BitSet whitePlayers = new BitSet();
+
+    /** The hash table, it maps slots to entry indexes. It is kept at most half full. */
+    private int[] table = newTable(2 * INITIAL_CAPACITY);
+
+    /**
+     * Class constructor.
+     *
+     * @param description the database description
+     */
+    public GamePositionDb(final String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the database description.
+     *
+     * @return the description
+     */
+    public String description() {
+        return description;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reads all the records of the character stream, and closes it.
+     * Valid records are added to the database, syntax errors, and duplicated ids, are appended to the log.
+     *
+     * @param in             the character stream
+     * @param source         a label identifying the stream, can be null
+     * @param syntaxErrorLog the list collecting the syntax errors
+     * @return               the count of entries added
+     * @throws IOException          when the stream cannot be read
+     * @throws NullPointerException when parameter {@code in} or {@code syntaxErrorLog} is null
+     */
+    public int load(final Reader in,
+                    final String source,
+                    final List<GamePositionDbSyntaxError> syntaxErrorLog) throws IOException {
+        final GamePositionDbReader reader = new GamePositionDbReader(in, source, syntaxErrorLog);
+        final int previousSize = size;
+        try {
+            GamePositionDb.Entry entry;
+            while ((entry = reader.next()) != null) {
+                if (!add(entry)) {
+                    syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.DUPLICATE_ENTRY_KEY,
+                                                                     source, reader.lineNumber(), reader.line(),
+                                                                     "id \"" + entry.id() + "\" is duplicated."));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return size - previousSize;
+    }
+
+    /**
+     * Adds the entry, unless its id is already in the database.
+     *
+     * @param entry the entry
+     * @return      true when the entry is added, false when the id is duplicated
+     * @throws NullPointerException when parameter {@code entry} is null
+     */
+    public boolean add(final Entry entry) {
+        if (entry == null) { throw new NullPointerException("Parameter entry cannot be null."); }
+        if (indexOf(entry.id()) != EMPTY_SLOT) { return false; }
+        if (size == ids.length) { grow(); }
+        ids[size] = entry.id();
+        blacks[size] = entry.blacks();
+        whites[size] = entry.whites();
+        descriptions[size] = entry.description();
+        whitePlayers.set(size, entry.player() == Player.WHITE);
+        insert(size);
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns true when the id is in the database.
+     *
+     * @param id the id
+     * @return   true when the entry exists
+     */
+    public boolean contains(final String id) {
+        return indexOf(id) != EMPTY_SLOT;
+    }
+
+    /**
+     * Returns the entry having the id, or null when it is not found.
+     *
+     * @param id the id
+     * @return   the entry, or null
+     */
+    public Entry lookup(final String id) {
+        final int index = indexOf(id);
+        return (index == EMPTY_SLOT) ? null : entry(index);
+    }
+
+    /**
+     * Returns the game position having the id, or null when it is not found.
+     *
+     * @param id the id
+     * @return   the game position, or null
+     */
+    public GamePosition gamePosition(final String id) {
+        final int index = indexOf(id);
+        return (index == EMPTY_SLOT) ? null : entry(index).gamePosition();
+    }
+
+    /**
+     * Returns the entry at the given position of the load order.
+     *
+     * @param index the entry index
+     * @return      the entry
+     * @throws IndexOutOfBoundsException when parameter {@code index} is out of range
+     */
+    public Entry entry(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Parameter index is out of range. index=" + index + ", size=" + size);
+        }
+        return new Entry(ids[index], blacks[index], whites[index],
+                         whitePlayers.get(index) ? Player.WHITE : Player.BLACK, descriptions[index]);
+    }
+
+    /**
+     * Returns the ids, in load order.
+     *
+     * @return an unmodifiable list of the ids
+     */
+    public List<String> ids() {
+        return Collections.unmodifiableList(new ArrayList<String>(Arrays.asList(ids).subList(0, size)));
+    }
+
+    /**
+     * Returns a short description of the database, as done by the C function {@code gpdb_print_summary()}.
+     *
+     * @return the database summary
+     */
+    public String printSummary() {
+        return "The Game Position Database has " + size + " entr" + ((size == 1) ? "y" : "ies") + ".\n"
+            + "Database Description: " + description + "\n";
+    }
+
+    /**
+     * Returns a string representing the {@code GamePositionDb} object.
+     *
+     * @return a string representing the database
+     */
+    @Override
+    public String toString() {
+        return "[" + description + ", size=" + size + "]";
+    }
+
+    /**
+     * Returns the index of the entry having the id, or {@code EMPTY_SLOT}.
+     *
+     * @param id the id
+     * @return   the entry index
+     */
+    private int indexOf(final String id) {
+        if (id == null) { return EMPTY_SLOT; }
+        final int mask = table.length - 1;
+        for (int s = slot(id, mask);; s = (s + 1) & mask) {
+            final int index = table[s];
+            if (index == EMPTY_SLOT || ids[index].equals(id)) { return index; }
+        }
+    }
+
+    /**
+     * Inserts the entry index into the hash table, the id must be not already there.
+     *
+     * @param index the entry index
+     */
+    private void insert(final int index) {
+        final int mask = table.length - 1;
+        int s = slot(ids[index], mask);
+        while (table[s] != EMPTY_SLOT) { s = (s + 1) & mask; }
+        table[s] = index;
+    }
+
+    /** Doubles the capacity of the entry arrays, and rebuilds the hash table. */
+    private void grow() {
+        final int capacity = 2 * ids.length;
+        ids = Arrays.copyOf(ids, capacity);
+        blacks = Arrays.copyOf(blacks, capacity);
+        whites = Arrays.copyOf(whites, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        table = newTable(2 * capacity);
+        for (int i = 0; i < size; i++) { insert(i); }
+    }
+
+    /**
+     * Returns a new hash table having all the slots empty.
+     *
+     * @param length the table length, a power of two
+     * @return       the new table
+     */
+    private static int[] newTable(final int length) {
+        final int[] t = new int[length];
+        Arrays.fill(t, EMPTY_SLOT);
+        return t;
+    }
+
+}
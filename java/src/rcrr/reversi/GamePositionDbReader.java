@@ -0,0 +1,252 @@
+/*
+ *  GamePositionDbReader.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import java.util.List;
+
+import rcrr.reversi.board.Player;
+
+/**
+ * Reads the records of a game position database one line at a time, it is the Java
+ * counterpart of the C function {@code gpdb_load()}.
+ * <p>
+ * A record has four fields terminated by semicolons: the id, the board, the player, and the description.
+ * The board is made by 64 chars, {@code 'b'}, {@code 'w'}, or {@code '.'}, ordered as the squares are,
+ * the player is {@code 'b'} or {@code 'w'}. Anything following a dash char, {@code '#'}, is a comment,
+ * anything following the fourth separator is ignored.
+ * <p>
+ * Lines that are not valid records are appended to the syntax error log, and skipped.
+ * Duplicated ids are not detected by the reader, they are by {@code GamePositionDb}.
+ * <p>
+ * {@code GamePositionDbReader} is mutable, and it is not thread-safe.
+ */
+public final class GamePositionDbReader implements Closeable {
+
+    /** The field separator. */
+    private static final char FIELD_SEPARATOR = ';';
+
+    /** The comment char. */
+    private static final char COMMENT = '#';
+
+    /** Macic number 64, the number of chars of the board field. */
+    private static final int BOARD_FIELD_LENGTH = 64;
+
+    /**
+     * Parses a database line, returning the entry it describes, or null when the line is empty, a comment,
+     * or it has a syntax error. The syntax error is appended to the log.
+     *
+     * @param line           the line, without the line terminator
+     * @param lineNumber     the line number
+     * @param source         the label identifying the input stream, can be null
+     * @param syntaxErrorLog the syntax error log
+     * @return               the entry, or null
+     * @throws NullPointerException when parameter {@code line} or {@code syntaxErrorLog} is null
+     */
+    public static GamePositionDb.Entry parseLine(final String line,
+                                                 final int lineNumber,
+                                                 final String source,
+                                                 final List<GamePositionDbSyntaxError> syntaxErrorLog) {
+        if (line == null) { throw new NullPointerException("Parameter line cannot be null."); }
+        if (syntaxErrorLog == null) { throw new NullPointerException("Parameter syntaxErrorLog cannot be null."); }
+        final int comment = line.indexOf(COMMENT);
+        final String record = (comment == -1) ? line : line.substring(0, comment);
+        if (record.length() == 0) { return null; }
+
+        final int idEnd = record.indexOf(FIELD_SEPARATOR);
+        if (idEnd == -1) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.ON_ID,
+                                                             source, lineNumber, line,
+                                                             "The record does't have the proper separator"
+                                                             + " identifying the id field."));
+            return null;
+        }
+        final String id = record.substring(0, idEnd);
+
+        final int boardEnd = record.indexOf(FIELD_SEPARATOR, idEnd + 1);
+        if (boardEnd == -1) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.BOARD_FIELD_IS_INVALID,
+                                                             source, lineNumber, line,
+                                                             "The record doesn't have a proper terminated"
+                                                             + " board field."));
+            return null;
+        }
+        final int boardLength = boardEnd - idEnd - 1;
+        if (boardLength != BOARD_FIELD_LENGTH) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.BOARD_SIZE_IS_NOT_64,
+                                                             source, lineNumber, line,
+                                                             "The record has the field board composed by "
+                                                             + boardLength + " chars."));
+            return null;
+        }
+        long blacks = 0L;
+        long whites = 0L;
+        for (int i = 0; i < BOARD_FIELD_LENGTH; i++) {
+            final char c = record.charAt(idEnd + 1 + i);
+            switch (c) {
+            case 'b': blacks |= 1L << i; break;
+            case 'w': whites |= 1L << i; break;
+            case '.': break;
+            default:
+                syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.SQUARE_CHAR_IS_INVALID,
+                                                                 source, lineNumber, line,
+                                                                 "Board pieces must be in 'b', 'w', or '.'"
+                                                                 + " character set. Found " + c));
+                return null;
+            }
+        }
+
+        final int playerEnd = record.indexOf(FIELD_SEPARATOR, boardEnd + 1);
+        if (playerEnd == -1) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.PLAYER_FIELD_IS_INVALID,
+                                                             source, lineNumber, line,
+                                                             "The record doesn't have a proper terminated"
+                                                             + " player field."));
+            return null;
+        }
+        final int playerLength = playerEnd - boardEnd - 1;
+        if (playerLength != 1) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.PLAYER_IS_NOT_ONE_CHAR,
+                                                             source, lineNumber, line,
+                                                             "The record has the field player composed by "
+                                                             + playerLength + " chars."));
+            return null;
+        }
+        final Player player;
+        final char p = record.charAt(boardEnd + 1);
+        switch (p) {
+        case 'b': player = Player.BLACK; break;
+        case 'w': player = Player.WHITE; break;
+        default:
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.PLAYER_CHAR_IS_INVALID,
+                                                             source, lineNumber, line,
+                                                             "Player must be in 'b', or 'w' character set."
+                                                             + " Found " + p));
+            return null;
+        }
+
+        final int descEnd = record.indexOf(FIELD_SEPARATOR, playerEnd + 1);
+        if (descEnd == -1) {
+            syntaxErrorLog.add(new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.DESC_FIELD_IS_INVALID,
+                                                             source, lineNumber, line,
+                                                             "The record doesn't have a proper terminated"
+                                                             + " description field."));
+            return null;
+        }
+        final String description = record.substring(playerEnd + 1, descEnd);
+
+        return new GamePositionDb.Entry(id, blacks, whites, player, description);
+    }
+
+    /** The reader field. */
+    private final BufferedReader reader;
+
+    /** The source field. */
+    private final String source;
+
+    /** The syntax error log field. */
+    private final List<GamePositionDbSyntaxError> syntaxErrorLog;
+
+    /** The last line read. */
+    private String line = null;
+
+    /** The number of the last line read. */
+    private int lineNumber = 0;
+
+    /**
+     * Class constructor.
+     *
+     * @param in             the character stream
+     * @param source         a label identifying the stream, used by the syntax errors, can be null
+     * @param syntaxErrorLog the list collecting the syntax errors
+     * @throws NullPointerException when parameter {@code in} or {@code syntaxErrorLog} is null
+     */
+    public GamePositionDbReader(final Reader in,
+                                final String source,
+                                final List<GamePositionDbSyntaxError> syntaxErrorLog) {
+        if (in == null) { throw new NullPointerException("Parameter in cannot be null."); }
+        if (syntaxErrorLog == null) { throw new NullPointerException("Parameter syntaxErrorLog cannot be null."); }
+        this.reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+        this.source = source;
+        this.syntaxErrorLog = syntaxErrorLog;
+    }
+
+    /**
+     * Returns the next valid entry, or null when the stream is over.
+     *
+     * @return the next entry, or null
+     * @throws IOException when the stream cannot be read
+     */
+    public GamePositionDb.Entry next() throws IOException {
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            final GamePositionDb.Entry entry = parseLine(line, lineNumber, source, syntaxErrorLog);
+            if (entry != null) { return entry; }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last line read, it is null before the first call to {@code next()}, and at the end of the stream.
+     *
+     * @return the last line
+     */
+    public String line() {
+        return line;
+    }
+
+    /**
+     * Returns the number of the last line read.
+     *
+     * @return the line number
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the label identifying the stream, can be null.
+     *
+     * @return the source label
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException when the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ *  GamePositionDbSyntaxError.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+/**
+ * A syntax error found while reading a game position database,
+ * it is the Java counterpart of the {@code GamePositionDbEntrySyntaxError} C structure.
+ * <p>
+ * {@code GamePositionDbSyntaxError} is immutable.
+ */
+public final class GamePositionDbSyntaxError {
+
+    /**
+     * The classification of the errors that can be found parsing a database record.
+     */
+    public enum Type {
+
+        /** Error on parsing the id field. */
+        ON_ID("The id field is not correctly assigned."),
+
+        /** Error on the size of the board field. */
+        BOARD_SIZE_IS_NOT_64("The board field must have 64 chars."),
+
+        /** Error on the board field, one square char is out of range. */
+        SQUARE_CHAR_IS_INVALID("The board field must be composed of 'b', 'w', and '.' chars only."),
+
+        /** Error on parsing the board field. */
+        BOARD_FIELD_IS_INVALID("The board field is not correctly assigned or terminated."),
+
+        /** Error on the player field, it must be composed by one char. */
+        PLAYER_IS_NOT_ONE_CHAR("The player field is not one char."),
+
+        /** Error on the player field, it must be either b or w. */
+        PLAYER_CHAR_IS_INVALID("The player char is not 'b' or 'w'."),
+
+        /** Error on parsing the player field. */
+        PLAYER_FIELD_IS_INVALID("The player field is not correctly assigned or terminated."),
+
+        /** Error on parsing the description field. */
+        DESC_FIELD_IS_INVALID("The description field is not correctly assigned or terminated."),
+
+        /** Duplicate key error. */
+        DUPLICATE_ENTRY_KEY("The key for the entry has been already loaded.");
+
+        /** The description field. */
+        private final String description;
+
+        /**
+         * Enum constructor.
+         *
+         * @param description the error type description
+         */
+        private Type(final String description) {
+            this.description = description;
+        }
+
+        /**
+         * Returns the error type description.
+         *
+         * @return the error type description
+         */
+        public String description() {
+            return description;
+        }
+    }
+
+    /** The type field. */
+    private final Type type;
+
+    /** The source field. */
+    private final String source;
+
+    /** The line number field. */
+    private final int lineNumber;
+
+    /** The line field. */
+    private final String line;
+
+    /** The error message field. */
+    private final String errorMessage;
+
+    /**
+     * Class constructor.
+     *
+     * @param type         the error type
+     * @param source       a label identifying the input stream, can be null
+     * @param lineNumber   the line number, starting from one
+     * @param line         the offending line
+     * @param errorMessage a detailed error message
+     * @throws NullPointerException when parameter {@code type}, {@code line}, or {@code errorMessage} is null
+     */
+    public GamePositionDbSyntaxError(final Type type,
+                                     final String source,
+                                     final int lineNumber,
+                                     final String line,
+                                     final String errorMessage) {
+        if (type == null) { throw new NullPointerException("Parameter type cannot be null."); }
+        if (line == null) { throw new NullPointerException("Parameter line cannot be null."); }
+        if (errorMessage == null) { throw new NullPointerException("Parameter errorMessage cannot be null."); }
+        this.type = type;
+        this.source = source;
+        this.lineNumber = lineNumber;
+        this.line = line;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Returns the error type.
+     *
+     * @return the error type
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * Returns the label of the input stream, can be null.
+     *
+     * @return the source label
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Returns the line number.
+     *
+     * @return the line number
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the offending line.
+     *
+     * @return the line
+     */
+    public String line() {
+        return line;
+    }
+
+    /**
+     * Returns the detailed error message.
+     *
+     * @return the error message
+     */
+    public String errorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Returns a formatted string describing the error, the same produced by the C function
+     * {@code gpdb_entry_syntax_error_print()}.
+     *
+     * @return a formatted description of the error
+     */
+    public String printError() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("Error type:    ").append(type.description()).append("\n");
+        sb.append("Error message: ").append(errorMessage).append("\n");
+        sb.append("Source label:  ").append((source == null) ? "NULL" : source).append("\n");
+        sb.append("Line number:   ").append((lineNumber > 0) ? String.valueOf(lineNumber) : "UNDEFINED LINE NUMBER")
+            .append("\n");
+        sb.append("Line:          ").append(line).append("\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a string representing the {@code GamePositionDbSyntaxError} object.
+     *
+     * @return a string representing the syntax error
+     */
+    @Override
+    public String toString() {
+        return "[" + type + ", source=" + source + ", lineNumber=" + lineNumber + ", line=" + line + "]";
+    }
+
+}
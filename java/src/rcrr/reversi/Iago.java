@@ -34,10 +34,12 @@ import java.util.EnumMap;
 
 import java.text.DecimalFormat;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.io.IOException;
 
+import rcrr.reversi.board.BitWorks;
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Direction;
 import rcrr.reversi.board.BoardBuilder;
@@ -46,6 +48,8 @@ import rcrr.reversi.board.Square;
 import rcrr.reversi.board.SquareState;
 import rcrr.reversi.board.BoardFactoryHolder;
 
+import rcrr.reversi.util.BinaryTable;
+
 /**
  * Iago is an advanced evaluation function, that implements the features described in the <i>"PAIP"</i> book,
  * paragraph 18.12.
@@ -66,6 +70,10 @@ import rcrr.reversi.board.BoardFactoryHolder;
  * based on the number of empty disc on the board (a very effective measure of the game stage). The final result
  * is then the return value of the eval function.
  * <p>
+ * The instance returned by {@code new Iago(true)} extends the edge stability term with the interior
+ * discs that are stable, as given by {@code Board.stableDiscs(Player)}. Each of them is valued {@code 1000},
+ * as a stable disc on the A or B squares of the edge table. The default instance is the PAIP function.
+ * <p>
  * The Java implementation here proposed is equivalent to the original Common Lisp version
  * described in the original work. The only very small difference is found in the final edge table values,
  * where some entries differ by one unit. The reason of this deviation has to be ascribed to the way
@@ -155,7 +163,52 @@ public class Iago implements EvalFunction {
         Edge(final Square... squares) {
             assert (squares.length == SQUARES_COUNT) : "The number of squares assigned to the edge is wrong.";
             this.squares = Collections.unmodifiableList(Arrays.asList(squares));
+            this.firstX = squares[0].ordinal();
+            this.lastX = squares[SQUARES_COUNT - 1].ordinal();
+        }
+
+        /** The bit of the first x square. */
+        private final int firstX;
+
+        /** The bit of the last x square. */
+        private final int lastX;
+
+        /**
+         * Returns the squares of the edge that are set in the {@code bitboard} parameter, packed into ten bits.
+         * Bit {@code i} is set when the {@code i}-th square of the {@code squares()} list is set.
+         *
+         * @param bitboard a set of squares
+         * @return         the edge squares packed into the lowest ten bits
+         */
+        final int pack(final long bitboard) {
+            final int line;
+            switch (this) {
+            case TOP:
+                line = (int) bitboard & BYTE_MASK;
+                break;
+            case BOTTOM:
+                line = (int) (bitboard >>> BOTTOM_ROW_SHIFT) & BYTE_MASK;
+                break;
+            case LEFT:
+                line = BitWorks.packColumn(bitboard);
+                break;
+            default:
+                line = BitWorks.packColumn(bitboard >>> RIGHT_COLUMN_SHIFT);
+                break;
+            }
+            return (int) ((bitboard >>> firstX) & 1L)
+                | (line << 1)
+                | ((int) ((bitboard >>> lastX) & 1L) << (SQUARES_COUNT - 1));
         }
+
+        /** Used for masking a byte when using integer values. */
+        private static final int BYTE_MASK = 0xFF;
+
+        /** The shift that moves the eighth row to the first one. */
+        private static final int BOTTOM_ROW_SHIFT = 56;
+
+        /** The shift that moves column H to column A. */
+        private static final int RIGHT_COLUMN_SHIFT = 7;
     }
 
     /**
@@ -379,6 +432,12 @@ public class Iago implements EvalFunction {
                                                                    {.05,  .30, null},
                                                                    {.01, null, null}};
 
+        /** The shift that moves the ten reversed bits of a packed edge back to the lowest bits. */
+        private static final int REVERSED_EDGE_SHIFT = Integer.SIZE - Edge.SQUARES_COUNT;
+
+        /** The binary resource holding the edge table computed by the {@code init} method. */
+        private static final String BINARY_RESOURCE = "rcrr/reversi/iago-edge-table.bin";
+
         /** Probability equal to 100%. */
         private static final double P_1 = 1.0;
 
@@ -409,20 +468,23 @@ public class Iago implements EvalFunction {
             assert (player != null) : "Parameter player cannot be null.";
             assert (board != null) : "Parameter board cannot be null.";
             assert (edge != null) : "Parameter edge cannot be null.";
-            int index = 0;
-            for (final Square square : edge.squares()) {
-                final SquareState state = board.get(square);
-                int incr;
-                if (state == SquareState.EMPTY) {
-                    incr = 0;
-                } else if (state == player.color()) {
-                    incr = 1;
-                } else {
-                    incr = 2;
-                }
-                index = (index * SquareValue.LENGTH) + incr;
-            }
-            return index;
+            return index(board.discsMask(player), board.discsMask(player.opponent()), edge);
+        }
+
+        /**
+         * Computes the edge index given the discs of the player and of the opponent as bitboards.
+         * The ten edge squares of each side are packed by {@code Edge.pack}, and converted into
+         * ternary digits by the {@code BitWorks.binaryToTernary} table lookup. The first square of the edge
+         * is the most significant digit, the packed bits are then reversed before the lookup.
+         *
+         * @param player   the discs of the player for whom compute the index
+         * @param opponent the discs of the opponent
+         * @param edge     one among the four edge
+         * @return         the index value associated to the given configuration and the chosen edge
+         */
+        static int index(final long player, final long opponent, final Edge edge) {
+            return BitWorks.binaryToTernary(Integer.reverse(edge.pack(player)) >>> REVERSED_EDGE_SHIFT)
+                + (BitWorks.binaryToTernary(Integer.reverse(edge.pack(opponent)) >>> REVERSED_EDGE_SHIFT) << 1);
         }
 
         /**
@@ -432,11 +494,7 @@ public class Iago implements EvalFunction {
          * @return a new edge table generated by a static computation
          */
         private static EdgeTable computeStatic() {
-            final List<Integer> values = new ArrayList<Integer>(SIZE);
-            for (int idx = 0; idx < SIZE; idx++) {
-                values.add(0);
-            }
-            final EdgeTable table = new EdgeTable(values);
+            final EdgeTable table = new EdgeTable();
             /** Initialize the static values. */
             for (int nPieces = 0; nPieces <= Edge.SQUARES_COUNT; nPieces++) {
                 mapEdgeNPieces(new Fn0() {
@@ -597,7 +655,7 @@ public class Iago implements EvalFunction {
                 log.append("ERROR: The declared table length is not consistent with SIZE.\n");
                 throw new RuntimeException(log.toString());
             }
-            final List<Integer> values = new ArrayList<Integer>();
+            final int[] values = new int[SIZE];
             log.append("LOG: Reading the edge table values ...\n");
             for (int i = 2; i < numberOfLines; i++) {
                 int value;
@@ -607,7 +665,7 @@ public class Iago implements EvalFunction {
                     log.append("ERROR: Unable to parse line ").append(i).append(".\n");
                     throw new RuntimeException(log.toString(), nfe);
                 }
-                values.add(value);
+                values[i - 2] = value;
             }
             log.append("LOG: File reading completed, edge table constructed.");
             return new EdgeTable(values);
@@ -917,15 +975,24 @@ public class Iago implements EvalFunction {
             return false;
         }
 
-        /** The values field. */
-        private final List<Integer> values;
+        /** The values field, indexed by the edge index. */
+        private final int[] values;
 
         /** Class constructor. */
         private EdgeTable() {
-            this.values = new ArrayList<Integer>(SIZE);
-            for (int idx = 0; idx < SIZE; idx++) {
-                this.values.add(0);
-            }
+            this.values = new int[SIZE];
+        }
+
+        /**
+         * Class constructor.
+         * <p>
+         * The {@code values} array is not copied, and must have a length equal to {@code SIZE}.
+         *
+         * @param values the edge table values
+         */
+        private EdgeTable(final int[] values) {
+            assert (values != null && values.length == SIZE) : "Parameter values must have a length equal to SIZE.";
+            this.values = values;
         }
 
         /**
@@ -942,16 +1009,17 @@ public class Iago implements EvalFunction {
          */
         EdgeTable(final List<Integer> values) {
             if (values == null) { throw new NullPointerException("Parameter values cannot be null."); }
-            final ArrayList<Integer> transientValues = new ArrayList<Integer>(values);
-            if (transientValues.size() != SIZE) {
+            if (values.size() != SIZE) {
                 throw new IllegalArgumentException("Parameter values must have a proper size.");
             }
-            for (Integer value : transientValues) {
+            this.values = new int[SIZE];
+            int i = 0;
+            for (final Integer value : values) {
                 if (value == null) {
                     throw new NullPointerException("Parameter values cannnot have null entries.");
                 }
+                this.values[i++] = value;
             }
-            this.values = transientValues;
         }
 
         /**
@@ -962,11 +1030,13 @@ public class Iago implements EvalFunction {
          *
          * @param index the position that identify the element to update
          * @param value the value to be assigned
-         * @return      the value just assigned
+         * @return      the value previously stored at the position
          */
         private int set(final int index, final int value) {
             assert (index >= 0 && index < SIZE) : "Parameter index must be in the range 0, SIZE - 1.";
-            return values.set(index, Integer.valueOf(value));
+            final int previous = values[index];
+            values[index] = value;
+            return previous;
         }
 
         /**
@@ -979,25 +1049,37 @@ public class Iago implements EvalFunction {
          */
         private int get(final int index) {
             assert (index >= 0 && index < SIZE) : "Parameter index must be in the range 0, SIZE - 1.";
-            return values.get(index);
+            return values[index];
         }
 
         /**
-         * Returns the values field.
+         * Create a new edge table as a copy of the current object.
          *
-         * @return the values field
+         * @return a new copied edge table
          */
-        private List<Integer> values() {
-            return this.values;
+        private EdgeTable copy() {
+            return new EdgeTable(values.clone());
         }
 
         /**
-         * Create a new edge table as a copy of the current object.
+         * Returns a new edge table read from the binary resource generated at build time,
+         * or {@code null} when the resource is missing or invalid.
          *
-         * @return a new copied edge table
+         * @return a new edge table, or {@code null}
          */
-        private EdgeTable copy() {
-            return new EdgeTable(new ArrayList<Integer>(this.values()));
+        private static EdgeTable loadBinary() {
+            final int[] binary = BinaryTable.readInts(BINARY_RESOURCE, SIZE);
+            return (binary == null) ? null : new EdgeTable(binary);
+        }
+
+        /**
+         * Writes the edge table as a binary resource under the {@code root} directory.
+         *
+         * @param root the class path root where the resource is written
+         * @throws IOException when the resource cannot be written
+         */
+        void writeBinary(final File root) throws IOException {
+            BinaryTable.write(new File(root, BINARY_RESOURCE), values);
         }
 
         /**
@@ -1005,7 +1087,7 @@ public class Iago implements EvalFunction {
          *
          * @return the new initialized edge table
          */
-        private static EdgeTable init() {
+        static EdgeTable init() {
             final EdgeTable table = computeStatic();
             for (int i = 0; i < ITERATIONS_FOR_IMPROVING; i++) {
                 table.refine();
@@ -1051,6 +1133,11 @@ public class Iago implements EvalFunction {
     /** Eval function tuning parameter. */
     private static final long EVAL_MAGIC_32000 = 32000;
 
+    /** The squares not covered by the edge table: the board without the border and the x-squares. */
+    private static final long INTERIOR_SQUARES = 0x007E7E7E7E7E7E00L
+        & ~((1L << Square.B2.ordinal()) | (1L << Square.G2.ordinal())
+            | (1L << Square.B7.ordinal()) | (1L << Square.G7.ordinal()));
+
     static {
 
         /** Computes EDGE_AND_X_LISTS. */
@@ -1061,29 +1148,45 @@ public class Iago implements EvalFunction {
         tempEdgeAndXLists.add(Edge.RIGHT);
         EDGE_AND_X_LISTS = Collections.unmodifiableList(tempEdgeAndXLists);
 
-        /** Computes EDGE_TABLE. */
-        TABLE = EdgeTable.init();
+        /** Loads EDGE_TABLE from the binary resource, or computes it when the resource is missing. */
+        final EdgeTable binaryTable = EdgeTable.loadBinary();
+        TABLE = (binaryTable != null) ? binaryTable : EdgeTable.init();
 
     }
 
     /** The table field. */
     private final EdgeTable table;
 
+    /** The interior stability field. */
+    private final boolean interiorStability;
+
     /**
      * Standard class constructor. It loads the default edge table, calculated
      * by the class static block during class initialization.
      */
     public Iago() {
-        this(TABLE);
+        this(TABLE, false);
+    }
+
+    /**
+     * Class constructor. It loads the default edge table, and adds the interior stable discs
+     * to the edge stability term when {@code interiorStability} is true.
+     *
+     * @param interiorStability true when interior stable discs are evaluated
+     */
+    public Iago(final boolean interiorStability) {
+        this(TABLE, interiorStability);
     }
 
     /**
      * Class constructor.
      *
-     * @param table assigned to the table field
+     * @param table             assigned to the table field
+     * @param interiorStability assigned to the interiorStability field
      */
-    private Iago(final EdgeTable table) {
+    private Iago(final EdgeTable table, final boolean interiorStability) {
         this.table = table;
+        this.interiorStability = interiorStability;
     }
 
     /**
@@ -1105,20 +1208,30 @@ public class Iago implements EvalFunction {
      */
     public final int eval(final GamePosition position) {
         if (position == null) { throw new NullPointerException("Parameter position cannot be null."); }
+        final Board board = position.board();
+        final Player player = position.player();
+        final Player opponent = player.opponent();
+        final long pDiscs = board.discsMask(player);
+        final long oDiscs = board.discsMask(opponent);
+        final long empties = ~(pDiscs | oDiscs);
         /** The three factors are multiplied by coefficients that vary by move number. */
-        final long moveNumber = EVAL_MAGIC_61 - position.board().countPieces(SquareState.EMPTY);
+        final long moveNumber = EVAL_MAGIC_61 - Long.bitCount(empties);
         final long cEdg = EVAL_MAGIC_312000 + (EVAL_MAGIC_6240 * moveNumber);
         final long cCur = (moveNumber < EVAL_MAGIC_25)
             ? EVAL_MAGIC_50000 + (EVAL_MAGIC_2000 * moveNumber)
             : EVAL_MAGIC_75000 + (EVAL_MAGIC_1000 * moveNumber);
         final long cPot = EVAL_MAGIC_20000;
-        final Mobility pMob = mobility(position);
-        final Mobility oMob = mobility(GamePosition.valueOf(position.board(), position.player().opponent()));
-        final long eStab = edgeStability(position);
+        final long pMoves = board.legalMovesMask(player);
+        final long oMoves = board.legalMovesMask(opponent);
+        final long pCur = Long.bitCount(pMoves);
+        final long oCur = Long.bitCount(oMoves);
+        final long pPot = pCur + potentialMoves(empties, pMoves, oDiscs);
+        final long oPot = oCur + potentialMoves(empties, oMoves, pDiscs);
+        final long eStab = edgeStability(board, player, pDiscs, oDiscs);
         /** Combine the three factors into one value. */
         long value = (cEdg * eStab) / EVAL_MAGIC_32000
-            + (cCur * (pMob.current() - oMob.current())) / (pMob.current() + oMob.current() + 2)
-            + (cPot * (pMob.potential() - oMob.potential())) / (pMob.potential() + oMob.potential() + 2);
+            + (cCur * (pCur - oCur)) / (pCur + oCur + 2)
+            + (cPot * (pPot - oPot)) / (pPot + oPot + 2);
         return (int) value;
     }
 
@@ -1136,70 +1249,51 @@ public class Iago implements EvalFunction {
      */
     private Mobility mobility(final GamePosition position) {
         assert (position != null) : "Parameter position cannot be null.";
-
-        int current = 0;
-        int potential = 0;
-
         final Board board = position.board();
         final Player player = position.player();
-        final Player opp = player.opponent();
-
-        for (final Square square : Square.values()) {
-            if (board.get(square) == SquareState.EMPTY) {
-                if (board.isLegal(square, player)) {
-                    current++;
-                    potential++;
-                } else if (isPotentialMove(board, square, opp)) {
-                    potential++;
-                }
-            }
-        }
-        return new Mobility(current, potential);
+        final long oDiscs = board.discsMask(player.opponent());
+        final long empties = ~(board.discsMask(player) | oDiscs);
+        final long legalMoves = board.legalMovesMask(player);
+        final int current = Long.bitCount(legalMoves);
+        return new Mobility(current, current + potentialMoves(empties, legalMoves, oDiscs));
     }
 
     /**
-     * Total edge evaluation for the game position.
-     * <p>
-     * See PAIP 18.12 page 639.
-     * <p>
-     * Parameter {@code position} cannot be null.
+     * Returns the count of the empty squares that are not legal moves, and are adjacent to an opponent disc.
+     * Added to the legal move count, it gives the potential mobility.
      *
-     * @param position the game position to evaluate
-     * @return         total edge evaluation for the game position
+     * @param empties    the empty squares
+     * @param legalMoves the legal moves of the player
+     * @param opponent   the discs of the opponent
+     * @return           the count of the potential moves that are not legal moves
      */
-    private int edgeStability(final GamePosition position) {
-        assert (position != null) : "Parameter position cannot be null.";
-        int evaluation = 0;
-        for (final Edge edge : EDGE_AND_X_LISTS) {
-            evaluation += table().get(EdgeTable.index(position.player(), position.board(), edge));
-        }
-        return evaluation;
+    private static int potentialMoves(final long empties, final long legalMoves, final long opponent) {
+        return Long.bitCount(empties & ~legalMoves & BitWorks.neighbors(opponent));
     }
 
     /**
-     * Evaluates if the square is a potential move.
+     * Total edge evaluation for the game position, plus the interior stable discs when the instance
+     * is built to evaluate them.
      * <p>
-     * Parameter {@code board} cannot be null.
-     * Parameter {@code square} cannot be null.
-     * Parameter {@code opponent} cannot be null.
+     * See PAIP 18.12 page 639.
      *
-     * @param board    the board to assess
-     * @param square   the square where to move
-     * @param opponent the opponent player
-     * @return       true if the square is a potential move
+     * @param board    the board to evaluate
+     * @param player   the player for whom the edges are evaluated
+     * @param pDiscs   the discs of the player
+     * @param oDiscs   the discs of the opponent
+     * @return         total edge evaluation for the game position
      */
-    private boolean isPotentialMove(final Board board,
-                                    final Square square,
-                                    final Player opponent) {
-        assert (board != null) : "Parameter board cannot be null.";
-        assert (square != null) : "Parameter square cannot be null.";
-        assert (opponent != null) : "Parameter board opponent be null.";
-        for (Square neighbor : square.neighbors().values()) {
-            if (board.get(neighbor) == opponent.color()) {
-                return true;
-            }
+    private int edgeStability(final Board board, final Player player, final long pDiscs, final long oDiscs) {
+        int evaluation = 0;
+        for (final Edge edge : EDGE_AND_X_LISTS) {
+            evaluation += table().get(EdgeTable.index(pDiscs, oDiscs, edge));
         }
-        return false;
+        if (interiorStability) {
+            final int stable = Long.bitCount(board.stableDiscs(player) & INTERIOR_SQUARES)
+                - Long.bitCount(board.stableDiscs(player.opponent()) & INTERIOR_SQUARES);
+            evaluation += EVAL_MAGIC_1000 * stable;
+        }
+        return evaluation;
     }
 
 }
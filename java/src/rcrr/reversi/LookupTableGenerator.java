@@ -0,0 +1,88 @@
+/*
+ *  LookupTableGenerator.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+
+import rcrr.reversi.board.LookupTables;
+
+/**
+ * Generates the precomputed lookup tables as binary resources.
+ * <p>
+ * The program is run by the build after compilation, with the classes directory as argument.
+ * It computes the tables from scratch, never reading previously generated resources, and without
+ * initializing the classes owning them, that would load or compute the tables once more. It writes:
+ * <ul>
+ *   <li>the {@code BitBoard1} row changes table</li>
+ *   <li>the {@code Line} legal moves table</li>
+ *   <li>the {@code Iago} edge table</li>
+ * </ul>
+ *
+ * @see rcrr.reversi.util.BinaryTable
+ */
+public final class LookupTableGenerator {
+
+    /** Error code 1. */
+    private static final int ERROR_CODE_1 = 1;
+
+    /** Error code 2. */
+    private static final int ERROR_CODE_2 = 2;
+
+    /**
+     * Computes all the tables, and writes them under the {@code root} directory.
+     *
+     * @param root the class path root where the resources are written
+     * @throws IOException when a table cannot be written
+     */
+    public static void write(final File root) throws IOException {
+        if (root == null) { throw new NullPointerException("Parameter root cannot be null."); }
+        LookupTables.write(root);
+        Iago.EdgeTable.init().writeBinary(root);
+    }
+
+    /**
+     * The main entry point for the table generator.
+     *
+     * @param args the class path root where the resources are written
+     */
+    public static void main(final String[] args) {
+        if (args == null || args.length != 1) {
+            System.out.println("Argument list error: the output directory must be provided.");
+            System.out.println("usage: java rcrr.reversi.LookupTableGenerator outputDir");
+            System.exit(ERROR_CODE_1);
+        }
+        try {
+            write(new File(args[0]));
+        } catch (IOException ioe) {
+            System.out.println("Unable to write the lookup tables: " + ioe.getMessage());
+            System.exit(ERROR_CODE_2);
+        }
+    }
+
+    /** Class constructor. */
+    private LookupTableGenerator() { }
+
+}
@@ -0,0 +1,366 @@
+/*
+ *  MTDf.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.Square;
+
+/**
+ * The {@code MTDf} class implements {@code DecisionRule} applying the MTD(f) algorithm.
+ * <p>
+ * The minimax value is found by a sequence of zero window searches, each one telling if the value
+ * is lower or higher than a guess. The bounds returned by the searches move the guess until
+ * the lower and the upper bound meet. The zero window searches are run by a fail-soft alpha-beta
+ * that stores the bounds into a transposition table, so that the following searches visit
+ * again only the nodes that are needed.
+ * <p>
+ * The first guess of a search is the value found by the iteration one ply less deep.
+ * The {@code search} method deepens iteratively from one ply up to the given depth, the strategy
+ * returned by {@code timedSearcher} seeds each iteration with the node of the previous one.
+ * The very first guess is the value given by the evaluation function to the root position.
+ * <p>
+ * The table is cleared when a new search starts, it is shared by the iterations of the same search.
+ * An instance is not thread-safe.
+ * <p>
+ * When the statistics map is given, it is filled by the search with the same entries written by
+ * {@code AlphaBeta2}: {@code result}, {@code variant}, {@code efInvokeCount}, {@code boardConstructionCount},
+ * {@code cutoffCount}, and {@code searchTimeInMilliseconds}; and with the {@code nodeCount},
+ * and {@code iterationCount} entries. The last one counts the zero window searches.
+ * <p>
+ * See: <i>"Aske Plaat, Jonathan Schaeffer, Wim Pijls, Arie de Bruin. Best-first fixed-depth minimax algorithms.
+ * Artificial Intelligence, 1996: 255~293"</i>.
+ */
+public final class MTDf extends AbstractDecisionRule {
+
+    /** The capacity of the transposition table allocated by the default factory. */
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+
+    /** The value of the variant entry of the statistics map. */
+    public static final String VARIANT = "MTDF";
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** A value lower than any value returned by a search. */
+    private static final int BELOW_LOSING_VALUE = LOSING_VALUE - 1;
+
+    /** A value greater than any value returned by a search. */
+    private static final int ABOVE_WINNING_VALUE = WINNING_VALUE + 1;
+
+    /**
+     * Class static factory.
+     * <p>
+     * Parameter {@code statistics} can be null.
+     *
+     * @param table      the transposition table
+     * @param statistics the map filled with the search statistics, can be null
+     * @return           a new mtdf instance
+     * @throws NullPointerException when parameter {@code table} is null
+     */
+    public static MTDf getInstance(final TranspositionTable table,
+                                   final Map<String, Object> statistics) {
+        if (table == null) { throw new NullPointerException("Parameter table must be not null."); }
+        return new MTDf(table, statistics);
+    }
+
+    /**
+     * Class static factory.
+     * <p>
+     * The instance has a new transposition table having {@code DEFAULT_TABLE_CAPACITY} entries.
+     *
+     * @return a new mtdf instance
+     */
+    public static MTDf getInstance() {
+        return new MTDf(TranspositionTable.valueOf(DEFAULT_TABLE_CAPACITY), null);
+    }
+
+    /** The transposition table field. */
+    private final TranspositionTable table;
+
+    /** The statistics field. */
+    private final Map<String, Object> statistics;
+
+    /** The evaluation function invocation counter. */
+    private int efInvokeCount;
+
+    /** The board construction counter. */
+    private int boardConstructionCount;
+
+    /** The cutoff counter, indexed by the remaining depth less one. */
+    private int[] cutoffCount;
+
+    /** The node counter. */
+    private long nodeCount;
+
+    /** The zero window search counter. */
+    private int iterationCount;
+
+    /**
+     * Class constructor.
+     *
+     * @param table      the transposition table
+     * @param statistics the statistics map
+     */
+    private MTDf(final TranspositionTable table,
+                 final Map<String, Object> statistics) {
+        this.table = table;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the transposition table.
+     *
+     * @return the transposition table
+     */
+    public TranspositionTable table() {
+        return this.table;
+    }
+
+    /**
+     * Implemented by means of the MTD(f) algorithm, deepening iteratively from one ply.
+     *
+     * @param position the reached game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @return         a new search node
+     */
+    public SearchNode search(final GamePosition position,
+                             final int ply,
+                             final EvalFunction ef) {
+        table.clear();
+        return deepen(position, 1, ply, ef, null, NO_DEADLINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value of the previous node is the first guess, the deadline is checked at every node of the tree.
+     * The table is cleared when the previous node is null.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        if (previous == null) { table.clear(); }
+        return deepen(position, ply, ply, ef, previous, deadline);
+    }
+
+    /**
+     * Runs the MTD(f) search for each depth from {@code fromPly} to {@code toPly},
+     * seeding each one with the node returned by the previous, and records the statistics.
+     *
+     * @param position the game position
+     * @param fromPly  the first search depth
+     * @param toPly    the last search depth
+     * @param ef       the evaluation function
+     * @param previous the node that seeds the first search, can be null
+     * @param deadline the search deadline as a {@code System.nanoTime()} value
+     * @return         the search node returned by the last search
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode deepen(final GamePosition position,
+                              final int fromPly,
+                              final int toPly,
+                              final EvalFunction ef,
+                              final SearchNode previous,
+                              final long deadline) {
+        if (statistics == null) {
+            SearchNode node = previous;
+            for (int ply = fromPly; ply <= toPly; ply++) {
+                node = mtdf(position, ply, ef, node, deadline);
+            }
+            return node;
+        }
+        synchronized (statistics) {
+            efInvokeCount = 0;
+            boardConstructionCount = 0;
+            cutoffCount = new int[toPly];
+            nodeCount = 0L;
+            iterationCount = 0;
+            final long start = System.nanoTime();
+            SearchNode node = previous;
+            for (int ply = fromPly; ply <= toPly; ply++) {
+                node = mtdf(position, ply, ef, node, deadline);
+            }
+            final long searchTime = System.nanoTime() - start;
+            statistics.put("result", node);
+            statistics.put("cutoffCount", cutoffCount);
+            statistics.put("variant", VARIANT);
+            statistics.put("efInvokeCount", efInvokeCount);
+            statistics.put("boardConstructionCount", boardConstructionCount);
+            statistics.put("searchTimeInMilliseconds", searchTime / NANOS_PER_MILLI);
+            statistics.put("nodeCount", nodeCount);
+            statistics.put("iterationCount", iterationCount);
+            return node;
+        }
+    }
+
+    /**
+     * The MTD(f) driver.
+     * <p>
+     * Zero window searches are repeated until the lower and the upper bound of the value meet.
+     * The move is the one returned by the last search that failed high.
+     *
+     * @param position the game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @param guess    the node giving the first guess, can be null
+     * @param deadline the search deadline as a {@code System.nanoTime()} value
+     * @return         a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode mtdf(final GamePosition position,
+                            final int ply,
+                            final EvalFunction ef,
+                            final SearchNode guess,
+                            final long deadline) {
+        int g;
+        if (guess == null) {
+            if (statistics != null) { efInvokeCount++; }
+            g = ef.eval(position);
+        } else {
+            g = guess.value();
+        }
+        g = Math.max(LOSING_VALUE, Math.min(WINNING_VALUE, g));
+        int lower = BELOW_LOSING_VALUE;
+        int upper = ABOVE_WINNING_VALUE;
+        Square move = null;
+        while (lower < upper) {
+            final int beta = (g == lower) ? g + 1 : g;
+            final SearchNode node = memorySearch(position, beta - 1, beta, ply, ef, 0, deadline);
+            if (statistics != null) { iterationCount++; }
+            g = node.value();
+            if (g < beta) {
+                upper = g;
+            } else {
+                lower = g;
+                move = node.move();
+            }
+        }
+        return SearchNode.valueOf(move, g);
+    }
+
+    /**
+     * The fail-soft alpha-beta search backed by the transposition table.
+     * <p>
+     * The returned value is not clamped into the search window: when it is not greater than
+     * {@code achievable} it is an upper bound, when it is not lower than {@code cutoff}
+     * it is a lower bound.
+     *
+     * @param position    the game position
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @return            a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode memorySearch(final GamePosition position,
+                                    final int achievable,
+                                    final int cutoff,
+                                    final int ply,
+                                    final EvalFunction ef,
+                                    final int efNodeValue,
+                                    final long deadline) {
+        checkDeadline(deadline);
+        if (statistics != null) { nodeCount++; }
+        if (ply == 0) { return SearchNode.valueOf(null, efNodeValue); }
+        final Board board = position.board();
+        final Player player = position.player();
+        final Player opponent = player.opponent();
+        final long key = position.zobrist();
+        Square hashMove = null;
+        final long entry = table.probe(key);
+        if (entry != TranspositionTable.NOT_FOUND) {
+            final Square entryMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= ply) {
+                final int value = TranspositionTable.value(entry);
+                switch (TranspositionTable.bound(entry)) {
+                case EXACT: return SearchNode.valueOf(entryMove, value);
+                case LOWER: if (value >= cutoff) { return SearchNode.valueOf(entryMove, value); } break;
+                case UPPER: if (value <= achievable) { return SearchNode.valueOf(entryMove, value); } break;
+                default: throw new RuntimeException("Unreachable condition found. entry="
+                                                   + TranspositionTable.entryToString(entry));
+                }
+            }
+            hashMove = entryMove;
+        }
+        SearchNode node;
+        final SortedMap<Square, AlphaBeta3.MoveData> moves = AlphaBeta3.dynamicSortedLegalMoves(player, board, ef);
+        if (statistics != null) {
+            efInvokeCount += moves.size();
+            boardConstructionCount += moves.size();
+        }
+        if (moves.isEmpty()) {
+            if (board.hasAnyLegalMove(opponent)) {
+                node = memorySearch(GamePosition.valueOf(board, opponent), -cutoff, -achievable,
+                                    ply - 1, ef, -efNodeValue, deadline).negated();
+            } else {
+                node = SearchNode.valueOf(null, finalValue(board, player));
+            }
+        } else {
+            node = SearchNode.valueOf(moves.firstKey(), BELOW_LOSING_VALUE);
+            final List<Square> orderedMoves = new ArrayList<Square>(moves.keySet());
+            if (hashMove != null && orderedMoves.remove(hashMove)) {
+                orderedMoves.add(0, hashMove);
+            }
+            int alpha = achievable;
+            for (final Square move : orderedMoves) {
+                final AlphaBeta3.MoveData data = moves.get(move);
+                final int val = memorySearch(data.position(), -cutoff, -alpha, ply - 1, ef, -data.value(), deadline)
+                    .negated().value();
+                if (val > node.value()) {
+                    node = SearchNode.valueOf(move, val);
+                    if (val > alpha) { alpha = val; }
+                }
+                if (node.value() >= cutoff) {
+                    if (statistics != null) { cutoffCount[ply - 1]++; }
+                    break;
+                }
+            }
+        }
+        final TranspositionTable.Bound bound;
+        if (node.value() >= cutoff) {
+            bound = TranspositionTable.Bound.LOWER;
+        } else if (node.value() <= achievable) {
+            bound = TranspositionTable.Bound.UPPER;
+        } else {
+            bound = TranspositionTable.Bound.EXACT;
+        }
+        table.store(key, ply, bound, node.value(), node.move());
+        return node;
+    }
+
+}
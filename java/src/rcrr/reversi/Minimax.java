@@ -65,6 +65,20 @@ public final class Minimax extends AbstractDecisionRule {
         return searchImpl(position.player(), position.board(), ply, ef);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The previous node is not used, the minimax search visits all the moves anyway.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        return searchImpl(position.player(), position.board(), ply, ef, deadline);
+    }
+
     /**
      * The minimax function.
      * <p>
@@ -85,6 +99,26 @@ public final class Minimax extends AbstractDecisionRule {
                                  final Board board,
                                  final int ply,
                                  final EvalFunction ef) {
+        return searchImpl(player, board, ply, ef, NO_DEADLINE);
+    }
+
+    /**
+     * The minimax function, stopped by the deadline.
+     *
+     * @param player     the player that has the move
+     * @param board      the reached board
+     * @param ply        the search depth reached
+     * @param ef         the evaluation function
+     * @param deadline   the search deadline as a {@code System.nanoTime()} value
+     * @return           a node in the search tree
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode searchImpl(final Player player,
+                                  final Board board,
+                                  final int ply,
+                                  final EvalFunction ef,
+                                  final long deadline) {
+        checkDeadline(deadline);
         SearchNode node;
         final Player opponent = player.opponent();
         if (ply == 0) {
@@ -93,7 +127,7 @@ public final class Minimax extends AbstractDecisionRule {
             List<Square> moves = board.legalMoves(player);
             if (moves.isEmpty()) {
                 if (board.hasAnyLegalMove(opponent)) {
-                    node = searchImpl(opponent, board, ply - 1, ef).negated();
+                    node = searchImpl(opponent, board, ply - 1, ef, deadline).negated();
                 } else {
                     node = SearchNode.valueOf(null, finalValue(board, player));
                 }
@@ -101,7 +135,7 @@ public final class Minimax extends AbstractDecisionRule {
                 node = SearchNode.valueOf(null, Integer.MIN_VALUE);
                 for (Square move : moves) {
                     int value = searchImpl(opponent, board.makeMove(move, player),
-                                       ply - 1, ef).negated().value();
+                                           ply - 1, ef, deadline).negated().value();
                     if (value > node.value()) {
                         node = SearchNode.valueOf(move, value);
                     }
@@ -29,6 +29,7 @@ import java.util.Collections;
 
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SearchBoard;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.SquareState;
 
@@ -44,7 +45,7 @@ import rcrr.reversi.board.SquareState;
  * associated with the X and C squares has to be removed when
  * the corner is captured by either one of the two players.
  */
-public class ModifiedWeightedSquares implements EvalFunction {
+public class ModifiedWeightedSquares implements SearchBoardEvalFunction {
 
     /** The weight modifier applyed when the corner is captured. */
     private static final int WEIGHT_MODIFIER = 5;
@@ -53,8 +54,51 @@ public class ModifiedWeightedSquares implements EvalFunction {
     private static final Map<Square, Integer> WEIGHTS =
         Collections.unmodifiableMap(WeightedSquares.weights());
 
+    /** The corners as bitboards, used when evaluating the search boards. */
+    private static final long[] CORNER_MASKS = new long[Square.corners().size()];
+
+    /** The neighbor squares of each corner as bitboards, in the order of {@code CORNER_MASKS}. */
+    private static final long[] NEIGHBOR_MASKS = new long[Square.corners().size()];
+
+    /** The weight changes applyed to the squares when the nearby corner is captured, indexed by square ordinal. */
+    private static final int[] MODIFIERS = new int[Square.values().length];
+
+    /**
+     * Initialization block:
+     * . - sets the {@code CORNER_MASKS}, {@code NEIGHBOR_MASKS}, and {@code MODIFIERS} arrays
+     */
+    static {
+        int i = 0;
+        for (final Square corner : Square.corners()) {
+            CORNER_MASKS[i] = 1L << corner.ordinal();
+            for (final Square c : corner.neighbors().values()) {
+                if (c != null) {
+                    NEIGHBOR_MASKS[i] |= 1L << c.ordinal();
+                    MODIFIERS[c.ordinal()] = WEIGHT_MODIFIER - WEIGHTS.get(c);
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Returns the sum of the modifiers of the squares set in the {@code discs} bitboard.
+     *
+     * @param discs the discs as a bitboard
+     * @return      the sum of the modifiers
+     */
+    private static int modifierSum(final long discs) {
+        int sum = 0;
+        long remaining = discs;
+        while (remaining != 0L) {
+            sum += MODIFIERS[Long.numberOfTrailingZeros(remaining)];
+            remaining &= remaining - 1L;
+        }
+        return sum;
+    }
+
     /** The reference to the WeightedSquares evaluation function. */
-    private final EvalFunction ws;
+    private final WeightedSquares ws;
 
     /** Public constructor. */
     public ModifiedWeightedSquares() {
@@ -86,4 +130,26 @@ public class ModifiedWeightedSquares implements EvalFunction {
         return value;
     }
 
+    /**
+     * Computes the evaluation of the search board, applying the same weights
+     * of the {@code eval(GamePosition)} method.
+     *
+     * @param board the search board to evaluate
+     * @return      the board value
+     * @throws NullPointerException if parameter {@code board} is null
+     */
+    public final int eval(final SearchBoard board) {
+        if (board == null) { throw new NullPointerException("Parameter board cannot be null."); }
+        final long player = board.playerBitboard();
+        final long opponent = board.opponentBitboard();
+        final long occupied = player | opponent;
+        int value = ws.eval(board);
+        for (int i = 0; i < CORNER_MASKS.length; i++) {
+            if ((occupied & CORNER_MASKS[i]) != 0L) {
+                value += modifierSum(player & NEIGHBOR_MASKS[i]) - modifierSum(opponent & NEIGHBOR_MASKS[i]);
+            }
+        }
+        return value;
+    }
+
 }
@@ -0,0 +1,362 @@
+/*
+ *  NegaScout.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SearchBoard;
+import rcrr.reversi.board.Square;
+
+/**
+ * The {@code NegaScout} class implements {@code DecisionRule} applying the principal variation search,
+ * also known as NegaScout.
+ * <p>
+ * Moves are ordered as done by {@code AlphaBeta3}, by the value that the evaluation function gives to
+ * the reached positions. The first move is searched with the full window, the following ones with a null window
+ * centered on the best value found so far. A sibling that fails high is searched again with the full window.
+ * When the move ordering is good most of the siblings fail low, and the null window search proves it visiting
+ * fewer nodes.
+ * <p>
+ * The search is fail-soft, as {@code AlphaBeta3} is: a value strictly inside the {@code (achievable, cutoff)}
+ * window is exact, a value greater than or equal to {@code cutoff} is a lower bound, and a value less than or
+ * equal to {@code achievable} is an upper bound. Values are not clamped to the window. The value at the root,
+ * searched with the full window, is exact, and the returned search node is the one of {@code AlphaBeta3}.
+ * <p>
+ * The {@code ALPHABETA} variant searches every sibling with the full window, it is the same algorithm of
+ * {@code AlphaBeta3} and is used as a reference when comparing the statistics.
+ * <p>
+ * When the statistics map is given, it is filled by the search with the entries:
+ * {@code result}, {@code variant}, {@code nodeCount}, {@code efInvokeCount}, {@code researchCount},
+ * {@code cutoffCount}, and {@code searchTimeInMilliseconds}.
+ * An instance having a statistics map is not thread-safe.
+ * <p>
+ * When the evaluation function implements {@code SearchBoardEvalFunction}, the search runs on a
+ * {@code SearchBoard} as done by {@code AlphaBeta3}, without creating objects at the inner nodes.
+ * <p>
+ * See: <i>"Alexander Reinefeld. An Improvement to the Scout Tree Search Algorithm. ICCA Journal, 1983: 4~14"</i>.
+ */
+public final class NegaScout extends AbstractDecisionRule {
+
+    /** The search variants. */
+    public static enum Variant {
+
+        /** Every sibling is searched with the full window. */
+        ALPHABETA,
+
+        /** Siblings are searched with a null window first. */
+        NEGASCOUT
+    }
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Class static factory.
+     * <p>
+     * Parameter {@code statistics} can be null.
+     *
+     * @param variant    the search variant
+     * @param statistics the map filled with the search statistics, can be null
+     * @return           a new negascout instance
+     * @throws NullPointerException when parameter {@code variant} is null
+     */
+    public static NegaScout getInstance(final Variant variant,
+                                        final Map<String, Object> statistics) {
+        if (variant == null) { throw new NullPointerException("Parameter variant must be not null."); }
+        return new NegaScout(variant, statistics);
+    }
+
+    /**
+     * Class static factory.
+     *
+     * @return a new negascout instance
+     */
+    public static NegaScout getInstance() {
+        return new NegaScout(Variant.NEGASCOUT, null);
+    }
+
+    /** The variant field. */
+    private final Variant variant;
+
+    /** The statistics field. */
+    private final Map<String, Object> statistics;
+
+    /** The node counter. */
+    private long nodeCount;
+
+    /** The evaluation function invocation counter. */
+    private long efInvokeCount;
+
+    /** The null window searches that failed high and have been searched again. */
+    private long researchCount;
+
+    /** The cutoff counter, indexed by the remaining depth. */
+    private long[] cutoffCount;
+
+    /**
+     * Class constructor.
+     *
+     * @param variant    the search variant
+     * @param statistics the statistics map
+     */
+    private NegaScout(final Variant variant,
+                      final Map<String, Object> statistics) {
+        this.variant = variant;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Implemented by means of the principal variation search algorithm.
+     *
+     * @param position the reached game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @return         a new search node
+     */
+    public SearchNode search(final GamePosition position,
+                             final int ply,
+                             final EvalFunction ef) {
+        return search(position, ply, ef, NO_DEADLINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The previous node is not used, moves are ordered by the evaluation function.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        return search(position, ply, ef, deadline);
+    }
+
+    /**
+     * Searches the root with the full window, and fills the statistics map when it is not null.
+     *
+     * @param position the game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @param deadline the search deadline as a {@code System.nanoTime()} value
+     * @return         a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode search(final GamePosition position,
+                              final int ply,
+                              final EvalFunction ef,
+                              final long deadline) {
+        if (statistics == null) {
+            return rootPvs(position, ply, ef, deadline);
+        }
+        synchronized (statistics) {
+            nodeCount = 0L;
+            efInvokeCount = 0L;
+            researchCount = 0L;
+            cutoffCount = new long[ply + 1];
+            final long start = System.nanoTime();
+            final SearchNode result = rootPvs(position, ply, ef, deadline);
+            final long searchTime = System.nanoTime() - start;
+            statistics.put("result", result);
+            statistics.put("variant", variant);
+            statistics.put("nodeCount", nodeCount);
+            statistics.put("efInvokeCount", efInvokeCount);
+            statistics.put("researchCount", researchCount);
+            statistics.put("cutoffCount", cutoffCount);
+            statistics.put("searchTimeInMilliseconds", searchTime / NANOS_PER_MILLI);
+            return result;
+        }
+    }
+
+    /**
+     * Searches the root with the full window, on a {@code SearchBoard} when the evaluation function allows it,
+     * otherwise on the immutable boards.
+     *
+     * @param position the game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @param deadline the search deadline as a {@code System.nanoTime()} value
+     * @return         a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode rootPvs(final GamePosition position,
+                               final int ply,
+                               final EvalFunction ef,
+                               final long deadline) {
+        if (!(ef instanceof SearchBoardEvalFunction)) {
+            return pvs(position, LOSING_VALUE, WINNING_VALUE, ply, ef, 0, deadline);
+        }
+        final SearchBoard board = SearchBoard.valueOf(position.board(), position.player());
+        final AlphaBeta3.BoardSearchBuffers buffers = new AlphaBeta3.BoardSearchBuffers(ply);
+        final int value = boardPvs(board, LOSING_VALUE, WINNING_VALUE, ply, (SearchBoardEvalFunction) ef, 0,
+                                   deadline, buffers);
+        return SearchNode.valueOf(buffers.bestSquare(ply), value);
+    }
+
+    /**
+     * The principal variation search.
+     *
+     * @param position    the game position
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @return            a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode pvs(final GamePosition position,
+                           final int achievable,
+                           final int cutoff,
+                           final int ply,
+                           final EvalFunction ef,
+                           final int efNodeValue,
+                           final long deadline) {
+        checkDeadline(deadline);
+        if (statistics != null) { nodeCount++; }
+        if (ply == 0) { return SearchNode.valueOf(null, efNodeValue); }
+        final Board board = position.board();
+        final Player player = position.player();
+        final Player opponent = player.opponent();
+        final SortedMap<Square, AlphaBeta3.MoveData> moves = AlphaBeta3.dynamicSortedLegalMoves(player, board, ef);
+        if (statistics != null) { efInvokeCount += moves.size(); }
+        if (moves.isEmpty()) {
+            if (board.hasAnyLegalMove(opponent)) {
+                return pvs(GamePosition.valueOf(board, opponent), -cutoff, -achievable,
+                           ply - 1, ef, -efNodeValue, deadline).negated();
+            } else {
+                return SearchNode.valueOf(null, finalValue(board, player));
+            }
+        }
+        SearchNode node = SearchNode.valueOf(moves.firstKey(), achievable);
+        boolean first = true;
+        for (final Map.Entry<Square, AlphaBeta3.MoveData> move : moves.entrySet()) {
+            final GamePosition child = move.getValue().position();
+            final int childEfValue = -move.getValue().value();
+            int val;
+            if (first || variant == Variant.ALPHABETA) {
+                val = pvs(child, -cutoff, -node.value(), ply - 1, ef, childEfValue, deadline).negated().value();
+            } else {
+                val = pvs(child, -node.value() - 1, -node.value(), ply - 1, ef, childEfValue, deadline)
+                    .negated().value();
+                if (val > node.value() && val < cutoff) {
+                    if (statistics != null) { researchCount++; }
+                    val = pvs(child, -cutoff, -node.value(), ply - 1, ef, childEfValue, deadline).negated().value();
+                }
+            }
+            first = false;
+            if (val > node.value()) {
+                node = SearchNode.valueOf(move.getKey(), val);
+            }
+            if (node.value() >= cutoff) {
+                if (statistics != null) { cutoffCount[ply]++; }
+                break;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * The principal variation search, as done by {@code pvs}, playing and taking back the moves
+     * on the search board. The best move of the node is recorded into the buffers.
+     *
+     * @param board       the search board
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param deadline    the search deadline as a {@code System.nanoTime()} value
+     * @param buffers     the search buffers
+     * @return            the node value
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private int boardPvs(final SearchBoard board,
+                         final int achievable,
+                         final int cutoff,
+                         final int ply,
+                         final SearchBoardEvalFunction ef,
+                         final int efNodeValue,
+                         final long deadline,
+                         final AlphaBeta3.BoardSearchBuffers buffers) {
+        checkDeadline(deadline);
+        if (statistics != null) { nodeCount++; }
+        if (ply == 0) {
+            buffers.setBestMove(ply, AlphaBeta3.NO_MOVE);
+            return efNodeValue;
+        }
+        final int[] moves = buffers.moves(ply);
+        final int[] values = buffers.values(ply);
+        final int count = AlphaBeta3.sortedLegalMoves(board, ef, moves, values);
+        if (statistics != null) { efInvokeCount += count; }
+        if (count == 0) {
+            final int value;
+            final int bestMove;
+            if (board.opponentLegalMoves() != 0L) {
+                final int token = board.pass();
+                value = -boardPvs(board, -cutoff, -achievable, ply - 1, ef, -efNodeValue, deadline, buffers);
+                board.undo(token);
+                bestMove = buffers.bestMove(ply - 1);
+            } else {
+                value = finalValue(board);
+                bestMove = AlphaBeta3.NO_MOVE;
+            }
+            buffers.setBestMove(ply, bestMove);
+            return value;
+        }
+        int value = achievable;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            final int token = board.play(1L << moves[i]);
+            int val;
+            if (i == 0 || variant == Variant.ALPHABETA) {
+                val = -boardPvs(board, -cutoff, -value, ply - 1, ef, -values[i], deadline, buffers);
+            } else {
+                val = -boardPvs(board, -value - 1, -value, ply - 1, ef, -values[i], deadline, buffers);
+                if (val > value && val < cutoff) {
+                    if (statistics != null) { researchCount++; }
+                    val = -boardPvs(board, -cutoff, -value, ply - 1, ef, -values[i], deadline, buffers);
+                }
+            }
+            board.undo(token);
+            if (val > value) {
+                value = val;
+                bestMove = moves[i];
+            }
+            if (value >= cutoff) {
+                if (statistics != null) { cutoffCount[ply]++; }
+                break;
+            }
+        }
+        buffers.setBestMove(ply, bestMove);
+        return value;
+    }
+
+}
@@ -0,0 +1,387 @@
+/*
+ *  ParallelAlphaBeta.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rcrr.reversi.board.Square;
+
+/**
+ * The {@code ParallelAlphaBeta} class implements {@code DecisionRule} by splitting the
+ * alpha-beta search of {@code AlphaBeta3} among the threads of a {@code ForkJoinPool}.
+ * <p>
+ * At the root the first move, in the order given by the evaluation function, is searched serially
+ * and sets the alpha bound. The other moves are then searched in parallel, sharing a bound that is raised
+ * atomically by each completed sibling. Siblings search with a window one unit wider than the shared
+ * bound, so that a move having the same value of the best one is not confused with a worse move:
+ * this way the returned search node is the same returned by {@code AlphaBeta3} for the given position
+ * and depth.
+ * <p>
+ * When the Young Brothers Wait option is selected, the first child of every split node is split again,
+ * down to the split depth, following the principal variation. Younger siblings are searched in parallel
+ * only after the eldest brother has returned, and the ones not yet started are skipped after a cutoff.
+ * <p>
+ * See: <i>"Rainer Feldmann. Game Tree Search on Massively Parallel Systems. PhD thesis, University of
+ *      Paderborn, 1993"</i>.
+ * <p>
+ * {@code ParallelAlphaBeta} is immutable, and it can be shared among threads.
+ */
+public final class ParallelAlphaBeta extends AbstractDecisionRule {
+
+    /** The default minimum remaining depth for a node to be split, when Young Brothers Wait is selected. */
+    public static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    /**
+     * The task searches a younger sibling.
+     */
+    private final class SiblingSearch extends RecursiveTask<Integer> {
+
+        /** The serialVersionUID requested by the specification for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** The move data field. */
+        private final AlphaBeta3.MoveData data;
+
+        /** The upper bound field. */
+        private final int cutoff;
+
+        /** The search depth of the parent node. */
+        private final int ply;
+
+        /** The evaluation function field. */
+        private final EvalFunction ef;
+
+        /** The lower bound shared among the siblings. */
+        private final AtomicInteger bound;
+
+        /** The value subtracted from the shared bound. */
+        private final int boundOffset;
+
+        /** The flag that stops the siblings not yet started, can be null. */
+        private final AtomicBoolean cut;
+
+        /** The search deadline as a {@code System.nanoTime()} value. */
+        private final long deadline;
+
+        /**
+         * Class constructor.
+         *
+         * @param data        the move data
+         * @param cutoff      the upper bound
+         * @param ply         the search depth of the parent node
+         * @param ef          the evaluation function
+         * @param bound       the shared lower bound
+         * @param boundOffset the value subtracted from the shared bound
+         * @param cut         the cutoff flag, can be null
+         * @param deadline    the search deadline
+         */
+        SiblingSearch(final AlphaBeta3.MoveData data,
+                      final int cutoff,
+                      final int ply,
+                      final EvalFunction ef,
+                      final AtomicInteger bound,
+                      final int boundOffset,
+                      final AtomicBoolean cut,
+                      final long deadline) {
+            this.data = data;
+            this.cutoff = cutoff;
+            this.ply = ply;
+            this.ef = ef;
+            this.bound = bound;
+            this.boundOffset = boundOffset;
+            this.cut = cut;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the sibling value, or null when the search is skipped.
+         *
+         * @return the sibling value
+         */
+        @Override
+        protected Integer compute() {
+            if (cut != null && cut.get()) { return null; }
+            final int achievable = bound.get() - boundOffset;
+            final int value = -splitSearch(data.position(), -cutoff, -achievable,
+                                           ply - 1, ef, -data.value(), deadline).value();
+            raise(bound, value);
+            if (cut != null && value >= cutoff) { cut.set(true); }
+            return value;
+        }
+    }
+
+    /**
+     * Holds the pool shared by the instances returned by {@code getInstance()}, created on first use.
+     * Its worker threads are daemons, and the pool is never shut down.
+     */
+    private static final class SharedPoolHolder {
+
+        /** The shared pool, having a parallelism equal to the number of available processors. */
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        /** Class constructor. */
+        private SharedPoolHolder() { }
+    }
+
+    /**
+     * Class static factory.
+     * <p>
+     * The returned instance splits the root only, and doesn't use a transposition table.
+     * It runs on a pool shared by all the instances returned by this factory, created on first use,
+     * having a parallelism equal to the number of available processors.
+     *
+     * @return a new parallel alphabeta instance
+     */
+    public static ParallelAlphaBeta getInstance() {
+        return new ParallelAlphaBeta(SharedPoolHolder.POOL, AlphaBeta3.getInstance(), false, DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Class static factory.
+     * <p>
+     * Parameter {@code table} can be null, when not null it is shared by all the threads.
+     *
+     * @param pool              the fork join pool running the search
+     * @param table             the transposition table, can be null
+     * @param youngBrothersWait when true, nodes on the principal variation are split too
+     * @param splitDepth        the minimum remaining depth for a node to be split
+     * @return                  a new parallel alphabeta instance
+     * @throws NullPointerException     when parameter {@code pool} is null
+     * @throws IllegalArgumentException when parameter {@code splitDepth} is less than one
+     */
+    public static ParallelAlphaBeta getInstance(final ForkJoinPool pool,
+                                                final TranspositionTable table,
+                                                final boolean youngBrothersWait,
+                                                final int splitDepth) {
+        if (pool == null) { throw new NullPointerException("Parameter pool must be not null."); }
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("Parameter splitDepth must be greater than zero. splitDepth="
+                                               + splitDepth);
+        }
+        final AlphaBeta3 serial = (table == null) ? AlphaBeta3.getInstance() : AlphaBeta3.getInstance(table);
+        return new ParallelAlphaBeta(pool, serial, youngBrothersWait, splitDepth);
+    }
+
+    /**
+     * Raises the atomic {@code bound} to {@code value}, when it is lower.
+     *
+     * @param bound the bound to raise
+     * @param value the new value
+     */
+    private static void raise(final AtomicInteger bound, final int value) {
+        int current = bound.get();
+        while (value > current && !bound.compareAndSet(current, value)) {
+            current = bound.get();
+        }
+    }
+
+    /** The pool field. */
+    private final ForkJoinPool pool;
+
+    /** The serial decision rule that searches the nodes that are not split. */
+    private final AlphaBeta3 serial;
+
+    /** The young brothers wait field. */
+    private final boolean youngBrothersWait;
+
+    /** The split depth field. */
+    private final int splitDepth;
+
+    /**
+     * Class constructor.
+     *
+     * @param pool              the fork join pool
+     * @param serial            the serial decision rule
+     * @param youngBrothersWait the young brothers wait option
+     * @param splitDepth        the split depth
+     */
+    private ParallelAlphaBeta(final ForkJoinPool pool,
+                              final AlphaBeta3 serial,
+                              final boolean youngBrothersWait,
+                              final int splitDepth) {
+        this.pool = pool;
+        this.serial = serial;
+        this.youngBrothersWait = youngBrothersWait;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Returns the parallelism of the pool.
+     *
+     * @return the number of threads searching in parallel
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Implemented by means of the alpha-beta algorithm, splitting the root node.
+     *
+     * @param position the reached game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @return         a new search node
+     */
+    public SearchNode search(final GamePosition position,
+                             final int ply,
+                             final EvalFunction ef) {
+        return search(position, ply, ef, NO_DEADLINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The previous node is not used, the deadline is checked at every node by all the threads.
+     */
+    @Override
+    protected SearchNode timedSearch(final GamePosition position,
+                                     final int ply,
+                                     final EvalFunction ef,
+                                     final SearchNode previous,
+                                     final long deadline) {
+        return search(position, ply, ef, deadline);
+    }
+
+    /**
+     * Searches the root node in the pool, or serially when it has nothing to split.
+     *
+     * @param position the game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @param deadline the search deadline as a {@code System.nanoTime()} value
+     * @return         a new search node
+     * @throws SearchTimeoutException when the deadline is reached
+     */
+    private SearchNode search(final GamePosition position,
+                              final int ply,
+                              final EvalFunction ef,
+                              final long deadline) {
+        if (ply == 0 || !position.hasAnyLegalMove()) {
+            return serial.search(position, LOSING_VALUE, WINNING_VALUE, ply, ef, 0, deadline);
+        }
+        return pool.invoke(new RecursiveTask<SearchNode>() {
+                private static final long serialVersionUID = 1L;
+                @Override
+                protected SearchNode compute() {
+                    return rootSearch(position, ply, ef, deadline);
+                }
+            });
+    }
+
+    /**
+     * Searches the root node.
+     *
+     * @param position the game position
+     * @param ply      the search depth
+     * @param ef       the evaluation function
+     * @param deadline the search deadline
+     * @return         a new search node
+     */
+    private SearchNode rootSearch(final GamePosition position,
+                                  final int ply,
+                                  final EvalFunction ef,
+                                  final long deadline) {
+        checkDeadline(deadline);
+        final SortedMap<Square, AlphaBeta3.MoveData> moves
+            = AlphaBeta3.dynamicSortedLegalMoves(position.player(), position.board(), ef);
+        final List<Square> orderedMoves = new ArrayList<Square>(moves.keySet());
+        final Square first = orderedMoves.get(0);
+        final int firstValue = -splitSearch(moves.get(first).position(), -WINNING_VALUE, -LOSING_VALUE,
+                                            ply - 1, ef, -moves.get(first).value(), deadline).value();
+        SearchNode node = SearchNode.valueOf(first, Math.max(LOSING_VALUE, firstValue));
+        final AtomicInteger bound = new AtomicInteger(node.value());
+        final List<SiblingSearch> tasks = new ArrayList<SiblingSearch>();
+        for (final Square move : orderedMoves.subList(1, orderedMoves.size())) {
+            tasks.add(new SiblingSearch(moves.get(move), WINNING_VALUE, ply, ef, bound, 1, null, deadline));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            final int value = tasks.get(i).join();
+            if (value > node.value()) {
+                node = SearchNode.valueOf(orderedMoves.get(i + 1), value);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Searches the game position within the given window, splitting it among
+     * the threads when the Young Brothers Wait option is selected, and the depth is enough.
+     *
+     * @param position    the game position
+     * @param achievable  the lower bound
+     * @param cutoff      the upper bound
+     * @param ply         the search depth
+     * @param ef          the evaluation function
+     * @param efNodeValue the node value as returned by the evaluation function
+     * @param deadline    the search deadline
+     * @return            a new search node
+     */
+    private SearchNode splitSearch(final GamePosition position,
+                                   final int achievable,
+                                   final int cutoff,
+                                   final int ply,
+                                   final EvalFunction ef,
+                                   final int efNodeValue,
+                                   final long deadline) {
+        if (!youngBrothersWait || ply < splitDepth || !position.hasAnyLegalMove()) {
+            return serial.search(position, achievable, cutoff, ply, ef, efNodeValue, deadline);
+        }
+        checkDeadline(deadline);
+        final SortedMap<Square, AlphaBeta3.MoveData> moves
+            = AlphaBeta3.dynamicSortedLegalMoves(position.player(), position.board(), ef);
+        final List<Map.Entry<Square, AlphaBeta3.MoveData>> orderedMoves
+            = new ArrayList<Map.Entry<Square, AlphaBeta3.MoveData>>(moves.entrySet());
+        final Map.Entry<Square, AlphaBeta3.MoveData> eldest = orderedMoves.get(0);
+        final int eldestValue = -splitSearch(eldest.getValue().position(), -cutoff, -achievable,
+                                             ply - 1, ef, -eldest.getValue().value(), deadline).value();
+        SearchNode node = SearchNode.valueOf(eldest.getKey(), Math.max(achievable, eldestValue));
+        if (node.value() >= cutoff || orderedMoves.size() == 1) { return node; }
+        final AtomicInteger bound = new AtomicInteger(node.value());
+        final AtomicBoolean cut = new AtomicBoolean(false);
+        final List<SiblingSearch> tasks = new ArrayList<SiblingSearch>();
+        for (final Map.Entry<Square, AlphaBeta3.MoveData> move : orderedMoves.subList(1, orderedMoves.size())) {
+            tasks.add(new SiblingSearch(move.getValue(), cutoff, ply, ef, bound, 0, cut, deadline));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            final Integer value = tasks.get(i).join();
+            if (value != null && value > node.value()) {
+                node = SearchNode.valueOf(orderedMoves.get(i + 1).getKey(), value);
+            }
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,723 @@
+/*
+ *  PatternEval.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.net.URL;
+
+import rcrr.reversi.board.BitWorks;
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.Player;
+
+import rcrr.reversi.util.BinaryTable;
+
+/**
+ * A pattern based evaluation function, as the one introduced by Michael Buro in the Logistello program.
+ * <p>
+ * The board is covered by a set of patterns, each one being a fixed group of squares that is
+ * found, by symmetry, in many places of the board. Every placement of a pattern is an instance.
+ * The squares of an instance, having three states each, give a ternary index into the weight
+ * table of the pattern, and the evaluation is the sum of the weights selected by the instances.
+ * The patterns are the ones listed by the {@link Pattern} enum, forty six instances overall.
+ * <p>
+ * Weights depend on the game phase, given by the number of discs on the board. Each phase
+ * has its own set of tables, see {@link #phase(int)}. The value of a disc is {@code DISC_VALUE}.
+ * <p>
+ * The instances are not read square by square. The discs of the two players are taken as bitboards,
+ * the eight symmetric images of each bitboard are computed by means of the {@code BitWorks} flips,
+ * and every instance is then extracted from one of the images by a couple of shifts and masks,
+ * as the same pattern in its canonical placement. The extracted bits are converted into the ternary
+ * index by the {@code BitWorks.binaryToTernary} table lookup.
+ * <p>
+ * The weights are stored as a binary table of shorts, written and read by {@code BinaryTable}.
+ * The table holds the phases in order, each one made by the pattern tables in the order of the enum.
+ * No weight table is bundled with the program: instances are loaded from a file produced by
+ * {@code PatternTrainer}, or built from weights given by the caller.
+ * <p>
+ * {@code PatternEval} is immutable.
+ */
+public final class PatternEval implements EvalFunction {
+
+    /**
+     * The patterns evaluated by the function.
+     * <p>
+     * The squares of a pattern are described in its canonical placement, the one of the first instance.
+     * Square {@code k} in the listed order is the ternary digit of weight {@code 3^k} of the index.
+     * The digit is {@code 0} for an empty square, {@code 1} for a player's disc, and {@code 2} for an
+     * opponent's one.
+     */
+    public enum Pattern {
+
+        /** The first row, plus the B2 and G2 x-squares. Four instances. */
+        EDGE_2X(10, 4),
+
+        /** The three by three square at corner A1. Four instances. */
+        CORNER_3X3(9, 4),
+
+        /** The two by five rectangle A1-E2. Eight instances, two for each corner. */
+        CORNER_2X5(10, 8),
+
+        /** The second row. Four instances. */
+        ROW_2(8, 4),
+
+        /** The third row. Four instances. */
+        ROW_3(8, 4),
+
+        /** The fourth row. Four instances. */
+        ROW_4(8, 4),
+
+        /** The diagonal E1-H4. Four instances. */
+        DIAGONAL_4(4, 4),
+
+        /** The diagonal D1-H5. Four instances. */
+        DIAGONAL_5(5, 4),
+
+        /** The diagonal C1-H6. Four instances. */
+        DIAGONAL_6(6, 4),
+
+        /** The diagonal B1-H7. Four instances. */
+        DIAGONAL_7(7, 4),
+
+        /** The diagonal A1-H8. Two instances. */
+        DIAGONAL_8(8, 2);
+
+        /** The number of squares of the pattern. */
+        private final int squares;
+
+        /** The number of instances of the pattern. */
+        private final int instances;
+
+        /** The size of the weight table of the pattern. */
+        private final int size;
+
+        /**
+         * Enum constructor.
+         *
+         * @param squares   the squares field
+         * @param instances the instances field
+         */
+        Pattern(final int squares, final int instances) {
+            assert (squares <= BitWorks.TERNARY_BITS) : "The pattern has too many squares.";
+            this.squares = squares;
+            this.instances = instances;
+            int s = 1;
+            for (int i = 0; i < squares; i++) { s *= TERNARY_BASE; }
+            this.size = s;
+        }
+
+        /**
+         * Returns the number of squares of the pattern.
+         *
+         * @return the number of squares
+         */
+        public int squares() { return this.squares; }
+
+        /**
+         * Returns the number of instances of the pattern on the board.
+         *
+         * @return the number of instances
+         */
+        public int instances() { return this.instances; }
+
+        /**
+         * Returns the size of the weight table, that is three to the power of the number of squares.
+         *
+         * @return the weight table size
+         */
+        public int size() { return this.size; }
+    }
+
+    /** The value of a disc, the weights are expressed in fractions of a disc. */
+    public static final int DISC_VALUE = 128;
+
+    /** The number of game phases. */
+    public static final int PHASE_COUNT = 12;
+
+    /** The number of pattern instances on the board. */
+    public static final int INSTANCE_COUNT;
+
+    /** The number of weights of a phase. */
+    public static final int PHASE_SIZE;
+
+    /** The number of states of a square. */
+    private static final int TERNARY_BASE = 3;
+
+    /** The number of discs that are grouped into a phase. */
+    private static final int DISCS_PER_PHASE = 5;
+
+    /** The number of discs at the beginning of the game. */
+    private static final int INITIAL_DISCS = 4;
+
+    /** The number of squares of the board. */
+    private static final int BOARD_SQUARES = 64;
+
+    /** The number of pattern tables of a phase. */
+    private static final int PATTERN_COUNT = Pattern.values().length;
+
+    /** The phase for each disc count. */
+    private static final int[] PHASES = new int[BOARD_SQUARES + 1];
+
+    /** The diagonal masks, the entry {@code d} has the squares having the column {@code d} places after the row. */
+    private static final long[] DIAGONALS = new long[Byte.SIZE];
+
+    /** The multiplier that collects the squares of a diagonal into the eighth row. */
+    private static final long ROW_COLLECTOR = 0x0101010101010101L;
+
+    /** The shift that moves the eighth row to the first one. */
+    private static final int EIGHTH_ROW_SHIFT = 56;
+
+    /** Mask of the first row. */
+    private static final int ROW_MASK = 0xFF;
+
+    /** Shift moving the second row to the first one. */
+    private static final int ROW_2_SHIFT = 8;
+
+    /** Shift moving the third row to the first one. */
+    private static final int ROW_3_SHIFT = 16;
+
+    /** Shift moving the fourth row to the first one. */
+    private static final int ROW_4_SHIFT = 24;
+
+    /** Shift moving B2 to bit 8. */
+    private static final int B2_SHIFT = 1;
+
+    /** Bit 8 of the pattern. */
+    private static final int B2_MASK = 0x100;
+
+    /** Shift moving G2 to bit 9. */
+    private static final int G2_SHIFT = 5;
+
+    /** Bit 9 of the pattern. */
+    private static final int G2_MASK = 0x200;
+
+    /** Mask of the squares A1, B1, and C1. */
+    private static final int CORNER_3X3_ROW_1 = 0x007;
+
+    /** Shift moving the squares A2, B2, and C2 to bits 3, 4, and 5. */
+    private static final int CORNER_3X3_ROW_2_SHIFT = 5;
+
+    /** Mask of bits 3, 4, and 5. */
+    private static final int CORNER_3X3_ROW_2 = 0x038;
+
+    /** Shift moving the squares A3, B3, and C3 to bits 6, 7, and 8. */
+    private static final int CORNER_3X3_ROW_3_SHIFT = 10;
+
+    /** Mask of bits 6, 7, and 8. */
+    private static final int CORNER_3X3_ROW_3 = 0x1C0;
+
+    /** Mask of the squares A1 to E1. */
+    private static final int CORNER_2X5_ROW_1 = 0x01F;
+
+    /** Shift moving the squares A2 to E2 to bits 5 to 9. */
+    private static final int CORNER_2X5_ROW_2_SHIFT = 3;
+
+    /** Mask of bits 5 to 9. */
+    private static final int CORNER_2X5_ROW_2 = 0x3E0;
+
+    /** The column offset of the diagonal having four squares. */
+    private static final int DIAGONAL_4_OFFSET = 4;
+
+    /** The column offset of the diagonal having five squares. */
+    private static final int DIAGONAL_5_OFFSET = 3;
+
+    /** The column offset of the diagonal having six squares. */
+    private static final int DIAGONAL_6_OFFSET = 2;
+
+    /** The column offset of the diagonal having seven squares. */
+    private static final int DIAGONAL_7_OFFSET = 1;
+
+    /** The column offset of the main diagonal. */
+    private static final int DIAGONAL_8_OFFSET = 0;
+
+    /** The number of board symmetries. */
+    private static final int SYMMETRY_COUNT = 8;
+
+    /** The identity. */
+    private static final int IDENTITY = 0;
+
+    /** The vertical flip. */
+    private static final int V = 1;
+
+    /** The horizontal mirror. */
+    private static final int H = 2;
+
+    /** The vertical flip of the horizontal mirror. */
+    private static final int VH = 3;
+
+    /** The diagonal flip. */
+    private static final int T = 4;
+
+    /** The vertical flip of the diagonal flip. */
+    private static final int TV = 5;
+
+    /** The horizontal mirror of the diagonal flip. */
+    private static final int TH = 6;
+
+    /** The vertical flip of the horizontal mirror of the diagonal flip. */
+    private static final int TVH = 7;
+
+    /** The images that move the four edges to the first row, used by the edge and row patterns. */
+    private static final int[] LINE_SYMMETRIES = {IDENTITY, V, T, TV};
+
+    /**
+     * The images that move the four short diagonals of a given length to the canonical one.
+     * A short diagonal is mapped onto itself by the diagonal flip, so the mirrors are used instead.
+     */
+    private static final int[] DIAGONAL_SYMMETRIES = {IDENTITY, V, H, VH};
+
+    /** The images that move the four corners to A1. */
+    private static final int[] CORNER_SYMMETRIES = {IDENTITY, V, H, VH};
+
+    /** The images that move the two main diagonals to A1-H8. */
+    private static final int[] MAIN_DIAGONAL_SYMMETRIES = {IDENTITY, V};
+
+    /** The ordinal of the EDGE_2X pattern. */
+    private static final int EDGE_2X_ORDINAL = Pattern.EDGE_2X.ordinal();
+
+    /** The ordinal of the CORNER_3X3 pattern. */
+    private static final int CORNER_3X3_ORDINAL = Pattern.CORNER_3X3.ordinal();
+
+    /** The ordinal of the CORNER_2X5 pattern. */
+    private static final int CORNER_2X5_ORDINAL = Pattern.CORNER_2X5.ordinal();
+
+    /** The ordinal of the ROW_2 pattern. */
+    private static final int ROW_2_ORDINAL = Pattern.ROW_2.ordinal();
+
+    /** The ordinal of the ROW_3 pattern. */
+    private static final int ROW_3_ORDINAL = Pattern.ROW_3.ordinal();
+
+    /** The ordinal of the ROW_4 pattern. */
+    private static final int ROW_4_ORDINAL = Pattern.ROW_4.ordinal();
+
+    /** The ordinal of the DIAGONAL_4 pattern. */
+    private static final int DIAGONAL_4_ORDINAL = Pattern.DIAGONAL_4.ordinal();
+
+    /** The ordinal of the DIAGONAL_5 pattern. */
+    private static final int DIAGONAL_5_ORDINAL = Pattern.DIAGONAL_5.ordinal();
+
+    /** The ordinal of the DIAGONAL_6 pattern. */
+    private static final int DIAGONAL_6_ORDINAL = Pattern.DIAGONAL_6.ordinal();
+
+    /** The ordinal of the DIAGONAL_7 pattern. */
+    private static final int DIAGONAL_7_ORDINAL = Pattern.DIAGONAL_7.ordinal();
+
+    /** The ordinal of the DIAGONAL_8 pattern. */
+    private static final int DIAGONAL_8_ORDINAL = Pattern.DIAGONAL_8.ordinal();
+
+    static {
+        for (int discs = 0; discs <= BOARD_SQUARES; discs++) {
+            PHASES[discs] = Math.max(0, Math.min(PHASE_COUNT - 1, (discs - INITIAL_DISCS) / DISCS_PER_PHASE));
+        }
+        for (int d = 0; d < Byte.SIZE; d++) {
+            long mask = 0L;
+            for (int row = 0; row + d < Byte.SIZE; row++) { mask |= 1L << (row * Byte.SIZE + row + d); }
+            DIAGONALS[d] = mask;
+        }
+        int instances = 0;
+        int phaseSize = 0;
+        for (final Pattern pattern : Pattern.values()) {
+            instances += pattern.instances();
+            phaseSize += pattern.size();
+        }
+        INSTANCE_COUNT = instances;
+        PHASE_SIZE = phaseSize;
+    }
+
+    /**
+     * Returns the game phase, a value from {@code 0} to {@code PHASE_COUNT - 1},
+     * for a board having {@code discs} discs. A phase spans five disc counts, the last one
+     * gathers the final part of the game.
+     *
+     * @param discs the number of discs on the board
+     * @return      the game phase
+     * @throws IllegalArgumentException if parameter {@code discs} is not in the range 0-64
+     */
+    public static int phase(final int discs) {
+        if (discs < 0 || discs > BOARD_SQUARES) {
+            throw new IllegalArgumentException("Parameter discs must be in the range 0-64, found " + discs + ".");
+        }
+        return PHASES[discs];
+    }
+
+    /**
+     * Computes the ternary index of every pattern instance, and writes them into the {@code out} parameter.
+     * The instances are grouped by pattern, in the order of the {@code Pattern} enum, each pattern
+     * contributing {@code pattern.instances()} consecutive entries.
+     * <p>
+     * Parameter {@code out} must have at least {@code INSTANCE_COUNT} entries.
+     *
+     * @param player   the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param out      the array receiving the indexes
+     * @throws NullPointerException      if parameter {@code out} is null
+     * @throws IllegalArgumentException  if parameter {@code out} is too short
+     */
+    public static void indexes(final long player, final long opponent, final int[] out) {
+        if (out == null) { throw new NullPointerException("Parameter out cannot be null."); }
+        if (out.length < INSTANCE_COUNT) {
+            throw new IllegalArgumentException("Parameter out must have at least " + INSTANCE_COUNT + " entries.");
+        }
+        final long[] p = symmetries(player);
+        final long[] o = symmetries(opponent);
+        int k = 0;
+        for (final int s : LINE_SYMMETRIES) { out[k++] = index(edge2X(p[s]), edge2X(o[s])); }
+        for (final int s : CORNER_SYMMETRIES) { out[k++] = index(corner3x3(p[s]), corner3x3(o[s])); }
+        for (int s = 0; s < SYMMETRY_COUNT; s++) { out[k++] = index(corner2x5(p[s]), corner2x5(o[s])); }
+        for (final int shift : new int[] {ROW_2_SHIFT, ROW_3_SHIFT, ROW_4_SHIFT}) {
+            for (final int s : LINE_SYMMETRIES) { out[k++] = index(row(p[s], shift), row(o[s], shift)); }
+        }
+        for (final int offset : new int[] {DIAGONAL_4_OFFSET, DIAGONAL_5_OFFSET,
+                                           DIAGONAL_6_OFFSET, DIAGONAL_7_OFFSET}) {
+            for (final int s : DIAGONAL_SYMMETRIES) {
+                out[k++] = index(diagonal(p[s], offset), diagonal(o[s], offset));
+            }
+        }
+        for (final int s : MAIN_DIAGONAL_SYMMETRIES) {
+            out[k++] = index(diagonal(p[s], DIAGONAL_8_OFFSET), diagonal(o[s], DIAGONAL_8_OFFSET));
+        }
+        assert (k == INSTANCE_COUNT) : "The number of instances is wrong.";
+    }
+
+    /**
+     * Returns the eight symmetric images of the bitboard, indexed by the symmetry constants.
+     *
+     * @param b the bitboard
+     * @return  the images
+     */
+    private static long[] symmetries(final long b) {
+        final long bh = BitWorks.mirrorHorizontal(b);
+        final long bt = BitWorks.flipDiagonal(b);
+        final long bth = BitWorks.mirrorHorizontal(bt);
+        return new long[] {b, BitWorks.flipVertical(b), bh, BitWorks.flipVertical(bh),
+                           bt, BitWorks.flipVertical(bt), bth, BitWorks.flipVertical(bth)};
+    }
+
+    /**
+     * Returns the ternary index given the pattern bits of the player and of the opponent.
+     *
+     * @param player   the bits of the player
+     * @param opponent the bits of the opponent
+     * @return         the index
+     */
+    private static int index(final int player, final int opponent) {
+        return BitWorks.binaryToTernary(player) + (BitWorks.binaryToTernary(opponent) << 1);
+    }
+
+    /**
+     * Extracts the edge plus two x-squares pattern in its canonical placement.
+     *
+     * @param b the bitboard
+     * @return  the pattern bits
+     */
+    private static int edge2X(final long b) {
+        final int x = (int) b;
+        return (x & ROW_MASK) | ((x >>> B2_SHIFT) & B2_MASK) | ((x >>> G2_SHIFT) & G2_MASK);
+    }
+
+    /**
+     * Extracts the three by three corner pattern in its canonical placement.
+     *
+     * @param b the bitboard
+     * @return  the pattern bits
+     */
+    private static int corner3x3(final long b) {
+        final int x = (int) b;
+        return (x & CORNER_3X3_ROW_1)
+            | ((x >>> CORNER_3X3_ROW_2_SHIFT) & CORNER_3X3_ROW_2)
+            | ((x >>> CORNER_3X3_ROW_3_SHIFT) & CORNER_3X3_ROW_3);
+    }
+
+    /**
+     * Extracts the two by five corner pattern in its canonical placement.
+     *
+     * @param b the bitboard
+     * @return  the pattern bits
+     */
+    private static int corner2x5(final long b) {
+        final int x = (int) b;
+        return (x & CORNER_2X5_ROW_1) | ((x >>> CORNER_2X5_ROW_2_SHIFT) & CORNER_2X5_ROW_2);
+    }
+
+    /**
+     * Extracts a row.
+     *
+     * @param b     the bitboard
+     * @param shift the shift moving the row to the first one
+     * @return      the pattern bits
+     */
+    private static int row(final long b, final int shift) {
+        return (int) (b >>> shift) & ROW_MASK;
+    }
+
+    /**
+     * Extracts a diagonal, square {@code k} is the one on row {@code k}.
+     *
+     * @param b      the bitboard
+     * @param offset the column of the square on the first row
+     * @return       the pattern bits
+     */
+    private static int diagonal(final long b, final int offset) {
+        return (int) (((b & DIAGONALS[offset]) * ROW_COLLECTOR) >>> (EIGHTH_ROW_SHIFT + offset));
+    }
+
+    /**
+     * Returns a new instance having the weights read from the file.
+     *
+     * @param file the weight file
+     * @return     a new instance
+     * @throws NullPointerException if parameter {@code file} is null
+     * @throws IOException          if the file is missing or invalid
+     */
+    public static PatternEval load(final File file) throws IOException {
+        if (file == null) { throw new NullPointerException("Parameter file cannot be null."); }
+        final URL url = file.toURI().toURL();
+        final short[] table = BinaryTable.readShorts(url, PHASE_COUNT * PHASE_SIZE);
+        if (table == null) { throw new IOException("File " + file + " is not a valid pattern weight table."); }
+        return new PatternEval(unpack(table));
+    }
+
+    /**
+     * Returns a new instance having the given weights. The array is indexed by phase, pattern ordinal,
+     * and pattern index. The weights are copied.
+     * <p>
+     * Parameter {@code weights} must have {@code PHASE_COUNT} entries, each one having a table
+     * for every pattern, of size {@code pattern.size()}. Weights must fit into a short,
+     * the type used by the weight file.
+     *
+     * @param weights the weight tables
+     * @return        a new instance
+     * @throws NullPointerException     if parameter {@code weights} is null, or has null entries
+     * @throws IllegalArgumentException if parameter {@code weights} has a wrong shape, or a weight is out of range
+     */
+    public static PatternEval valueOf(final int[][][] weights) {
+        if (weights == null) { throw new NullPointerException("Parameter weights cannot be null."); }
+        if (weights.length != PHASE_COUNT) {
+            throw new IllegalArgumentException("Parameter weights must have " + PHASE_COUNT + " phases.");
+        }
+        final int[][][] copy = new int[PHASE_COUNT][PATTERN_COUNT][];
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            if (weights[phase] == null) { throw new NullPointerException("Parameter weights has a null phase."); }
+            if (weights[phase].length != PATTERN_COUNT) {
+                throw new IllegalArgumentException("Parameter weights must have " + PATTERN_COUNT + " patterns.");
+            }
+            for (final Pattern pattern : Pattern.values()) {
+                final int[] table = weights[phase][pattern.ordinal()];
+                if (table == null) { throw new NullPointerException("Parameter weights has a null table."); }
+                if (table.length != pattern.size()) {
+                    throw new IllegalArgumentException("The table of pattern " + pattern + " must have "
+                                                       + pattern.size() + " weights.");
+                }
+                for (final int w : table) {
+                    if (w < Short.MIN_VALUE || w > Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("Weight " + w + " is out of the short range.");
+                    }
+                }
+                copy[phase][pattern.ordinal()] = table.clone();
+            }
+        }
+        return new PatternEval(copy);
+    }
+
+    /**
+     * Splits the weight file payload into the phase and pattern tables.
+     *
+     * @param table the weight file payload
+     * @return      the weight tables
+     */
+    private static int[][][] unpack(final short[] table) {
+        final int[][][] weights = new int[PHASE_COUNT][PATTERN_COUNT][];
+        int k = 0;
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            for (final Pattern pattern : Pattern.values()) {
+                final int[] values = new int[pattern.size()];
+                for (int i = 0; i < values.length; i++) { values[i] = table[k++]; }
+                weights[phase][pattern.ordinal()] = values;
+            }
+        }
+        return weights;
+    }
+
+    /** The weights field, indexed by phase, pattern ordinal, and pattern index. */
+    private final int[][][] weights;
+
+    /**
+     * Class constructor. The array is not copied.
+     *
+     * @param weights the weights field
+     */
+    private PatternEval(final int[][][] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the weight of the pattern index in the given phase.
+     *
+     * @param phase   the game phase
+     * @param pattern the pattern
+     * @param index   the pattern index
+     * @return        the weight
+     * @throws NullPointerException           if parameter {@code pattern} is null
+     * @throws ArrayIndexOutOfBoundsException if parameter {@code phase} or {@code index} is out of range
+     */
+    public int weight(final int phase, final Pattern pattern, final int index) {
+        if (pattern == null) { throw new NullPointerException("Parameter pattern cannot be null."); }
+        return weights[phase][pattern.ordinal()][index];
+    }
+
+    /**
+     * Writes the weights into the file, in the format read by {@link #load(File)}.
+     *
+     * @param file the target file
+     * @throws NullPointerException if parameter {@code file} is null
+     * @throws IOException          if the file cannot be written
+     */
+    public void write(final File file) throws IOException {
+        if (file == null) { throw new NullPointerException("Parameter file cannot be null."); }
+        final short[] table = new short[PHASE_COUNT * PHASE_SIZE];
+        int k = 0;
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            for (final int[] values : weights[phase]) {
+                for (final int w : values) { table[k++] = (short) w; }
+            }
+        }
+        BinaryTable.write(file, table);
+    }
+
+    /**
+     * Implements the {@code EvalFunction} contract, returning the sum of the weights
+     * selected by the pattern instances, for the player that has to move.
+     *
+     * @param position the game position to evaluate
+     * @return         the position value
+     * @throws NullPointerException if parameter {@code position} is null
+     */
+    public int eval(final GamePosition position) {
+        if (position == null) { throw new NullPointerException("Parameter position cannot be null."); }
+        final Board board = position.board();
+        final Player player = position.player();
+        return eval(board.discsMask(player), board.discsMask(player.opponent()));
+    }
+
+    /**
+     * Returns the evaluation of the board given as bitboards.
+     *
+     * @param player   the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return         the position value
+     */
+    public int eval(final long player, final long opponent) {
+        final int[][] w = weights[PHASES[Long.bitCount(player | opponent)]];
+
+        final long pv = BitWorks.flipVertical(player);
+        final long ov = BitWorks.flipVertical(opponent);
+        final long ph = BitWorks.mirrorHorizontal(player);
+        final long oh = BitWorks.mirrorHorizontal(opponent);
+        final long pvh = BitWorks.flipVertical(ph);
+        final long ovh = BitWorks.flipVertical(oh);
+        final long pt = BitWorks.flipDiagonal(player);
+        final long ot = BitWorks.flipDiagonal(opponent);
+        final long ptv = BitWorks.flipVertical(pt);
+        final long otv = BitWorks.flipVertical(ot);
+        final long pth = BitWorks.mirrorHorizontal(pt);
+        final long oth = BitWorks.mirrorHorizontal(ot);
+        final long ptvh = BitWorks.flipVertical(pth);
+        final long otvh = BitWorks.flipVertical(oth);
+
+        return lines(w, player, opponent) + lines(w, pv, ov) + lines(w, pt, ot) + lines(w, ptv, otv)
+            + corners(w, player, opponent) + corners(w, pv, ov) + corners(w, ph, oh) + corners(w, pvh, ovh)
+            + diagonals(w, player, opponent) + diagonals(w, pv, ov) + diagonals(w, ph, oh) + diagonals(w, pvh, ovh)
+            + corner2x5(w, pt, ot) + corner2x5(w, ptv, otv) + corner2x5(w, pth, oth) + corner2x5(w, ptvh, otvh)
+            + mainDiagonal(w, player, opponent) + mainDiagonal(w, pv, ov);
+    }
+
+    /**
+     * Sums the edge and row patterns found in their canonical placement.
+     *
+     * @param w the weights of the phase
+     * @param p the player's image
+     * @param o the opponent's image
+     * @return  the sum of the weights
+     */
+    private static int lines(final int[][] w, final long p, final long o) {
+        return w[EDGE_2X_ORDINAL][index(edge2X(p), edge2X(o))]
+            + w[ROW_2_ORDINAL][index(row(p, ROW_2_SHIFT), row(o, ROW_2_SHIFT))]
+            + w[ROW_3_ORDINAL][index(row(p, ROW_3_SHIFT), row(o, ROW_3_SHIFT))]
+            + w[ROW_4_ORDINAL][index(row(p, ROW_4_SHIFT), row(o, ROW_4_SHIFT))];
+    }
+
+    /**
+     * Sums the short diagonal patterns found in their canonical placement.
+     *
+     * @param w the weights of the phase
+     * @param p the player's image
+     * @param o the opponent's image
+     * @return  the sum of the weights
+     */
+    private static int diagonals(final int[][] w, final long p, final long o) {
+        return w[DIAGONAL_4_ORDINAL][index(diagonal(p, DIAGONAL_4_OFFSET), diagonal(o, DIAGONAL_4_OFFSET))]
+            + w[DIAGONAL_5_ORDINAL][index(diagonal(p, DIAGONAL_5_OFFSET), diagonal(o, DIAGONAL_5_OFFSET))]
+            + w[DIAGONAL_6_ORDINAL][index(diagonal(p, DIAGONAL_6_OFFSET), diagonal(o, DIAGONAL_6_OFFSET))]
+            + w[DIAGONAL_7_ORDINAL][index(diagonal(p, DIAGONAL_7_OFFSET), diagonal(o, DIAGONAL_7_OFFSET))];
+    }
+
+    /**
+     * Sums the two corner patterns found in their canonical placement.
+     *
+     * @param w the weights of the phase
+     * @param p the player's image
+     * @param o the opponent's image
+     * @return  the sum of the weights
+     */
+    private static int corners(final int[][] w, final long p, final long o) {
+        return w[CORNER_3X3_ORDINAL][index(corner3x3(p), corner3x3(o))] + corner2x5(w, p, o);
+    }
+
+    /**
+     * Returns the weight of the two by five corner pattern found in its canonical placement.
+     *
+     * @param w the weights of the phase
+     * @param p the player's image
+     * @param o the opponent's image
+     * @return  the weight
+     */
+    private static int corner2x5(final int[][] w, final long p, final long o) {
+        return w[CORNER_2X5_ORDINAL][index(corner2x5(p), corner2x5(o))];
+    }
+
+    /**
+     * Returns the weight of the main diagonal pattern found in its canonical placement.
+     *
+     * @param w the weights of the phase
+     * @param p the player's image
+     * @param o the opponent's image
+     * @return  the weight
+     */
+    private static int mainDiagonal(final int[][] w, final long p, final long o) {
+        return w[DIAGONAL_8_ORDINAL][index(diagonal(p, DIAGONAL_8_OFFSET), diagonal(o, DIAGONAL_8_OFFSET))];
+    }
+
+}
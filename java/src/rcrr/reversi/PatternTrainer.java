@@ -0,0 +1,809 @@
+/*
+ *  PatternTrainer.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SquareState;
+
+import rcrr.reversi.endgame.ExactSolver;
+
+/**
+ * Fits the weights of the {@code PatternEval} evaluation function, offline, from labelled positions.
+ * <p>
+ * The training runs in two steps, each one being a mode of the command:
+ * <ul>
+ *   <li>
+ *     {@code generate} plays games and writes the positions into a {@code TrainingSet} file.
+ *     A game starts with the random moves of {@code Game.randomGame}, and is continued by self-play,
+ *     both sides searching by {@code AlphaBeta3} with a given evaluation function, until the empty
+ *     squares are {@code solveEmpties}. From there the game is played perfectly: the position is solved
+ *     by the {@code ExactSolver}, the best move is played, and so on to the end. Solved positions are
+ *     labelled with their exact value, the previous ones with the value of the first solved position,
+ *     that is the outcome of the game when the endgame is played perfectly.
+ *   </li>
+ *   <li>
+ *     {@code fit} reads the training set, in chunks, and fits the weights by least squares.
+ *     Each epoch runs a pass over the set, split among threads, that accumulates for every weight the
+ *     error of the positions selecting it. The weights are then moved by the accumulated error divided by
+ *     the number of occurrences, damped by the learning rate.
+ *     The validation records are not used for the fit, and measure the validation error.
+ *     The generated records of a game are consecutive, and are much alike: positions one move apart,
+ *     most of them sharing the game label. Picking single records for validation would leave their
+ *     near duplicates in the training split, so whole blocks of {@code VALIDATION_BLOCK_SIZE} consecutive
+ *     records are held out instead, the last block of every {@code VALIDATION_STRIDE} ones.
+ *     Only the games crossing the border of a block are split.
+ *   </li>
+ * </ul>
+ * The fit writes the weight file read by {@code PatternEval.load(File)}, and prints the error
+ * statistics of each game phase, in discs.
+ */
+public final class PatternTrainer {
+
+    /**
+     * Error statistics, in discs, collected by game phase.
+     * The training and validation records are accounted separately.
+     */
+    public static final class Statistics {
+
+        /** The training record count by phase. */
+        private final long[] trainingCount = new long[PatternEval.PHASE_COUNT];
+
+        /** The training squared error sum by phase. */
+        private final double[] trainingSquaredError = new double[PatternEval.PHASE_COUNT];
+
+        /** The training absolute error sum by phase. */
+        private final double[] trainingAbsoluteError = new double[PatternEval.PHASE_COUNT];
+
+        /** The validation record count by phase. */
+        private final long[] validationCount = new long[PatternEval.PHASE_COUNT];
+
+        /** The validation squared error sum by phase. */
+        private final double[] validationSquaredError = new double[PatternEval.PHASE_COUNT];
+
+        /** The validation absolute error sum by phase. */
+        private final double[] validationAbsoluteError = new double[PatternEval.PHASE_COUNT];
+
+        /** Class constructor. */
+        Statistics() { }
+
+        /**
+         * Accounts a record.
+         *
+         * @param phase      the game phase
+         * @param error      the error in discs
+         * @param validation true for a validation record
+         */
+        void add(final int phase, final double error, final boolean validation) {
+            if (validation) {
+                validationCount[phase]++;
+                validationSquaredError[phase] += error * error;
+                validationAbsoluteError[phase] += Math.abs(error);
+            } else {
+                trainingCount[phase]++;
+                trainingSquaredError[phase] += error * error;
+                trainingAbsoluteError[phase] += Math.abs(error);
+            }
+        }
+
+        /**
+         * Adds the statistics collected by another instance.
+         *
+         * @param other the other statistics
+         */
+        void merge(final Statistics other) {
+            for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+                trainingCount[phase] += other.trainingCount[phase];
+                trainingSquaredError[phase] += other.trainingSquaredError[phase];
+                trainingAbsoluteError[phase] += other.trainingAbsoluteError[phase];
+                validationCount[phase] += other.validationCount[phase];
+                validationSquaredError[phase] += other.validationSquaredError[phase];
+                validationAbsoluteError[phase] += other.validationAbsoluteError[phase];
+            }
+        }
+
+        /**
+         * Returns the number of training records of the phase.
+         *
+         * @param phase the game phase
+         * @return      the record count
+         */
+        public long trainingCount(final int phase) { return trainingCount[phase]; }
+
+        /**
+         * Returns the root mean squared error of the training records of the phase.
+         *
+         * @param phase the game phase
+         * @return      the error in discs, or zero when the phase has no records
+         */
+        public double trainingRmse(final int phase) { return rmse(trainingSquaredError[phase], trainingCount[phase]); }
+
+        /**
+         * Returns the number of validation records of the phase.
+         *
+         * @param phase the game phase
+         * @return      the record count
+         */
+        public long validationCount(final int phase) { return validationCount[phase]; }
+
+        /**
+         * Returns the root mean squared error of the validation records of the phase.
+         *
+         * @param phase the game phase
+         * @return      the error in discs, or zero when the phase has no records
+         */
+        public double validationRmse(final int phase) {
+            return rmse(validationSquaredError[phase], validationCount[phase]);
+        }
+
+        /**
+         * Returns the root mean squared error of all the training records.
+         *
+         * @return the error in discs
+         */
+        public double trainingRmse() { return rmse(sum(trainingSquaredError), sum(trainingCount)); }
+
+        /**
+         * Returns the root mean squared error of all the validation records.
+         *
+         * @return the error in discs
+         */
+        public double validationRmse() { return rmse(sum(validationSquaredError), sum(validationCount)); }
+
+        /**
+         * Prints a table having a line for each phase.
+         *
+         * @param ps the print stream
+         */
+        public void print(final PrintStream ps) {
+            ps.println(" phase   discs      train  train-rmse   train-mae      valid  valid-rmse   valid-mae");
+            for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+                ps.println(String.format(Locale.US, "%6d  %6s  %9d  %10.3f  %10.3f  %9d  %10.3f  %10.3f",
+                                         phase, discRange(phase),
+                                         trainingCount[phase], trainingRmse(phase),
+                                         mean(trainingAbsoluteError[phase], trainingCount[phase]),
+                                         validationCount[phase], validationRmse(phase),
+                                         mean(validationAbsoluteError[phase], validationCount[phase])));
+            }
+            ps.println(String.format(Locale.US, "%6s  %6s  %9d  %10.3f  %10s  %9d  %10.3f",
+                                     "all", "", sum(trainingCount), trainingRmse(), "",
+                                     sum(validationCount), validationRmse()));
+        }
+
+        /**
+         * Returns the disc counts of the phase, as a range.
+         *
+         * @param phase the game phase
+         * @return      the range
+         */
+        private static String discRange(final int phase) {
+            int first = -1;
+            int last = -1;
+            for (int discs = INITIAL_DISCS; discs <= SQUARES_COUNT; discs++) {
+                if (PatternEval.phase(discs) == phase) {
+                    if (first == -1) { first = discs; }
+                    last = discs;
+                }
+            }
+            return first + "-" + last;
+        }
+
+        /**
+         * Returns the square root of the mean.
+         *
+         * @param sum   the sum of the squared values
+         * @param count the count
+         * @return      the root of the mean, zero when the count is zero
+         */
+        private static double rmse(final double sum, final long count) {
+            return Math.sqrt(mean(sum, count));
+        }
+
+        /**
+         * Returns the mean.
+         *
+         * @param sum   the sum of the values
+         * @param count the count
+         * @return      the mean, zero when the count is zero
+         */
+        private static double mean(final double sum, final long count) {
+            return (count == 0) ? 0. : sum / count;
+        }
+
+        /**
+         * Returns the sum of the values.
+         *
+         * @param values the values
+         * @return       the sum
+         */
+        private static double sum(final double[] values) {
+            double sum = 0.;
+            for (final double value : values) { sum += value; }
+            return sum;
+        }
+
+        /**
+         * Returns the sum of the values.
+         *
+         * @param values the values
+         * @return       the sum
+         */
+        private static long sum(final long[] values) {
+            long sum = 0L;
+            for (final long value : values) { sum += value; }
+            return sum;
+        }
+    }
+
+    /** One block of records every this count is used for validation. */
+    public static final int VALIDATION_STRIDE = 10;
+
+    /** The number of consecutive records held out together for validation, many games long. */
+    public static final int VALIDATION_BLOCK_SIZE = 1024;
+
+    /** The default number of games generated. */
+    public static final int DEFAULT_GAMES = 1000;
+
+    /** The default maximum number of random moves opening a game. */
+    public static final int DEFAULT_RANDOM_MOVES = 20;
+
+    /** The default search depth of the self-play. */
+    public static final int DEFAULT_DEPTH = 4;
+
+    /** The default number of empty squares from where the games are solved. */
+    public static final int DEFAULT_SOLVE_EMPTIES = 14;
+
+    /** The default number of epochs of the fit. */
+    public static final int DEFAULT_EPOCHS = 50;
+
+    /** The default learning rate of the fit. */
+    public static final double DEFAULT_RATE = 1.0;
+
+    /** Added to the occurrences of a weight when dividing its error, it damps the weights seen a few times. */
+    private static final double OCCURRENCE_PRIOR = 4.;
+
+    /** The number of records read at once by a fit thread. */
+    private static final int CHUNK_SIZE = 16384;
+
+    /** The number of squares of the board. */
+    private static final int SQUARES_COUNT = 64;
+
+    /** The number of squares the game starts with filled. */
+    private static final int INITIAL_DISCS = 4;
+
+    /** Error code 1. */
+    private static final int ERROR_CODE_1 = 1;
+
+    /** Error code 2. */
+    private static final int ERROR_CODE_2 = 2;
+
+    /** Nanoseconds in a second. */
+    private static final double NANOS_PER_SECOND = 1000000000.;
+
+    /** The offset, into the weights of a phase, of the table used by each instance. */
+    private static final int[] INSTANCE_OFFSETS = new int[PatternEval.INSTANCE_COUNT];
+
+    /** The number of weights of all the phases. */
+    private static final int WEIGHT_COUNT = PatternEval.PHASE_COUNT * PatternEval.PHASE_SIZE;
+
+    static {
+        int offset = 0;
+        int k = 0;
+        for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+            for (int i = 0; i < pattern.instances(); i++) { INSTANCE_OFFSETS[k++] = offset; }
+            offset += pattern.size();
+        }
+    }
+
+    /**
+     * Plays the games, and writes the labelled positions. See the class documentation.
+     * Games are played concurrently by the threads of the pool.
+     *
+     * @param writer       the training set writer
+     * @param games        the number of games
+     * @param randomMoves  the maximum number of random moves, each game draws a number from zero to it
+     * @param depth        the search depth of the self-play
+     * @param solveEmpties the number of empty squares from where the games are solved
+     * @param ef           the evaluation function of the self-play
+     * @param pool         the pool running the games
+     * @return             the number of positions written
+     * @throws NullPointerException     if a parameter is null
+     * @throws IllegalArgumentException if a parameter is out of range
+     * @throws IOException              if the training set cannot be written
+     */
+    public static long generate(final TrainingSet.Writer writer,
+                                final int games,
+                                final int randomMoves,
+                                final int depth,
+                                final int solveEmpties,
+                                final EvalFunction ef,
+                                final ForkJoinPool pool) throws IOException {
+        if (writer == null) { throw new NullPointerException("Parameter writer cannot be null."); }
+        if (ef == null) { throw new NullPointerException("Parameter ef cannot be null."); }
+        if (pool == null) { throw new NullPointerException("Parameter pool cannot be null."); }
+        if (games < 0) { throw new IllegalArgumentException("Parameter games must be non negative."); }
+        if (depth < 1) { throw new IllegalArgumentException("Parameter depth must be positive."); }
+        if (randomMoves < 0 || solveEmpties < 0 || randomMoves + solveEmpties > SQUARES_COUNT - INITIAL_DISCS) {
+            throw new IllegalArgumentException("Parameters randomMoves and solveEmpties must be non negative,"
+                                               + " and their sum must not exceed sixty.");
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicLong positions = new AtomicLong();
+        final List<Callable<Void>> workers = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < pool.getParallelism(); t++) {
+            workers.add(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        final Strategy strategy = AlphaBeta3.getInstance().searcher(depth, ef);
+                        final Random random = new Random();
+                        while (next.getAndIncrement() < games) {
+                            final List<long[]> records = playAndLabel(random.nextInt(randomMoves + 1),
+                                                                      solveEmpties, strategy);
+                            synchronized (writer) {
+                                for (final long[] r : records) { writer.add(r[0], r[1], (int) r[2]); }
+                            }
+                            positions.addAndGet(records.size());
+                        }
+                        return null;
+                    }
+                });
+        }
+        invokeAll(pool, workers);
+        return positions.get();
+    }
+
+    /**
+     * Plays a game, and returns its labelled positions, as arrays of player discs, opponent discs, and score.
+     * The positions where the player to move has to pass are not returned.
+     *
+     * @param randomMoves  the number of random moves
+     * @param solveEmpties the number of empty squares from where the game is solved
+     * @param strategy     the self-play strategy
+     * @return             the labelled positions
+     */
+    private static List<long[]> playAndLabel(final int randomMoves, final int solveEmpties, final Strategy strategy) {
+        final Game opening = Game.randomGame(randomMoves);
+        final Actor actor = Actor.valueOf("Self Play", strategy);
+        final Game game = Game.newInstance(new ActorsPair.Builder()
+                                         .withActor(Player.BLACK, actor)
+                                         .withActor(Player.WHITE, actor)
+                                         .build(), opening.sequence(), null);
+        while (game.areThereAvailableMoves() && game.board().countPieces(SquareState.EMPTY) > solveEmpties) {
+            if (game.move().action() == Move.Action.RESIGN) { return new ArrayList<long[]>(); }
+        }
+        final List<long[]> records = new ArrayList<long[]>();
+
+        /** Solves the endgame, playing the best moves. */
+        GamePosition position = game.position();
+        GamePosition solvedRoot = null;
+        int rootValue = 0;
+        while (position.hasAnyPlayerAnyLegalMove()) {
+            if (!position.hasAnyLegalMove()) {
+                position = GamePosition.valueOf(position.board(), position.player().opponent());
+                continue;
+            }
+            final SearchNode node = new ExactSolver(position).solve();
+            if (solvedRoot == null) {
+                solvedRoot = position;
+                rootValue = node.value();
+            }
+            records.add(record(position, node.value()));
+            position = position.makeMove(node.move());
+        }
+
+        /** Labels the positions played before the endgame with the value of the solved root. */
+        if (solvedRoot != null) {
+            final GameSequence sequence = game.sequence();
+            for (int i = 0; i < sequence.size() - 1; i++) {
+                final GamePosition p = sequence.get(i).position();
+                if (p.hasAnyLegalMove()) {
+                    records.add(record(p, (p.player() == solvedRoot.player()) ? rootValue : -rootValue));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns a record given the position and its value.
+     *
+     * @param position the game position
+     * @param value    the value for the player to move
+     * @return         the record
+     */
+    private static long[] record(final GamePosition position, final int value) {
+        final Board board = position.board();
+        final Player player = position.player();
+        return new long[] {board.discsMask(player), board.discsMask(player.opponent()), value};
+    }
+
+    /**
+     * Fits the weights to the training set. See the class documentation.
+     * <p>
+     * The {@code weights} array is indexed by phase, pattern, and pattern index, flattened in the order of
+     * the weight file, and is updated in place. It is expressed in {@code PatternEval.DISC_VALUE} units.
+     *
+     * @param set     the training set
+     * @param weights the weights, updated in place
+     * @param epochs  the number of epochs
+     * @param rate    the learning rate
+     * @param pool    the pool running the passes over the training set
+     * @param log     receives a line for each epoch, can be null
+     * @return        the statistics of the weights found by the last epoch
+     * @throws NullPointerException     if a parameter other than {@code log} is null
+     * @throws IllegalArgumentException if a parameter is out of range
+     * @throws IOException              if the training set cannot be read
+     */
+    public static Statistics fit(final TrainingSet set,
+                                 final double[] weights,
+                                 final int epochs,
+                                 final double rate,
+                                 final ForkJoinPool pool,
+                                 final PrintStream log) throws IOException {
+        if (set == null) { throw new NullPointerException("Parameter set cannot be null."); }
+        if (weights == null) { throw new NullPointerException("Parameter weights cannot be null."); }
+        if (pool == null) { throw new NullPointerException("Parameter pool cannot be null."); }
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Parameter weights must have " + WEIGHT_COUNT + " entries.");
+        }
+        if (epochs < 0) { throw new IllegalArgumentException("Parameter epochs must be non negative."); }
+        if (!(rate > 0.)) { throw new IllegalArgumentException("Parameter rate must be positive."); }
+
+        final double step = rate / PatternEval.INSTANCE_COUNT;
+        final int threads = pool.getParallelism();
+        final double[][] errors = new double[threads][WEIGHT_COUNT];
+        final int[][] occurrences = new int[threads][WEIGHT_COUNT];
+        final int[] totalOccurrences = new int[WEIGHT_COUNT];
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            final long start = System.nanoTime();
+            final Statistics statistics = pass(set, weights, errors, (epoch == 0) ? occurrences : null, pool);
+            if (epoch == 0) {
+                for (final int[] o : occurrences) {
+                    for (int j = 0; j < WEIGHT_COUNT; j++) { totalOccurrences[j] += o[j]; }
+                }
+            }
+            for (int j = 0; j < WEIGHT_COUNT; j++) {
+                if (totalOccurrences[j] == 0) { continue; }
+                double error = 0.;
+                for (final double[] e : errors) { error += e[j]; }
+                weights[j] += step * error / (totalOccurrences[j] + OCCURRENCE_PRIOR);
+            }
+            for (final double[] e : errors) { Arrays.fill(e, 0.); }
+            if (log != null) {
+                log.println(String.format(Locale.US, "epoch=%4d  train-rmse=%8.3f  valid-rmse=%8.3f  time=%7.3fs",
+                                          epoch, statistics.trainingRmse(), statistics.validationRmse(),
+                                          (System.nanoTime() - start) / NANOS_PER_SECOND));
+            }
+        }
+        return pass(set, weights, null, null, pool);
+    }
+
+    /**
+     * Runs a pass over the training set, returning the statistics of the given weights.
+     * When {@code errors} is not null, the error of each training record is added to the entries of the
+     * weights it selects, an array for each thread. The same is done for the occurrences.
+     *
+     * @param set         the training set
+     * @param weights     the weights
+     * @param errors      the error accumulators, one for each thread, or null
+     * @param occurrences the occurrence accumulators, one for each thread, or null
+     * @param pool        the pool
+     * @return            the statistics
+     * @throws IOException if the training set cannot be read
+     */
+    private static Statistics pass(final TrainingSet set,
+                                   final double[] weights,
+                                   final double[][] errors,
+                                   final int[][] occurrences,
+                                   final ForkJoinPool pool) throws IOException {
+        final AtomicLong next = new AtomicLong();
+        final List<Callable<Statistics>> workers = new ArrayList<Callable<Statistics>>();
+        for (int t = 0; t < pool.getParallelism(); t++) {
+            final double[] error = (errors == null) ? null : errors[t];
+            final int[] occurrence = (occurrences == null) ? null : occurrences[t];
+            workers.add(new Callable<Statistics>() {
+                    public Statistics call() throws IOException {
+                        final Statistics statistics = new Statistics();
+                        final long[] players = new long[CHUNK_SIZE];
+                        final long[] opponents = new long[CHUNK_SIZE];
+                        final byte[] scores = new byte[CHUNK_SIZE];
+                        final int[] indexes = new int[PatternEval.INSTANCE_COUNT];
+                        for (long from = next.getAndAdd(CHUNK_SIZE); from < set.size();
+                             from = next.getAndAdd(CHUNK_SIZE)) {
+                            final int count = set.read(from, players, opponents, scores);
+                            for (int i = 0; i < count; i++) {
+                                final int phase = PatternEval.phase(Long.bitCount(players[i] | opponents[i]));
+                                final int base = phase * PatternEval.PHASE_SIZE;
+                                PatternEval.indexes(players[i], opponents[i], indexes);
+                                double predicted = 0.;
+                                for (int k = 0; k < indexes.length; k++) {
+                                    predicted += weights[base + INSTANCE_OFFSETS[k] + indexes[k]];
+                                }
+                                final double residual = scores[i] * PatternEval.DISC_VALUE - predicted;
+                                final boolean validation = isValidationRecord(from + i);
+                                statistics.add(phase, residual / PatternEval.DISC_VALUE, validation);
+                                if (validation) { continue; }
+                                for (int k = 0; k < indexes.length; k++) {
+                                    final int j = base + INSTANCE_OFFSETS[k] + indexes[k];
+                                    if (error != null) { error[j] += residual; }
+                                    if (occurrence != null) { occurrence[j]++; }
+                                }
+                            }
+                        }
+                        return statistics;
+                    }
+                });
+        }
+        final Statistics result = new Statistics();
+        for (final Statistics statistics : invokeAll(pool, workers)) { result.merge(statistics); }
+        return result;
+    }
+
+    /**
+     * Returns true when the record is held out for validation, see the class documentation.
+     *
+     * @param record the record index
+     * @return       true for a validation record
+     */
+    static boolean isValidationRecord(final long record) {
+        return (record / VALIDATION_BLOCK_SIZE) % VALIDATION_STRIDE == VALIDATION_STRIDE - 1;
+    }
+
+    /**
+     * Returns the pattern evaluation function having the weights rounded to integers,
+     * and clamped to the short range.
+     *
+     * @param weights the weights, flattened in the order of the weight file
+     * @return        the evaluation function
+     * @throws NullPointerException     if parameter {@code weights} is null
+     * @throws IllegalArgumentException if parameter {@code weights} has a wrong length
+     */
+    public static PatternEval toPatternEval(final double[] weights) {
+        if (weights == null) { throw new NullPointerException("Parameter weights cannot be null."); }
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Parameter weights must have " + WEIGHT_COUNT + " entries.");
+        }
+        final PatternEval.Pattern[] patterns = PatternEval.Pattern.values();
+        final int[][][] tables = new int[PatternEval.PHASE_COUNT][patterns.length][];
+        int j = 0;
+        for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+            for (final PatternEval.Pattern pattern : patterns) {
+                final int[] table = new int[pattern.size()];
+                for (int i = 0; i < table.length; i++) {
+                    final long w = Math.round(weights[j++]);
+                    table[i] = (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, w));
+                }
+                tables[phase][pattern.ordinal()] = table;
+            }
+        }
+        return PatternEval.valueOf(tables);
+    }
+
+    /**
+     * Returns the weights of the evaluation function, flattened in the order of the weight file.
+     *
+     * @param eval the evaluation function
+     * @return     the weights
+     * @throws NullPointerException if parameter {@code eval} is null
+     */
+    public static double[] weights(final PatternEval eval) {
+        if (eval == null) { throw new NullPointerException("Parameter eval cannot be null."); }
+        final double[] weights = new double[WEIGHT_COUNT];
+        int j = 0;
+        for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+            for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+                for (int i = 0; i < pattern.size(); i++) { weights[j++] = eval.weight(phase, pattern, i); }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Runs the tasks, and returns their results.
+     *
+     * @param pool  the pool
+     * @param tasks the tasks
+     * @param <T>   the result type
+     * @return      the results
+     * @throws IOException if a task failed reading or writing a file
+     */
+    private static <T> List<T> invokeAll(final ForkJoinPool pool, final List<Callable<T>> tasks) throws IOException {
+        final List<T> results = new ArrayList<T>();
+        for (final Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ie);
+            } catch (ExecutionException ee) {
+                final Throwable cause = ee.getCause();
+                if (cause instanceof IOException) { throw (IOException) cause; }
+                if (cause instanceof RuntimeException) { throw (RuntimeException) cause; }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The main entry point for the trainer program.
+     * <p>
+     * The {@code generate setFile} mode appends the positions of new games to the training set,
+     * it has the optional switches:
+     * <ul>
+     *   <li>{@code -g games}: the number of games, the default is {@code DEFAULT_GAMES}</li>
+     *   <li>{@code -r randomMoves}: the maximum number of random moves, the default is
+     *       {@code DEFAULT_RANDOM_MOVES}</li>
+     *   <li>{@code -d depth}: the self-play search depth, the default is {@code DEFAULT_DEPTH}</li>
+     *   <li>{@code -s solveEmpties}: the empty squares where games are solved, the default is
+     *       {@code DEFAULT_SOLVE_EMPTIES}</li>
+     *   <li>{@code -w weightFile}: self-play is run by the pattern evaluation, the default is {@code Iago}</li>
+     * </ul>
+     * The {@code fit setFile weightFile} mode writes the weight file, it has the optional switches:
+     * <ul>
+     *   <li>{@code -n epochs}: the number of epochs, the default is {@code DEFAULT_EPOCHS}</li>
+     *   <li>{@code -l rate}: the learning rate, the default is {@code DEFAULT_RATE}</li>
+     *   <li>{@code -w weightFile}: the initial weights, the default is zero</li>
+     * </ul>
+     * Both modes accept {@code -t threads}, the default is the available processors.
+     *
+     * @param args the program arguments
+     */
+    public static void main(final String[] args) {
+        if (args == null || args.length < 2
+            || !("generate".equals(args[0]) || ("fit".equals(args[0]) && args.length >= 3))) {
+            System.out.println("Argument list error: the mode and its files must be provided.");
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+        final boolean fit = "fit".equals(args[0]);
+        final File setFile = new File(args[1]);
+        final File weightFile = fit ? new File(args[2]) : null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int games = DEFAULT_GAMES;
+        int randomMoves = DEFAULT_RANDOM_MOVES;
+        int depth = DEFAULT_DEPTH;
+        int solveEmpties = DEFAULT_SOLVE_EMPTIES;
+        int epochs = DEFAULT_EPOCHS;
+        double rate = DEFAULT_RATE;
+        File initialWeights = null;
+        try {
+            for (int i = fit ? 3 : 2; i < args.length; i++) {
+                if ("-t".equals(args[i])) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if ("-g".equals(args[i])) {
+                    games = Integer.parseInt(args[++i]);
+                } else if ("-r".equals(args[i])) {
+                    randomMoves = Integer.parseInt(args[++i]);
+                } else if ("-d".equals(args[i])) {
+                    depth = Integer.parseInt(args[++i]);
+                } else if ("-s".equals(args[i])) {
+                    solveEmpties = Integer.parseInt(args[++i]);
+                } else if ("-n".equals(args[i])) {
+                    epochs = Integer.parseInt(args[++i]);
+                } else if ("-l".equals(args[i])) {
+                    rate = Double.parseDouble(args[++i]);
+                } else if ("-w".equals(args[i])) {
+                    initialWeights = new File(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("unknown switch " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException aioobe) {
+            System.out.println("Argument list error: a switch is missing its value.");
+            usage();
+            System.exit(ERROR_CODE_1);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Argument list error: " + iae.getMessage());
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            final long start = System.nanoTime();
+            if (fit) {
+                final TrainingSet set = TrainingSet.open(setFile);
+                try {
+                    final double[] weights = (initialWeights == null)
+                        ? new double[WEIGHT_COUNT] : weights(PatternEval.load(initialWeights));
+                    System.out.printf("Fitting %d positions of %s, epochs %d, rate %s, threads %d\n",
+                                      set.size(), setFile, epochs, rate, threads);
+                    fit(set, weights, epochs, rate, pool, System.out);
+                    final PatternEval eval = toPatternEval(weights);
+                    eval.write(weightFile);
+                    System.out.printf("Weights written to %s, error statistics in discs:\n", weightFile);
+                    evaluate(set, eval, pool).print(System.out);
+                } finally {
+                    set.close();
+                }
+            } else {
+                final EvalFunction ef = (initialWeights == null) ? new Iago() : PatternEval.load(initialWeights);
+                final TrainingSet.Writer writer = new TrainingSet.Writer(setFile, true);
+                try {
+                    final long positions = generate(writer, games, randomMoves, depth, solveEmpties, ef, pool);
+                    System.out.printf("Games %d, positions %d, training set size %d\n",
+                                      games, positions, writer.size());
+                } finally {
+                    writer.close();
+                }
+            }
+            System.out.println(String.format(Locale.US, "time=%.3fs", (System.nanoTime() - start) / NANOS_PER_SECOND));
+        } catch (IOException ioe) {
+            System.out.println("Unable to process the files: " + ioe.getMessage());
+            System.exit(ERROR_CODE_2);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the error statistics of the evaluation function on the training set.
+     * Records are split into training and validation ones as by the fit.
+     *
+     * @param set  the training set
+     * @param eval the evaluation function
+     * @param pool the pool running the pass
+     * @return     the statistics
+     * @throws NullPointerException if a parameter is null
+     * @throws IOException          if the training set cannot be read
+     */
+    public static Statistics evaluate(final TrainingSet set, final PatternEval eval, final ForkJoinPool pool)
+        throws IOException {
+        if (eval == null) { throw new NullPointerException("Parameter eval cannot be null."); }
+        return pass(set, weights(eval), null, null, pool);
+    }
+
+    /**
+     * Print the usage message.
+     */
+    private static void usage() {
+        System.out.println("usage: java rcrr.reversi.PatternTrainer generate setFile"
+                           + " [-g games] [-r randomMoves] [-d depth] [-s solveEmpties] [-w weightFile] [-t threads]");
+        System.out.println("       java rcrr.reversi.PatternTrainer fit setFile weightFile"
+                           + " [-n epochs] [-l rate] [-w weightFile] [-t threads]");
+    }
+
+    /** Class constructor. */
+    private PatternTrainer() { }
+
+}
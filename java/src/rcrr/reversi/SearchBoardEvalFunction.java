@@ -0,0 +1,53 @@
+/*
+ *  SearchBoardEvalFunction.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import rcrr.reversi.board.SearchBoard;
+
+/**
+ * An eval function that can also assess the position held by a mutable {@code SearchBoard},
+ * reading its bitboards directly.
+ * <p>
+ * The value returned for a search board must be equal to the one returned for the game position
+ * having the same discs and the same player that has to move. The evaluation must not create objects,
+ * it is called at every leaf of the search.
+ * <p>
+ * {@code AlphaBeta3} and {@code NegaScout} search on a {@code SearchBoard}, playing and taking back
+ * the moves in place, when they are given an evaluation function implementing this interface.
+ * Otherwise they search on the immutable boards.
+ *
+ * @see rcrr.reversi.board.SearchBoard
+ */
+public interface SearchBoardEvalFunction extends EvalFunction {
+
+    /**
+     * Returns the value assesment for the position held by the search board.
+     *
+     * @param board the search board to asses
+     * @return      the board value for the player that has to move
+     */
+    int eval(SearchBoard board);
+
+}
@@ -0,0 +1,116 @@
+/*
+ *  StartupBenchmark.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Locale;
+
+import rcrr.reversi.board.LookupTables;
+
+/**
+ * Measures the startup cost of the classes having precomputed lookup tables.
+ * <p>
+ * The program must run in a fresh JVM: it initializes, in order, the {@code Line}, {@code BitBoard1},
+ * and {@code Iago} classes, timing each one. Initialization loads the tables from the binary resources
+ * when they are on the class path. Then it times the computation of the same tables from scratch,
+ * that is the initialization cost when the resources are missing.
+ */
+public final class StartupBenchmark {
+
+    /** The classes initialized by the benchmark. */
+    private static final String[] CLASS_NAMES = {
+        "rcrr.reversi.board.Line",
+        "rcrr.reversi.board.BitBoard1",
+        "rcrr.reversi.Iago"
+    };
+
+    /** Nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLISECOND = 1000000.;
+
+    /** Error code 1. */
+    private static final int ERROR_CODE_1 = 1;
+
+    /**
+     * The main entry point for the startup benchmark.
+     *
+     * @param args no arguments are used
+     */
+    public static void main(final String[] args) {
+        final long jvmStart = System.nanoTime();
+        try {
+            for (final String name : CLASS_NAMES) {
+                final long start = System.nanoTime();
+                Class.forName(name, true, StartupBenchmark.class.getClassLoader());
+                report("initialize " + name, System.nanoTime() - start);
+            }
+            report("initialize all", System.nanoTime() - jvmStart);
+
+            final File tmp = File.createTempFile("lookup-tables", "");
+            if (!tmp.delete() || !tmp.mkdir()) { throw new IOException("Unable to create directory " + tmp); }
+            long start = System.nanoTime();
+            LookupTables.write(tmp);
+            report("compute board tables", System.nanoTime() - start);
+            start = System.nanoTime();
+            Iago.EdgeTable.init();
+            report("compute Iago edge table", System.nanoTime() - start);
+            deleteTree(tmp);
+        } catch (ClassNotFoundException cnfe) {
+            System.out.println("Class not found: " + cnfe.getMessage());
+            System.exit(ERROR_CODE_1);
+        } catch (IOException ioe) {
+            System.out.println("Unable to write the tables: " + ioe.getMessage());
+            System.exit(ERROR_CODE_1);
+        }
+    }
+
+    /**
+     * Prints one line of the report.
+     *
+     * @param label       the measured step
+     * @param nanoseconds the duration of the step
+     */
+    private static void report(final String label, final long nanoseconds) {
+        System.out.println(String.format(Locale.US, "%-40s %10.1f ms", label, nanoseconds / NANOS_PER_MILLISECOND));
+    }
+
+    /**
+     * Deletes the file, and the directory content when the file is a directory.
+     *
+     * @param file the file to delete
+     */
+    private static void deleteTree(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) { deleteTree(child); }
+        }
+        if (!file.delete()) { file.deleteOnExit(); }
+    }
+
+    /** Class constructor. */
+    private StartupBenchmark() { }
+
+}
@@ -0,0 +1,281 @@
+/*
+ *  TrainingSet.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.channels.FileChannel;
+
+/**
+ * A file of labelled positions, used to fit the weights of an evaluation function.
+ * <p>
+ * The file has a header of eight bytes, the magic number {@code 0x52435453} and the format version,
+ * followed by fixed size records of seventeen bytes:
+ * <ul>
+ *   <li>the discs of the player to move, a bitboard of eight bytes</li>
+ *   <li>the discs of the opponent, eight bytes</li>
+ *   <li>the score, the final disc difference for the player to move, one signed byte</li>
+ * </ul>
+ * All the values are big endian.
+ * <p>
+ * Records are written by a {@code TrainingSet.Writer}, and are read in chunks by position,
+ * so that a set far larger than the heap is streamed from disk and never held as objects.
+ * <p>
+ * {@code TrainingSet} is thread-safe, the {@code read} method can be called concurrently.
+ */
+public final class TrainingSet implements Closeable {
+
+    /** The size of a record in bytes. */
+    public static final int RECORD_SIZE = 17;
+
+    /** The maximum absolute value of a score. */
+    public static final int MAX_SCORE = 64;
+
+    /** The magic number, "RCTS" in ASCII. */
+    private static final int MAGIC = 0x52435453;
+
+    /** The format version. */
+    private static final int VERSION = 1;
+
+    /** The header size in bytes. */
+    private static final int HEADER_SIZE = 8;
+
+    /** The number of records buffered by the writer. */
+    private static final int WRITER_BUFFER_RECORDS = 4096;
+
+    /**
+     * Appends records to a training set file.
+     * <p>
+     * {@code TrainingSet.Writer} is thread-safe, records added by concurrent threads are not interleaved.
+     */
+    public static final class Writer implements Closeable {
+
+        /** The channel field. */
+        private final FileChannel channel;
+
+        /** The buffer field. */
+        private final ByteBuffer buffer;
+
+        /** The size field. */
+        private long size;
+
+        /**
+         * Class constructor. It creates the file, or appends to it when {@code append} is true and
+         * the file exists.
+         *
+         * @param file   the training set file
+         * @param append true when records are appended to an existing file
+         * @throws NullPointerException if parameter {@code file} is null
+         * @throws IOException          if the file cannot be written, or an existing one is not a training set
+         */
+        public Writer(final File file, final boolean append) throws IOException {
+            if (file == null) { throw new NullPointerException("Parameter file cannot be null."); }
+            this.buffer = ByteBuffer.allocate(RECORD_SIZE * WRITER_BUFFER_RECORDS).order(ByteOrder.BIG_ENDIAN);
+            if (append && file.length() > 0) {
+                this.size = checkHeader(file);
+                this.channel = new FileOutputStream(file, true).getChannel();
+            } else {
+                this.size = 0;
+                this.channel = new FileOutputStream(file).getChannel();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                try {
+                    while (header.hasRemaining()) { channel.write(header); }
+                } catch (IOException ioe) {
+                    channel.close();
+                    throw ioe;
+                }
+            }
+        }
+
+        /**
+         * Adds a record.
+         *
+         * @param player   the discs of the player to move
+         * @param opponent the discs of the opponent
+         * @param score    the final disc difference for the player to move
+         * @throws IllegalArgumentException if the discs overlap, or the score is out of range
+         * @throws IOException              if the file cannot be written
+         */
+        public synchronized void add(final long player, final long opponent, final int score) throws IOException {
+            if ((player & opponent) != 0L) {
+                throw new IllegalArgumentException("Parameters player and opponent must not overlap.");
+            }
+            if (score < -MAX_SCORE || score > MAX_SCORE) {
+                throw new IllegalArgumentException("Parameter score must be in the range -64..+64, found "
+                                                   + score + ".");
+            }
+            if (!buffer.hasRemaining()) { flush(); }
+            buffer.putLong(player).putLong(opponent).put((byte) score);
+            size++;
+        }
+
+        /**
+         * Returns the number of records of the file, including the ones found when appending.
+         *
+         * @return the number of records
+         */
+        public synchronized long size() {
+            return size;
+        }
+
+        /**
+         * Writes the buffered records.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        public synchronized void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) { channel.write(buffer); }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the buffered records, and closes the file.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        public synchronized void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Checks the header of the file, and returns its number of records.
+     *
+     * @param file the training set file
+     * @return     the number of records
+     * @throws IOException if the file cannot be read, or is not a training set
+     */
+    private static long checkHeader(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final long length = raf.length();
+            if (length < HEADER_SIZE || raf.readInt() != MAGIC || raf.readInt() != VERSION
+                || (length - HEADER_SIZE) % RECORD_SIZE != 0) {
+                throw new IOException("File " + file + " is not a valid training set.");
+            }
+            return (length - HEADER_SIZE) / RECORD_SIZE;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Opens a training set for reading.
+     *
+     * @param file the training set file
+     * @return     the training set
+     * @throws NullPointerException if parameter {@code file} is null
+     * @throws IOException          if the file cannot be read, or is not a training set
+     */
+    public static TrainingSet open(final File file) throws IOException {
+        if (file == null) { throw new NullPointerException("Parameter file cannot be null."); }
+        final long size = checkHeader(file);
+        return new TrainingSet(new RandomAccessFile(file, "r").getChannel(), size);
+    }
+
+    /** The channel field. */
+    private final FileChannel channel;
+
+    /** The size field. */
+    private final long size;
+
+    /**
+     * Class constructor.
+     *
+     * @param channel the channel field
+     * @param size    the size field
+     */
+    private TrainingSet(final FileChannel channel, final long size) {
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return the number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Reads the records starting at {@code from}, as many as the arrays can hold or as many as are left.
+     * The arrays must have the same length.
+     *
+     * @param from      the index of the first record
+     * @param players   receives the discs of the players to move
+     * @param opponents receives the discs of the opponents
+     * @param scores    receives the scores
+     * @return          the number of records read
+     * @throws IllegalArgumentException if {@code from} is out of range, or the arrays differ in length
+     * @throws IOException              if the file cannot be read
+     */
+    public int read(final long from, final long[] players, final long[] opponents, final byte[] scores)
+        throws IOException {
+        if (from < 0 || from > size) { throw new IllegalArgumentException("Parameter from is out of range."); }
+        if (players.length != opponents.length || players.length != scores.length) {
+            throw new IllegalArgumentException("Parameters players, opponents, and scores must have the same length.");
+        }
+        final int count = (int) Math.min(players.length, size - from);
+        final ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        long position = HEADER_SIZE + from * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0) { throw new IOException("Unexpected end of the training set."); }
+            position += n;
+        }
+        buffer.flip();
+        for (int i = 0; i < count; i++) {
+            players[i] = buffer.getLong();
+            opponents[i] = buffer.getLong();
+            scores[i] = buffer.get();
+        }
+        return count;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
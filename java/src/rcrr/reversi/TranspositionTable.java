@@ -0,0 +1,361 @@
+/*
+ *  TranspositionTable.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.Arrays;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import rcrr.reversi.board.Square;
+
+/**
+ * A fixed size hash table that stores the results of searched game positions,
+ * indexed by the position Zobrist key.
+ * <p>
+ * The table is backed by a preallocated {@code long} array. Entries are grouped into buckets of two slots:
+ * the first slot is depth-preferred, it is replaced only by a search having the same or a greater depth,
+ * or by the same position; the second slot is always replaced. Each slot is made by two words:
+ * the first one is the key xored with the data, the second one is the data. The data word packs the
+ * value, the search depth, the bound type, and the best move.
+ * <p>
+ * Readers and writers are not synchronized. A slot written concurrently by two threads, or read while
+ * being written, ends up having words that don't xor back to the key, and it is detected as not matching.
+ * This is the lockless scheme described by: <i>"Robert Hyatt, Timothy Mann.
+ * A lockless transposition table implementation for parallel search. ICGA Journal, 2002"</i>.
+ * <p>
+ * A probe returns the data word of the entry, or {@code NOT_FOUND}, and the fields are read from it
+ * by the {@code bound}, {@code depth}, {@code value}, and {@code move} static methods, so that a hit
+ * doesn't allocate any object.
+ * <p>
+ * The hits, misses, and collisions counters are {@code LongAdder} instances: threads sharing the table
+ * update them without contending on a single memory word.
+ * A collision is counted when a store evicts an entry belonging to a different position.
+ * <p>
+ * {@code TranspositionTable} is mutable, and it is thread-safe.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The type of the value stored in an entry, as determined by the alpha-beta window.
+     */
+    public enum Bound {
+
+        /** The value is exact. */
+        EXACT,
+
+        /** The value is a lower bound, the search failed high. */
+        LOWER,
+
+        /** The value is an upper bound, the search failed low. */
+        UPPER;
+
+        /** Caches the bound enum values in a local array. */
+        private static final Bound[] VALUES = values();
+    }
+
+    /** The entry returned by {@code probe} when the key is not found. */
+    public static final long NOT_FOUND = 0L;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** The number of long words in a slot. */
+    private static final int SLOT_SIZE = 2;
+
+    /** The number of long words in a bucket. */
+    private static final int BUCKET_SIZE = 2 * SLOT_SIZE;
+
+    /** The maximum number of buckets. */
+    private static final int MAX_BUCKETS = 1 << 28;
+
+    /** The depth field shift. */
+    private static final int DEPTH_SHIFT = 32;
+
+    /** The depth field mask. */
+    private static final long DEPTH_MASK = 0xFFL;
+
+    /** The bound field shift. */
+    private static final int BOUND_SHIFT = 40;
+
+    /** The bound field mask. */
+    private static final long BOUND_MASK = 0x3L;
+
+    /** The move field shift. */
+    private static final int MOVE_SHIFT = 42;
+
+    /** The move field mask. */
+    private static final long MOVE_MASK = 0x7FL;
+
+    /** The move field value used when there is no move. */
+    private static final int NO_MOVE = 0;
+
+    /** The value mask. */
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    /** The bit that marks a slot as used. An empty slot has all the bits set to zero. */
+    private static final long USED = 1L << 63;
+
+    /**
+     * Static factory for the class.
+     * <p>
+     * The number of buckets is the power of two that is the nearest to {@code capacity / 2}
+     * not being smaller than it. Each entry takes sixteen bytes.
+     *
+     * @param capacity the minimum number of entries
+     * @return         a new empty transposition table
+     * @throws IllegalArgumentException if {@code capacity} is not positive, or if it is too large
+     */
+    public static TranspositionTable valueOf(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Parameter capacity must be positive. capacity=" + capacity);
+        }
+        int buckets = 1;
+        while (2 * buckets < capacity) {
+            buckets <<= 1;
+            if (buckets > MAX_BUCKETS) {
+                throw new IllegalArgumentException("Parameter capacity is too large. capacity=" + capacity);
+            }
+        }
+        return new TranspositionTable(buckets);
+    }
+
+    /**
+     * Returns the data word packing the given fields.
+     *
+     * @param depth the search depth
+     * @param bound the bound type
+     * @param value the value
+     * @param move  the best move, can be null
+     * @return      the data word
+     */
+    private static long pack(final int depth, final Bound bound, final int value, final Square move) {
+        final long m = (move == null) ? NO_MOVE : move.ordinal() + 1;
+        final long d = Math.min(Math.max(depth, 0), (int) DEPTH_MASK);
+        return USED
+            | (m << MOVE_SHIFT)
+            | ((long) bound.ordinal() << BOUND_SHIFT)
+            | (d << DEPTH_SHIFT)
+            | (value & VALUE_MASK);
+    }
+
+    /**
+     * Returns the bound type of the entry.
+     *
+     * @param entry the entry returned by {@code probe}, it must be not {@code NOT_FOUND}
+     * @return      the bound type
+     */
+    public static Bound bound(final long entry) {
+        return Bound.VALUES[(int) ((entry >>> BOUND_SHIFT) & BOUND_MASK)];
+    }
+
+    /**
+     * Returns the search depth of the entry.
+     *
+     * @param entry the entry returned by {@code probe}, it must be not {@code NOT_FOUND}
+     * @return      the search depth
+     */
+    public static int depth(final long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    /**
+     * Returns the best move of the entry, it is null when the position has no legal move.
+     *
+     * @param entry the entry returned by {@code probe}, it must be not {@code NOT_FOUND}
+     * @return      the best move
+     */
+    public static Square move(final long entry) {
+        final int move = (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+        return (move == NO_MOVE) ? null : SQUARE_VALUES[move - 1];
+    }
+
+    /**
+     * Returns the value of the entry.
+     *
+     * @param entry the entry returned by {@code probe}, it must be not {@code NOT_FOUND}
+     * @return      the value
+     */
+    public static int value(final long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Returns a string representing the entry.
+     *
+     * @param entry the entry returned by {@code probe}, it must be not {@code NOT_FOUND}
+     * @return      a string representing the entry
+     */
+    public static String entryToString(final long entry) {
+        return "[" + bound(entry) + ", depth=" + depth(entry) + ", value=" + value(entry)
+            + ", move=" + move(entry) + "]";
+    }
+
+    /** The table field. */
+    private final long[] table;
+
+    /** The bucket index mask. */
+    private final int mask;
+
+    /** The hits counter. */
+    private final LongAdder hits = new LongAdder();
+
+    /** The misses counter. */
+    private final LongAdder misses = new LongAdder();
+
+    /** The collisions counter. */
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Class constructor.
+     *
+     * @param buckets the number of buckets, it must be a power of two
+     */
+    private TranspositionTable(final int buckets) {
+        assert (Integer.bitCount(buckets) == 1) : "Parameter buckets must be a power of two.";
+        this.table = new long[buckets * BUCKET_SIZE];
+        this.mask = buckets - 1;
+    }
+
+    /**
+     * Returns the number of entries that the table can hold.
+     *
+     * @return the table capacity
+     */
+    public int capacity() {
+        return table.length / SLOT_SIZE;
+    }
+
+    /**
+     * Removes all the entries, and resets the counters.
+     * <p>
+     * The method must not be called while a search is using the table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        resetCounters();
+    }
+
+    /**
+     * Returns the collisions counter.
+     *
+     * @return the number of stores that have evicted a different position
+     */
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Returns the hits counter.
+     *
+     * @return the number of successful probes
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the misses counter.
+     *
+     * @return the number of unsuccessful probes
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the entry stored for the {@code key}, or {@code NOT_FOUND} when the table doesn't have it.
+     *
+     * @param key the Zobrist key of the game position
+     * @return    the entry, or {@code NOT_FOUND}
+     */
+    public long probe(final long key) {
+        final int bucket = bucketIndex(key);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot += SLOT_SIZE) {
+            final long check = table[slot];
+            final long data = table[slot + 1];
+            if ((data & USED) != 0L && (check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return NOT_FOUND;
+    }
+
+    /**
+     * Resets the hits, misses, and collisions counters.
+     */
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    /**
+     * Stores the result of a search.
+     * <p>
+     * The entry goes into the depth-preferred slot when it holds the same position, or a
+     * search not deeper than the new one, otherwise it goes into the always-replace slot.
+     * Parameter {@code bound} must be not null.
+     *
+     * @param key   the Zobrist key of the game position
+     * @param depth the search depth, values greater than 255 are stored as 255
+     * @param bound the bound type
+     * @param value the value
+     * @param move  the best move, can be null
+     */
+    public void store(final long key, final int depth, final Bound bound, final int value, final Square move) {
+        assert (bound != null) : "Parameter bound must be not null.";
+        final long data = pack(depth, bound, value, move);
+        final int bucket = bucketIndex(key);
+        final long preferredCheck = table[bucket];
+        final long preferredData = table[bucket + 1];
+        final boolean preferredIsEmpty = (preferredData & USED) == 0L;
+        final boolean preferredIsSame = (preferredCheck ^ preferredData) == key;
+        final int slot;
+        if (preferredIsEmpty || preferredIsSame
+            || ((preferredData >>> DEPTH_SHIFT) & DEPTH_MASK) <= ((data >>> DEPTH_SHIFT) & DEPTH_MASK)) {
+            slot = bucket;
+            if (!preferredIsEmpty && !preferredIsSame) { collisions.increment(); }
+        } else {
+            slot = bucket + SLOT_SIZE;
+            final long alwaysData = table[slot + 1];
+            if ((alwaysData & USED) != 0L && (table[slot] ^ alwaysData) != key) { collisions.increment(); }
+        }
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Returns the index of the first word of the bucket assigned to the {@code key}.
+     *
+     * @param key the Zobrist key
+     * @return    the bucket index
+     */
+    private int bucketIndex(final long key) {
+        return ((int) (key ^ (key >>> Integer.SIZE)) & mask) * BUCKET_SIZE;
+    }
+
+}
@@ -32,6 +32,7 @@ import java.util.Collections;
 
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SearchBoard;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.SquareState;
 
@@ -69,14 +70,18 @@ import rcrr.reversi.board.SquareState;
  * opponent's squares weighted the same way.
  *
  */
-public class WeightedSquares implements EvalFunction {
+public class WeightedSquares implements SearchBoardEvalFunction {
 
     /** The static WEIGHTS map. */
     private static final Map<Square, Integer> WEIGHTS;
 
+    /** The weights indexed by the square ordinal, used when evaluating the bitboards. */
+    private static final int[] WEIGHT_ARRAY;
+
     /**
      * Initialization block:
      * . - sets and initializes the {@code WEIGHTS} map
+     * . - sets and initializes the {@code WEIGHT_ARRAY} array
      */
     static {
         final List<Integer> w = Arrays.asList(120, -20,  20,  5,  5,  20, -20, 120,
@@ -93,6 +98,10 @@ public class WeightedSquares implements EvalFunction {
             wm.put(Square.values()[idx], w.get(idx));
         }
         WEIGHTS = Collections.unmodifiableMap(wm);
+        WEIGHT_ARRAY = new int[w.size()];
+        for (int idx = 0; idx < w.size(); idx++) {
+            WEIGHT_ARRAY[idx] = w.get(idx);
+        }
     }
 
     /**
@@ -135,4 +144,33 @@ public class WeightedSquares implements EvalFunction {
         return value;
     }
 
+    /**
+     * Computes the evaluation of the search board, summing the weights of the player's discs
+     * and subtracting the ones of the opponent's discs.
+     *
+     * @param board the search board to evaluate
+     * @return      the board evaluation
+     * @throws NullPointerException if parameter {@code board} is null
+     */
+    public final int eval(final SearchBoard board) {
+        if (board == null) { throw new NullPointerException("Parameter board cannot be null."); }
+        return weightedSum(board.playerBitboard()) - weightedSum(board.opponentBitboard());
+    }
+
+    /**
+     * Returns the sum of the weights of the squares set in the {@code discs} bitboard.
+     *
+     * @param discs the discs as a bitboard
+     * @return      the sum of the weights
+     */
+    static int weightedSum(final long discs) {
+        int sum = 0;
+        long remaining = discs;
+        while (remaining != 0L) {
+            sum += WEIGHT_ARRAY[Long.numberOfTrailingZeros(remaining)];
+            remaining &= remaining - 1L;
+        }
+        return sum;
+    }
+
 }
@@ -99,15 +99,12 @@ public abstract class AbstractBoard implements Board {
     /** Caches the player enum values in a local array. */
     private static final Player[] PLAYER_VALUES = Player.values();
 
-    /** Prime number 17. */
-    private static final int PRIME_NUMBER_17 = 17;
-
-    /** Prime number 37. */
-    private static final int PRIME_NUMBER_37 = 37;
-
     /** Lazily initialized, cached hashCode. */
     private transient volatile int hashCode = 0;
 
+    /** Lazily initialized, cached Zobrist key. */
+    private transient volatile long zobrist = 0L;
+
     /**
      * {@inheritDoc}
      */
@@ -130,6 +127,21 @@ public abstract class AbstractBoard implements Board {
         return count;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation collects the squares returned by the {@code get(Square)} method.
+     */
+    public long discsMask(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        final SquareState color = player.color();
+        long mask = 0L;
+        for (final Square sq : SQUARE_VALUES) {
+            if (get(sq) == color) { mask |= 1L << sq.ordinal(); }
+        }
+        return mask;
+    }
+
     /**
      * Returns true if the specified object is equal to this board.
      * Two boards are equal when they have the same disk's configuration.
@@ -149,6 +161,34 @@ public abstract class AbstractBoard implements Board {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation compares the board obtained by the {@code makeMove(Square, Player)} method
+     * with this board, square by square.
+     */
+    public long flips(final Square move, final Player player) {
+        if (!isLegal(move, player)) { return 0L; }
+        final Board next = makeMove(move, player);
+        final SquareState opponentColor = player.opponent().color();
+        long flips = 0L;
+        for (final Square sq : SQUARE_VALUES) {
+            if (get(sq) == opponentColor && next.get(sq) != opponentColor) { flips |= 1L << sq.ordinal(); }
+        }
+        return flips;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation maps the board to a bitboard and applies the {@code BitBoard4} algorithm.
+     */
+    public long stableDiscs(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        final long[] bitboard = BoardUtils.mapToBitboard(BoardUtils.squares(this));
+        return BitBoard4.stableDiscs(bitboard[player.ordinal()], bitboard[player.opponent().ordinal()]);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -191,11 +231,8 @@ public abstract class AbstractBoard implements Board {
     @Override
     public int hashCode() {
         if (hashCode == 0) {
-            int result = PRIME_NUMBER_17;
-            for (final Square sq : SQUARE_VALUES) {
-                result = PRIME_NUMBER_37 * result + get(sq).ordinal();
-            }
-            hashCode = result;
+            final long key = zobrist();
+            hashCode = (int) (key ^ (key >>> Integer.SIZE));
         }
         return hashCode;
     }
@@ -205,6 +242,59 @@ public abstract class AbstractBoard implements Board {
      */
     public abstract boolean isLegal(Square move, Player player);
 
+    /**
+     * {@inheritDoc}
+     */
+    public long zobrist() {
+        if (zobrist == 0L) {
+            zobrist = computeZobrist();
+        }
+        return zobrist;
+    }
+
+    /**
+     * Computes the Zobrist key from scratch.
+     * <p>
+     * The default implementation scans the board squares, subclasses are free to provide a faster one.
+     *
+     * @return the board Zobrist key
+     */
+    long computeZobrist() {
+        long black = 0L;
+        long white = 0L;
+        for (final Square sq : SQUARE_VALUES) {
+            final SquareState color = get(sq);
+            if (color == SquareState.BLACK) {
+                black |= 1L << sq.ordinal();
+            } else if (color == SquareState.WHITE) {
+                white |= 1L << sq.ordinal();
+            }
+        }
+        return Zobrist.key(black, white);
+    }
+
+    /**
+     * Returns the cached Zobrist key, or zero when it has not been computed yet.
+     * Unlike {@code zobrist()}, the method never computes the key.
+     *
+     * @return the cached Zobrist key, or zero
+     */
+    final long cachedZobrist() {
+        return zobrist;
+    }
+
+    /**
+     * Sets the cached Zobrist key, when it is known in advance, as it happens
+     * for a board obtained by a move on a board having a computed key.
+     * <p>
+     * The method must be called before the board is published.
+     *
+     * @param key the board Zobrist key
+     */
+    final void setZobrist(final long key) {
+        this.zobrist = key;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -217,11 +307,34 @@ public abstract class AbstractBoard implements Board {
         return legalMoves;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation collects the squares returned by the {@code legalMoves(Player)} method.
+     */
+    public long legalMovesMask(final Player player) {
+        long mask = 0L;
+        for (final Square move : legalMoves(player)) {
+            mask |= 1L << move.ordinal();
+        }
+        return mask;
+    }
+
     /**
      * {@inheritDoc}
      */
     public abstract Board makeMove(Square move, Player player);
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation ignores the {@code flips} parameter, and delegates to the
+     * {@code makeMove(Square, Player)} method.
+     */
+    public Board makeMoveWithFlips(final long move, final long flips, final Player player) {
+        return makeMove(SQUARE_VALUES[Long.numberOfTrailingZeros(move)], player);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -86,6 +86,16 @@ public abstract class BitBoard extends AbstractBoard {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long flips(final Square move, final Player player) {
+        isLegalInvariantsAreSatisfied(move, player);
+        if (!isLegal(move, player)) { return 0L; }
+        return flips(move, player.ordinal());
+    }
+
     /**
      * Returns the {@code SquareState} value for the given board's square.
      * <p>
@@ -106,6 +116,47 @@ public abstract class BitBoard extends AbstractBoard {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long discsMask(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        return bitboard[player.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long legalMovesMask(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        return legalMoves(player.ordinal());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long stableDiscs(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        final int p = player.ordinal();
+        return BitBoard4.stableDiscs(bitboard[p], bitboard[opponent(p)]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Board makeMoveWithFlips(final long move, final long flips, final Player player) {
+        final int p = player.ordinal();
+        final int o = opponent(p);
+        final long[] newbitboard = new long[2];
+        newbitboard[p] = bitboard(p) | move | flips;
+        newbitboard[o] = bitboard(o) & ~flips;
+        return newBoardAfterMove(newbitboard, move, p);
+    }
+
     /**
      * Returns the empty set of squares in the board.
      *
@@ -132,4 +183,72 @@ public abstract class BitBoard extends AbstractBoard {
      */
     final long bitboard(final int player) { return this.bitboard[player]; }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key is computed by mean of the row tables held by the {@code Zobrist} class.
+     */
+    @Override
+    final long computeZobrist() {
+        return Zobrist.key(bitboard[BLACK], bitboard[WHITE]);
+    }
+
+    /**
+     * Returns a new board having the {@code newbitboard} state, obtained by the {@code player}
+     * moving on the {@code move} square of this board.
+     * <p>
+     * When the Zobrist key of this board has already been computed, the key of the new board is updated
+     * incrementally from it, xoring the keys of the squares that have changed. Otherwise the key is left
+     * to be computed lazily, so that callers never hashing the boards don't pay for it.
+     * Preconditions on parameters are not checked.
+     *
+     * @param newbitboard the bitboard of the new board
+     * @param move        the move, as a bitboard having one bit set
+     * @param player      the player moving
+     * @return            the new board
+     */
+    final Board newBoardAfterMove(final long[] newbitboard, final long move, final int player) {
+        final Board board = newBoard(newbitboard);
+        final long key = cachedZobrist();
+        if (key != 0L) {
+            final long flips = bitboard(opponent(player)) & ~newbitboard[opponent(player)];
+            ((AbstractBoard) board).setZobrist(key ^ Zobrist.moveKey(player, move, flips));
+        }
+        return board;
+    }
+
+    /**
+     * Returns the discs flipped when the {@code player} puts a disc on the {@code move} square.
+     * <p>
+     * The move must be legal, the precondition is not checked.
+     * Parameter {@code player} must be either {@code 0} or {@code 1}.
+     *
+     * @param move   the square where to put the new disk
+     * @param player the player moving
+     * @return       the flipped discs
+     */
+    abstract long flips(Square move, int player);
+
+    /**
+     * Returns the legal moves for the player.
+     * <p>
+     * Parameter {@code player} must be either {@code 0} or {@code 1}.
+     *
+     * @param player the player that has to move
+     * @return       legal moves for the player
+     */
+    abstract long legalMoves(int player);
+
+    /**
+     * Returns a new board, belonging to the same concrete class, having the given bitboard as state.
+     * <p>
+     * {@code bitboard} must be not null, and must have a size equal to
+     * two. Overlapping bit set are not valid.
+     * Precondition on the {@code bitboard} parameter are not enforced.
+     *
+     * @param  bitboard the bitboard field
+     * @return          a new board
+     */
+    abstract Board newBoard(long[] bitboard);
+
 }
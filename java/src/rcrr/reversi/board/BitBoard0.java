@@ -41,28 +41,14 @@ import java.util.Map;
  */
 public final class BitBoard0 extends BitBoard {
 
-    /** It turns on or off the class logging for performances. */
-    private static final boolean LOG = true;
+    /** The call counters of the class. */
+    private static final BoardMetrics.Counters METRICS = BoardMetrics.counters(BitBoard0.class);
 
-    /** Collects the number of call to legalMoves method. */
-    private static int callsTolegalMoves = 0;
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
 
-    /** Collects the number of call to makeMove method. */
-    private static int callsToMakeMove = 0;
-
-    /** Collects the number of call to the class constructor. */
-    private static int callsToConstructor = 0;
-
-    /**
-     * Returns info for performance statistics.
-     *
-     * @return a string having class performance statistics
-     */
-    public static String printLog() {
-        String ret = "callsTolegalMoves=" + callsTolegalMoves + ", callsToMakeMove=" + callsToMakeMove
-            + ", callsToConstructor=" + callsToConstructor;
-        return ret;
-    }
+    /** Caches the player enum values in a local array. */
+    private static final Player[] PLAYER_VALUES = Player.values();
 
     /**
      * Base static factory for the class.
@@ -101,7 +87,7 @@ public final class BitBoard0 extends BitBoard {
      */
     private BitBoard0(final long[] bitboard) {
         super(bitboard);
-        if (LOG) { callsToConstructor++; }
+        METRICS.increment(BoardMetrics.Event.CONSTRUCTOR);
     }
 
     /**
@@ -128,27 +114,61 @@ public final class BitBoard0 extends BitBoard {
     @Override
     public Board makeMove(final Square move, final Player player) {
 
-        if (LOG) { callsToMakeMove++; }
+        METRICS.increment(BoardMetrics.Event.MAKE_MOVE);
 
         makeMoveInvariantsAreSatisfied(move, player);
 
-        final long[] newbitboard = bitboard().clone();
         final int p = player.ordinal();
         final int o = p ^ WHITE;
-        final int m = move.ordinal();
-        final long bitmove = 1L << m;
-        newbitboard[p] |= bitmove; // set the move
+        final long bitmove = 1L << move.ordinal();
+        final long flips = flips(move, p);
+        final long[] newbitboard = new long[2];
+        newbitboard[p] = bitboard(p) | bitmove | flips;
+        newbitboard[o] = bitboard(o) & ~flips;
+        return newBoardAfterMove(newbitboard, bitmove, p);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long flips(final Square move, final int player) {
+        final Player p = PLAYER_VALUES[player];
+        final long bitmove = 1L << move.ordinal();
+        long flips = 0L;
         for (final Direction dir : move.capableToFlipDirections()) {
-            final long bracketer = wouldFlip(bitmove, player, dir);
+            final long bracketer = wouldFlip(bitmove, p, dir);
             if (bracketer != 0L) {
-                for (long c = dir.shiftBitboard(bitmove); true; c = dir.shiftBitboard(c)) {
-                    if (c == bracketer) { break; }
-                    newbitboard[p] |= c;
-                    newbitboard[o] &= ~c;
+                for (long c = dir.shiftBitboard(bitmove); c != bracketer; c = dir.shiftBitboard(c)) {
+                    flips |= c;
                 }
             }
         }
-        return valueOf(newbitboard);
+        return flips;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The empty squares are tested one by one calling the {@code isLegal(Square, Player)} method.
+     */
+    @Override
+    long legalMoves(final int player) {
+        final Player p = PLAYER_VALUES[player];
+        long result = 0L;
+        for (long empties = empties(); empties != 0L; empties = BitWorks.unsetLowestBit(empties)) {
+            final int index = Long.numberOfTrailingZeros(empties);
+            if (isLegal(SQUARE_VALUES[index], p)) { result |= 1L << index; }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Board newBoard(final long[] bitboard) {
+        return valueOf(bitboard);
     }
 
     /**
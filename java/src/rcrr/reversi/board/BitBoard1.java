@@ -27,6 +27,8 @@ package rcrr.reversi.board;
 import java.util.Map;
 import java.util.List;
 
+import rcrr.reversi.util.BinaryTable;
+
 /**
  * A board concrete implementation in the bitboard family.
  * <p>
@@ -40,26 +42,8 @@ import java.util.List;
  */
 public class BitBoard1 extends BitBoard {
 
-    /** It turns on or off the class logging for performances. */
-    private static final boolean LOG = true;
-
-    /** Collects the number of call to legalMoves method. */
-    private static int callsTolegalMoves = 0;
-
-    /** Collects the number of call to makeMove method. */
-    private static int callsToMakeMove = 0;
-
-    /** Collects the number of call to the class constructor. */
-    private static int callsToConstructor = 0;
-
-    /** Collects the number of call to isLegal method. */
-    private static int callsToIsLegal = 0;
-
-    /** Collects the number of likely moves in the legalMoves method. */
-    private static int numberOflikelyMoves = 0;
-
-    /** Collects the number of legal moves in the legalMoves method. */
-    private static int numberOflegalMoves = 0;
+    /** The call counters of the class. */
+    private static final BoardMetrics.Counters METRICS = BoardMetrics.counters(BitBoard1.class);
 
     /** Caches the direction enum values in a local array. */
     private static final Direction[] DIRECTION_VALUES = Direction.values();
@@ -91,33 +75,6 @@ public class BitBoard1 extends BitBoard {
     /** Macic number 256. */
     private static final int MAGIC_NUMBER_256 = 256;
 
-    /**
-     * This array has sixtyfour entries. The index, having range 0-63, represent one of the squares
-     * of the table. Each entry is a bitboard mask having set all the squares that are
-     * reachable moving along the eigth directions, when starting from the square identified by
-     * the index itself.
-     * <p>
-     * Values do not change.
-     */
-    private static final long[] BITBOARD_MASK_FOR_ALL_DIRECTIONS = new long[] {
-        0x81412111090503FEL, 0x02824222120A07FDL, 0x0404844424150EFBL, 0x08080888492A1CF7L,
-        0x10101011925438EFL, 0x2020212224A870DFL, 0x404142444850E0BFL, 0x8182848890A0C07FL,
-        0x412111090503FE03L, 0x824222120A07FD07L, 0x04844424150EFB0EL, 0x080888492A1CF71CL,
-        0x101011925438EF38L, 0x20212224A870DF70L, 0x4142444850E0BFE0L, 0x82848890A0C07FC0L,
-        0x2111090503FE0305L, 0x4222120A07FD070AL, 0x844424150EFB0E15L, 0x0888492A1CF71C2AL,
-        0x1011925438EF3854L, 0x212224A870DF70A8L, 0x42444850E0BFE050L, 0x848890A0C07FC0A0L,
-        0x11090503FE030509L, 0x22120A07FD070A12L, 0x4424150EFB0E1524L, 0x88492A1CF71C2A49L,
-        0x11925438EF385492L, 0x2224A870DF70A824L, 0x444850E0BFE05048L, 0x8890A0C07FC0A090L,
-        0x090503FE03050911L, 0x120A07FD070A1222L, 0x24150EFB0E152444L, 0x492A1CF71C2A4988L,
-        0x925438EF38549211L, 0x24A870DF70A82422L, 0x4850E0BFE0504844L, 0x90A0C07FC0A09088L,
-        0x0503FE0305091121L, 0x0A07FD070A122242L, 0x150EFB0E15244484L, 0x2A1CF71C2A498808L,
-        0x5438EF3854921110L, 0xA870DF70A8242221L, 0x50E0BFE050484442L, 0xA0C07FC0A0908884L,
-        0x03FE030509112141L, 0x07FD070A12224282L, 0x0EFB0E1524448404L, 0x1CF71C2A49880808L,
-        0x38EF385492111010L, 0x70DF70A824222120L, 0xE0BFE05048444241L, 0xC07FC0A090888482L,
-        0xFE03050911214181L, 0xFD070A1222428202L, 0xFB0E152444840404L, 0xF71C2A4988080808L,
-        0xEF38549211101010L, 0xDF70A82422212020L, 0xBFE0504844424140L, 0x7FC0A09088848281L
-    };
-
     /**
      * This array is an implementation of the precomputed table that contains the effects of moving
      * a piece in any of the eigth squares in a row.
@@ -131,20 +88,10 @@ public class BitBoard1 extends BitBoard {
      *
      * The index of the array is computed by this formula:
      * index = playerRow | (opponentRow << 8) | (movePosition << 16);
-     */
-    private static final byte[] BITROW_CHANGES_FOR_PLAYER_ARRAY = initializeBitrowChangesForPlayerArray();
-
-    /**
-     * Returns info for performance statistics.
      *
-     * @return a string having class performance statistics
+     * The table is loaded from a binary resource generated at build time, or computed when the resource is missing.
      */
-    public static String printLog() {
-        String ret = "callsTolegalMoves=" + callsTolegalMoves + ", callsToMakeMove=" + callsToMakeMove
-            + ", callsToConstructor=" + callsToConstructor + ", numberOflikelyMoves=" + numberOflikelyMoves
-            + ", numberOflegalMoves=" + numberOflegalMoves + ", callsToIsLegal=" + callsToIsLegal;
-        return ret;
-    }
+    private static final byte[] BITROW_CHANGES_FOR_PLAYER_ARRAY = loadBitrowChangesForPlayerArray();
 
     /**
      * Base static factory for the class.
@@ -191,89 +138,117 @@ public class BitBoard1 extends BitBoard {
     }
 
     /**
-     * Used to initialize the BITROW_CHANGES_FOR_PLAYER_ARRAY.
+     * Returns the BITROW_CHANGES_FOR_PLAYER_ARRAY read from the binary resource, or computes it
+     * when the resource is not available.
      *
      * @return a byte array having the row changes for the given index value
      */
-    private static byte[] initializeBitrowChangesForPlayerArray() {
-
-        final byte[] arrayResult = new byte[MAGIC_NUMBER_256 * MAGIC_NUMBER_256 * MAGIC_NUMBER_8];
-        for (int playerRow = 0; playerRow < MAGIC_NUMBER_256; playerRow++) {
-            for (int opponentRow = 0; opponentRow < MAGIC_NUMBER_256; opponentRow++) {
-                final int filledInRow = playerRow | opponentRow;
-                final int emptiesInRow = ~(filledInRow) & BYTE_MASK_FOR_INT;
-                for (int movePosition = 0; movePosition < MAGIC_NUMBER_8; movePosition++) {
-                    final int move = 1 << movePosition;
-                    final int arrayResultIndex = playerRow
-                        | (opponentRow << MAGIC_NUMBER_8)
-                        | (movePosition << MAGIC_NUMBER_16);
-
-                    int playerRowAfterMove;
-
-                    /**
-                     * It checks two conditions that cannot happen because are illegal.
-                     * First player and opponent cannot have overlapping discs.
-                     * Second the move cannot overlap existing discs.
-                     * When either one of the two condition applies the result is set being equal
-                     * to the player row index. Otherwise when black and white do not overlap,
-                     * and the move is on an empy square it procede with the else block.
-                     **/
-                    if (((playerRow & opponentRow) != 0) || ((move & filledInRow) != 0)) {
-                        playerRowAfterMove = playerRow;
-                    } else {
-
-                        /** The square of the move is added to the player configuration of the row after the move. */
-                        playerRowAfterMove = playerRow | move;
+    private static byte[] loadBitrowChangesForPlayerArray() {
+        final byte[] table = BinaryTable.readBytes(LookupTables.BITROW_CHANGES_FOR_PLAYER,
+                                                   MAGIC_NUMBER_256 * MAGIC_NUMBER_256 * MAGIC_NUMBER_8);
+        return (table != null) ? table : BitrowChangesForPlayer.compute();
+    }
 
-                        /**
-                         * The potential bracketing disc on the right is the first player disc found moving
-                         * on the left starting from the square of the move.
-                         */
-                        final int potentialBracketingDiscOnTheLeft = BitWorks.highestBitSet(playerRow & (move - 1));
+    /**
+     * Computes the BITROW_CHANGES_FOR_PLAYER_ARRAY.
+     * <p>
+     * The class is nested, so that {@code LookupTables} computes the table without initializing
+     * {@code BitBoard1}, that would load or compute the table once more.
+     */
+    static final class BitrowChangesForPlayer {
 
-                        /**
-                         * The left rank is the sequence of adiacent discs that start from the bracketing disc and end
-                         * with the move disc.
-                         */
-                        final int leftRank = BitWorks.fillInBetween(potentialBracketingDiscOnTheLeft | move);
+        /**
+         * Used to initialize the BITROW_CHANGES_FOR_PLAYER_ARRAY.
+         *
+         * @return a byte array having the row changes for the given index value
+         */
+        static byte[] compute() {
 
-                        /**
-                         * If the rank contains empy squares, this is a fake flip, and it doesn't do anything.
-                         * If the rank is full, it cannot be full of anything different than opponent discs, so
-                         * it adds the discs to the after move player configuration.
-                         */
-                        if ((leftRank & emptiesInRow) == 0) {
-                            playerRowAfterMove |= leftRank;
-                        }
+            final byte[] arrayResult = new byte[MAGIC_NUMBER_256 * MAGIC_NUMBER_256 * MAGIC_NUMBER_8];
+            for (int playerRow = 0; playerRow < MAGIC_NUMBER_256; playerRow++) {
+                for (int opponentRow = 0; opponentRow < MAGIC_NUMBER_256; opponentRow++) {
+                    final int filledInRow = playerRow | opponentRow;
+                    final int emptiesInRow = ~(filledInRow) & BYTE_MASK_FOR_INT;
+                    for (int movePosition = 0; movePosition < MAGIC_NUMBER_8; movePosition++) {
+                        final int move = 1 << movePosition;
+                        final int arrayResultIndex = playerRow
+                            | (opponentRow << MAGIC_NUMBER_8)
+                            | (movePosition << MAGIC_NUMBER_16);
 
-                        /** Here it does the same computed on the left also on the right. */
-                        final int potentialBracketingDiscOnTheRight = BitWorks.lowestBitSet(playerRow & ~(move - 1));
-                        final int rightRank = BitWorks.fillInBetween(potentialBracketingDiscOnTheRight | move);
-                        if ((rightRank & emptiesInRow) == 0) {
-                            playerRowAfterMove |= rightRank;
-                        }
+                        int playerRowAfterMove;
 
                         /**
-                         * It checks that the after move configuration is different from
-                         * the starting one for the player.
-                         * This case can happen because it never checked that
-                         * the bracketing piece was not adjacent to the move disc,
-                         * on such a case, on both side, the move is illegal, and it is recorded setting
-                         * the result configuation appropriately.
-                         */
-                        if (playerRowAfterMove == (playerRow | move)) {
+                         * It checks two conditions that cannot happen because are illegal.
+                         * First player and opponent cannot have overlapping discs.
+                         * Second the move cannot overlap existing discs.
+                         * When either one of the two condition applies the result is set being equal
+                         * to the player row index. Otherwise when black and white do not overlap,
+                         * and the move is on an empy square it procede with the else block.
+                         **/
+                        if (((playerRow & opponentRow) != 0) || ((move & filledInRow) != 0)) {
                             playerRowAfterMove = playerRow;
+                        } else {
+
+                            /**
+                             * The square of the move is added to the player configuration of the row
+                             * after the move.
+                             */
+                            playerRowAfterMove = playerRow | move;
+
+                            /**
+                             * The potential bracketing disc on the right is the first player disc found moving
+                             * on the left starting from the square of the move.
+                             */
+                            final int potentialBracketingDiscOnTheLeft = BitWorks.highestBitSet(playerRow & (move - 1));
+
+                            /**
+                             * The left rank is the sequence of adiacent discs that start from the bracketing disc
+                             * and end with the move disc.
+                             */
+                            final int leftRank = BitWorks.fillInBetween(potentialBracketingDiscOnTheLeft | move);
+
+                            /**
+                             * If the rank contains empy squares, this is a fake flip, and it doesn't do anything.
+                             * If the rank is full, it cannot be full of anything different than opponent discs, so
+                             * it adds the discs to the after move player configuration.
+                             */
+                            if ((leftRank & emptiesInRow) == 0) {
+                                playerRowAfterMove |= leftRank;
+                            }
+
+                            /** Here it does the same computed on the left also on the right. */
+                            final int potentialBracketingDiscOnTheRight
+                                = BitWorks.lowestBitSet(playerRow & ~(move - 1));
+                            final int rightRank = BitWorks.fillInBetween(potentialBracketingDiscOnTheRight | move);
+                            if ((rightRank & emptiesInRow) == 0) {
+                                playerRowAfterMove |= rightRank;
+                            }
+
+                            /**
+                             * It checks that the after move configuration is different from
+                             * the starting one for the player.
+                             * This case can happen because it never checked that
+                             * the bracketing piece was not adjacent to the move disc,
+                             * on such a case, on both side, the move is illegal, and it is recorded setting
+                             * the result configuation appropriately.
+                             */
+                            if (playerRowAfterMove == (playerRow | move)) {
+                                playerRowAfterMove = playerRow;
+                            }
                         }
-                    }
 
-                    /** Assigns the computed player row index to the proper array position. */
-                    arrayResult[arrayResultIndex] = (byte) playerRowAfterMove;
+                        /** Assigns the computed player row index to the proper array position. */
+                        arrayResult[arrayResultIndex] = (byte) playerRowAfterMove;
 
+                    }
                 }
             }
+
+            return arrayResult;
         }
 
-        return arrayResult;
+        /** Class constructor. */
+        private BitrowChangesForPlayer() { }
     }
 
     /**
@@ -311,7 +286,7 @@ public class BitBoard1 extends BitBoard {
      */
     BitBoard1(final long[] bitboard) {
         super(bitboard);
-        if (LOG) { callsToConstructor++; }
+        METRICS.increment(BoardMetrics.Event.CONSTRUCTOR);
     }
 
     /**
@@ -319,7 +294,7 @@ public class BitBoard1 extends BitBoard {
      */
     @Override
     public boolean isLegal(final Square move, final Player player) {
-        if (LOG) { callsToIsLegal++; }
+        METRICS.increment(BoardMetrics.Event.IS_LEGAL);
         isLegalInvariantsAreSatisfied(move, player);
         return isLegal(1L << move.ordinal(), player.ordinal());
     }
@@ -329,7 +304,7 @@ public class BitBoard1 extends BitBoard {
      */
     @Override
     public List<Square> legalMoves(final Player player) {
-        if (LOG) { callsTolegalMoves++; }
+        METRICS.increment(BoardMetrics.Event.LEGAL_MOVES);
         if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
         return new SquareList(legalMoves(player.ordinal()));
     }
@@ -339,9 +314,55 @@ public class BitBoard1 extends BitBoard {
      */
     @Override
     public Board makeMove(final Square move, final Player player) {
-        if (LOG) { callsToMakeMove++; }
+        METRICS.increment(BoardMetrics.Event.MAKE_MOVE);
         makeMoveInvariantsAreSatisfied(move, player);
-        return valueOf(makeMoveImpl(move, player.ordinal()));
+        return newBoardAfterMove(makeMoveImpl(move, player.ordinal()), 1L << move.ordinal(), player.ordinal());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The four axes crossing the move are computed by mean of the
+     * {@code BITROW_CHANGES_FOR_PLAYER_ARRAY} table. The {@code makeMoveImpl} method applies the returned flips.
+     */
+    @Override
+    long flips(final Square move, final int player) {
+
+        final int column = move.column().ordinal();
+        final int row = move.row().ordinal();
+
+        final long playerBitboard   = bitboard(player);
+        final long opponentBitboard = bitboard(opponent(player));
+
+        long playerAfterMove = 0L;
+        int playerBitrow;
+        int opponentBitrow;
+        int shiftDistance;
+
+        final int rightShiftForHO = MAGIC_NUMBER_8 * row;
+        playerBitrow   = Axis.HO.transformToRowOne(playerBitboard   >>> rightShiftForHO);
+        opponentBitrow = Axis.HO.transformToRowOne(opponentBitboard >>> rightShiftForHO);
+        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
+        playerAfterMove |= ((long) playerBitrow << rightShiftForHO);
+
+        playerBitrow   = Axis.VE.transformToRowOne(playerBitboard   >>> column);
+        opponentBitrow = Axis.VE.transformToRowOne(opponentBitboard >>> column);
+        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, row);
+        playerAfterMove |= Axis.VE.transformBackFromRowOne(playerBitrow) << column;
+
+        shiftDistance  = Axis.DD.shiftDistance(column, row);
+        playerBitrow   = Axis.DD.transformToRowOne(BitWorks.signedLeftShift(playerBitboard,   shiftDistance));
+        opponentBitrow = Axis.DD.transformToRowOne(BitWorks.signedLeftShift(opponentBitboard, shiftDistance));
+        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
+        playerAfterMove |= BitWorks.signedLeftShift(Axis.DD.transformBackFromRowOne(playerBitrow), -shiftDistance);
+
+        shiftDistance  = Axis.DU.shiftDistance(column, row);
+        playerBitrow   = Axis.DU.transformToRowOne(BitWorks.signedLeftShift(playerBitboard,   shiftDistance));
+        opponentBitrow = Axis.DU.transformToRowOne(BitWorks.signedLeftShift(opponentBitboard, shiftDistance));
+        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
+        playerAfterMove |= BitWorks.signedLeftShift(Axis.DU.transformBackFromRowOne(playerBitrow), -shiftDistance);
+
+        return playerAfterMove & opponentBitboard;
     }
 
     /**
@@ -459,71 +480,11 @@ public class BitBoard1 extends BitBoard {
      * @return        a new bitboard array reflecting the move made
      */
     long[] makeMoveImpl(final Square move, final int player) {
-
         final int opponent = opponent(player);
-        final int column = move.column().ordinal();
-        final int row = move.row().ordinal();
-
-        final long playerBitboard   = bitboard(player);
-        final long opponentBitboard = bitboard(opponent);
-
+        final long flips = flips(move, player);
         final long[] newbitboard = new long[2];
-        final long unmodifiedMask = ~BITBOARD_MASK_FOR_ALL_DIRECTIONS[move.ordinal()];
-        newbitboard[player]   = playerBitboard   & unmodifiedMask;
-        newbitboard[opponent] = opponentBitboard & unmodifiedMask;
-
-        /**
-         * See the comment in the isLegal method. The same considerations apply here.
-         */
-
-        /**
-        for (final Axis axis : AXIS_VALUES) {
-            final int moveOrdPosition = axis.moveOrdinalPositionInBitrow(column, row);
-            final int shiftDistance   = axis.shiftDistance(column, row);
-            int playerBitrow    = axis.transformToRowOne(BitWorks.signedLeftShift(playerBitboard,   shiftDistance));
-            int opponentBitrow  = axis.transformToRowOne(BitWorks.signedLeftShift(opponentBitboard, shiftDistance));
-            playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, moveOrdPosition);
-            opponentBitrow &= ~playerBitrow;
-            newbitboard[player]   |= BitWorks.signedLeftShift(axis.transformBackFromRowOne(playerBitrow),   -shiftDistance);
-            newbitboard[opponent] |= BitWorks.signedLeftShift(axis.transformBackFromRowOne(opponentBitrow), -shiftDistance);
-        }
-        */
-
-        int playerBitrow;
-        int opponentBitrow;
-        int shiftDistance;
-
-        final int rightShiftForHO = MAGIC_NUMBER_8 * row;
-        playerBitrow    = Axis.HO.transformToRowOne(playerBitboard   >>> rightShiftForHO);
-        opponentBitrow  = Axis.HO.transformToRowOne(opponentBitboard >>> rightShiftForHO);
-        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
-        opponentBitrow &= ~playerBitrow;
-        newbitboard[player]   |= ((long) playerBitrow   << (MAGIC_NUMBER_8 * row));
-        newbitboard[opponent] |= ((long) opponentBitrow << (MAGIC_NUMBER_8 * row));
-
-        playerBitrow   = Axis.VE.transformToRowOne(playerBitboard   >>> column);
-        opponentBitrow = Axis.VE.transformToRowOne(opponentBitboard >>> column);
-        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, row);
-        opponentBitrow &= ~playerBitrow;
-        newbitboard[player]   |= Axis.VE.transformBackFromRowOne(playerBitrow)   << column;
-        newbitboard[opponent] |= Axis.VE.transformBackFromRowOne(opponentBitrow) << column;
-
-        shiftDistance  = Axis.DD.shiftDistance(column, row);
-        playerBitrow   = Axis.DD.transformToRowOne(BitWorks.signedLeftShift(playerBitboard,   shiftDistance));
-        opponentBitrow = Axis.DD.transformToRowOne(BitWorks.signedLeftShift(opponentBitboard, shiftDistance));
-        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
-        opponentBitrow &= ~playerBitrow;
-        newbitboard[player]   |= BitWorks.signedLeftShift(Axis.DD.transformBackFromRowOne(playerBitrow),   -shiftDistance);
-        newbitboard[opponent] |= BitWorks.signedLeftShift(Axis.DD.transformBackFromRowOne(opponentBitrow), -shiftDistance);
-
-        shiftDistance  = Axis.DU.shiftDistance(column, row);
-        playerBitrow   = Axis.DU.transformToRowOne(BitWorks.signedLeftShift(playerBitboard,   shiftDistance));
-        opponentBitrow = Axis.DU.transformToRowOne(BitWorks.signedLeftShift(opponentBitboard, shiftDistance));
-        playerBitrow = bitrowChangesForPlayer(playerBitrow, opponentBitrow, column);
-        opponentBitrow &= ~playerBitrow;
-        newbitboard[player]   |= BitWorks.signedLeftShift(Axis.DU.transformBackFromRowOne(playerBitrow),   -shiftDistance);
-        newbitboard[opponent] |= BitWorks.signedLeftShift(Axis.DU.transformBackFromRowOne(opponentBitrow), -shiftDistance);
-
+        newbitboard[player]   = bitboard(player) | (1L << move.ordinal()) | flips;
+        newbitboard[opponent] = bitboard(opponent) & ~flips;
         return newbitboard;
     }
 
@@ -533,7 +494,8 @@ public class BitBoard1 extends BitBoard {
      * @param player the player that has to move
      * @return       legal moves for the player
      */
-    private long legalMoves(final int player) {
+    @Override
+    long legalMoves(final int player) {
         long result = 0L;
         if (hasLegalMovesBeenComputed(player)) {
             result = legalMovesCache(player);
@@ -582,4 +544,12 @@ public class BitBoard1 extends BitBoard {
         legalMovesCache[player] = value;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Board newBoard(final long[] bitboard) {
+        return valueOf(bitboard);
+    }
+
 }
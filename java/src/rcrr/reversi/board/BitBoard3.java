@@ -40,35 +40,15 @@ import java.util.List;
  */
 public final class BitBoard3 extends BitBoard1 {
 
-    /** It turns on or off the class logging for performances. */
-    private static final boolean LOG = true;
+    /** The call counters of the class. */
+    private static final BoardMetrics.Counters METRICS = BoardMetrics.counters(BitBoard3.class);
 
     /** Caches the direction enum values in a local array. */
     private static final Line[] LINE_VALUES = Line.values();
 
-    /** Collects the number of call to legalMoves method. */
-    private static int callsTolegalMoves = 0;
-
-    /** Collects the number of call to makeMove method. */
-    private static int callsToMakeMove = 0;
-
-    /** Collects the number of call to the class constructor. */
-    private static int callsToConstructor = 0;
-
     /** Caches the direction enum values in a local array. */
     private static final Direction[] DIRECTION_VALUES = Direction.values();
 
-    /**
-     * Returns info for performance statistics.
-     *
-     * @return a string having class performance statistics
-     */
-    public static String printLog() {
-        String ret = "callsTolegalMoves=" + callsTolegalMoves + ", callsToMakeMove=" + callsToMakeMove
-            + ", callsToConstructor=" + callsToConstructor;
-        return ret;
-    }
-
     /**
      * Base static factory for the class.
      * <p>
@@ -110,7 +90,7 @@ public final class BitBoard3 extends BitBoard1 {
      */
     private BitBoard3(final long[] bitboard) {
         super(bitboard);
-        if (LOG) { callsToConstructor++; }
+        METRICS.increment(BoardMetrics.Event.CONSTRUCTOR);
     }
 
     /**
@@ -118,7 +98,7 @@ public final class BitBoard3 extends BitBoard1 {
      */
     @Override
     public List<Square> legalMoves(final Player player) {
-        if (LOG) { callsTolegalMoves++; }
+        METRICS.increment(BoardMetrics.Event.LEGAL_MOVES);
         if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
         return new SquareList(legalMoves(player.ordinal()));
     }
@@ -128,9 +108,9 @@ public final class BitBoard3 extends BitBoard1 {
      */
     @Override
     public Board makeMove(final Square move, final Player player) {
-        if (LOG) { callsToMakeMove++; }
+        METRICS.increment(BoardMetrics.Event.MAKE_MOVE);
         makeMoveInvariantsAreSatisfied(move, player);
-        return valueOf(makeMoveImpl(move, player.ordinal()));
+        return newBoardAfterMove(makeMoveImpl(move, player.ordinal()), 1L << move.ordinal(), player.ordinal());
     }
 
     /**
@@ -139,7 +119,8 @@ public final class BitBoard3 extends BitBoard1 {
      * @param player the player that has to move
      * @return       legal moves for the player
      */
-    private long legalMoves(final int player) {
+    @Override
+    long legalMoves(final int player) {
         long result = 0L;
         if (hasLegalMovesBeenComputed(player)) {
             result = legalMovesCache(player);
@@ -159,4 +140,12 @@ public final class BitBoard3 extends BitBoard1 {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Board newBoard(final long[] bitboard) {
+        return valueOf(bitboard);
+    }
+
 }
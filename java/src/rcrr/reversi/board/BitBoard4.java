@@ -0,0 +1,576 @@
+/*
+ *  BitBoard4.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.Map;
+import java.util.List;
+
+/**
+ * A board concrete implementation in the bitboard family.
+ * <p>
+ * The board computes legal moves and flips by mean of Kogge-Stone parallel prefix
+ * occluded fills, applied to the whole bitboard for the eight directions.
+ * The computation is branch free and does not require any lookup table, so it
+ * doesn't compete for the cache with the search data structures.
+ * <p>
+ * See: <a href="https://chessprogramming.wikispaces.com/Kogge-Stone+Algorithm" target="_blank">
+ *      Kogge-Stone Algorithm</a>.
+ * <p>
+ * {@code BitBoard4} is immutable.
+ * <p>
+ * @see Square
+ */
+public final class BitBoard4 extends BitBoard {
+
+    /** The call counters of the class. */
+    private static final BoardMetrics.Counters METRICS = BoardMetrics.counters(BitBoard4.class);
+
+    /** A bitboard being all set with the exception of column A. */
+    private static final long ALL_SQUARES_EXCEPT_COLUMN_A = 0xFEFEFEFEFEFEFEFEL;
+
+    /** A bitboard being all set with the exception of column H. */
+    private static final long ALL_SQUARES_EXCEPT_COLUMN_H = 0x7F7F7F7F7F7F7F7FL;
+
+    /** A bitboard having column A and column H set. */
+    private static final long COLUMNS_A_AND_H = 0x8181818181818181L;
+
+    /** A bitboard having row 1 and row 8 set. */
+    private static final long ROWS_1_AND_8 = 0xFF000000000000FFL;
+
+    /** A bitboard having the border squares set. */
+    private static final long BORDER = COLUMNS_A_AND_H | ROWS_1_AND_8;
+
+    /** A bitboard having column A set. */
+    private static final long COLUMN_A = 0x0101010101010101L;
+
+    /** A bitboard having row 1 set. */
+    private static final long ROW_1 = 0x00000000000000FFL;
+
+    /** The fifteen diagonals running from north-west to south-east. */
+    private static final long[] NW_SE_DIAGONALS = new long[15];
+
+    /** The fifteen diagonals running from north-east to south-west. */
+    private static final long[] NE_SW_DIAGONALS = new long[15];
+
+    /** Macic number 2. */
+    private static final int MAGIC_NUMBER_2 = 2;
+
+    /** Macic number 4. */
+    private static final int MAGIC_NUMBER_4 = 4;
+
+    /** Macic number 7. */
+    private static final int MAGIC_NUMBER_7 = 7;
+
+    /** Macic number 8. */
+    private static final int MAGIC_NUMBER_8 = 8;
+
+    /** Macic number 9. */
+    private static final int MAGIC_NUMBER_9 = 9;
+
+    /** Macic number 16. */
+    private static final int MAGIC_NUMBER_16 = 16;
+
+    /** Macic number 32. */
+    private static final int MAGIC_NUMBER_32 = 32;
+
+    /** Macic number 63. */
+    private static final int MAGIC_NUMBER_63 = 63;
+
+    static {
+        for (int sq = 0; sq < MAGIC_NUMBER_63 + 1; sq++) {
+            final int row = sq / MAGIC_NUMBER_8;
+            final int column = sq % MAGIC_NUMBER_8;
+            NW_SE_DIAGONALS[column - row + MAGIC_NUMBER_7] |= 1L << sq;
+            NE_SW_DIAGONALS[column + row] |= 1L << sq;
+        }
+    }
+
+    /**
+     * Base static factory for the class.
+     * <p>
+     * {@code squares} must be not null, and must have an entry for every board square.
+     * Given that the map cannot have duplicate keys, its size must be equal to the number
+     * of class instances defined by the {@code Square} enum.
+     *
+     * @param  squares the map of squares
+     * @return         a new board having as state the given square map
+     * @throws NullPointerException     if parameter {@code squares} is null
+     * @throws IllegalArgumentException if the {@code squares} is not complete
+     */
+    static Board valueOf(final Map<Square, SquareState> squares) {
+        BoardUtils.checkForConsistencyTheSquareMap(squares);
+        return new BitBoard4(BoardUtils.mapToBitboard(squares));
+    }
+
+    /**
+     * Static factory for the class.
+     * <p>
+     * {@code bitboard} must be not null, and must have a size equal to
+     * two. Overlapping bit set are not valid.
+     * Precondition on the {@code bitboard} parameter are not enforced.
+     *
+     * @param  bitboard the bitboard field
+     * @return          a new board having as state the given bitboard array
+     */
+    static Board valueOf(final long[] bitboard) {
+        return new BitBoard4(bitboard);
+    }
+
+    /**
+     * Returns the set of legal moves for the player owning the {@code playerBitboard} discs,
+     * when the opponent owns the {@code opponentBitboard} ones.
+     * <p>
+     * For each of the eight directions the player discs are spread, by mean of a Kogge-Stone
+     * occluded fill, over the adjacent opponent discs. The opponent discs reached by the fill
+     * are then shifted by one more step, and the empty squares hit are legal moves.
+     *
+     * @param playerBitboard   the player discs
+     * @param opponentBitboard the opponent discs
+     * @return                 the legal moves for the player
+     */
+    static long legalMoves(final long playerBitboard, final long opponentBitboard) {
+        final long empties = ~(playerBitboard | opponentBitboard);
+        final long opp = opponentBitboard;
+        long moves;
+        moves  = shiftE(fillE(playerBitboard, opp)   & opp);
+        moves |= shiftW(fillW(playerBitboard, opp)   & opp);
+        moves |= shiftN(fillN(playerBitboard, opp)   & opp);
+        moves |= shiftS(fillS(playerBitboard, opp)   & opp);
+        moves |= shiftNE(fillNE(playerBitboard, opp) & opp);
+        moves |= shiftNW(fillNW(playerBitboard, opp) & opp);
+        moves |= shiftSE(fillSE(playerBitboard, opp) & opp);
+        moves |= shiftSW(fillSW(playerBitboard, opp) & opp);
+        return moves & empties;
+    }
+
+    /**
+     * Returns the set of opponent discs that are flipped when the player puts a disc on the {@code move} square.
+     * <p>
+     * For each direction the move is spread over the opponent discs; the filled run is retained
+     * only when it is closed by a player disc. The selection is done without branching.
+     * The method does not check that the move is legal, when it is not the result is {@code 0L}.
+     *
+     * @param move             the square of the move as a bitboard having one bit set
+     * @param playerBitboard   the player discs
+     * @param opponentBitboard the opponent discs
+     * @return                 the discs flipped by the move
+     */
+    static long flips(final long move, final long playerBitboard, final long opponentBitboard) {
+        final long opp = opponentBitboard;
+        long flips = 0L;
+        long run;
+        run = fillE(move, opp);  flips |= closed(run, shiftE(run)  & playerBitboard);
+        run = fillW(move, opp);  flips |= closed(run, shiftW(run)  & playerBitboard);
+        run = fillN(move, opp);  flips |= closed(run, shiftN(run)  & playerBitboard);
+        run = fillS(move, opp);  flips |= closed(run, shiftS(run)  & playerBitboard);
+        run = fillNE(move, opp); flips |= closed(run, shiftNE(run) & playerBitboard);
+        run = fillNW(move, opp); flips |= closed(run, shiftNW(run) & playerBitboard);
+        run = fillSE(move, opp); flips |= closed(run, shiftSE(run) & playerBitboard);
+        run = fillSW(move, opp); flips |= closed(run, shiftSW(run) & playerBitboard);
+        return flips & opp;
+    }
+
+    /**
+     * Returns a subset of the discs of the player that cannot be flipped for the rest of the game.
+     * <p>
+     * A disc is stable when, along each of the four axes, the line through it is full, or it touches
+     * the border, or it is next to a stable disc of the same color. The set starts from the discs
+     * that satisfy the first two conditions, and grows by the third one until it doesn't change.
+     * Stable discs not reachable by these rules are not found, the result is a lower bound.
+     *
+     * @param playerBitboard   the player discs
+     * @param opponentBitboard the opponent discs
+     * @return                 the stable discs of the player
+     */
+    static long stableDiscs(final long playerBitboard, final long opponentBitboard) {
+        final long filled = playerBitboard | opponentBitboard;
+        long fullRows = filled;
+        fullRows &= fullRows >>> 1;
+        fullRows &= fullRows >>> MAGIC_NUMBER_2;
+        fullRows &= fullRows >>> MAGIC_NUMBER_4;
+        fullRows = (fullRows & COLUMN_A) * ROW_1;
+        long fullColumns = filled;
+        fullColumns &= fullColumns >>> MAGIC_NUMBER_8;
+        fullColumns &= fullColumns >>> MAGIC_NUMBER_16;
+        fullColumns &= fullColumns >>> MAGIC_NUMBER_32;
+        fullColumns = (fullColumns & ROW_1) * COLUMN_A;
+        long fullNwSe = 0L;
+        long fullNeSw = 0L;
+        for (int i = 0; i < NW_SE_DIAGONALS.length; i++) {
+            if ((filled & NW_SE_DIAGONALS[i]) == NW_SE_DIAGONALS[i]) { fullNwSe |= NW_SE_DIAGONALS[i]; }
+            if ((filled & NE_SW_DIAGONALS[i]) == NE_SW_DIAGONALS[i]) { fullNeSw |= NE_SW_DIAGONALS[i]; }
+        }
+        final long horizontal = fullRows | COLUMNS_A_AND_H;
+        final long vertical = fullColumns | ROWS_1_AND_8;
+        final long nwSe = fullNwSe | BORDER;
+        final long neSw = fullNeSw | BORDER;
+        long stable = playerBitboard & horizontal & vertical & nwSe & neSw;
+        long previous;
+        do {
+            previous = stable;
+            stable = playerBitboard
+                & (horizontal | shiftE(stable) | shiftW(stable))
+                & (vertical | shiftN(stable) | shiftS(stable))
+                & (nwSe | shiftNW(stable) | shiftSE(stable))
+                & (neSw | shiftNE(stable) | shiftSW(stable));
+        } while (stable != previous);
+        return stable;
+    }
+
+    /**
+     * Returns {@code run} when {@code bracketer} is not empty, otherwise {@code 0L}.
+     *
+     * @param run       the filled run
+     * @param bracketer the player disc that closes the run, if any
+     * @return          the run or zero
+     */
+    private static long closed(final long run, final long bracketer) {
+        return run & ((bracketer | -bracketer) >> MAGIC_NUMBER_63);
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward east.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillE(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_A;
+        g |= p & (g << 1);
+        p &=     (p << 1);
+        g |= p & (g << MAGIC_NUMBER_2);
+        p &=     (p << MAGIC_NUMBER_2);
+        g |= p & (g << MAGIC_NUMBER_4);
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward west.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillW(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_H;
+        g |= p & (g >>> 1);
+        p &=     (p >>> 1);
+        g |= p & (g >>> MAGIC_NUMBER_2);
+        p &=     (p >>> MAGIC_NUMBER_2);
+        g |= p & (g >>> MAGIC_NUMBER_4);
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward north.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillN(final long gen, final long pro) {
+        long g = gen;
+        long p = pro;
+        g |= p & (g >>> MAGIC_NUMBER_8);
+        p &=     (p >>> MAGIC_NUMBER_8);
+        g |= p & (g >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_8));
+        p &=     (p >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_8));
+        g |= p & (g >>> (MAGIC_NUMBER_4 * MAGIC_NUMBER_8));
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward south.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillS(final long gen, final long pro) {
+        long g = gen;
+        long p = pro;
+        g |= p & (g << MAGIC_NUMBER_8);
+        p &=     (p << MAGIC_NUMBER_8);
+        g |= p & (g << (MAGIC_NUMBER_2 * MAGIC_NUMBER_8));
+        p &=     (p << (MAGIC_NUMBER_2 * MAGIC_NUMBER_8));
+        g |= p & (g << (MAGIC_NUMBER_4 * MAGIC_NUMBER_8));
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward north-east.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillNE(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_A;
+        g |= p & (g >>> MAGIC_NUMBER_7);
+        p &=     (p >>> MAGIC_NUMBER_7);
+        g |= p & (g >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_7));
+        p &=     (p >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_7));
+        g |= p & (g >>> (MAGIC_NUMBER_4 * MAGIC_NUMBER_7));
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward north-west.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillNW(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_H;
+        g |= p & (g >>> MAGIC_NUMBER_9);
+        p &=     (p >>> MAGIC_NUMBER_9);
+        g |= p & (g >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_9));
+        p &=     (p >>> (MAGIC_NUMBER_2 * MAGIC_NUMBER_9));
+        g |= p & (g >>> (MAGIC_NUMBER_4 * MAGIC_NUMBER_9));
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward south-east.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillSE(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_A;
+        g |= p & (g << MAGIC_NUMBER_9);
+        p &=     (p << MAGIC_NUMBER_9);
+        g |= p & (g << (MAGIC_NUMBER_2 * MAGIC_NUMBER_9));
+        p &=     (p << (MAGIC_NUMBER_2 * MAGIC_NUMBER_9));
+        g |= p & (g << (MAGIC_NUMBER_4 * MAGIC_NUMBER_9));
+        return g;
+    }
+
+    /**
+     * Kogge-Stone occluded fill toward south-west.
+     *
+     * @param gen the generator set
+     * @param pro the propagator set
+     * @return    the filled set, generator included
+     */
+    private static long fillSW(final long gen, final long pro) {
+        long g = gen;
+        long p = pro & ALL_SQUARES_EXCEPT_COLUMN_H;
+        g |= p & (g << MAGIC_NUMBER_7);
+        p &=     (p << MAGIC_NUMBER_7);
+        g |= p & (g << (MAGIC_NUMBER_2 * MAGIC_NUMBER_7));
+        p &=     (p << (MAGIC_NUMBER_2 * MAGIC_NUMBER_7));
+        g |= p & (g << (MAGIC_NUMBER_4 * MAGIC_NUMBER_7));
+        return g;
+    }
+
+    /**
+     * Shifts the squares by one step toward east.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftE(final long squares) { return (squares << 1) & ALL_SQUARES_EXCEPT_COLUMN_A; }
+
+    /**
+     * Shifts the squares by one step toward west.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftW(final long squares) { return (squares >>> 1) & ALL_SQUARES_EXCEPT_COLUMN_H; }
+
+    /**
+     * Shifts the squares by one step toward north.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftN(final long squares) { return squares >>> MAGIC_NUMBER_8; }
+
+    /**
+     * Shifts the squares by one step toward south.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftS(final long squares) { return squares << MAGIC_NUMBER_8; }
+
+    /**
+     * Shifts the squares by one step toward north-east.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftNE(final long squares) {
+        return (squares >>> MAGIC_NUMBER_7) & ALL_SQUARES_EXCEPT_COLUMN_A;
+    }
+
+    /**
+     * Shifts the squares by one step toward north-west.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftNW(final long squares) {
+        return (squares >>> MAGIC_NUMBER_9) & ALL_SQUARES_EXCEPT_COLUMN_H;
+    }
+
+    /**
+     * Shifts the squares by one step toward south-east.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftSE(final long squares) {
+        return (squares << MAGIC_NUMBER_9) & ALL_SQUARES_EXCEPT_COLUMN_A;
+    }
+
+    /**
+     * Shifts the squares by one step toward south-west.
+     *
+     * @param squares the squares to shift
+     * @return        the shifted squares
+     */
+    private static long shiftSW(final long squares) {
+        return (squares << MAGIC_NUMBER_7) & ALL_SQUARES_EXCEPT_COLUMN_H;
+    }
+
+    /**
+     * Value held by the legal moves cache before being computed.
+     * It is never a legal move set, because at least one square is occupied.
+     */
+    private static final long NOT_COMPUTED = -1L;
+
+    /** Lazily initialized, cached legalMoves for the black player. */
+    private transient volatile long blackLegalMovesCache = NOT_COMPUTED;
+
+    /** Lazily initialized, cached legalMoves for the white player. */
+    private transient volatile long whiteLegalMovesCache = NOT_COMPUTED;
+
+    /**
+     * Class constructor.
+     * <p>
+     * {@code bitboard} must be not null, and must have a size equal to
+     * two. Overlapping bit set to one are not allowed.
+     *
+     * @param  bitboard the bitboard field
+     */
+    private BitBoard4(final long[] bitboard) {
+        super(bitboard);
+        METRICS.increment(BoardMetrics.Event.CONSTRUCTOR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnyLegalMove(final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        return legalMoves(player.ordinal()) != 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegal(final Square move, final Player player) {
+        isLegalInvariantsAreSatisfied(move, player);
+        return ((1L << move.ordinal()) & legalMoves(player.ordinal())) != 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Square> legalMoves(final Player player) {
+        METRICS.increment(BoardMetrics.Event.LEGAL_MOVES);
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        return new SquareList(legalMoves(player.ordinal()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Board makeMove(final Square move, final Player player) {
+        METRICS.increment(BoardMetrics.Event.MAKE_MOVE);
+        makeMoveInvariantsAreSatisfied(move, player);
+        final int p = player.ordinal();
+        final int o = opponent(p);
+        final long bitmove = 1L << move.ordinal();
+        final long flipped = flips(bitmove, bitboard(p), bitboard(o));
+        final long[] newbitboard = new long[2];
+        newbitboard[p] = bitboard(p) | flipped | bitmove;
+        newbitboard[o] = bitboard(o) & ~flipped;
+        return newBoardAfterMove(newbitboard, bitmove, p);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long flips(final Square move, final int player) {
+        return flips(1L << move.ordinal(), bitboard(player), bitboard(opponent(player)));
+    }
+
+    /**
+     * Returns the legal moves for the player, caching the computed value.
+     * Concurrent callers may compute the value twice, the result is always the same.
+     *
+     * @param player the player that has to move
+     * @return       legal moves for the player
+     */
+    @Override
+    long legalMoves(final int player) {
+        long result = (player == BLACK) ? blackLegalMovesCache : whiteLegalMovesCache;
+        if (result == NOT_COMPUTED) {
+            result = legalMoves(bitboard(player), bitboard(opponent(player)));
+            if (player == BLACK) {
+                blackLegalMovesCache = result;
+            } else {
+                whiteLegalMovesCache = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Board newBoard(final long[] bitboard) {
+        return valueOf(bitboard);
+    }
+
+}
@@ -99,4 +99,21 @@ public abstract class BitBoardFactory extends AbstractBoardFactory {
 
     }
 
+    /**
+     * The class provides a concrete implementation for the board's factory interface returning
+     * board objects of type {@code BitBoard4}.
+     *
+     * @see Board
+     */
+    public static final class Type4 extends BitBoardFactory {
+
+        /**
+         * {@inheritDoc}
+         */
+        public Board valueOf(final Map<Square, SquareState> squares) {
+            return BitBoard4.valueOf(squares);
+        }
+
+    }
+
 }
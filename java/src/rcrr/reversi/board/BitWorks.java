@@ -33,6 +33,12 @@ package rcrr.reversi.board;
  */
 public final class BitWorks {
 
+    /** The squares of column A. */
+    private static final long COLUMN_A = 0x0101010101010101L;
+
+    /** The squares of column H. */
+    private static final long COLUMN_H = 0x8080808080808080L;
+
     /** Array for de Bruijn multiplication. */
     private static final int[] DEBRUIJN_64_INDEX = {
         63,  0, 58,  1, 59, 47, 53,  2,
@@ -72,9 +78,18 @@ public final class BitWorks {
     /** Macic number 8. */
     private static final int MAGIC_NUMBER_8 = 8;
 
+    /** Macic number 9. */
+    private static final int MAGIC_NUMBER_9 = 9;
+
+    /** Macic number 14. */
+    private static final int MAGIC_NUMBER_14 = 14;
+
     /** Macic number 16. */
     private static final int MAGIC_NUMBER_16 = 16;
 
+    /** Macic number 28. */
+    private static final int MAGIC_NUMBER_28 = 28;
+
     /** Macic number 32. */
     private static final int MAGIC_NUMBER_32 = 32;
 
@@ -102,6 +117,43 @@ public final class BitWorks {
     /** Macic number 0xFFFFFFFF00000000L. */
     private static final long LONG_FFFFFFFF00000000 = 0xFFFFFFFF00000000L;
 
+    /** Mask used by the horizontal mirror, it selects the even columns. */
+    private static final long MIRROR_K1 = 0x5555555555555555L;
+
+    /** Mask used by the horizontal mirror, it selects column pairs. */
+    private static final long MIRROR_K2 = 0x3333333333333333L;
+
+    /** Mask used by the horizontal mirror, it selects the left half of the board. */
+    private static final long MIRROR_K4 = 0x0F0F0F0F0F0F0F0FL;
+
+    /** Mask used by the diagonal flip, it selects the squares swapped at distance 7. */
+    private static final long FLIP_K1 = 0x5500550055005500L;
+
+    /** Mask used by the diagonal flip, it selects the squares swapped at distance 14. */
+    private static final long FLIP_K2 = 0x3333000033330000L;
+
+    /** Mask used by the diagonal flip, it selects the squares swapped at distance 28. */
+    private static final long FLIP_K4 = 0x0F0F0F0F00000000L;
+
+    /** The number of bits converted by the {@code binaryToTernary} method. */
+    public static final int TERNARY_BITS = 10;
+
+    /** The number of states of a square, the base of the ternary numbers. */
+    private static final int TERNARY_BASE = 3;
+
+    /** The table used by the {@code binaryToTernary} method. */
+    private static final int[] BINARY_TO_TERNARY = new int[1 << TERNARY_BITS];
+
+    static {
+        for (int bits = 0; bits < BINARY_TO_TERNARY.length; bits++) {
+            int value = 0;
+            for (int k = TERNARY_BITS - 1; k >= 0; k--) {
+                value = value * TERNARY_BASE + ((bits >>> k) & 1);
+            }
+            BINARY_TO_TERNARY[bits] = value;
+        }
+    }
+
     /**
      * Converts a bit sequence in a printable string.
      *
@@ -329,6 +381,94 @@ public final class BitWorks {
             & ((~bitsequence & MAGIC_NUMBER_000000FF) ^ (bitsequence - 1));
     }
 
+    /**
+     * Returns the eight bits of the first column of the {@code bitsequence} parameter,
+     * bits {@code 0, 8, 16, ..., 56}, packed into the lowest byte of the returned value.
+     * Bit {@code 8 * k} becomes bit {@code k}.
+     *
+     * @param bitsequence the input value
+     * @return            the column packed as a byte
+     */
+    public static int packColumn(final long bitsequence) {
+        long x = bitsequence & COLUMN_A;
+        x |= x >>> MAGIC_NUMBER_7;
+        x |= x >>> MAGIC_NUMBER_14;
+        x |= x >>> MAGIC_NUMBER_28;
+        return (int) x & MAGIC_NUMBER_000000FF;
+    }
+
+    /**
+     * Returns the ternary number having a digit one for each bit set in the {@code bitsequence} parameter,
+     * and a digit zero for each bit not set. Bit {@code k} is the digit of weight {@code 3^k}.
+     * <p>
+     * Evaluation functions index their tables by the squares of a line, having three states each:
+     * the index is {@code binaryToTernary(player) + 2 * binaryToTernary(opponent)}.
+     * Only the lowest {@code TERNARY_BITS} bits can be set, the precondition is not checked.
+     *
+     * @param bitsequence the input value
+     * @return            the ternary number
+     */
+    public static int binaryToTernary(final int bitsequence) {
+        return BINARY_TO_TERNARY[bitsequence];
+    }
+
+    /**
+     * Returns the squares adjacent, in any of the eight directions, to at least one of the squares
+     * set in the {@code bitsequence} parameter. The squares of the parameter are not excluded.
+     *
+     * @param bitsequence the input value
+     * @return            the neighbor squares
+     */
+    public static long neighbors(final long bitsequence) {
+        final long notA = bitsequence & ~COLUMN_A;
+        final long notH = bitsequence & ~COLUMN_H;
+        return (bitsequence << MAGIC_NUMBER_8) | (bitsequence >>> MAGIC_NUMBER_8)
+            | (notH << 1) | (notH << MAGIC_NUMBER_9) | (notH >>> MAGIC_NUMBER_7)
+            | (notA >>> 1) | (notA >>> MAGIC_NUMBER_9) | (notA << MAGIC_NUMBER_7);
+    }
+
+    /**
+     * Returns the {@code bitsequence} parameter flipped upside down, row 1 becomes row 8.
+     *
+     * @param bitsequence the input value
+     * @return            the flipped sequence
+     */
+    public static long flipVertical(final long bitsequence) {
+        return Long.reverseBytes(bitsequence);
+    }
+
+    /**
+     * Returns the {@code bitsequence} parameter mirrored left to right, column A becomes column H.
+     *
+     * @param bitsequence the input value
+     * @return            the mirrored sequence
+     */
+    public static long mirrorHorizontal(final long bitsequence) {
+        long x = bitsequence;
+        x = ((x >>> 1) & MIRROR_K1) | ((x & MIRROR_K1) << 1);
+        x = ((x >>> 2) & MIRROR_K2) | ((x & MIRROR_K2) << 2);
+        x = ((x >>> MAGIC_NUMBER_4) & MIRROR_K4) | ((x & MIRROR_K4) << MAGIC_NUMBER_4);
+        return x;
+    }
+
+    /**
+     * Returns the {@code bitsequence} parameter flipped along the A1-H8 diagonal, column A becomes row 1.
+     *
+     * @param bitsequence the input value
+     * @return            the flipped sequence
+     */
+    public static long flipDiagonal(final long bitsequence) {
+        long x = bitsequence;
+        long t;
+        t = FLIP_K4 & (x ^ (x << MAGIC_NUMBER_28));
+        x ^= t ^ (t >>> MAGIC_NUMBER_28);
+        t = FLIP_K2 & (x ^ (x << MAGIC_NUMBER_14));
+        x ^= t ^ (t >>> MAGIC_NUMBER_14);
+        t = FLIP_K1 & (x ^ (x << MAGIC_NUMBER_7));
+        x ^= t ^ (t >>> MAGIC_NUMBER_7);
+        return x;
+    }
+
     /**
      * Returns a bit sequence having one bit set, the lowest found in the {@code bitsequence} parameter.
      *
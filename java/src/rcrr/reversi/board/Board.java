@@ -119,6 +119,22 @@ public interface Board extends Serializable {
      */
     boolean hasAnyPlayerAnyLegalMove();
 
+    /**
+     * Returns the set of discs that are flipped when the {@code player} puts a disc on the {@code move} square.
+     * The set is returned as a bitboard, square {@code A1} being the least significant bit,
+     * and square {@code H8} the most significant one.
+     * When the move is not legal the method returns {@code 0L}.
+     * <p>
+     * Parameter {@code move} must be not {@code null}.
+     * Parameter {@code player} must be not {@code null}.
+     *
+     * @param move   the square where to put the new disk
+     * @param player the player moving
+     * @return       the flipped discs as a bitboard
+     * @throws NullPointerException if parameter {@code move} or {@code player} is null
+     */
+    long flips(Square move, Player player);
+
     /**
      * Returns the boolean value telling if the move, done by the specified player, is legal.
      * <p>
@@ -145,6 +161,48 @@ public interface Board extends Serializable {
      */
     List<Square> legalMoves(Player player);
 
+    /**
+     * Returns the discs of the {@code player}, collected as a bitboard. Square {@code A1} is the least
+     * significant bit, square {@code H8} the most significant one.
+     * <p>
+     * Parameter {@code player} must be not {@code null}.
+     *
+     * @param player the player
+     * @return       the discs of the player as a bitboard
+     * @throws NullPointerException if parameter {@code player} is null
+     */
+    long discsMask(Player player);
+
+    /**
+     * Returns the legal moves that the {@code player} can do at the board position, collected
+     * as a bitboard. Square {@code A1} is the least significant bit, square {@code H8} the most significant one.
+     * <p>
+     * It is the primitive version of the {@code legalMoves(Player)} method.
+     * <p>
+     * Parameter {@code player} must be not {@code null}.
+     *
+     * @param player the player
+     * @return       the moves available to the player as a bitboard
+     * @throws NullPointerException if parameter {@code player} is null
+     */
+    long legalMovesMask(Player player);
+
+    /**
+     * Returns a subset of the discs of the {@code player} that cannot be flipped for the rest of the game,
+     * collected as a bitboard.
+     * <p>
+     * A disc is found stable when, along each of the four axes, the line through it is full, or it touches
+     * the border, or it is next to a stable disc of the same color. The result is a lower bound,
+     * discs that are stable for other reasons may be missing.
+     * <p>
+     * Parameter {@code player} must be not {@code null}.
+     *
+     * @param player the player
+     * @return       the stable discs of the player as a bitboard
+     * @throws NullPointerException if parameter {@code player} is null
+     */
+    long stableDiscs(Player player);
+
     /**
      * Returns a new updated board to reflect move by player. This static factory executes a game move
      * to the board and returns a new one, reflecting the move. The original board is not modified.
@@ -163,6 +221,26 @@ public interface Board extends Serializable {
      */
     Board makeMove(Square move, Player player);
 
+    /**
+     * Returns a new updated board to reflect move by player, given the discs flipped by the move.
+     * <p>
+     * It is the primitive version of the {@code makeMove(Square, Player)} method, and it is designed
+     * for search algorithms that already know the flipped discs, as returned by the
+     * {@code flips(Square, Player)} method.
+     * <p>
+     * Parameter {@code move} must have exactly one bit set, and it has to be a legal move for the player.
+     * Parameter {@code flips} must be the value returned by {@code flips(Square, Player)} for the same move.
+     * For performance reasons preconditions are not checked, the result is unpredictable when they are not met.
+     * Parameter {@code player} must be not {@code null}.
+     *
+     * @param  move   the board square where to put the disk, as a bitboard
+     * @param  flips  the discs flipped by the move, as a bitboard
+     * @param  player the disk color to put on the board
+     * @return        a new {@code Board} reflecting the move made
+     * @throws NullPointerException if parameter {@code player} is null
+     */
+    Board makeMoveWithFlips(long move, long flips, Player player);
+
     /**
      * Returns a formatted string showing a 2d graphical represention of the board.
      *
@@ -188,4 +266,16 @@ public interface Board extends Serializable {
      */
     String printCount();
 
+    /**
+     * Returns the 64 bit Zobrist key of the board.
+     * <p>
+     * Equal boards have the same key. The key is computed by the {@code Zobrist} class,
+     * and boards returned by {@code makeMove} and {@code makeMoveWithFlips} may receive it
+     * incrementally updated from the moving board.
+     *
+     * @return the board Zobrist key
+     * @see Zobrist
+     */
+    long zobrist();
+
 }
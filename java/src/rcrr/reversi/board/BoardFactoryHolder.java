@@ -47,6 +47,7 @@ public final class BoardFactoryHolder {
     //private static final String DEFAULT_BOARD_FACTORY_CLASS = "rcrr.reversi.board.BitBoardFactory$Type1";
     private static final String DEFAULT_BOARD_FACTORY_CLASS = "rcrr.reversi.board.BitBoardFactory$Type2";
     //private static final String DEFAULT_BOARD_FACTORY_CLASS = "rcrr.reversi.board.BitBoardFactory$Type3";
+    //private static final String DEFAULT_BOARD_FACTORY_CLASS = "rcrr.reversi.board.BitBoardFactory$Type4";
     //private static final String DEFAULT_BOARD_FACTORY_CLASS = "rcrr.reversi.board.EnumMapBoardFactory";
 
     /**
@@ -0,0 +1,304 @@
+/*
+ *  BoardMetrics.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the call counts of the board implementations.
+ * <p>
+ * Each board class obtains its own {@code Counters} object when it is loaded, and records the
+ * events by calling {@code increment}. Counters are striped {@code LongAdder} objects, so that
+ * concurrent searches neither lose counts nor contend on a shared cache line.
+ * <p>
+ * Collection is turned on or off at runtime by {@code setEnabled}, the initial value is read from
+ * the {@code rcrr.reversi.boardmetrics} system property and is off by default. When it is off an
+ * increment costs a volatile read.
+ * <p>
+ * {@code snapshot} returns an immutable copy of the counts taken at a given time, two snapshots
+ * give the calls per second of the interval. {@code reset} zeroes all the counters.
+ * <p>
+ * {@code BoardMetrics} is thread safe.
+ */
+public final class BoardMetrics {
+
+    /**
+     * The events counted by the board implementations.
+     */
+    public static enum Event {
+        /** The board constructor. */
+        CONSTRUCTOR,
+        /** The {@code isLegal} method. */
+        IS_LEGAL,
+        /** The {@code legalMoves} method. */
+        LEGAL_MOVES,
+        /** The {@code makeMove} method. */
+        MAKE_MOVE;
+    }
+
+    /**
+     * The counters of one board implementation.
+     * <p>
+     * {@code Counters} is mutable, and thread safe.
+     */
+    public static final class Counters {
+
+        /** The adders, one for each event. */
+        private final LongAdder[] adders;
+
+        /** Class constructor. */
+        private Counters() {
+            adders = new LongAdder[EVENT_VALUES.length];
+            for (int i = 0; i < adders.length; i++) { adders[i] = new LongAdder(); }
+        }
+
+        /**
+         * Counts one event, when collection is enabled.
+         *
+         * @param event the event
+         */
+        public void increment(final Event event) {
+            if (enabled) { adders[event.ordinal()].increment(); }
+        }
+
+        /**
+         * Returns the current count of the event.
+         *
+         * @param event the event
+         * @return      the count
+         */
+        public long count(final Event event) {
+            return adders[event.ordinal()].sum();
+        }
+
+        /** Zeroes the counters. */
+        private void reset() {
+            for (final LongAdder adder : adders) { adder.reset(); }
+        }
+    }
+
+    /**
+     * An immutable copy of the counters taken at a given time.
+     * <p>
+     * {@code Snapshot} is immutable.
+     */
+    public static final class Snapshot {
+
+        /** The time of the snapshot, as given by {@code System.nanoTime()}. */
+        private final long nanoTime;
+
+        /** The counts, by board name. */
+        private final Map<String, Map<Event, Long>> counts;
+
+        /**
+         * Class constructor.
+         *
+         * @param nanoTime the time of the snapshot
+         * @param counts   the counts, by board name
+         */
+        private Snapshot(final long nanoTime, final Map<String, Map<Event, Long>> counts) {
+            this.nanoTime = nanoTime;
+            this.counts = Collections.unmodifiableMap(counts);
+        }
+
+        /**
+         * Returns the time of the snapshot, as given by {@code System.nanoTime()}.
+         *
+         * @return the snapshot time
+         */
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        /**
+         * Returns the counts, by board name and event.
+         *
+         * @return the counts
+         */
+        public Map<String, Map<Event, Long>> counts() {
+            return counts;
+        }
+
+        /**
+         * Returns the count of the event for the board, zero when the board is not registered.
+         *
+         * @param board the board name
+         * @param event the event
+         * @return      the count
+         * @throws NullPointerException when parameter {@code event} is null
+         */
+        public long count(final String board, final Event event) {
+            if (event == null) { throw new NullPointerException("Parameter event cannot be null."); }
+            final Map<Event, Long> boardCounts = counts.get(board);
+            return (boardCounts == null) ? 0L : boardCounts.get(event);
+        }
+
+        /**
+         * Returns the counts collected since the {@code earlier} snapshot.
+         * <p>
+         * The {@code nanoTime} of the returned snapshot is the length of the interval.
+         *
+         * @param earlier the earlier snapshot
+         * @return        the difference between this snapshot and the earlier one
+         * @throws NullPointerException when parameter {@code earlier} is null
+         */
+        public Snapshot since(final Snapshot earlier) {
+            if (earlier == null) { throw new NullPointerException("Parameter earlier cannot be null."); }
+            final Map<String, Map<Event, Long>> delta = new LinkedHashMap<String, Map<Event, Long>>();
+            for (final Map.Entry<String, Map<Event, Long>> entry : counts.entrySet()) {
+                final Map<Event, Long> boardDelta = new EnumMap<Event, Long>(Event.class);
+                for (final Event event : EVENT_VALUES) {
+                    boardDelta.put(event, entry.getValue().get(event) - earlier.count(entry.getKey(), event));
+                }
+                delta.put(entry.getKey(), Collections.unmodifiableMap(boardDelta));
+            }
+            return new Snapshot(nanoTime - earlier.nanoTime, delta);
+        }
+
+        /**
+         * Returns a report having a line for each board that has counted at least one event,
+         * with the counts and the calls per second over the given duration.
+         *
+         * @param nanoseconds the duration of the interval
+         * @return            the report
+         */
+        public String report(final long nanoseconds) {
+            final StringBuilder sb = new StringBuilder();
+            for (final Map.Entry<String, Map<Event, Long>> entry : counts.entrySet()) {
+                long total = 0L;
+                for (final long value : entry.getValue().values()) { total += value; }
+                if (total == 0L) { continue; }
+                sb.append(entry.getKey()).append(":");
+                for (final Event event : EVENT_VALUES) {
+                    final long value = entry.getValue().get(event);
+                    sb.append(String.format(Locale.US, " %s=%d (%.0f/s)", event, value,
+                                            (nanoseconds > 0L) ? value * NANOS_PER_SECOND / nanoseconds : 0.));
+                }
+                sb.append("\n");
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Returns a string representation of the snapshot.
+         *
+         * @return a string representation of the snapshot
+         */
+        @Override
+        public String toString() {
+            return counts.toString();
+        }
+    }
+
+    /** Caches the event enum values in a local array. */
+    private static final Event[] EVENT_VALUES = Event.values();
+
+    /** Nanoseconds in a second. */
+    private static final double NANOS_PER_SECOND = 1000000000.;
+
+    /** The system property that turns on collection at startup. */
+    private static final String ENABLED_KEY = "rcrr.reversi.boardmetrics";
+
+    /** The registered counters, by board name. */
+    private static final ConcurrentMap<String, Counters> REGISTRY = new ConcurrentHashMap<String, Counters>();
+
+    /** The enabled flag. */
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_KEY);
+
+    /** Class constructor. */
+    private BoardMetrics() { }
+
+    /**
+     * Returns the counters of the board class, registering them on the first call.
+     *
+     * @param boardClass the board class
+     * @return           the counters of the board class
+     * @throws NullPointerException when parameter {@code boardClass} is null
+     */
+    public static Counters counters(final Class<? extends Board> boardClass) {
+        if (boardClass == null) { throw new NullPointerException("Parameter boardClass cannot be null."); }
+        final String name = boardClass.getName();
+        Counters counters = REGISTRY.get(name);
+        if (counters == null) {
+            final Counters created = new Counters();
+            counters = REGISTRY.putIfAbsent(name, created);
+            if (counters == null) { counters = created; }
+        }
+        return counters;
+    }
+
+    /**
+     * Returns true when collection is enabled.
+     *
+     * @return true when collection is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns collection on or off.
+     *
+     * @param value the new value of the enabled flag
+     */
+    public static void setEnabled(final boolean value) {
+        enabled = value;
+    }
+
+    /** Zeroes all the registered counters. */
+    public static void reset() {
+        for (final Counters counters : REGISTRY.values()) { counters.reset(); }
+    }
+
+    /**
+     * Returns a copy of the registered counters, boards are sorted by name.
+     * <p>
+     * Counts incremented while the snapshot is being taken may or may not be included.
+     *
+     * @return a new snapshot
+     */
+    public static Snapshot snapshot() {
+        final long now = System.nanoTime();
+        final Map<String, Map<Event, Long>> counts = new LinkedHashMap<String, Map<Event, Long>>();
+        for (final String name : new TreeSet<String>(REGISTRY.keySet())) {
+            final Counters counters = REGISTRY.get(name);
+            final Map<Event, Long> boardCounts = new EnumMap<Event, Long>(Event.class);
+            for (final Event event : EVENT_VALUES) { boardCounts.put(event, counters.count(event)); }
+            counts.put(name, Collections.unmodifiableMap(boardCounts));
+        }
+        return new Snapshot(now, counts);
+    }
+
+}
@@ -34,6 +34,8 @@ import java.util.Collections;
 import java.util.ArrayList;
 import java.util.List;
 
+import rcrr.reversi.util.BinaryTable;
+
 import static rcrr.reversi.board.Axis.*;
 import static rcrr.reversi.board.Square.*;
 
@@ -108,70 +110,103 @@ public enum Line {
      *
      * The index of the array is computed by this formula:
      * index = playerRow | (opponentRow << 8);
+     *
+     * The table is loaded from a binary resource generated at build time, or computed when the resource is missing.
      */
-    private static final byte[] BITROW_LEGAL_MOVES_FOR_PLAYER_ARRAY = initializeBitrowLegalMovesForPlayerArray();
+    private static final byte[] BITROW_LEGAL_MOVES_FOR_PLAYER_ARRAY = loadBitrowLegalMovesForPlayerArray();
 
     /** The list of the four corners. */
     private static List<Square> squaresAsList(Square... squares) {
         return Collections.unmodifiableList(Arrays.asList(squares));
     }
 
-    private static byte[] initializeBitrowLegalMovesForPlayerArray() {
-        final byte[] arrayResult = new byte[MAGIC_NUMBER_256 * MAGIC_NUMBER_256];
-        for (int playerRow = 0; playerRow < MAGIC_NUMBER_256; playerRow++) {
-            for (int opponentRow = 0; opponentRow < MAGIC_NUMBER_256; opponentRow++) {
-                final int index = playerRow | (opponentRow << MAGIC_NUMBER_8);
-                byte legalMoves = 0;
-                for (int movePosition = 0; movePosition < MAGIC_NUMBER_8; movePosition++) {
-                    final int move = 1 << movePosition;
-                    legalMoves |= isLegal(playerRow, opponentRow, move);
-                }
-                arrayResult[index] = legalMoves;
-            }
-        }
-        return arrayResult;
+    /**
+     * Returns the BITROW_LEGAL_MOVES_FOR_PLAYER_ARRAY read from the binary resource, or computes it
+     * when the resource is not available.
+     *
+     * @return a byte array having the legal moves for the given index value
+     */
+    private static byte[] loadBitrowLegalMovesForPlayerArray() {
+        final byte[] table = BinaryTable.readBytes(LookupTables.BITROW_LEGAL_MOVES_FOR_PLAYER,
+                                                   MAGIC_NUMBER_256 * MAGIC_NUMBER_256);
+        return (table != null) ? table : BitrowLegalMovesForPlayer.compute();
     }
 
     /**
-     * Returns a byte set to zero when the move is not legal, returns the parameter {@code move}
-     * when the move is legal.
-     * The parameter {@code move} must be a power of two.
-     * The parameters {@code playerRow} and {@code opponentRow} fully define the file configuration.
-     * These two parameters have the first eigth bits (0 to 7 from the less significative) representing
-     * the file squares, the other three bytes are meaningles. When a position has no bits set is empty,
-     * when has one bit set is occupied by the respective player, when both bits are set the square is outer.
-     * Files having outer squares can be real or not, real cases are files having order minor than eight
-     * with outer square packed on one of the two sides. 
-     * 
-     *
+     * Computes the BITROW_LEGAL_MOVES_FOR_PLAYER_ARRAY.
+     * <p>
+     * The class is nested, so that {@code LookupTables} computes the table without initializing
+     * {@code Line}, that would load or compute the table once more.
      */
-    private static byte isLegal(final int playerRow, final int opponentRow, final int move) {
-        if (Integer.bitCount(move) != 1) { throw new IllegalArgumentException("Parameter move is illegal. move=" + move); }
-        final byte notLegal = (byte) 0;
-        final int po = playerRow   | ~BYTE_MASK_FOR_INT;
-        final int oo = opponentRow | ~BYTE_MASK_FOR_INT;
-        final int m = move;
-        final int filled = po | oo;
-        final int empties = ~filled;
-        final int p = po & ~oo;
-        final int o = oo & ~po;
-        if ((empties & move) == 0) return notLegal; // the square is filled or outer
-        int b;
-        // move right
-        b = (move >>> 1) & o;
-        while (b > 0) {
-            if ((b & p) != 0) return (byte) move;
-            if ((b & o) == 0) break;
-            b = b >>> 1;
+    static final class BitrowLegalMovesForPlayer {
+
+        /**
+         * Used to initialize the BITROW_LEGAL_MOVES_FOR_PLAYER_ARRAY.
+         *
+         * @return a byte array having the legal moves for the given index value
+         */
+        static byte[] compute() {
+            final byte[] arrayResult = new byte[MAGIC_NUMBER_256 * MAGIC_NUMBER_256];
+            for (int playerRow = 0; playerRow < MAGIC_NUMBER_256; playerRow++) {
+                for (int opponentRow = 0; opponentRow < MAGIC_NUMBER_256; opponentRow++) {
+                    final int index = playerRow | (opponentRow << MAGIC_NUMBER_8);
+                    byte legalMoves = 0;
+                    for (int movePosition = 0; movePosition < MAGIC_NUMBER_8; movePosition++) {
+                        final int move = 1 << movePosition;
+                        legalMoves |= isLegal(playerRow, opponentRow, move);
+                    }
+                    arrayResult[index] = legalMoves;
+                }
+            }
+            return arrayResult;
         }
-        // move left
-        b = (move << 1) & o;
-        while ((b > 0) && (b < 256)) {
-            if ((b & p) != 0) return (byte) move;
-            if ((b & o) == 0) break;
-            b = b << 1;
+
+        /**
+         * Returns a byte set to zero when the move is not legal, returns the parameter {@code move}
+         * when the move is legal.
+         * The parameter {@code move} must be a power of two.
+         * The parameters {@code playerRow} and {@code opponentRow} fully define the file configuration.
+         * These two parameters have the first eigth bits (0 to 7 from the less significative) representing
+         * the file squares, the other three bytes are meaningles. When a position has no bits set is empty,
+         * when has one bit set is occupied by the respective player, when both bits are set the square is outer.
+         * Files having outer squares can be real or not, real cases are files having order minor than eight
+         * with outer square packed on one of the two sides. 
+         * 
+         *
+         */
+        private static byte isLegal(final int playerRow, final int opponentRow, final int move) {
+            if (Integer.bitCount(move) != 1) {
+                throw new IllegalArgumentException("Parameter move is illegal. move=" + move);
+            }
+            final byte notLegal = (byte) 0;
+            final int po = playerRow   | ~BYTE_MASK_FOR_INT;
+            final int oo = opponentRow | ~BYTE_MASK_FOR_INT;
+            final int m = move;
+            final int filled = po | oo;
+            final int empties = ~filled;
+            final int p = po & ~oo;
+            final int o = oo & ~po;
+            if ((empties & move) == 0) return notLegal; // the square is filled or outer
+            int b;
+            // move right
+            b = (move >>> 1) & o;
+            while (b > 0) {
+                if ((b & p) != 0) return (byte) move;
+                if ((b & o) == 0) break;
+                b = b >>> 1;
+            }
+            // move left
+            b = (move << 1) & o;
+            while ((b > 0) && (b < 256)) {
+                if ((b & p) != 0) return (byte) move;
+                if ((b & o) == 0) break;
+                b = b << 1;
+            }
+            return notLegal;
         }
-        return notLegal;
+
+        /** Class constructor. */
+        private BitrowLegalMovesForPlayer() { }
     }
 
     /** The axis field. */
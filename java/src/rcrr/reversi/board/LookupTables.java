@@ -0,0 +1,66 @@
+/*
+ *  LookupTables.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.io.File;
+import java.io.IOException;
+
+import rcrr.reversi.util.BinaryTable;
+
+/**
+ * The class names the precomputed lookup tables of the board package, and writes them as binary resources.
+ * <p>
+ * The tables are generated at build time into the classes directory, and are loaded by the owning
+ * classes during initialization. A missing or corrupted resource is not an error: the owning class
+ * computes the table as it did before.
+ *
+ * @see BinaryTable
+ */
+public final class LookupTables {
+
+    /** The resource holding the {@code BitBoard1} row changes table. */
+    static final String BITROW_CHANGES_FOR_PLAYER = "rcrr/reversi/board/bitrow-changes-for-player.bin";
+
+    /** The resource holding the {@code Line} legal moves table. */
+    static final String BITROW_LEGAL_MOVES_FOR_PLAYER = "rcrr/reversi/board/bitrow-legal-moves-for-player.bin";
+
+    /**
+     * Computes the tables of the board package, and writes them under the {@code root} directory.
+     *
+     * @param root the class path root where the resources are written
+     * @throws IOException when a table cannot be written
+     */
+    public static void write(final File root) throws IOException {
+        if (root == null) { throw new NullPointerException("Parameter root cannot be null."); }
+        BinaryTable.write(new File(root, BITROW_CHANGES_FOR_PLAYER),
+                          BitBoard1.BitrowChangesForPlayer.compute());
+        BinaryTable.write(new File(root, BITROW_LEGAL_MOVES_FOR_PLAYER),
+                          Line.BitrowLegalMovesForPlayer.compute());
+    }
+
+    /** Class constructor. */
+    private LookupTables() { }
+
+}
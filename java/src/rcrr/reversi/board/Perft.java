@@ -0,0 +1,464 @@
+/*
+ *  Perft.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.GamePositionDb;
+import rcrr.reversi.GamePositionDbSyntaxError;
+
+/**
+ * Counts the leaves of the game tree rooted at a game position, to a given depth.
+ * <p>
+ * A pass is a ply: when the player has no legal move and the opponent has, the opponent moves
+ * at the next depth. A game over position found before the given depth is counted as a leaf.
+ * The counts from the initial position are well known, and make a correctness check for the
+ * {@code Board} implementations; the node rate makes a throughput figure.
+ * <p>
+ * The tree is searched by the {@code Board} methods {@code legalMovesMask} and {@code makeMove},
+ * so that every {@code BoardFactory} can be measured. Nodes having more than {@code SERIAL_DEPTH}
+ * plies to go are split into tasks run by a {@code ForkJoinPool}.
+ * <p>
+ * When the hash capacity is greater than zero, the counts of the subtrees are stored into a table
+ * keyed by the position Zobrist key and by the depth, and transpositions are counted once.
+ * The table is always-replace, and is read and written without locks: each slot holds the key
+ * xored with the data, and the data, so that a torn slot doesn't match.
+ * <p>
+ * {@code Perft} is thread-safe, the {@code perft} method is synchronized.
+ */
+public final class Perft {
+
+    /** Subtrees having up to this count of plies to go are searched by the running task. */
+    public static final int SERIAL_DEPTH = 5;
+
+    /** Subtrees having fewer plies to go are not stored into the hash table. */
+    private static final int MIN_HASH_DEPTH = 2;
+
+    /** Bits of the data word holding the depth. */
+    private static final int DEPTH_BITS = 6;
+
+    /** Mask of the depth field of the data word. */
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    /** Nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** Error code 1. */
+    private static final int ERROR_CODE_1 = 1;
+
+    /** Error code 2. */
+    private static final int ERROR_CODE_2 = 2;
+
+    /**
+     * Returns the leaf count of the tree, searched by the running thread without hash table.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @param depth  the depth
+     * @return       the leaf count
+     * @throws NullPointerException     when parameter {@code board} or {@code player} is null
+     * @throws IllegalArgumentException when parameter {@code depth} is negative
+     */
+    public static long count(final Board board, final Player player, final int depth) {
+        if (board == null) { throw new NullPointerException("Parameter board cannot be null."); }
+        if (player == null) { throw new NullPointerException("Parameter player cannot be null."); }
+        if (depth < 0) { throw new IllegalArgumentException("Parameter depth cannot be negative. depth=" + depth); }
+        return new Perft(null, 0).serial(board, player, depth);
+    }
+
+    /** The pool field, can be null. */
+    private final ForkJoinPool pool;
+
+    /** The hash table, it is null when hashing is not used. */
+    private final long[] table;
+
+    /** The hash table mask. */
+    private final int mask;
+
+    /** The node counter. */
+    private final AtomicLong nodeCount = new AtomicLong();
+
+    /** The hash hit counter. */
+    private final AtomicLong hashHits = new AtomicLong();
+
+    /** The duration of the last perft call. */
+    private long timeInNanoseconds;
+
+    /**
+     * Class constructor.
+     * <p>
+     * The hash capacity is rounded up to a power of two.
+     *
+     * @param pool         the pool running the tasks, when null the tree is searched by the calling thread
+     * @param hashCapacity the number of entries of the hash table, zero when hashing is not used
+     * @throws IllegalArgumentException when parameter {@code hashCapacity} is negative, or greater than {@code 2^29}
+     */
+    public Perft(final ForkJoinPool pool, final int hashCapacity) {
+        if (hashCapacity < 0 || hashCapacity > (1 << 29)) {
+            throw new IllegalArgumentException("Parameter hashCapacity must be in the [0, 2^29] range. hashCapacity="
+                                               + hashCapacity);
+        }
+        this.pool = pool;
+        if (hashCapacity == 0) {
+            this.table = null;
+            this.mask = 0;
+        } else {
+            final int capacity = Integer.highestOneBit(hashCapacity) << ((Integer.bitCount(hashCapacity) == 1) ? 0 : 1);
+            this.table = new long[2 * capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    /**
+     * Returns the leaf count of the tree rooted at the game position.
+     * <p>
+     * The hash table, when used, is cleared before the search.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @param depth  the depth
+     * @return       the leaf count
+     * @throws NullPointerException     when parameter {@code board} or {@code player} is null
+     * @throws IllegalArgumentException when parameter {@code depth} is negative, or greater than 63
+     */
+    public synchronized long perft(final Board board, final Player player, final int depth) {
+        if (board == null) { throw new NullPointerException("Parameter board cannot be null."); }
+        if (player == null) { throw new NullPointerException("Parameter player cannot be null."); }
+        if (depth < 0 || depth > DEPTH_MASK) {
+            throw new IllegalArgumentException("Parameter depth must be in the [0, 63] range. depth=" + depth);
+        }
+        if (table != null) { Arrays.fill(table, 0L); }
+        nodeCount.set(0L);
+        hashHits.set(0L);
+        final long start = System.nanoTime();
+        final long leaves;
+        if (pool == null || depth <= SERIAL_DEPTH) {
+            leaves = serial(board, player, depth);
+        } else {
+            leaves = pool.invoke(new PerftTask(board, player, depth));
+        }
+        timeInNanoseconds = System.nanoTime() - start;
+        return leaves;
+    }
+
+    /**
+     * Returns the nodes visited by the last perft call, leaves included.
+     *
+     * @return the node count
+     */
+    public synchronized long nodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Returns the subtrees found in the hash table by the last perft call.
+     *
+     * @return the hash hits
+     */
+    public synchronized long hashHits() {
+        return hashHits.get();
+    }
+
+    /**
+     * Returns the duration of the last perft call in nanoseconds.
+     *
+     * @return the perft time
+     */
+    public synchronized long timeInNanoseconds() {
+        return timeInNanoseconds;
+    }
+
+    /**
+     * Returns the nodes visited per second by the last perft call.
+     *
+     * @return the search speed
+     */
+    public synchronized long nodesPerSecond() {
+        return (timeInNanoseconds == 0L) ? 0L : (nodeCount.get() * NANOS_PER_SECOND) / timeInNanoseconds;
+    }
+
+    /**
+     * Searches the tree by the running thread.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @param depth  the depth
+     * @return       the leaf count
+     */
+    private long serial(final Board board, final Player player, final int depth) {
+        long nodes = 0L;
+        final long leaves;
+        try {
+            final long[] counter = new long[1];
+            leaves = serial(board, player, depth, counter);
+            nodes = counter[0];
+        } finally {
+            nodeCount.addAndGet(nodes);
+        }
+        return leaves;
+    }
+
+    /**
+     * Searches the tree by the running thread, counting the nodes into {@code nodes[0]}.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @param depth  the depth
+     * @param nodes  the node counter
+     * @return       the leaf count
+     */
+    private long serial(final Board board, final Player player, final int depth, final long[] nodes) {
+        nodes[0]++;
+        if (depth == 0) { return 1L; }
+        final long moves = board.legalMovesMask(player);
+        if (moves == 0L) {
+            final Player opponent = player.opponent();
+            return (board.legalMovesMask(opponent) == 0L) ? 1L : serial(board, opponent, depth - 1, nodes);
+        }
+        if (depth == 1) {
+            final int leaves = Long.bitCount(moves);
+            nodes[0] += leaves;
+            return leaves;
+        }
+        final long key = (table == null || depth < MIN_HASH_DEPTH) ? 0L : board.zobrist() ^ Zobrist.playerKey(player);
+        if (key != 0L) {
+            final long found = probe(key, depth);
+            if (found >= 0L) {
+                hashHits.incrementAndGet();
+                return found;
+            }
+        }
+        long leaves = 0L;
+        for (long ms = moves; ms != 0L; ms &= ms - 1) {
+            final Square move = SQUARE_VALUES[Long.numberOfTrailingZeros(ms)];
+            leaves += serial(board.makeMove(move, player), player.opponent(), depth - 1, nodes);
+        }
+        if (key != 0L) { store(key, depth, leaves); }
+        return leaves;
+    }
+
+    /**
+     * Returns the leaf count stored for the key and the depth, or {@code -1}.
+     *
+     * @param key   the position key
+     * @param depth the depth
+     * @return      the leaf count, or {@code -1}
+     */
+    private long probe(final long key, final int depth) {
+        final int slot = 2 * ((int) (key ^ (key >>> 32)) & mask);
+        final long data = table[slot + 1];
+        if (data != 0L && (table[slot] ^ data) == key && (data & DEPTH_MASK) == depth) {
+            return data >>> DEPTH_BITS;
+        }
+        return -1L;
+    }
+
+    /**
+     * Stores the leaf count for the key and the depth, replacing the slot content.
+     *
+     * @param key    the position key
+     * @param depth  the depth
+     * @param leaves the leaf count
+     */
+    private void store(final long key, final int depth, final long leaves) {
+        final int slot = 2 * ((int) (key ^ (key >>> 32)) & mask);
+        final long data = (leaves << DEPTH_BITS) | depth;
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Counts the leaves of a subtree, forking a task for each move when the subtree
+     * has more than {@code SERIAL_DEPTH} plies to go.
+     */
+    private final class PerftTask extends RecursiveTask<Long> {
+
+        /** The serialVersionUID requested by the specification for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** The board field. */
+        private final Board board;
+
+        /** The player field. */
+        private final Player player;
+
+        /** The depth field. */
+        private final int depth;
+
+        /**
+         * Class constructor.
+         *
+         * @param board  the board
+         * @param player the player to move
+         * @param depth  the depth
+         */
+        PerftTask(final Board board, final Player player, final int depth) {
+            this.board = board;
+            this.player = player;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SERIAL_DEPTH) { return serial(board, player, depth); }
+            nodeCount.incrementAndGet();
+            final long moves = board.legalMovesMask(player);
+            if (moves == 0L) {
+                final Player opponent = player.opponent();
+                return (board.legalMovesMask(opponent) == 0L)
+                    ? 1L
+                    : new PerftTask(board, opponent, depth - 1).compute();
+            }
+            final List<PerftTask> tasks = new ArrayList<PerftTask>();
+            for (long ms = moves; ms != 0L; ms &= ms - 1) {
+                final Square move = SQUARE_VALUES[Long.numberOfTrailingZeros(ms)];
+                tasks.add(new PerftTask(board.makeMove(move, player), player.opponent(), depth - 1));
+            }
+            long leaves = 0L;
+            for (final PerftTask task : invokeAll(tasks)) { leaves += task.join(); }
+            return leaves;
+        }
+    }
+
+    /**
+     * The main entry point for the perft program.
+     * <p>
+     * The arguments are the depth, and the optional switches:
+     * <ul>
+     *   <li>{@code -f factoryClass}: the board factory, the default is the one set by {@code BoardFactoryHolder}</li>
+     *   <li>{@code -t threads}: the threads, the default is the available processors, one is serial</li>
+     *   <li>{@code -h capacity}: the hash table entries, the default is zero, no hashing</li>
+     *   <li>{@code -g gpdbFile id}: the root position, the default is the initial one</li>
+     * </ul>
+     * The counts for all the depths from one to the given one are printed.
+     *
+     * @param args the program arguments
+     */
+    public static void main(final String[] args) {
+        int depth = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hashCapacity = 0;
+        String factoryClass = null;
+        String gpdbFile = null;
+        String gpdbId = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("-f".equals(args[i])) {
+                    factoryClass = args[++i];
+                } else if ("-t".equals(args[i])) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if ("-h".equals(args[i])) {
+                    hashCapacity = Integer.parseInt(args[++i]);
+                } else if ("-g".equals(args[i])) {
+                    gpdbFile = args[++i];
+                    gpdbId = args[++i];
+                } else {
+                    depth = Integer.parseInt(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException aioobe) {
+            System.out.println("Argument list error: a switch is missing its value.");
+            usage();
+            System.exit(ERROR_CODE_1);
+        } catch (Exception e) {
+            System.out.println("Argument list error: " + e);
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+
+        /* The factory is installed first, so that the root position is built by it. */
+        GamePosition root = null;
+        String rootLabel = "initial position";
+        try {
+            if (factoryClass != null) {
+                final BoardFactory bf = (BoardFactory) Class.forName(factoryClass).getDeclaredConstructor()
+                    .newInstance();
+                BoardFactoryHolder.getInstance().setBoardFactory(bf);
+            }
+            if (gpdbFile != null) {
+                final List<GamePositionDbSyntaxError> log = new ArrayList<GamePositionDbSyntaxError>();
+                final GamePositionDb.Entry entry = GamePositionDb.valueOf(gpdbFile, log).lookup(gpdbId);
+                if (entry == null) {
+                    throw new IllegalArgumentException("Entry " + gpdbId + " is not in " + gpdbFile);
+                }
+                root = entry.gamePosition();
+                rootLabel = gpdbId;
+            } else {
+                root = GamePosition.initialGamePosition();
+            }
+        } catch (IOException ioe) {
+            System.out.println("Unable to read the database: " + ioe.getMessage());
+            System.exit(ERROR_CODE_2);
+        } catch (Exception e) {
+            System.out.println("Argument list error: " + e);
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+        if (depth < 1) {
+            System.out.println("Argument list error: depth must be provided, and be positive.");
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+
+        final ForkJoinPool pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+        final Perft perft = new Perft(pool, hashCapacity);
+        System.out.printf("Perft of %s, board factory %s, threads %d, hash capacity %d\n%s\n",
+                          rootLabel, BoardFactoryHolder.getInstance().boardFactory().getClass().getName(),
+                          threads, hashCapacity, root.board().printBoard());
+        for (int d = 1; d <= depth; d++) {
+            final long leaves = perft.perft(root.board(), root.player(), d);
+            System.out.println(String.format(Locale.US,
+                                             "depth=%2d  leaves=%14d  nodes=%14d  hashHits=%12d  time=%9.3fs"
+                                             + "  nodesPerSecond=%d",
+                                             d, leaves, perft.nodeCount(), perft.hashHits(),
+                                             perft.timeInNanoseconds() / (double) NANOS_PER_SECOND,
+                                             perft.nodesPerSecond()));
+        }
+        if (pool != null) { pool.shutdown(); }
+    }
+
+    /**
+     * Print the usage message.
+     */
+    private static void usage() {
+        System.out.println("usage: java rcrr.reversi.board.Perft depth"
+                           + " [-f factoryClass] [-t threads] [-h hashCapacity] [-g gpdbFile id]");
+    }
+
+}
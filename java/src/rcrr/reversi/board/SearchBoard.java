@@ -0,0 +1,438 @@
+/*
+ *  SearchBoard.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.Arrays;
+
+/**
+ * A search board is a mutable board, coupled with the player that has to move,
+ * designed to be used by the search algorithms.
+ * <p>
+ * A board implementing the {@code Board} interface is immutable, and each move creates a new object.
+ * A search board instead is updated in place by the {@code play(Square)} method, and it is
+ * restored by the {@code undo(int)} one. The information required to take back the moves is
+ * kept in a stack, that is allocated once when the object is created. Playing and taking back
+ * a move doesn't create any object.
+ * <p>
+ * The {@code play(Square)}, {@code play(long)}, and {@code pass()} methods return an undo token.
+ * Calling {@code undo(int)} with the token restores the state that the board had before
+ * the call that generated the token. Tokens have to be used in the reverse order of their creation,
+ * a token taken back restores also all the moves played after it.
+ * <p>
+ * Legal moves and flips are computed by the same parallel prefix algorithm used by {@code BitBoard4}.
+ * <p>
+ * The endgame solvers search on it. The {@code AlphaBeta3} and {@code NegaScout} decision rules search on it
+ * when the evaluation function implements {@code SearchBoardEvalFunction}, as {@code CountDifference},
+ * {@code WeightedSquares}, and {@code ModifiedWeightedSquares} do. The other decision rules, and the other
+ * evaluation functions, still work on the immutable boards.
+ * <p>
+ * {@code SearchBoard} is mutable and it is not thread safe. Every searching thread must own its instance,
+ * that can be obtained by the {@code copy()} method.
+ *
+ * @see Board
+ * @see BitBoard4
+ */
+public final class SearchBoard {
+
+    /** The initial size of the undo stack, it is enough for a full game having passes. */
+    private static final int INITIAL_STACK_SIZE = 128;
+
+    /** The number of squares on the board. */
+    private static final int NUMBER_OF_SQUARES = 64;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /**
+     * Returns a new search board having the state given by the {@code board} parameter,
+     * and {@code player} as the player that has to move.
+     * <p>
+     * Parameters {@code board} and {@code player} must be not {@code null}.
+     *
+     * @param board  the board
+     * @param player the player that has to move
+     * @return       a new search board
+     * @throws NullPointerException if parameter {@code board} or {@code player} is {@code null}
+     */
+    public static SearchBoard valueOf(final Board board, final Player player) {
+        if (board == null) { throw new NullPointerException("Parameter board must be not null."); }
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        final long[] bitboard = (board instanceof BitBoard)
+            ? ((BitBoard) board).bitboard()
+            : BoardUtils.mapToBitboard(BoardUtils.squares(board));
+        return valueOf(bitboard[player.ordinal()], bitboard[player.opponent().ordinal()], player);
+    }
+
+    /**
+     * Returns a new search board given the discs of the player that has to move and the ones of the opponent.
+     * <p>
+     * The two bitboards must not overlap. Parameter {@code player} must be not {@code null}.
+     *
+     * @param playerBitboard   the discs of the player that has to move
+     * @param opponentBitboard the discs of the opponent
+     * @param player           the player that has to move
+     * @return                 a new search board
+     * @throws NullPointerException     if parameter {@code player} is {@code null}
+     * @throws IllegalArgumentException if the bitboards overlap
+     */
+    public static SearchBoard valueOf(final long playerBitboard, final long opponentBitboard, final Player player) {
+        if (player == null) { throw new NullPointerException("Parameter player must be not null."); }
+        if ((playerBitboard & opponentBitboard) != 0L) {
+            throw new IllegalArgumentException("Parameters playerBitboard and opponentBitboard overlap.");
+        }
+        return new SearchBoard(playerBitboard, opponentBitboard, player);
+    }
+
+    /** The discs of the player that has to move. */
+    private long playerBitboard;
+
+    /** The discs of the opponent. */
+    private long opponentBitboard;
+
+    /** The player that has to move. */
+    private Player player;
+
+    /** The stack of the flipped discs, one entry for each move or pass played. */
+    private long[] flipStack;
+
+    /** The stack of the moves, one entry for each move or pass played, a pass is recorded as {@code 0L}. */
+    private long[] moveStack;
+
+    /** The number of entries in the stacks. */
+    private int stackSize;
+
+    /**
+     * Class constructor.
+     *
+     * @param playerBitboard   the discs of the player that has to move
+     * @param opponentBitboard the discs of the opponent
+     * @param player           the player that has to move
+     */
+    private SearchBoard(final long playerBitboard, final long opponentBitboard, final Player player) {
+        this.playerBitboard = playerBitboard;
+        this.opponentBitboard = opponentBitboard;
+        this.player = player;
+        this.flipStack = new long[INITIAL_STACK_SIZE];
+        this.moveStack = new long[INITIAL_STACK_SIZE];
+        this.stackSize = 0;
+    }
+
+    /**
+     * Returns a new search board having the same state of this one.
+     * The undo stack is not copied, the new board cannot take back the moves played so far.
+     *
+     * @return a copy of the search board
+     */
+    public SearchBoard copy() {
+        return new SearchBoard(playerBitboard, opponentBitboard, player);
+    }
+
+    /**
+     * Returns the discs of the {@code color} player.
+     *
+     * @param color the player
+     * @return      the discs as a bitboard
+     */
+    public long bitboard(final Player color) {
+        return (color == player) ? playerBitboard : opponentBitboard;
+    }
+
+    /**
+     * Returns the number of empty squares.
+     *
+     * @return the empty squares count
+     */
+    public int countEmpties() {
+        return NUMBER_OF_SQUARES - Long.bitCount(playerBitboard | opponentBitboard);
+    }
+
+    /**
+     * Returns the disc difference between the player that has to move and the opponent.
+     *
+     * @return the disc count difference
+     */
+    public int countDifference() {
+        return Long.bitCount(playerBitboard) - Long.bitCount(opponentBitboard);
+    }
+
+    /**
+     * Returns the empty squares.
+     *
+     * @return the empty squares as a bitboard
+     */
+    public long empties() {
+        return ~(playerBitboard | opponentBitboard);
+    }
+
+    /**
+     * Returns the {@code SquareState} value for the given square.
+     * When {@code square} is {@code null} the method returns {@code SquareState.OUTER}.
+     *
+     * @param square the board square to retrieve the state value
+     * @return       the square state
+     */
+    public SquareState get(final Square square) {
+        if (square == null) { return SquareState.OUTER; }
+        final long bitsquare = 1L << square.ordinal();
+        if ((bitsquare & playerBitboard) != 0L) {
+            return player.color();
+        } else if ((bitsquare & opponentBitboard) != 0L) {
+            return player.opponent().color();
+        } else {
+            return SquareState.EMPTY;
+        }
+    }
+
+    /**
+     * Returns true if the player that has to move has any legal move.
+     *
+     * @return {@code true} if the player has a legal move
+     */
+    public boolean hasAnyLegalMove() {
+        return legalMoves() != 0L;
+    }
+
+    /**
+     * Returns true if either the player that has to move or the opponent has any legal move.
+     *
+     * @return {@code true} if either player has a legal move
+     */
+    public boolean hasAnyPlayerAnyLegalMove() {
+        return hasAnyLegalMove() || opponentLegalMoves() != 0L;
+    }
+
+    /**
+     * Returns true if the move is legal for the player that has to move.
+     *
+     * @param move the square where to put the new disc
+     * @return     true if the move is legal
+     * @throws NullPointerException if parameter {@code move} is {@code null}
+     */
+    public boolean isLegal(final Square move) {
+        if (move == null) { throw new NullPointerException("Parameter move must be not null."); }
+        return ((1L << move.ordinal()) & legalMoves()) != 0L;
+    }
+
+    /**
+     * Returns the legal moves of the player that has to move.
+     *
+     * @return the legal moves as a bitboard
+     */
+    public long legalMoves() {
+        return BitBoard4.legalMoves(playerBitboard, opponentBitboard);
+    }
+
+    /**
+     * Returns a subset of the discs of the player that has to move that cannot be flipped for the rest of the game.
+     *
+     * @return the stable discs as a bitboard
+     * @see Board#stableDiscs(Player)
+     */
+    public long stableDiscs() {
+        return BitBoard4.stableDiscs(playerBitboard, opponentBitboard);
+    }
+
+    /**
+     * Returns the legal moves of the opponent of the player that has to move.
+     *
+     * @return the opponent legal moves as a bitboard
+     */
+    public long opponentLegalMoves() {
+        return BitBoard4.legalMoves(opponentBitboard, playerBitboard);
+    }
+
+    /**
+     * Returns a subset of the discs of the opponent that cannot be flipped for the rest of the game.
+     *
+     * @return the opponent stable discs as a bitboard
+     * @see Board#stableDiscs(Player)
+     */
+    public long opponentStableDiscs() {
+        return BitBoard4.stableDiscs(opponentBitboard, playerBitboard);
+    }
+
+    /**
+     * Returns the discs of the opponent of the player that has to move.
+     *
+     * @return the opponent discs as a bitboard
+     */
+    public long opponentBitboard() {
+        return opponentBitboard;
+    }
+
+    /**
+     * Returns the player that has to move.
+     *
+     * @return the player that has to move
+     */
+    public Player player() {
+        return player;
+    }
+
+    /**
+     * Returns the discs of the player that has to move.
+     *
+     * @return the player discs as a bitboard
+     */
+    public long playerBitboard() {
+        return playerBitboard;
+    }
+
+    /**
+     * Passes the turn to the opponent.
+     * The method does not check that the player has no legal moves.
+     *
+     * @return the undo token
+     */
+    public int pass() {
+        return push(0L, 0L);
+    }
+
+    /**
+     * Plays the move for the player that has to move, and passes the turn to the opponent.
+     *
+     * @param move the square where to put the new disc
+     * @return     the undo token
+     * @throws NullPointerException     if parameter {@code move} is {@code null}
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    public int play(final Square move) {
+        if (!isLegal(move)) {
+            throw new IllegalArgumentException("The move<" + move + "> by player<" + player + "> is illegal.");
+        }
+        return play(1L << move.ordinal());
+    }
+
+    /**
+     * Plays the move for the player that has to move, and passes the turn to the opponent.
+     * <p>
+     * Parameter {@code move} must have exactly one bit set, and it must be a legal move.
+     * For performance reasons the precondition is not checked.
+     *
+     * @param move the square where to put the new disc, as a bitboard
+     * @return     the undo token
+     */
+    public int play(final long move) {
+        return push(move, BitBoard4.flips(move, playerBitboard, opponentBitboard));
+    }
+
+    /**
+     * Returns the number of moves, passes included, that can be taken back.
+     *
+     * @return the size of the undo stack
+     */
+    public int stackSize() {
+        return stackSize;
+    }
+
+    /**
+     * Returns a new immutable board having the disc configuration of the search board.
+     * The board is obtained from the board factory registered into the {@code BoardFactoryHolder}.
+     *
+     * @return a new board
+     */
+    public Board toBoard() {
+        final long[] bitboard = new long[2];
+        bitboard[player.ordinal()] = playerBitboard;
+        bitboard[player.opponent().ordinal()] = opponentBitboard;
+        return BoardFactoryHolder.getInstance().boardFactory().valueOf(BoardUtils.bitboardToMap(bitboard));
+    }
+
+    /**
+     * Takes back all the moves and passes played after the {@code token} was returned.
+     *
+     * @param token the undo token
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public void undo(final int token) {
+        if (token < 0 || token > stackSize) {
+            throw new IllegalArgumentException("Parameter token is not valid. token=" + token
+                                               + ", stackSize=" + stackSize);
+        }
+        while (stackSize > token) {
+            stackSize--;
+            final long move = moveStack[stackSize];
+            final long flips = flipStack[stackSize];
+            final long mover = opponentBitboard & ~(move | flips);
+            opponentBitboard = playerBitboard | flips;
+            playerBitboard = mover;
+            player = player.opponent();
+        }
+    }
+
+    /**
+     * Returns the Zobrist key of the position, including the player that has to move.
+     * <p>
+     * The value is equal to the one returned by {@code GamePosition.zobrist()}
+     * for the corresponding board and player.
+     *
+     * @return the position Zobrist key
+     * @see Zobrist
+     */
+    public long zobrist() {
+        return Zobrist.key(player.ordinal(), playerBitboard)
+            ^ Zobrist.key(player.opponent().ordinal(), opponentBitboard)
+            ^ Zobrist.playerKey(player);
+    }
+
+    /**
+     * Returns a formatted string showing a 2d graphical represention of the board.
+     *
+     * @return a string being a 2d representation of the board
+     */
+    public String printBoard() {
+        return toBoard().printBoard();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBoard[player=" + player + ", playerBitboard=" + Long.toHexString(playerBitboard)
+            + ", opponentBitboard=" + Long.toHexString(opponentBitboard) + "]";
+    }
+
+    /**
+     * Records the move and its flips, updates the board and passes the turn.
+     *
+     * @param move  the move, or {@code 0L} for a pass
+     * @param flips the flipped discs
+     * @return      the undo token
+     */
+    private int push(final long move, final long flips) {
+        if (stackSize == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, 2 * stackSize);
+            flipStack = Arrays.copyOf(flipStack, 2 * stackSize);
+        }
+        final int token = stackSize;
+        moveStack[stackSize] = move;
+        flipStack[stackSize] = flips;
+        stackSize++;
+        final long mover = playerBitboard | move | flips;
+        playerBitboard = opponentBitboard & ~flips;
+        opponentBitboard = mover;
+        player = player.opponent();
+        return token;
+    }
+
+}
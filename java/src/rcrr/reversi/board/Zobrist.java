@@ -0,0 +1,174 @@
+/*
+ *  Zobrist.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.Random;
+
+/**
+ * The class holds the random keys used to compute the Zobrist hash of a board,
+ * and the static methods that combine them.
+ * <p>
+ * A Zobrist key is obtained by xoring one random 64 bit value for each disc on the board,
+ * the value being chosen by the square and by the disc color. Flipping a disc, or placing a new one,
+ * is then reflected into the key by xoring the corresponding values, making the update of the key
+ * proportional to the number of changed squares instead of to the size of the board.
+ * <p>
+ * The square keys are grouped by board row into tables indexed by the row byte,
+ * so that the key of a full bitboard is computed with eight lookups per color.
+ * <p>
+ * Keys are generated by a {@code java.util.Random} having a fixed seed,
+ * so they are the same across runs and can be stored, for instance in an opening book.
+ * <p>
+ * See: <a href="https://chessprogramming.wikispaces.com/Zobrist+Hashing" target="_blank">
+ *      Zobrist Hashing</a>.
+ * <p>
+ * {@code Zobrist} is a static utility class, it cannot be instantiated.
+ */
+public final class Zobrist {
+
+    /** The seed used to generate the keys. */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /** Macic number 8. */
+    private static final int MAGIC_NUMBER_8 = 8;
+
+    /** Number of values a row byte can assume. */
+    private static final int ROW_CONFIGURATIONS = 256;
+
+    /** Used for masking a byte when using long values. */
+    private static final long BYTE_MASK = 0xFFL;
+
+    /** The key of each square, indexed by color and square ordinal. */
+    private static final long[][] SQUARE_KEYS = new long[2][Square.values().length];
+
+    /** The key of each row configuration, indexed by color, row, and row byte. */
+    private static final long[][][] ROW_KEYS = new long[2][MAGIC_NUMBER_8][ROW_CONFIGURATIONS];
+
+    /** The key of each player having to move, indexed by player ordinal. The last entry is for the null player. */
+    private static final long[] PLAYER_KEYS = new long[Player.values().length + 1];
+
+    static {
+        final Random random = new Random(SEED);
+        for (int color = 0; color < 2; color++) {
+            for (int square = 0; square < SQUARE_KEYS[color].length; square++) {
+                SQUARE_KEYS[color][square] = random.nextLong();
+            }
+        }
+        /* Black to move doesn't change the board key. */
+        PLAYER_KEYS[Player.BLACK.ordinal()] = 0L;
+        PLAYER_KEYS[Player.WHITE.ordinal()] = random.nextLong();
+        PLAYER_KEYS[Player.values().length] = random.nextLong();
+        for (int color = 0; color < 2; color++) {
+            for (int row = 0; row < MAGIC_NUMBER_8; row++) {
+                for (int rowByte = 0; rowByte < ROW_CONFIGURATIONS; rowByte++) {
+                    long key = 0L;
+                    for (int column = 0; column < MAGIC_NUMBER_8; column++) {
+                        if ((rowByte & (1 << column)) != 0) {
+                            key ^= SQUARE_KEYS[color][row * MAGIC_NUMBER_8 + column];
+                        }
+                    }
+                    ROW_KEYS[color][row][rowByte] = key;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the Zobrist key of the board having the given bitboards.
+     *
+     * @param blackBitboard the squares occupied by black discs
+     * @param whiteBitboard the squares occupied by white discs
+     * @return              the board key
+     */
+    public static long key(final long blackBitboard, final long whiteBitboard) {
+        return key(BitBoard.BLACK, blackBitboard) ^ key(BitBoard.WHITE, whiteBitboard);
+    }
+
+    /**
+     * Returns the xor of the keys of the {@code color} discs placed on the {@code squares} set.
+     * <p>
+     * Parameter {@code color} must be either {@code 0} or {@code 1}.
+     *
+     * @param color   the disc color, as given by the player ordinal
+     * @param squares the set of squares
+     * @return        the xor of the square keys
+     */
+    public static long key(final int color, final long squares) {
+        final long[][] rowKeys = ROW_KEYS[color];
+        long key = 0L;
+        long s = squares;
+        for (int row = 0; s != 0L; row++) {
+            key ^= rowKeys[row][(int) (s & BYTE_MASK)];
+            s >>>= MAGIC_NUMBER_8;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the value that, xored to the key of a board, gives the key of the board obtained
+     * by the {@code player} moving on the {@code move} square and flipping the {@code flips} discs.
+     * <p>
+     * Parameter {@code player} must be either {@code 0} or {@code 1}.
+     *
+     * @param player the player moving, as given by the player ordinal
+     * @param move   the square where the new disc is placed, as a bitboard having one bit set
+     * @param flips  the flipped discs
+     * @return       the key update
+     */
+    public static long moveKey(final int player, final long move, final long flips) {
+        return key(player, move | flips) ^ key(BitBoard.opponent(player), flips);
+    }
+
+    /**
+     * Returns the key that identifies the player having to move.
+     * <p>
+     * The key for the black player is zero, so that the key of a game position
+     * having black to move is equal to the key of its board.
+     * Parameter {@code player} can be null, and it has a key on its own.
+     *
+     * @param player the player having to move
+     * @return       the player key
+     */
+    public static long playerKey(final Player player) {
+        return PLAYER_KEYS[(player == null) ? Player.values().length : player.ordinal()];
+    }
+
+    /**
+     * Returns the key of the {@code square} occupied by a disc of the given {@code color}.
+     * <p>
+     * Parameter {@code color} must be either {@code 0} or {@code 1}.
+     *
+     * @param color  the disc color, as given by the player ordinal
+     * @param square the square
+     * @return       the square key
+     */
+    public static long squareKey(final int color, final Square square) {
+        return SQUARE_KEYS[color][square.ordinal()];
+    }
+
+    /** Class constructor. */
+    private Zobrist() { }
+
+}
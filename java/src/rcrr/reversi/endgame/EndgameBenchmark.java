@@ -0,0 +1,481 @@
+/*
+ *  EndgameBenchmark.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import java.util.concurrent.ForkJoinPool;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.GamePositionDb;
+import rcrr.reversi.GamePositionDbSyntaxError;
+import rcrr.reversi.SearchNode;
+import rcrr.reversi.TranspositionTable;
+
+import rcrr.reversi.board.Square;
+import rcrr.reversi.board.SquareState;
+
+/**
+ * Runs the endgame solvers on the positions of a game position database, and checks the results
+ * against the move values written in the description field, as {@code " G8:+18. H1:+12."}.
+ * <p>
+ * For each position it reports the solve time, the node count, the search speed, and, for the solvers
+ * having a transposition table, the hit rate. Results are printed as a table and written as comma
+ * separated values, one record for each position, so that runs of different releases can be compared.
+ * <p>
+ * A result is checked when the description has move values: the value must be the greatest one, and the move
+ * must be one of the moves having it. Positions having no move values are reported as not checked.
+ */
+public final class EndgameBenchmark {
+
+    /** The solvers that can be benchmarked. */
+    public static enum Solver {
+
+        /** The {@code ExactSolver} class. */
+        EXACT,
+
+        /** The {@code ImprovedFastEndgameSolver} class. */
+        IFES,
+
+        /** The {@code ParallelExactSolver} class, on all the available processors. */
+        PARALLEL
+    }
+
+    /** The outcome of a result check. */
+    public static enum Check {
+
+        /** The value and the move match the description. */
+        OK,
+
+        /** The value or the move don't match the description. */
+        FAILED,
+
+        /** The description has no move values. */
+        NOT_CHECKED
+    }
+
+    /**
+     * The measures taken solving one position.
+     * <p>
+     * {@code EndgameBenchmark.Result} is immutable.
+     */
+    public static final class Result {
+
+        /** The position id field. */
+        private final String id;
+
+        /** The empty square count field. */
+        private final int empties;
+
+        /** The search node field. */
+        private final SearchNode node;
+
+        /** The expected value field, it is {@code Integer.MIN_VALUE} when not known. */
+        private final int expectedValue;
+
+        /** The check field. */
+        private final Check check;
+
+        /** The solve time field. */
+        private final long timeInNanoseconds;
+
+        /** The node count field. */
+        private final long nodeCount;
+
+        /** The transposition table hits field, it is negative when the solver has no table. */
+        private final long tableHits;
+
+        /** The transposition table probes field, it is negative when the solver has no table. */
+        private final long tableProbes;
+
+        /**
+         * Class constructor.
+         *
+         * @param id                the position id
+         * @param empties           the empty square count
+         * @param node              the search node returned by the solver
+         * @param expectedValue     the expected value, or {@code Integer.MIN_VALUE}
+         * @param check             the check outcome
+         * @param timeInNanoseconds the solve time
+         * @param nodeCount         the node count
+         * @param tableHits         the table hits, or {@code -1}
+         * @param tableProbes       the table probes, or {@code -1}
+         */
+        private Result(final String id, final int empties, final SearchNode node, final int expectedValue,
+                       final Check check, final long timeInNanoseconds, final long nodeCount,
+                       final long tableHits, final long tableProbes) {
+            this.id = id;
+            this.empties = empties;
+            this.node = node;
+            this.expectedValue = expectedValue;
+            this.check = check;
+            this.timeInNanoseconds = timeInNanoseconds;
+            this.nodeCount = nodeCount;
+            this.tableHits = tableHits;
+            this.tableProbes = tableProbes;
+        }
+
+        /**
+         * Returns the position id.
+         *
+         * @return the id
+         */
+        public String id() { return id; }
+
+        /**
+         * Returns the empty square count of the position.
+         *
+         * @return the empty squares
+         */
+        public int empties() { return empties; }
+
+        /**
+         * Returns the search node returned by the solver.
+         *
+         * @return the search node
+         */
+        public SearchNode node() { return node; }
+
+        /**
+         * Returns the check outcome.
+         *
+         * @return the check
+         */
+        public Check check() { return check; }
+
+        /**
+         * Returns the solve time in nanoseconds.
+         *
+         * @return the solve time
+         */
+        public long timeInNanoseconds() { return timeInNanoseconds; }
+
+        /**
+         * Returns the node count.
+         *
+         * @return the node count
+         */
+        public long nodeCount() { return nodeCount; }
+
+        /**
+         * Returns the nodes visited per second.
+         *
+         * @return the search speed
+         */
+        public long nodesPerSecond() {
+            return (timeInNanoseconds == 0L) ? 0L : (nodeCount * NANOS_PER_SECOND) / timeInNanoseconds;
+        }
+
+        /**
+         * Returns the transposition table hit rate, or {@code Double.NaN} when the solver has no table,
+         * or the table has not been probed.
+         *
+         * @return the hit rate
+         */
+        public double tableHitRate() {
+            return (tableProbes <= 0L) ? Double.NaN : (double) tableHits / tableProbes;
+        }
+
+        /**
+         * Returns the comma separated record of the result.
+         *
+         * @param solver the solver
+         * @return       the csv record
+         */
+        public String toCsv(final Solver solver) {
+            return String.format(Locale.US, "%s,%s,%d,%s,%d,%s,%s,%d,%d,%d,%s",
+                                 solver, id, empties, (node.move() == null) ? "--" : node.move(), node.value(),
+                                 (expectedValue == Integer.MIN_VALUE) ? "" : String.valueOf(expectedValue),
+                                 check, timeInNanoseconds, nodeCount, nodesPerSecond(),
+                                 Double.isNaN(tableHitRate()) ? "" : String.format(Locale.US, "%.4f", tableHitRate()));
+        }
+
+        /**
+         * Returns a string representing the {@code Result} object.
+         *
+         * @return a string representing the result
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-8s %3d  %-3s %+4d  %-11s %10.3f s %14d %12d  %s",
+                                 id, empties, (node.move() == null) ? "--" : node.move(), node.value(), check,
+                                 timeInNanoseconds / (double) NANOS_PER_SECOND, nodeCount, nodesPerSecond(),
+                                 Double.isNaN(tableHitRate()) ? "-" : String.format(Locale.US, "%.2f%%",
+                                                                                     100. * tableHitRate()));
+        }
+    }
+
+    /** The header of the comma separated output. */
+    public static final String CSV_HEADER
+        = "solver,id,empties,move,value,expected_value,check,time_ns,nodes,nodes_per_second,tt_hit_rate";
+
+    /** The positions benchmarked when no id is given have at most this count of empty squares. */
+    public static final int DEFAULT_MAX_EMPTIES = 20;
+
+    /** Nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /** Macic number 64, the number of squares. */
+    private static final int SIXTY_FOUR = EndgameSearcher.SIXTY_FOUR;
+
+    /** Error code 1. */
+    private static final int ERROR_CODE_1 = 1;
+
+    /** Error code 2. */
+    private static final int ERROR_CODE_2 = 2;
+
+    /** Error code 3. */
+    private static final int ERROR_CODE_3 = 3;
+
+    /** Error code 4. */
+    private static final int ERROR_CODE_4 = 4;
+
+    /** Matches a move value of the description field, as {@code G8:+18}. */
+    private static final Pattern MOVE_VALUE = Pattern.compile("([A-H][1-8]):([+-]?[0-9]+)");
+
+    /**
+     * Returns the move values written in the description, in the order they are found.
+     * The map is empty when the description has none.
+     *
+     * @param description the description field of a database entry
+     * @return            the move values
+     * @throws NullPointerException when parameter {@code description} is null
+     */
+    public static Map<Square, Integer> moveValues(final String description) {
+        if (description == null) { throw new NullPointerException("Parameter description cannot be null."); }
+        final Map<Square, Integer> values = new EnumMap<Square, Integer>(Square.class);
+        final Matcher m = MOVE_VALUE.matcher(description);
+        while (m.find()) {
+            values.put(Square.valueOf(m.group(1)), Integer.valueOf(m.group(2).replace("+", "")));
+        }
+        return values;
+    }
+
+    /** The solver field. */
+    private final Solver solver;
+
+    /** The pool field, it is used by the parallel solver. */
+    private final ForkJoinPool pool;
+
+    /** The transposition table field, it is used by the parallel solver. */
+    private final TranspositionTable table;
+
+    /**
+     * Class constructor.
+     *
+     * @param solver the solver to benchmark
+     * @throws NullPointerException when parameter {@code solver} is null
+     */
+    public EndgameBenchmark(final Solver solver) {
+        if (solver == null) { throw new NullPointerException("Parameter solver cannot be null."); }
+        this.solver = solver;
+        if (solver == Solver.PARALLEL) {
+            this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            this.table = TranspositionTable.valueOf(ParallelExactSolver.DEFAULT_TABLE_CAPACITY);
+        } else {
+            this.pool = null;
+            this.table = null;
+        }
+    }
+
+    /**
+     * Returns the solver.
+     *
+     * @return the solver
+     */
+    public Solver solver() {
+        return solver;
+    }
+
+    /**
+     * Solves the position of the entry, and checks the result against the description.
+     *
+     * @param entry the database entry
+     * @return      the result
+     * @throws NullPointerException when parameter {@code entry} is null
+     */
+    public Result run(final GamePositionDb.Entry entry) {
+        if (entry == null) { throw new NullPointerException("Parameter entry cannot be null."); }
+        final GamePosition position = entry.gamePosition();
+        final SearchNode node;
+        final long time;
+        final long nodes;
+        long hits = -1L;
+        long probes = -1L;
+        switch (solver) {
+        case EXACT:
+            final ExactSolver exact = new ExactSolver(position);
+            node = exact.solve();
+            time = exact.solveTimeInNanoseconds();
+            nodes = exact.nodeCount();
+            break;
+        case IFES:
+            final ImprovedFastEndgameSolver ifes = new ImprovedFastEndgameSolver(position);
+            node = ifes.solve();
+            time = ifes.solveTimeInNanoseconds();
+            nodes = ifes.nodeCount();
+            break;
+        case PARALLEL:
+            final ParallelExactSolver parallel
+                = new ParallelExactSolver(position, pool, table, ParallelExactSolver.DEFAULT_SPLIT_EMPTIES);
+            node = parallel.solve();
+            time = parallel.solveTimeInNanoseconds();
+            nodes = parallel.nodeCount();
+            hits = table.hits();
+            probes = hits + table.misses();
+            break;
+        default: throw new RuntimeException("Unreachable condition found. solver=" + solver);
+        }
+
+        final Map<Square, Integer> values = moveValues(entry.description());
+        final int expected = values.isEmpty() ? Integer.MIN_VALUE : Collections.max(values.values());
+        final Check check;
+        if (values.isEmpty()) {
+            check = Check.NOT_CHECKED;
+        } else if (node.value() == expected && values.get(node.move()) != null
+                   && values.get(node.move()) == expected) {
+            check = Check.OK;
+        } else {
+            check = Check.FAILED;
+        }
+        return new Result(entry.id(), position.board().countPieces(SquareState.EMPTY), node, expected, check,
+                          time, nodes, hits, probes);
+    }
+
+    /** Releases the threads of the parallel solver. */
+    public void shutdown() {
+        if (pool != null) { pool.shutdown(); }
+    }
+
+    /**
+     * The main entry point for the benchmark program.
+     * <p>
+     * When no id is given, all the database entries having at most {@code DEFAULT_MAX_EMPTIES}
+     * empty squares are solved. The exit code is {@code 4} when a check fails.
+     *
+     * @param args the solver, the database file, the csv output file, and optionally the ids of the positions
+     */
+    public static void main(final String[] args) {
+        if (args == null || args.length < 3) {
+            System.out.println("Argument list error: solver, gpdbFile, and csvFile must be provided.");
+            usage();
+            System.exit(ERROR_CODE_1);
+        }
+        Solver solver = null;
+        try {
+            solver = Solver.valueOf(args[0].toUpperCase(Locale.US));
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Solver " + args[0] + " is not one of " + Arrays.toString(Solver.values()) + ".");
+            usage();
+            System.exit(ERROR_CODE_2);
+        }
+
+        final List<GamePositionDbSyntaxError> log = new ArrayList<GamePositionDbSyntaxError>();
+        GamePositionDb db = null;
+        try {
+            db = GamePositionDb.valueOf(args[1], log);
+        } catch (IOException ioe) {
+            System.out.println("Unable to read the database file " + args[1] + ": " + ioe.getMessage());
+            System.exit(ERROR_CODE_3);
+        }
+        for (final GamePositionDbSyntaxError error : log) { System.out.print(error.printError()); }
+
+        final List<GamePositionDb.Entry> entries = new ArrayList<GamePositionDb.Entry>();
+        if (args.length > 3) {
+            for (int i = 3; i < args.length; i++) {
+                final GamePositionDb.Entry entry = db.lookup(args[i]);
+                if (entry == null) {
+                    System.out.println("Entry " + args[i] + " is not in the database.");
+                    System.exit(ERROR_CODE_3);
+                }
+                entries.add(entry);
+            }
+        } else {
+            for (int i = 0; i < db.size(); i++) {
+                final GamePositionDb.Entry entry = db.entry(i);
+                if (SIXTY_FOUR - Long.bitCount(entry.blacks() | entry.whites()) <= DEFAULT_MAX_EMPTIES) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        final EndgameBenchmark benchmark = new EndgameBenchmark(solver);
+        int failed = 0;
+        long time = 0L;
+        long nodes = 0L;
+        PrintWriter csv = null;
+        try {
+            csv = new PrintWriter(new OutputStreamWriter(new FileOutputStream(args[2]), Charset.forName("UTF-8")));
+            csv.println(CSV_HEADER);
+            System.out.printf("Solver: %s, database: %s, positions: %d\n", solver, args[1], entries.size());
+            System.out.printf("%-8s %3s  %-3s %4s  %-11s %12s %14s %12s  %s\n",
+                              "id", "emp", "mov", "val", "check", "time", "nodes", "nodes/s", "tt hits");
+            for (final GamePositionDb.Entry entry : entries) {
+                final Result result = benchmark.run(entry);
+                System.out.println(result);
+                csv.println(result.toCsv(solver));
+                csv.flush();
+                if (result.check() == Check.FAILED) { failed++; }
+                time += result.timeInNanoseconds();
+                nodes += result.nodeCount();
+            }
+        } catch (IOException ioe) {
+            System.out.println("Unable to write the csv file " + args[2] + ": " + ioe.getMessage());
+            System.exit(ERROR_CODE_3);
+        } finally {
+            if (csv != null) { csv.close(); }
+            benchmark.shutdown();
+        }
+        System.out.printf("[positions=%d, failed=%d, time=%.3fs, nodes=%d, nodesPerSecond=%d]\n",
+                          entries.size(), failed, time / (double) NANOS_PER_SECOND, nodes,
+                          (time == 0L) ? 0L : (nodes * NANOS_PER_SECOND) / time);
+        if (failed > 0) { System.exit(ERROR_CODE_4); }
+    }
+
+    /**
+     * Print the usage message.
+     */
+    private static void usage() {
+        System.out.println("usage: java rcrr.reversi.endgame.EndgameBenchmark"
+                           + " exact|ifes|parallel gpdbFile csvFile [id ...]");
+    }
+
+}
@@ -0,0 +1,420 @@
+/*
+ *  EndgameSearcher.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.util.Arrays;
+
+import rcrr.reversi.TranspositionTable;
+
+import rcrr.reversi.board.SearchBoard;
+import rcrr.reversi.board.Square;
+
+/**
+ * The serial alpha-beta engine that searches the end of the game, shared by {@code ExactSolver}
+ * and {@code ParallelExactSolver}.
+ * <p>
+ * When the empty squares are more than the parity threshold, moves are sorted fastest-first:
+ * the moves leaving fewer replies to the opponent are searched first. Below the threshold, moves falling in a
+ * quadrant having an odd count of empty squares are searched before the others. Nodes can be cut by the
+ * stable disc bound, and, above the parity threshold, they can be probed and stored into a transposition table.
+ * <p>
+ * Values are clamped into the search window. The searcher owns the move buffers and the counters,
+ * it must be used by one thread at a time.
+ */
+final class EndgameSearcher {
+
+    /**
+     * A flag raised when a split node is cut, chained to the flags of the split nodes above it.
+     */
+    static final class Cut {
+
+        /** The flag of the enclosing split node, can be null. */
+        private final Cut parent;
+
+        /** The flag field. */
+        private volatile boolean set = false;
+
+        /**
+         * Class constructor.
+         *
+         * @param parent the flag of the enclosing split node, can be null
+         */
+        Cut(final Cut parent) {
+            this.parent = parent;
+        }
+
+        /** Raises the flag. */
+        void set() {
+            this.set = true;
+        }
+
+        /**
+         * Returns true when the flag, or one of the enclosing ones, is raised.
+         *
+         * @return true when the search has to be aborted
+         */
+        boolean isSet() {
+            for (Cut c = this; c != null; c = c.parent) {
+                if (c.set) { return true; }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Thrown when a search is aborted because a cut flag has been raised.
+     * <p>
+     * It is a single instance without stack trace.
+     */
+    static final class AbortException extends RuntimeException {
+
+        /** The serialVersionUID requested by the specification for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** Class constructor. */
+        private AbortException() { }
+
+        /**
+         * Does nothing, the stack trace is not needed.
+         *
+         * @return this exception
+         */
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /** The exception thrown by aborted searches. */
+    static final AbortException ABORT = new AbortException();
+
+    /** Macic number 64, the number of squares, an upper bound of the legal moves and of the empty squares. */
+    static final int SIXTY_FOUR = 64;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** The four board quadrants. */
+    private static final long[] QUADRANTS = new long[] {0x000000000F0F0F0FL,
+                                                       0x00000000F0F0F0F0L,
+                                                       0x0F0F0F0F00000000L,
+                                                       0xF0F0F0F000000000L};
+
+    /**
+     * Returns the final value of the search board, from the point of view of the player that has to move.
+     * Empty squares are assigned to the winner, the value is the same computed by {@code EvalEndgame}.
+     *
+     * @param sb the search board
+     * @return   the game final value
+     */
+    static int finalValue(final SearchBoard sb) {
+        final int difference = sb.countDifference();
+        final int empties = sb.countEmpties();
+        return difference + ((difference > 0) ? +empties : -empties);
+    }
+
+    /**
+     * Returns the moves that fall in a quadrant having an odd count of empty squares.
+     *
+     * @param moves   the moves
+     * @param empties the empty squares
+     * @return        the moves in odd quadrants
+     */
+    private static long oddQuadrantMoves(final long moves, final long empties) {
+        long odd = 0L;
+        for (final long quadrant : QUADRANTS) {
+            if ((Long.bitCount(empties & quadrant) & 1) == 1) { odd |= quadrant; }
+        }
+        return moves & odd;
+    }
+
+    /** The parity threshold field. */
+    private final int parityThreshold;
+
+    /** The stability cutoff field, it is true when the stable disc bound is applied. */
+    private final boolean stabilityCutoff;
+
+    /** The transposition table field, can be null. */
+    private final TranspositionTable table;
+
+    /** Move buffers used by the fastest-first ordering, indexed by the empty squares of the node. */
+    private final long[][] moveBuffers = new long[SIXTY_FOUR + 1][SIXTY_FOUR];
+
+    /** Reply count buffers used by the fastest-first ordering, indexed by the empty squares of the node. */
+    private final int[][] replyBuffers = new int[SIXTY_FOUR + 1][SIXTY_FOUR];
+
+    /** The stable disc computations, indexed by the empty squares of the node. */
+    private final long[] stabilityTestCount = new long[SIXTY_FOUR + 1];
+
+    /** The nodes cut by the stable disc bound, indexed by the empty squares of the node. */
+    private final long[] stabilityCutoffCount = new long[SIXTY_FOUR + 1];
+
+    /** The node counter. */
+    private long nodeCount;
+
+    /** The leaf counter. */
+    private long leafCount;
+
+    /**
+     * Class constructor.
+     *
+     * @param parityThreshold the number of empty squares below which parity ordering is used
+     * @param stabilityCutoff true when the stable disc bound has to be applied
+     * @param table           the transposition table, can be null
+     */
+    EndgameSearcher(final int parityThreshold, final boolean stabilityCutoff, final TranspositionTable table) {
+        this.parityThreshold = parityThreshold;
+        this.stabilityCutoff = stabilityCutoff;
+        this.table = table;
+    }
+
+    /** Resets the counters. */
+    void reset() {
+        nodeCount = 0L;
+        leafCount = 0L;
+        Arrays.fill(stabilityTestCount, 0L);
+        Arrays.fill(stabilityCutoffCount, 0L);
+    }
+
+    /**
+     * Returns the node counter.
+     *
+     * @return the node count
+     */
+    long nodeCount() { return nodeCount; }
+
+    /**
+     * Returns the leaf counter.
+     *
+     * @return the leaf count
+     */
+    long leafCount() { return leafCount; }
+
+    /**
+     * Returns the stability test counters, the array is not copied.
+     *
+     * @return the stability test counters
+     */
+    long[] stabilityTestCount() { return stabilityTestCount; }
+
+    /**
+     * Returns the stability cutoff counters, the array is not copied.
+     *
+     * @return the stability cutoff counters
+     */
+    long[] stabilityCutoffCount() { return stabilityCutoffCount; }
+
+    /** Counts a node searched outside the searcher, as the root node. */
+    void countNode() { nodeCount++; }
+
+    /**
+     * Returns the move buffer for the given count of empty squares.
+     *
+     * @param empties the empty squares of the node
+     * @return        the move buffer
+     */
+    long[] moveBuffer(final int empties) { return moveBuffers[empties]; }
+
+    /**
+     * Fills the move buffer for the given empty square count with the moves, sorted by the number
+     * of replies left to the opponent. Fewer replies come first, ties keep the square order.
+     * The {@code hashMove}, when it is one of the moves, is moved in front.
+     *
+     * @param sb       the search board
+     * @param moves    the legal moves
+     * @param empties  the empty squares of the search board
+     * @param hashMove the move searched first, as a bitboard, or {@code 0L}
+     * @return         the number of moves
+     */
+    int sortFastestFirst(final SearchBoard sb, final long moves, final int empties, final long hashMove) {
+        final long[] buffer = moveBuffers[empties];
+        final int[] replies = replyBuffers[empties];
+        int count = 0;
+        for (long ms = moves; ms != 0L; ms &= ms - 1) {
+            final long move = ms & -ms;
+            final int token = sb.play(move);
+            final int r = (move == hashMove) ? -1 : Long.bitCount(sb.legalMoves());
+            sb.undo(token);
+            int i = count++;
+            for (; i > 0 && replies[i - 1] > r; i--) {
+                buffer[i] = buffer[i - 1];
+                replies[i] = replies[i - 1];
+            }
+            buffer[i] = move;
+            replies[i] = r;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the search board, from the point of view of the player that has to move.
+     * <p>
+     * The search board is left unchanged when the method returns normally.
+     *
+     * @param sb         the search board
+     * @param achievable the search window lower bound (also know as alpha)
+     * @param cutoff     the search window upper bound (also know as beta)
+     * @param cut        the cut flag checked above the parity threshold, can be null
+     * @return           the value of the position
+     * @throws AbortException when the cut flag is raised
+     */
+    int search(final SearchBoard sb, final int achievable, final int cutoff, final Cut cut) {
+        nodeCount++;
+        if (stabilityCutoff && SIXTY_FOUR - 2 * Long.bitCount(sb.opponentBitboard()) <= achievable) {
+            final int empties = sb.countEmpties();
+            stabilityTestCount[empties]++;
+            if (SIXTY_FOUR - 2 * Long.bitCount(sb.opponentStableDiscs()) <= achievable) {
+                stabilityCutoffCount[empties]++;
+                return achievable;
+            }
+        }
+        final long moves = sb.legalMoves();
+        if (moves == 0L) {
+            if (sb.opponentLegalMoves() != 0L) {
+                final int token = sb.pass();
+                final int value = -search(sb, -cutoff, -achievable, cut);
+                sb.undo(token);
+                return value;
+            } else {
+                leafCount++;
+                return Math.max(achievable, Math.min(cutoff, finalValue(sb)));
+            }
+        }
+        final int empties = sb.countEmpties();
+        int value = achievable;
+        if (empties > parityThreshold) {
+            if (cut != null && cut.isSet()) { throw ABORT; }
+            long key = 0L;
+            long hashMove = 0L;
+            if (table != null) {
+                key = sb.zobrist();
+                final long entry = table.probe(key);
+                if (entry != TranspositionTable.NOT_FOUND) {
+                    final int v = decide(entry, achievable, cutoff);
+                    if (v != Integer.MIN_VALUE) { return v; }
+                    hashMove = hashMove(entry);
+                }
+            }
+            final long[] buffer = moveBuffers[empties];
+            final int count = sortFastestFirst(sb, moves, empties, hashMove);
+            long bestMove = buffer[0];
+            for (int i = 0; i < count; i++) {
+                final int token = sb.play(buffer[i]);
+                final int val = -search(sb, -cutoff, -value, cut);
+                sb.undo(token);
+                if (val > value) {
+                    value = val;
+                    bestMove = buffer[i];
+                }
+                if (value >= cutoff) { break; }
+            }
+            if (table != null) { store(key, empties, achievable, cutoff, value, bestMove); }
+        } else {
+            final long odd = oddQuadrantMoves(moves, sb.empties());
+            for (long ms = odd; ms != 0L; ms &= ms - 1) {
+                final int token = sb.play(ms & -ms);
+                final int val = -search(sb, -cutoff, -value, cut);
+                sb.undo(token);
+                if (val > value) { value = val; }
+                if (value >= cutoff) { return value; }
+            }
+            for (long ms = moves & ~odd; ms != 0L; ms &= ms - 1) {
+                final int token = sb.play(ms & -ms);
+                final int val = -search(sb, -cutoff, -value, cut);
+                sb.undo(token);
+                if (val > value) { value = val; }
+                if (value >= cutoff) { return value; }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Probes the transposition table, returns {@code TranspositionTable.NOT_FOUND} when the table
+     * is not used or the key is not found.
+     *
+     * @param key the position key
+     * @return    the table entry, or {@code TranspositionTable.NOT_FOUND}
+     */
+    long probe(final long key) {
+        return (table == null) ? TranspositionTable.NOT_FOUND : table.probe(key);
+    }
+
+    /**
+     * Returns the node value, clamped into the window, when the table entry decides the node,
+     * otherwise {@code Integer.MIN_VALUE}.
+     *
+     * @param entry      the table entry
+     * @param achievable the search window lower bound
+     * @param cutoff     the search window upper bound
+     * @return           the node value, or {@code Integer.MIN_VALUE}
+     */
+    static int decide(final long entry, final int achievable, final int cutoff) {
+        final int v = TranspositionTable.value(entry);
+        switch (TranspositionTable.bound(entry)) {
+        case EXACT: return Math.max(achievable, Math.min(cutoff, v));
+        case LOWER: return (v >= cutoff) ? cutoff : Integer.MIN_VALUE;
+        case UPPER: return (v <= achievable) ? achievable : Integer.MIN_VALUE;
+        default: throw new RuntimeException("Unreachable condition found. entry="
+                                            + TranspositionTable.entryToString(entry));
+        }
+    }
+
+    /**
+     * Returns the move of the table entry as a bitboard, or {@code 0L} when it has none.
+     *
+     * @param entry the table entry
+     * @return      the hash move
+     */
+    static long hashMove(final long entry) {
+        final Square move = TranspositionTable.move(entry);
+        return (move == null) ? 0L : 1L << move.ordinal();
+    }
+
+    /**
+     * Stores the node value into the transposition table, as a bound when it is out of the window.
+     *
+     * @param key        the position key
+     * @param empties    the empty squares of the node
+     * @param achievable the search window lower bound
+     * @param cutoff     the search window upper bound
+     * @param value      the node value
+     * @param move       the best move as a bitboard
+     */
+    void store(final long key, final int empties, final int achievable, final int cutoff,
+               final int value, final long move) {
+        if (table == null) { return; }
+        final TranspositionTable.Bound bound;
+        if (value >= cutoff) {
+            bound = TranspositionTable.Bound.LOWER;
+        } else if (value <= achievable) {
+            bound = TranspositionTable.Bound.UPPER;
+        } else {
+            bound = TranspositionTable.Bound.EXACT;
+        }
+        table.store(key, empties, bound, value, SQUARE_VALUES[Long.numberOfTrailingZeros(move)]);
+    }
+
+}
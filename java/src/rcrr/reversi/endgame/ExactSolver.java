@@ -24,10 +24,6 @@
 
 package rcrr.reversi.endgame;
 
-import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
-
 import rcrr.reversi.EvalEndgame;
 import rcrr.reversi.EvalFunction;
 import rcrr.reversi.SearchNode;
@@ -38,17 +34,61 @@ import rcrr.reversi.board.Board;
 import rcrr.reversi.board.SquareState;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.BoardBuilder;
+import rcrr.reversi.board.SearchBoard;
 
 /**
  * Exact solver searches the end of the game for an exact outcome.
+ * <p>
+ * The search is an alpha-beta run on a {@code SearchBoard}, moves are played and taken back in place.
+ * The root node is searched by the solver, the other nodes by an {@code EndgameSearcher}.
+ * When the empty squares are more than the parity threshold, moves are sorted fastest-first:
+ * the moves leaving fewer replies to the opponent are searched first. Sorting costs a move generation
+ * for each child, that is not paid back close to the leaves. Below the threshold, moves falling in a
+ * quadrant having an odd count of empty squares are searched before the others, as the player
+ * that moves last in a region usually gains from it.
+ * <p>
+ * Before searching a node, the discs of the opponent that can never be flipped give an upper bound
+ * to the final score, {@code 64 - 2 * opponentStable}. When the bound is not greater than the lower
+ * side of the window the node is cut off without searching the children. The stable discs are
+ * computed only when the disc count of the opponent allows the cut.
+ * <p>
+ * The {@code Mode} given to {@code solve(Mode)} selects the search window. The {@code WLD} mode only tells
+ * if the position is won, drawn, or lost, searching the {@code [-1, +1]} window, that cuts far more nodes
+ * than the full one. The {@code EXACT_AFTER_WLD} mode proves the outcome first, and then searches for the
+ * exact score in the half window that the outcome leaves open.
+ * <p>
+ * Node and leaf counters are owned by the instance. The {@code solve} methods and the counter accessors
+ * are synchronized, a solver can be shared by threads.
  */
 public class ExactSolver {
 
+    /** The solve modes. */
+    public static enum Mode {
+
+        /** The exact final disc difference is searched in the {@code [-64, +64]} window. */
+        EXACT,
+
+        /** The value is {@code -1}, {@code 0}, or {@code +1} for a loss, a draw, or a win. */
+        WLD,
+
+        /** The outcome is proved by a {@code WLD} search, then the exact disc difference is searched. */
+        EXACT_AFTER_WLD
+    }
+
+    /** The default parity threshold. */
+    public static final int DEFAULT_PARITY_THRESHOLD = 6;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
     /** Error code 1. */
     private static final int ERROR_CODE_1 = 1;
 
-    private static long nodeCount = 0;
-    private static long leafCount = 0;
+    /** Nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /** Macic number 64, the number of squares. */
+    private static final int SIXTY_FOUR = EndgameSearcher.SIXTY_FOUR;
 
     private static EvalFunction evalEndgame = new EvalEndgame();
 
@@ -64,18 +104,165 @@ public class ExactSolver {
 
     final private GamePosition root;
 
+    /** The searcher field. */
+    private final EndgameSearcher searcher;
+
+    /** The duration of the last solve call. */
+    private long solveTimeInNanoseconds;
+
+    /**
+     * Class constructor, having the default parity threshold.
+     *
+     * @param root the game position to solve
+     */
     public ExactSolver(final GamePosition root) {
+        this(root, DEFAULT_PARITY_THRESHOLD);
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * Nodes having {@code parityThreshold} or fewer empty squares sort the moves by quadrant parity,
+     * the other nodes sort them fastest-first.
+     *
+     * @param root            the game position to solve
+     * @param parityThreshold the number of empty squares below which parity ordering is used
+     * @throws NullPointerException     when parameter {@code root} is null
+     * @throws IllegalArgumentException when parameter {@code parityThreshold} is negative
+     */
+    public ExactSolver(final GamePosition root, final int parityThreshold) {
+        this(root, parityThreshold, true);
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * Nodes having {@code parityThreshold} or fewer empty squares sort the moves by quadrant parity,
+     * the other nodes sort them fastest-first. The stable disc cutoff is applied when
+     * {@code stabilityCutoff} is true.
+     *
+     * @param root            the game position to solve
+     * @param parityThreshold the number of empty squares below which parity ordering is used
+     * @param stabilityCutoff true when the stable disc bound has to be applied
+     * @throws NullPointerException     when parameter {@code root} is null
+     * @throws IllegalArgumentException when parameter {@code parityThreshold} is negative
+     */
+    public ExactSolver(final GamePosition root, final int parityThreshold, final boolean stabilityCutoff) {
+        if (root == null) { throw new NullPointerException("Parameter root must be not null."); }
+        if (parityThreshold < 0) {
+            throw new IllegalArgumentException("Parameter parityThreshold must be not negative. parityThreshold="
+                                               + parityThreshold);
+        }
         this.root  = root;
+        this.searcher = new EndgameSearcher(parityThreshold, stabilityCutoff, null);
     }
 
+    /**
+     * Solves the root position, returning the best move and the exact final disc difference.
+     *
+     * @return the search node having the best move and the game value
+     */
     public SearchNode solve() {
-        final SearchNode result = solveImpl(root.player(), root.board(), -64, +64, 60);
-        System.out.println("[nodeCount=" + nodeCount + ", leafCount=" + leafCount + "]");
+        return solve(Mode.EXACT);
+    }
+
+    /**
+     * Solves the root position applying the given mode.
+     * <p>
+     * Counters and time account for all the searches run by the mode.
+     *
+     * @param mode the solve mode
+     * @return     the search node having the best move and the game value
+     * @throws NullPointerException when parameter {@code mode} is null
+     */
+    public synchronized SearchNode solve(final Mode mode) {
+        if (mode == null) { throw new NullPointerException("Parameter mode must be not null."); }
+        searcher.reset();
+        final long start = System.nanoTime();
+        SearchNode result;
+        switch (mode) {
+        case EXACT:
+            result = solveImpl(root.player(), root.board(), -SIXTY_FOUR, +SIXTY_FOUR, 60);
+            break;
+        case WLD:
+            result = solveImpl(root.player(), root.board(), -1, +1, 60);
+            break;
+        case EXACT_AFTER_WLD:
+            result = solveImpl(root.player(), root.board(), -1, +1, 60);
+            if (result.value() > 0) {
+                result = solveImpl(root.player(), root.board(), 0, +SIXTY_FOUR, 60);
+            } else if (result.value() < 0) {
+                result = solveImpl(root.player(), root.board(), -SIXTY_FOUR, 0, 60);
+            }
+            break;
+        default: throw new RuntimeException("Unreachable condition found. mode=" + mode);
+        }
+        solveTimeInNanoseconds = System.nanoTime() - start;
         return result;
     }
 
+    /**
+     * Returns the nodes visited by the last solve call.
+     *
+     * @return the node count
+     */
+    public synchronized long nodeCount() {
+        return searcher.nodeCount();
+    }
+
+    /**
+     * Returns the leaves, the game over positions, reached by the last solve call.
+     *
+     * @return the leaf count
+     */
+    public synchronized long leafCount() {
+        return searcher.leafCount();
+    }
+
+    /**
+     * Returns the stable disc computations done by the last solve call, indexed by the empty squares of the node.
+     *
+     * @return a copy of the stability test counters
+     */
+    public synchronized long[] stabilityTestCount() {
+        return searcher.stabilityTestCount().clone();
+    }
+
+    /**
+     * Returns the nodes cut by the stable disc bound during the last solve call,
+     * indexed by the empty squares of the node.
+     *
+     * @return a copy of the stability cutoff counters
+     */
+    public synchronized long[] stabilityCutoffCount() {
+        return searcher.stabilityCutoffCount().clone();
+    }
+
+    /**
+     * Returns the duration of the last solve call in nanoseconds.
+     *
+     * @return the solve time
+     */
+    public synchronized long solveTimeInNanoseconds() {
+        return solveTimeInNanoseconds;
+    }
+
+    /**
+     * Returns the nodes visited per second by the last solve call.
+     *
+     * @return the search speed
+     */
+    public synchronized long nodesPerSecond() {
+        return (solveTimeInNanoseconds == 0L)
+            ? 0L
+            : (searcher.nodeCount() * NANOS_PER_SECOND) / solveTimeInNanoseconds;
+    }
+
     /**
      * Implemented by means of the alpha-beta algorithm.
+     * <p>
+     * The search runs on a {@code SearchBoard}, moves are played and taken back in place,
+     * no object is created below the root node.
      *
      * @param player     the player having the move
      * @param board      the board
@@ -89,30 +276,32 @@ public class ExactSolver {
                                 final int achievable,
                                 final int cutoff,
                                 final int ply) {
-        nodeCount++;
-        final GamePosition gp = GamePosition.valueOf(board, player);
-        SearchNode node;
-        final Player opponent = player.opponent();
-        final List<Square> moves = board.legalMoves(player);
-        if (moves.isEmpty()) {
-            if (board.hasAnyLegalMove(opponent)) {
-                node = solveImpl(opponent, board, -cutoff, -achievable, ply - 1).negated();
-            } else {
-                leafCount++;
-                node = SearchNode.valueOf(null, finalValue(gp));
-            }
-        } else {
-            node = SearchNode.valueOf(moves.get(0), achievable);
-            outer: for (final Square move : moves) {
-                final Board board2 = board.makeMove(move, player);
-                final int val = solveImpl(opponent, board2, -cutoff, -node.value(), ply - 1).negated().value();
-                if (val > node.value()) {
-                    node = SearchNode.valueOf(move, val);
-                }
-                    if (node.value() >= cutoff) { break outer; }
+        final SearchBoard sb = SearchBoard.valueOf(board, player);
+        searcher.countNode();
+        final long moves = sb.legalMoves();
+        if (moves == 0L) {
+            final int token = sb.pass();
+            final int value = -searcher.search(sb, -cutoff, -achievable, null);
+            sb.undo(token);
+            return SearchNode.valueOf(null, value);
+        }
+        final int empties = sb.countEmpties();
+        final long[] buffer = searcher.moveBuffer(empties);
+        final int count = searcher.sortFastestFirst(sb, moves, empties, 0L);
+        Square bestMove = SQUARE_VALUES[Long.numberOfTrailingZeros(buffer[0])];
+        int value = achievable;
+        for (int i = 0; i < count; i++) {
+            final long move = buffer[i];
+            final int token = sb.play(move);
+            final int val = -searcher.search(sb, -cutoff, -value, null);
+            sb.undo(token);
+            if (val > value) {
+                value = val;
+                bestMove = SQUARE_VALUES[Long.numberOfTrailingZeros(move)];
             }
+            if (value >= cutoff) { break; }
         }
-        return node;
+        return SearchNode.valueOf(bestMove, value);
     }
 
     /**
@@ -129,10 +318,14 @@ public class ExactSolver {
 
         System.out.printf("FF0_40:\nBlack to move, Turner vs Monnom, Bruxelles 1997.\n%s\n", FFO_40.board().printBoard());
 
-        final SearchNode result = new ExactSolver(FFO_40).solve();
+        final ExactSolver solver = new ExactSolver(FFO_40);
+        final SearchNode result = solver.solve();
 
         System.out.printf("%s\n", result);
-        
+        System.out.printf("[nodeCount=%d, leafCount=%d, time=%.3fs, nodesPerSecond=%d]\n",
+                          solver.nodeCount(), solver.leafCount(),
+                          solver.solveTimeInNanoseconds() / (double) NANOS_PER_SECOND, solver.nodesPerSecond());
+
     }
 
     /**
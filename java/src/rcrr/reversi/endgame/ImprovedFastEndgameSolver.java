@@ -0,0 +1,835 @@
+/*
+ *  ImprovedFastEndgameSolver.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.SearchNode;
+
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.BoardBuilder;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.Square;
+import rcrr.reversi.board.SquareState;
+
+/**
+ * Improved fast endgame solver, a port of the {@code c/src/improved_fast_endgame_solver.c} module,
+ * derived from the Gunnar Andersson work.
+ * <p>
+ * The board is an array of 91 cells, a 9 by 10 grid where the dummy cells of the first column, and of the
+ * first and last rows, stop the flip loops at the edges. A1 is cell 10, H8 is cell 80,
+ * square (column, row) is cell {@code 10 + column + 9 * row}.
+ * The empty squares are kept in a doubly linked list, sorted by a fixed best to worst order,
+ * each one knowing the region, the hole, it belongs to. The parity of the holes is a bit vector.
+ * Flipped discs are pushed on a stack and taken back when the move is undone.
+ * <p>
+ * The search is a plain alpha-beta without transposition table. Three variants are selected by the
+ * count of empty squares, following the C module:
+ * <ul>
+ *   <li>above {@code fastestFirst}: moves are sorted by the opponent mobility, ties broken by the fixed order</li>
+ *   <li>above {@code useParity}, and above two: moves falling in odd holes are searched first</li>
+ *   <li>otherwise: moves follow the fixed order, the last two empty squares are played without recursion</li>
+ * </ul>
+ * The C module runs the fastest-first variant down to the leaves, a setting left from a debug session;
+ * the port dispatches on both thresholds, as documented by the C function {@code end_solve()},
+ * and defaults them to the best values there reported.
+ * <p>
+ * The {@code solve()} method and the counter accessors are synchronized, a solver can be shared by threads.
+ */
+public final class ImprovedFastEndgameSolver {
+
+    /** The default count of empty squares at or below which parity ordering is not used. */
+    public static final int DEFAULT_USE_PARITY = 4;
+
+    /** The default count of empty squares above which moves are sorted fastest-first. */
+    public static final int DEFAULT_FASTEST_FIRST = 7;
+
+    /** A white disc. */
+    static final int WHITE = 0;
+
+    /** An empty square. */
+    static final int EMPTY = 1;
+
+    /** A black disc. */
+    static final int BLACK = 2;
+
+    /** A cell out of the board. */
+    static final int DUMMY = 3;
+
+    /** Macic number 91, the size of the board array. */
+    static final int BOARD_SIZE = 91;
+
+    /** The best/worst case board value. Any value greater than 64 can be adopted. */
+    private static final int INFINITY = 65;
+
+    /** Macic number 64, the number of squares. */
+    private static final int SIXTY_FOUR = 64;
+
+    /** Macic number 1024, an upper bound of the discs flipped along a game. */
+    private static final int FLIP_STACK_SIZE = 1024;
+
+    /** The head of the empty square list. */
+    private static final int HEAD = 0;
+
+    /** The end of the empty square list. */
+    private static final int NIL = -1;
+
+    /** The lowest board cell, A1. */
+    private static final int FIRST_CELL = 10;
+
+    /** The highest board cell, H8. */
+    private static final int LAST_CELL = 80;
+
+    /** Macic number 4, the iterations that merge the holes. */
+    private static final int HOLE_MERGE_ITERATIONS = 4;
+
+    /** Nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** The eight directions. The mask of direction {@code i} is {@code 1 << i}. */
+    private static final int[] DIR_INC = {1, -1, 8, -8, 9, -9, 10, -10};
+
+    /**
+     * Fixed square ordering, from worst to best.
+     * Central squares are there to have a complete list, they are never empty in a game.
+     */
+    private static final int[] WORST_TO_BEST = {
+        /* G7 B7 G2 B2 */              70, 65, 25, 20,
+        /* G8 B8 H7 A7 H2 A2 G1 B1 */  79, 74, 71, 64, 26, 19, 16, 11,
+        /* F7 C7 G6 B6 G3 B3 F2 C2 */  69, 66, 61, 56, 34, 29, 24, 21,
+        /* E7 D7 G5 B5 G4 B4 E2 D2 */  68, 67, 52, 47, 43, 38, 23, 22,
+        /* E6 D6 F5 C5 F4 C4 E3 D3 */  59, 58, 51, 48, 42, 39, 32, 31,
+        /* E8 D8 H5 A5 H4 A4 E1 D1 */  77, 76, 53, 46, 44, 37, 14, 13,
+        /* F6 C6 F3 C3 */              60, 57, 33, 30,
+        /* F8 C8 H6 A6 H3 A3 F1 C1 */  78, 75, 62, 55, 35, 28, 15, 12,
+        /* H8 A8 H1 A1 */              80, 73, 17, 10,
+        /* E5 D5 E4 D4 */              50, 49, 41, 40
+    };
+
+    /** The position of each cell in {@code WORST_TO_BEST}, plus one. */
+    private static final int[] WORST_TO_BEST_REVERSE_LOOKUP = new int[BOARD_SIZE];
+
+    /**
+     * Bit masks for the directions squares can flip in.
+     * For example cell 10, A1, can flip in directions 1, 9, and 10, having mask {@code 81 = 1 + 16 + 64}.
+     */
+    private static final int[] FLIPPING_DIR_MASK_TABLE = {
+        0,   0,   0,   0,   0,   0,   0,   0,   0,
+        0,  81,  81,  87,  87,  87,  87,  22,  22,
+        0,  81,  81,  87,  87,  87,  87,  22,  22,
+        0, 121, 121, 255, 255, 255, 255, 182, 182,
+        0, 121, 121, 255, 255, 255, 255, 182, 182,
+        0, 121, 121, 255, 255, 255, 255, 182, 182,
+        0, 121, 121, 255, 255, 255, 255, 182, 182,
+        0,  41,  41, 171, 171, 171, 171, 162, 162,
+        0,  41,  41, 171, 171, 171, 171, 162, 162,
+        0,   0,   0,   0,   0,   0,   0,   0,   0, 0
+    };
+
+    static {
+        for (int i = 0; i < WORST_TO_BEST.length; i++) {
+            WORST_TO_BEST_REVERSE_LOOKUP[WORST_TO_BEST[i]] = i + 1;
+        }
+    }
+
+    /**
+     * Returns the board cell of the square.
+     *
+     * @param square the square
+     * @return       the board cell
+     */
+    static int cell(final Square square) {
+        return FIRST_CELL + (square.ordinal() & 7) + 9 * (square.ordinal() >> 3);
+    }
+
+    /**
+     * Returns the square of the board cell.
+     *
+     * @param cell the board cell
+     * @return     the square
+     */
+    static Square square(final int cell) {
+        return SQUARE_VALUES[(cell / 9 - 1) * 8 + (cell % 9 - 1)];
+    }
+
+    /**
+     * Returns the board array of the given board, as done by the C function {@code game_position_to_ifes_board()}.
+     *
+     * @param board the board
+     * @return      the board array
+     */
+    static int[] toIfesBoard(final Board board) {
+        final int[] b = new int[BOARD_SIZE];
+        Arrays.fill(b, DUMMY);
+        for (final Square sq : SQUARE_VALUES) {
+            switch (board.get(sq)) {
+            case WHITE: b[cell(sq)] = WHITE; break;
+            case BLACK: b[cell(sq)] = BLACK; break;
+            default: b[cell(sq)] = EMPTY; break;
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Returns the board of the given board array, as done by the C function {@code ifes_game_position_translation()}.
+     *
+     * @param b the board array
+     * @return  the board
+     */
+    static Board toBoard(final int[] b) {
+        final Map<Square, SquareState> squares = new EnumMap<Square, SquareState>(Square.class);
+        for (final Square sq : SQUARE_VALUES) {
+            switch (b[cell(sq)]) {
+            case WHITE: squares.put(sq, SquareState.WHITE); break;
+            case BLACK: squares.put(sq, SquareState.BLACK); break;
+            default: squares.put(sq, SquareState.EMPTY); break;
+            }
+        }
+        return new BoardBuilder().withSquares(squares).build();
+    }
+
+    /** The root field. */
+    private final GamePosition root;
+
+    /** The use parity field. */
+    private final int useParity;
+
+    /** The fastest first field. */
+    private final int fastestFirst;
+
+    /** The board array. */
+    private final int[] board = new int[BOARD_SIZE];
+
+    /** The cells of the empty square list, element {@code HEAD} is the list head. */
+    private final int[] emSquare = new int[SIXTY_FOUR + 1];
+
+    /** The hole ids of the empty square list. */
+    private final long[] emHoleId = new long[SIXTY_FOUR + 1];
+
+    /** The predecessors of the empty square list. */
+    private final int[] emPred = new int[SIXTY_FOUR + 1];
+
+    /** The successors of the empty square list. */
+    private final int[] emSucc = new int[SIXTY_FOUR + 1];
+
+    /** The parities of the holes, as a bit vector. */
+    private long regionParity;
+
+    /** The cells flipped by the moves on the search path. */
+    private final int[] flipStack = new int[FLIP_STACK_SIZE];
+
+    /** The next free element of the flip stack. */
+    private int flipTop;
+
+    /** The best move found by the last search of a node, indexed by the empty squares. */
+    private final int[] bestSquares = new int[SIXTY_FOUR + 1];
+
+    /** The moves of the fastest-first nodes, as list elements, indexed by the empty squares. */
+    private final int[][] movePtr = new int[SIXTY_FOUR + 1][SIXTY_FOUR];
+
+    /** The goodness of the moves of the fastest-first nodes, indexed by the empty squares. */
+    private final int[][] goodness = new int[SIXTY_FOUR + 1][SIXTY_FOUR];
+
+    /** The node count of the last solve call. */
+    private long nodeCount;
+
+    /** The leaf count of the last solve call. */
+    private long leafCount;
+
+    /** The duration of the last solve call. */
+    private long solveTimeInNanoseconds;
+
+    /**
+     * Class constructor, having the default thresholds.
+     *
+     * @param root the game position to solve
+     * @throws NullPointerException when parameter {@code root} is null
+     */
+    public ImprovedFastEndgameSolver(final GamePosition root) {
+        this(root, DEFAULT_USE_PARITY, DEFAULT_FASTEST_FIRST);
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param root         the game position to solve
+     * @param useParity    the empty squares at or below which parity ordering is not used
+     * @param fastestFirst the empty squares above which moves are sorted fastest-first
+     * @throws NullPointerException     when parameter {@code root} is null
+     * @throws IllegalArgumentException when parameter {@code useParity} or {@code fastestFirst} is negative
+     */
+    public ImprovedFastEndgameSolver(final GamePosition root, final int useParity, final int fastestFirst) {
+        if (root == null) { throw new NullPointerException("Parameter root must be not null."); }
+        if (useParity < 0) {
+            throw new IllegalArgumentException("Parameter useParity must be not negative. useParity=" + useParity);
+        }
+        if (fastestFirst < 0) {
+            throw new IllegalArgumentException("Parameter fastestFirst must be not negative. fastestFirst="
+                                               + fastestFirst);
+        }
+        this.root = root;
+        this.useParity = useParity;
+        this.fastestFirst = fastestFirst;
+    }
+
+    /**
+     * Solves the root position, returning the best move and the exact final disc difference.
+     * The move is null when the player has to pass.
+     *
+     * @return the search node having the best move and the game value
+     */
+    public synchronized SearchNode solve() {
+        final long start = System.nanoTime();
+        System.arraycopy(toIfesBoard(root.board()), 0, board, 0, BOARD_SIZE);
+        final int color = (root.player() == Player.BLACK) ? BLACK : WHITE;
+        int empties = 0;
+        int discdiff = 0;
+        for (int i = FIRST_CELL; i <= LAST_CELL; i++) {
+            if (board[i] == EMPTY) {
+                empties++;
+            } else if (board[i] == color) {
+                discdiff++;
+            } else if (board[i] == opponent(color)) {
+                discdiff--;
+            }
+        }
+        prepareToSolve();
+        flipTop = 0;
+        nodeCount = 0L;
+        leafCount = 0L;
+        final int value = endSolve(-SIXTY_FOUR, +SIXTY_FOUR, color, empties, discdiff, 1);
+        final Square move = root.hasAnyLegalMove() ? square(bestSquares[empties]) : null;
+        solveTimeInNanoseconds = System.nanoTime() - start;
+        return SearchNode.valueOf(move, value);
+    }
+
+    /**
+     * Returns the nodes visited by the last solve call.
+     *
+     * @return the node count
+     */
+    public synchronized long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the leaves, the game over positions, reached by the last solve call.
+     *
+     * @return the leaf count
+     */
+    public synchronized long leafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Returns the duration of the last solve call in nanoseconds.
+     *
+     * @return the solve time
+     */
+    public synchronized long solveTimeInNanoseconds() {
+        return solveTimeInNanoseconds;
+    }
+
+    /**
+     * Returns the nodes visited per second by the last solve call.
+     *
+     * @return the search speed
+     */
+    public synchronized long nodesPerSecond() {
+        return (solveTimeInNanoseconds == 0L) ? 0L : (nodeCount * NANOS_PER_SECOND) / solveTimeInNanoseconds;
+    }
+
+    /**
+     * Returns the opponent color.
+     *
+     * @param color the player color
+     * @return      the opponent color
+     */
+    private static int opponent(final int color) {
+        return 2 - color;
+    }
+
+    /**
+     * Returns the final value when nobody can move.
+     * The empty squares go to the winner.
+     *
+     * @param discdiff the disc difference
+     * @param empties  the empty square count
+     * @return         the game value
+     */
+    private static int gameOverValue(final int discdiff, final int empties) {
+        if (discdiff > 0) {
+            return discdiff + empties;
+        } else if (discdiff < 0) {
+            return discdiff - empties;
+        }
+        return 0;
+    }
+
+    /**
+     * Flips the discs from cell {@code sq} in the {@code inc} direction, pushing them on the flip stack.
+     *
+     * @param sq     the move
+     * @param inc    the direction
+     * @param color  the player color
+     * @param oppcol the opponent color
+     */
+    private void directionalFlips(final int sq, final int inc, final int color, final int oppcol) {
+        int pt = sq + inc;
+        if (board[pt] == oppcol) {
+            do { pt += inc; } while (board[pt] == oppcol);
+            if (board[pt] == color) {
+                pt -= inc;
+                do {
+                    board[pt] = color;
+                    flipStack[flipTop++] = pt;
+                    pt -= inc;
+                } while (pt != sq);
+            }
+        }
+    }
+
+    /**
+     * Does all the flips of the move to {@code sq}, and returns their count.
+     * The count is zero when the move is not legal.
+     *
+     * @param sq     the move
+     * @param color  the player color
+     * @param oppcol the opponent color
+     * @return       the flip count
+     */
+    private int doFlips(final int sq, final int color, final int oppcol) {
+        final int mask = FLIPPING_DIR_MASK_TABLE[sq];
+        final int previousTop = flipTop;
+        for (int dir = DIR_INC.length - 1; dir >= 0; dir--) {
+            if ((mask & (1 << dir)) != 0) { directionalFlips(sq, DIR_INC[dir], color, oppcol); }
+        }
+        return flipTop - previousTop;
+    }
+
+    /**
+     * Returns the discs flipped from cell {@code sq} in the {@code inc} direction.
+     *
+     * @param sq     the move
+     * @param inc    the direction
+     * @param color  the player color
+     * @param oppcol the opponent color
+     * @return       the flip count in the direction
+     */
+    private int ctDirectionalFlips(final int sq, final int inc, final int color, final int oppcol) {
+        int pt = sq + inc;
+        if (board[pt] == oppcol) {
+            int count = 1;
+            pt += inc;
+            while (board[pt] == oppcol) {
+                count++;
+                pt += inc;
+            }
+            if (board[pt] == color) { return count; }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the count of discs flipped by the move, without flipping them.
+     *
+     * @param sq     the move
+     * @param color  the player color
+     * @param oppcol the opponent color
+     * @return       the flip count
+     */
+    private int countFlips(final int sq, final int color, final int oppcol) {
+        final int mask = FLIPPING_DIR_MASK_TABLE[sq];
+        int ct = 0;
+        for (int dir = DIR_INC.length - 1; dir >= 0; dir--) {
+            if ((mask & (1 << dir)) != 0) { ct += ctDirectionalFlips(sq, DIR_INC[dir], color, oppcol); }
+        }
+        return ct;
+    }
+
+    /**
+     * Returns true when the move flips discs in the {@code inc} direction.
+     *
+     * @param sq     the move
+     * @param inc    the direction
+     * @param color  the player color
+     * @param oppcol the opponent color
+     * @return       true when there are flips
+     */
+    private boolean anyDirectionalFlips(final int sq, final int inc, final int color, final int oppcol) {
+        int pt = sq + inc;
+        if (board[pt] == oppcol) {
+            do { pt += inc; } while (board[pt] == oppcol);
+            return board[pt] == color;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true when the move to the empty cell {@code sq} is legal.
+     *
+     * @param sq     the move
+     * @param color  the player color
+     * @param oppcol the opponent color
+     * @return       true when the move is legal
+     */
+    private boolean anyFlips(final int sq, final int color, final int oppcol) {
+        final int mask = FLIPPING_DIR_MASK_TABLE[sq];
+        for (int dir = DIR_INC.length - 1; dir >= 0; dir--) {
+            if ((mask & (1 << dir)) != 0 && anyDirectionalFlips(sq, DIR_INC[dir], color, oppcol)) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Takes back the last {@code flipCount} flips, right after {@code doFlips()}.
+     *
+     * @param flipCount the flip count
+     * @param oppcol    the opponent color
+     */
+    private void undoFlips(final int flipCount, final int oppcol) {
+        for (int i = 0; i < flipCount; i++) { board[flipStack[--flipTop]] = oppcol; }
+    }
+
+    /**
+     * Returns the count of legal moves.
+     *
+     * @param color the player color
+     * @return      the mobility
+     */
+    private int countMobility(final int color) {
+        final int oppcol = opponent(color);
+        int mobility = 0;
+        for (int em = emSucc[HEAD]; em != NIL; em = emSucc[em]) {
+            if (anyFlips(emSquare[em], color, oppcol)) { mobility++; }
+        }
+        return mobility;
+    }
+
+    /**
+     * Sets up the hole ids, the region parity, and the empty square list.
+     * <p>
+     * Holes are merged by a fixed number of sweeps instead of running until a fixed point,
+     * as done by the C module: it is enough for othello positions having few empty squares,
+     * and the definition of hole is somewhat arbitrary anyway.
+     */
+    private void prepareToSolve() {
+        final long[] holeIdMap = new long[BOARD_SIZE];
+        long k = 1L;
+        for (int i = FIRST_CELL; i <= LAST_CELL; i++) {
+            if (board[i] == EMPTY) {
+                if (board[i - 10] == EMPTY) {
+                    holeIdMap[i] = holeIdMap[i - 10];
+                } else if (board[i - 9] == EMPTY) {
+                    holeIdMap[i] = holeIdMap[i - 9];
+                } else if (board[i - 8] == EMPTY) {
+                    holeIdMap[i] = holeIdMap[i - 8];
+                } else if (board[i - 1] == EMPTY) {
+                    holeIdMap[i] = holeIdMap[i - 1];
+                } else {
+                    holeIdMap[i] = k;
+                    k <<= 1;
+                }
+            }
+        }
+        for (int z = HOLE_MERGE_ITERATIONS; z > 0; z--) {
+            for (int i = LAST_CELL; i >= FIRST_CELL; i--) {
+                if (board[i] == EMPTY) {
+                    k = holeIdMap[i];
+                    if (board[i + 10] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i + 10]); }
+                    if (board[i + 9] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i + 9]); }
+                    if (board[i + 8] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i + 8]); }
+                    if (board[i + 1] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i + 1]); }
+                }
+            }
+            for (int i = FIRST_CELL; i <= LAST_CELL; i++) {
+                if (board[i] == EMPTY) {
+                    k = holeIdMap[i];
+                    if (board[i - 10] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i - 10]); }
+                    if (board[i - 9] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i - 9]); }
+                    if (board[i - 8] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i - 8]); }
+                    if (board[i - 1] == EMPTY) { holeIdMap[i] = minu(k, holeIdMap[i - 1]); }
+                }
+            }
+        }
+        regionParity = 0L;
+        for (int i = FIRST_CELL; i <= LAST_CELL; i++) { regionParity ^= holeIdMap[i]; }
+        int pt = HEAD;
+        emPred[HEAD] = NIL;
+        for (int i = WORST_TO_BEST.length - 1; i >= 0; i--) {
+            final int sq = WORST_TO_BEST[i];
+            if (board[sq] == EMPTY) {
+                final int em = pt + 1;
+                emSucc[pt] = em;
+                emPred[em] = pt;
+                emSquare[em] = sq;
+                emHoleId[em] = holeIdMap[sq];
+                pt = em;
+            }
+        }
+        emSucc[pt] = NIL;
+    }
+
+    /**
+     * Returns the lesser of the two values, compared as unsigned.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @return  the lesser value
+     */
+    private static long minu(final long a, final long b) {
+        return (a + Long.MIN_VALUE < b + Long.MIN_VALUE) ? a : b;
+    }
+
+    /**
+     * Selects the search variant by the count of empty squares.
+     *
+     * @param alpha    the alpha value
+     * @param beta     the beta value
+     * @param color    the color on move
+     * @param empties  the count of empty squares
+     * @param discdiff the disc count of color less the opponent one
+     * @param prevmove the previous move, or zero when it was a pass
+     * @return         the value of the position
+     */
+    private int endSolve(final int alpha, final int beta, final int color,
+                         final int empties, final int discdiff, final int prevmove) {
+        if (empties > fastestFirst) {
+            return fastestFirstEndSolve(alpha, beta, color, empties, discdiff, prevmove);
+        } else if (empties <= Math.max(2, useParity)) {
+            return noParityEndSolve(alpha, beta, color, empties, discdiff, prevmove);
+        } else {
+            return parityEndSolve(alpha, beta, color, empties, discdiff, prevmove);
+        }
+    }
+
+    /**
+     * Searches without sorting the moves, the last two discs are placed without recursion.
+     *
+     * @param alpha    the alpha value
+     * @param beta     the beta value
+     * @param color    the color on move
+     * @param empties  the count of empty squares
+     * @param discdiff the disc count of color less the opponent one
+     * @param prevmove the previous move, or zero when it was a pass
+     * @return         the value of the position
+     */
+    private int noParityEndSolve(int alpha, final int beta, final int color,
+                                 final int empties, final int discdiff, final int prevmove) {
+        final int oppcol = opponent(color);
+        nodeCount++;
+        int selected = -INFINITY;
+        for (int prev = HEAD, em = emSucc[HEAD]; em != NIL; prev = em, em = emSucc[em]) {
+            final int sq = emSquare[em];
+            final int flipCount = doFlips(sq, color, oppcol);
+            if (flipCount != 0) {
+                board[sq] = color;
+                emSucc[prev] = emSucc[em];
+                int value;
+                if (empties == 2) {
+                    leafCount++;
+                    nodeCount++;
+                    final int last = emSquare[emSucc[HEAD]];
+                    int lastFlipCount = countFlips(last, oppcol, color);
+                    if (lastFlipCount != 0) {
+                        value = discdiff + 2 * (flipCount - lastFlipCount);
+                    } else {
+                        nodeCount++;
+                        lastFlipCount = countFlips(last, color, oppcol);
+                        value = discdiff + 2 * flipCount;
+                        if (lastFlipCount != 0) {
+                            value += 2 * (lastFlipCount + 1);
+                        } else if (value >= 0) {
+                            value += 2;
+                        }
+                    }
+                } else {
+                    value = -noParityEndSolve(-beta, -alpha, oppcol, empties - 1, -discdiff - 2 * flipCount - 1, sq);
+                }
+                undoFlips(flipCount, oppcol);
+                board[sq] = EMPTY;
+                emSucc[prev] = em;
+                if (value > selected) {
+                    selected = value;
+                    bestSquares[empties] = sq;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (value >= beta) { return selected; }
+                    }
+                }
+            }
+        }
+        if (selected == -INFINITY) {
+            if (prevmove == 0) {
+                leafCount++;
+                return gameOverValue(discdiff, empties);
+            }
+            return -noParityEndSolve(-beta, -alpha, oppcol, empties, -discdiff, 0);
+        }
+        return selected;
+    }
+
+    /**
+     * Searches the moves falling in odd holes first.
+     *
+     * @param alpha    the alpha value
+     * @param beta     the beta value
+     * @param color    the color on move
+     * @param empties  the count of empty squares
+     * @param discdiff the disc count of color less the opponent one
+     * @param prevmove the previous move, or zero when it was a pass
+     * @return         the value of the position
+     */
+    private int parityEndSolve(int alpha, final int beta, final int color,
+                               final int empties, final int discdiff, final int prevmove) {
+        final int oppcol = opponent(color);
+        nodeCount++;
+        int selected = -INFINITY;
+        long parityMask = regionParity;
+        for (int par = 1; par >= 0; par--, parityMask = ~parityMask) {
+            for (int prev = HEAD, em = emSucc[HEAD]; em != NIL; prev = em, em = emSucc[em]) {
+                final long holepar = emHoleId[em];
+                if ((holepar & parityMask) != 0L) {
+                    final int sq = emSquare[em];
+                    final int flipCount = doFlips(sq, color, oppcol);
+                    if (flipCount != 0) {
+                        board[sq] = color;
+                        regionParity ^= holepar;
+                        emSucc[prev] = emSucc[em];
+                        final int value = -endSolve(-beta, -alpha, oppcol, empties - 1,
+                                                    -discdiff - 2 * flipCount - 1, sq);
+                        undoFlips(flipCount, oppcol);
+                        regionParity ^= holepar;
+                        board[sq] = EMPTY;
+                        emSucc[prev] = em;
+                        if (value > selected) {
+                            selected = value;
+                            bestSquares[empties] = sq;
+                            if (value > alpha) {
+                                alpha = value;
+                                if (value >= beta) { return selected; }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (selected == -INFINITY) {
+            if (prevmove == 0) {
+                leafCount++;
+                return gameOverValue(discdiff, empties);
+            }
+            return -parityEndSolve(-beta, -alpha, oppcol, empties, -discdiff, 0);
+        }
+        return selected;
+    }
+
+    /**
+     * Searches the moves sorted by the opponent mobility, fewer replies first,
+     * ties broken by the fixed square order.
+     *
+     * @param alpha    the alpha value
+     * @param beta     the beta value
+     * @param color    the color on move
+     * @param empties  the count of empty squares
+     * @param discdiff the disc count of color less the opponent one
+     * @param prevmove the previous move, or zero when it was a pass
+     * @return         the value of the position
+     */
+    private int fastestFirstEndSolve(int alpha, final int beta, final int color,
+                                     final int empties, final int discdiff, final int prevmove) {
+        final int oppcol = opponent(color);
+        final int[] moves = movePtr[empties];
+        final int[] good = goodness[empties];
+        nodeCount++;
+        int count = 0;
+        for (int prev = HEAD, em = emSucc[HEAD]; em != NIL; prev = em, em = emSucc[em]) {
+            final int sq = emSquare[em];
+            final int flipCount = doFlips(sq, color, oppcol);
+            if (flipCount != 0) {
+                board[sq] = color;
+                emSucc[prev] = emSucc[em];
+                final int mobility = countMobility(oppcol);
+                emSucc[prev] = em;
+                undoFlips(flipCount, oppcol);
+                board[sq] = EMPTY;
+                moves[count] = em;
+                good[count] = -(mobility * SIXTY_FOUR + SIXTY_FOUR - (WORST_TO_BEST_REVERSE_LOOKUP[sq] - 1));
+                count++;
+            }
+        }
+        if (count == 0) {
+            if (prevmove == 0) {
+                leafCount++;
+                return gameOverValue(discdiff, empties);
+            }
+            return -fastestFirstEndSolve(-beta, -alpha, oppcol, empties, -discdiff, 0);
+        }
+        int selected = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int bestValue = good[i];
+            int bestIndex = i;
+            for (int j = i + 1; j < count; j++) {
+                if (good[j] > bestValue) {
+                    bestValue = good[j];
+                    bestIndex = j;
+                }
+            }
+            final int em = moves[bestIndex];
+            moves[bestIndex] = moves[i];
+            good[bestIndex] = good[i];
+            final int sq = emSquare[em];
+            final long holepar = emHoleId[em];
+            final int flipCount = doFlips(sq, color, oppcol);
+            board[sq] = color;
+            regionParity ^= holepar;
+            emSucc[emPred[em]] = emSucc[em];
+            if (emSucc[em] != NIL) { emPred[emSucc[em]] = emPred[em]; }
+            final int value = -endSolve(-beta, -alpha, oppcol, empties - 1, -discdiff - 2 * flipCount - 1, sq);
+            undoFlips(flipCount, oppcol);
+            regionParity ^= holepar;
+            board[sq] = EMPTY;
+            emSucc[emPred[em]] = em;
+            if (emSucc[em] != NIL) { emPred[emSucc[em]] = em; }
+            if (value > selected) {
+                selected = value;
+                bestSquares[empties] = sq;
+                if (value > alpha) {
+                    alpha = value;
+                    if (value >= beta) { return selected; }
+                }
+            }
+        }
+        return selected;
+    }
+
+}
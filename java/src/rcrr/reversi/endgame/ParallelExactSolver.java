@@ -0,0 +1,424 @@
+/*
+ *  ParallelExactSolver.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.SearchNode;
+import rcrr.reversi.TranspositionTable;
+
+import rcrr.reversi.board.SearchBoard;
+import rcrr.reversi.board.Square;
+
+/**
+ * Parallel exact solver searches the end of the game for an exact outcome, splitting the search
+ * among the threads of a {@code ForkJoinPool}.
+ * <p>
+ * The root node is split after its first move has been searched: the other moves are searched in parallel,
+ * sharing a bound that is raised atomically by each completed sibling. As done by {@code ParallelAlphaBeta},
+ * root siblings search with a window one unit wider than the shared bound, and the results are reduced in
+ * the move order, so that the returned search node is the same returned by {@code ExactSolver}.
+ * <p>
+ * Below the root, nodes having at least {@code splitEmpties} empty squares are split following the
+ * Young Brothers Wait rule: the eldest brother is searched first, the younger ones in parallel. When a sibling
+ * fails high, a cut flag shared by the split node is raised, and the siblings still running are aborted.
+ * Flags are chained, an abort reaches all the split nodes below the one that has been cut.
+ * Nodes having fewer empty squares are searched serially by an {@code EndgameSearcher} owned by the thread.
+ * <p>
+ * All the threads share a transposition table, that is probed and updated by the split nodes and by the serial
+ * nodes above the parity threshold. Moves are ordered as in {@code ExactSolver}, the move stored into the table
+ * is searched first.
+ * <p>
+ * The {@code solve()} method and the counter accessors are synchronized, a solver can be shared by threads.
+ */
+public final class ParallelExactSolver {
+
+    /** The default minimum count of empty squares for a node to be split. */
+    public static final int DEFAULT_SPLIT_EMPTIES = 12;
+
+    /** The default capacity of the transposition table. */
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+
+    /** Caches the square enum values in a local array. */
+    private static final Square[] SQUARE_VALUES = Square.values();
+
+    /** Macic number 64, the number of squares. */
+    private static final int SIXTY_FOUR = EndgameSearcher.SIXTY_FOUR;
+
+    /** Nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The task searches a younger sibling.
+     */
+    private final class SiblingSolve extends RecursiveTask<Integer> {
+
+        /** The serialVersionUID requested by the specification for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** The search board owned by the task, the sibling move has been played on it. */
+        private final SearchBoard sb;
+
+        /** The upper bound of the parent node. */
+        private final int cutoff;
+
+        /** The lower bound shared among the siblings. */
+        private final AtomicInteger bound;
+
+        /** The value subtracted from the shared bound. */
+        private final int boundOffset;
+
+        /** The cut flag of the split node, can be null. */
+        private final EndgameSearcher.Cut cut;
+
+        /**
+         * Class constructor.
+         *
+         * @param sb          the search board
+         * @param cutoff      the upper bound
+         * @param bound       the shared lower bound
+         * @param boundOffset the value subtracted from the shared bound
+         * @param cut         the cut flag, can be null
+         */
+        SiblingSolve(final SearchBoard sb,
+                     final int cutoff,
+                     final AtomicInteger bound,
+                     final int boundOffset,
+                     final EndgameSearcher.Cut cut) {
+            this.sb = sb;
+            this.cutoff = cutoff;
+            this.bound = bound;
+            this.boundOffset = boundOffset;
+            this.cut = cut;
+        }
+
+        /**
+         * Returns the sibling value, or null when the search is skipped or aborted.
+         *
+         * @return the sibling value
+         */
+        @Override
+        protected Integer compute() {
+            if (cut != null && cut.isSet()) { return null; }
+            final int achievable = bound.get() - boundOffset;
+            if (achievable >= cutoff) { return null; }
+            final int value;
+            try {
+                value = -split(sb, -cutoff, -achievable, cut);
+            } catch (EndgameSearcher.AbortException ae) {
+                return null;
+            }
+            raise(bound, value);
+            if (cut != null && value >= cutoff) { cut.set(); }
+            return value;
+        }
+    }
+
+    /**
+     * Raises the atomic {@code bound} to {@code value}, when it is lower.
+     *
+     * @param bound the bound to raise
+     * @param value the new value
+     */
+    private static void raise(final AtomicInteger bound, final int value) {
+        int current = bound.get();
+        while (value > current && !bound.compareAndSet(current, value)) {
+            current = bound.get();
+        }
+    }
+
+    /** The root field. */
+    private final GamePosition root;
+
+    /** The pool field. */
+    private final ForkJoinPool pool;
+
+    /** The transposition table field. */
+    private final TranspositionTable table;
+
+    /** The split empties field. */
+    private final int splitEmpties;
+
+    /** The searchers used by the last solve call, one for each thread. */
+    private Queue<EndgameSearcher> searchers;
+
+    /** Gives to each thread its searcher. */
+    private ThreadLocal<EndgameSearcher> threadSearcher;
+
+    /** The duration of the last solve call. */
+    private long solveTimeInNanoseconds;
+
+    /**
+     * Holds the pool shared by the solvers built by the one argument constructor, created on first use.
+     * Its worker threads are daemons, and the pool is never shut down.
+     */
+    private static final class SharedPoolHolder {
+
+        /** The shared pool, having a parallelism equal to the number of available processors. */
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        /** Class constructor. */
+        private SharedPoolHolder() { }
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * The solver runs on a pool shared by all the solvers built by this constructor, created on first use,
+     * having a parallelism equal to the number of available processors, splits nodes having at least
+     * {@code DEFAULT_SPLIT_EMPTIES} empty squares, and has a new transposition table of
+     * {@code DEFAULT_TABLE_CAPACITY} entries.
+     *
+     * @param root the game position to solve
+     * @throws NullPointerException when parameter {@code root} is null
+     */
+    public ParallelExactSolver(final GamePosition root) {
+        this(root,
+             SharedPoolHolder.POOL,
+             TranspositionTable.valueOf(DEFAULT_TABLE_CAPACITY),
+             DEFAULT_SPLIT_EMPTIES);
+    }
+
+    /**
+     * Class constructor.
+     * <p>
+     * The table is cleared when a solve call starts.
+     *
+     * @param root         the game position to solve
+     * @param pool         the fork join pool running the search
+     * @param table        the transposition table shared by the threads
+     * @param splitEmpties the minimum count of empty squares for a node to be split
+     * @throws NullPointerException     when parameter {@code root}, {@code pool}, or {@code table} is null
+     * @throws IllegalArgumentException when parameter {@code splitEmpties} is less than one
+     */
+    public ParallelExactSolver(final GamePosition root,
+                               final ForkJoinPool pool,
+                               final TranspositionTable table,
+                               final int splitEmpties) {
+        if (root == null) { throw new NullPointerException("Parameter root must be not null."); }
+        if (pool == null) { throw new NullPointerException("Parameter pool must be not null."); }
+        if (table == null) { throw new NullPointerException("Parameter table must be not null."); }
+        if (splitEmpties < 1) {
+            throw new IllegalArgumentException("Parameter splitEmpties must be greater than zero. splitEmpties="
+                                               + splitEmpties);
+        }
+        this.root = root;
+        this.pool = pool;
+        this.table = table;
+        this.splitEmpties = splitEmpties;
+    }
+
+    /**
+     * Returns the parallelism of the pool.
+     *
+     * @return the number of threads searching in parallel
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Solves the root position, returning the best move and the exact final disc difference.
+     *
+     * @return the search node having the best move and the game value
+     */
+    public synchronized SearchNode solve() {
+        table.clear();
+        final Queue<EndgameSearcher> created = new ConcurrentLinkedQueue<EndgameSearcher>();
+        searchers = created;
+        threadSearcher = new ThreadLocal<EndgameSearcher>() {
+            @Override
+            protected EndgameSearcher initialValue() {
+                final EndgameSearcher searcher
+                    = new EndgameSearcher(ExactSolver.DEFAULT_PARITY_THRESHOLD, true, table);
+                created.add(searcher);
+                return searcher;
+            }
+        };
+        final long start = System.nanoTime();
+        final SearchNode result = pool.invoke(new RecursiveTask<SearchNode>() {
+                private static final long serialVersionUID = 1L;
+                @Override
+                protected SearchNode compute() {
+                    return rootSolve();
+                }
+            });
+        solveTimeInNanoseconds = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Returns the nodes visited by the last solve call, summed over the threads.
+     *
+     * @return the node count
+     */
+    public synchronized long nodeCount() {
+        long count = 0L;
+        if (searchers != null) {
+            for (final EndgameSearcher searcher : searchers) { count += searcher.nodeCount(); }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the duration of the last solve call in nanoseconds.
+     *
+     * @return the solve time
+     */
+    public synchronized long solveTimeInNanoseconds() {
+        return solveTimeInNanoseconds;
+    }
+
+    /**
+     * Returns the nodes visited per second by the last solve call.
+     *
+     * @return the search speed
+     */
+    public synchronized long nodesPerSecond() {
+        return (solveTimeInNanoseconds == 0L)
+            ? 0L
+            : (nodeCount() * NANOS_PER_SECOND) / solveTimeInNanoseconds;
+    }
+
+    /**
+     * Returns the searcher owned by the running thread.
+     *
+     * @return the searcher
+     */
+    private EndgameSearcher searcher() {
+        return threadSearcher.get();
+    }
+
+    /**
+     * Searches the root node.
+     *
+     * @return the search node having the best move and the game value
+     */
+    private SearchNode rootSolve() {
+        final SearchBoard sb = SearchBoard.valueOf(root.board(), root.player());
+        final EndgameSearcher searcher = searcher();
+        searcher.countNode();
+        final long moves = sb.legalMoves();
+        if (moves == 0L) {
+            sb.pass();
+            return SearchNode.valueOf(null, -split(sb, -SIXTY_FOUR, +SIXTY_FOUR, null));
+        }
+        final int empties = sb.countEmpties();
+        final int count = searcher.sortFastestFirst(sb, moves, empties, 0L);
+        final long[] ordered = Arrays.copyOf(searcher.moveBuffer(empties), count);
+        final int token = sb.play(ordered[0]);
+        final int firstValue = -split(sb, -SIXTY_FOUR, +SIXTY_FOUR, null);
+        sb.undo(token);
+        int value = Math.max(-SIXTY_FOUR, firstValue);
+        long bestMove = ordered[0];
+        final AtomicInteger bound = new AtomicInteger(value);
+        final List<SiblingSolve> tasks = new ArrayList<SiblingSolve>();
+        for (int i = 1; i < count; i++) {
+            final SearchBoard child = sb.copy();
+            child.play(ordered[i]);
+            tasks.add(new SiblingSolve(child, +SIXTY_FOUR, bound, 1, null));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            final Integer val = tasks.get(i).join();
+            if (val != null && val > value) {
+                value = val;
+                bestMove = ordered[i + 1];
+            }
+        }
+        return SearchNode.valueOf(SQUARE_VALUES[Long.numberOfTrailingZeros(bestMove)], value);
+    }
+
+    /**
+     * Returns the value of the search board, splitting the node among the threads when it has
+     * at least {@code splitEmpties} empty squares.
+     * <p>
+     * The search board is left unchanged when the method returns normally.
+     *
+     * @param sb         the search board
+     * @param achievable the search window lower bound
+     * @param cutoff     the search window upper bound
+     * @param cut        the cut flag of the enclosing split node, can be null
+     * @return           the value of the position
+     * @throws EndgameSearcher.AbortException when the cut flag is raised
+     */
+    private int split(final SearchBoard sb, final int achievable, final int cutoff, final EndgameSearcher.Cut cut) {
+        final EndgameSearcher searcher = searcher();
+        final int empties = sb.countEmpties();
+        final long moves = sb.legalMoves();
+        if (empties < splitEmpties || moves == 0L) {
+            return searcher.search(sb, achievable, cutoff, cut);
+        }
+        if (cut != null && cut.isSet()) { throw EndgameSearcher.ABORT; }
+        searcher.countNode();
+        final long key = sb.zobrist();
+        long hashMove = 0L;
+        final long entry = searcher.probe(key);
+        if (entry != TranspositionTable.NOT_FOUND) {
+            final int v = EndgameSearcher.decide(entry, achievable, cutoff);
+            if (v != Integer.MIN_VALUE) { return v; }
+            hashMove = EndgameSearcher.hashMove(entry);
+        }
+        final int count = searcher.sortFastestFirst(sb, moves, empties, hashMove);
+        final long[] ordered = Arrays.copyOf(searcher.moveBuffer(empties), count);
+        final int token = sb.play(ordered[0]);
+        final int eldestValue = -split(sb, -cutoff, -achievable, cut);
+        sb.undo(token);
+        int value = Math.max(achievable, eldestValue);
+        long bestMove = ordered[0];
+        if (value < cutoff && count > 1) {
+            final AtomicInteger bound = new AtomicInteger(value);
+            final EndgameSearcher.Cut siblingCut = new EndgameSearcher.Cut(cut);
+            final List<SiblingSolve> tasks = new ArrayList<SiblingSolve>();
+            for (int i = 1; i < count; i++) {
+                final SearchBoard child = sb.copy();
+                child.play(ordered[i]);
+                tasks.add(new SiblingSolve(child, cutoff, bound, 0, siblingCut));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            if (cut != null && cut.isSet()) { throw EndgameSearcher.ABORT; }
+            for (int i = 0; i < tasks.size(); i++) {
+                final Integer val = tasks.get(i).join();
+                if (val != null && val > value) {
+                    value = Math.min(cutoff, val);
+                    bestMove = ordered[i + 1];
+                }
+            }
+        }
+        searcher().store(key, empties, achievable, cutoff, value, bestMove);
+        return value;
+    }
+
+}
@@ -0,0 +1,330 @@
+/*
+ *  BinaryTable.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.util.zip.CRC32;
+
+/**
+ * The class reads and writes precomputed lookup tables stored as binary resources.
+ * <p>
+ * A table file has a header of twenty four bytes, followed by the payload:
+ * <ul>
+ *   <li>the magic number {@code 0x52435442}, four bytes</li>
+ *   <li>the format version, four bytes</li>
+ *   <li>the element size in bytes, one for byte tables, two for short tables, and four for int tables, four bytes</li>
+ *   <li>the element count, four bytes</li>
+ *   <li>the CRC-32 of the payload, eight bytes</li>
+ * </ul>
+ * All the values are big endian.
+ * <p>
+ * A resource found in a directory of the class path is memory mapped, one found in a jar
+ * is read as a stream. The read methods return {@code null} when the resource is missing, or
+ * when its header or checksum doesn't match, so that the caller can fall back on computing
+ * the table.
+ */
+public final class BinaryTable {
+
+    /** The magic number, "RCTB" in ASCII. */
+    private static final int MAGIC = 0x52435442;
+
+    /** The format version. */
+    private static final int VERSION = 1;
+
+    /** The header size in bytes. */
+    private static final int HEADER_SIZE = 24;
+
+    /** The size of a byte element. */
+    private static final int BYTE_SIZE = 1;
+
+    /** The size of a short element. */
+    private static final int SHORT_SIZE = 2;
+
+    /** The size of an int element. */
+    private static final int INT_SIZE = 4;
+
+    /** Buffer size used when reading a stream. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Returns the byte table stored into the resource, or {@code null}.
+     *
+     * @param resource the resource name, relative to the class path root
+     * @param length   the expected element count
+     * @return         the table, or {@code null} when the resource is missing or invalid
+     * @throws NullPointerException when parameter {@code resource} is null
+     */
+    public static byte[] readBytes(final String resource, final int length) {
+        return readBytes(url(resource), length);
+    }
+
+    /**
+     * Returns the byte table stored at the url, or {@code null}.
+     *
+     * @param url    the table location, can be null
+     * @param length the expected element count
+     * @return       the table, or {@code null} when the url is null, or the table is missing or invalid
+     */
+    public static byte[] readBytes(final URL url, final int length) {
+        final ByteBuffer payload = payload(url, BYTE_SIZE, length);
+        if (payload == null) { return null; }
+        final byte[] table = new byte[length];
+        payload.get(table);
+        return table;
+    }
+
+    /**
+     * Returns the short table stored into the resource, or {@code null}.
+     *
+     * @param resource the resource name, relative to the class path root
+     * @param length   the expected element count
+     * @return         the table, or {@code null} when the resource is missing or invalid
+     * @throws NullPointerException when parameter {@code resource} is null
+     */
+    public static short[] readShorts(final String resource, final int length) {
+        return readShorts(url(resource), length);
+    }
+
+    /**
+     * Returns the short table stored at the url, or {@code null}.
+     *
+     * @param url    the table location, can be null
+     * @param length the expected element count
+     * @return       the table, or {@code null} when the url is null, or the table is missing or invalid
+     */
+    public static short[] readShorts(final URL url, final int length) {
+        final ByteBuffer payload = payload(url, SHORT_SIZE, length);
+        if (payload == null) { return null; }
+        final short[] table = new short[length];
+        payload.asShortBuffer().get(table);
+        return table;
+    }
+
+    /**
+     * Returns the int table stored into the resource, or {@code null}.
+     *
+     * @param resource the resource name, relative to the class path root
+     * @param length   the expected element count
+     * @return         the table, or {@code null} when the resource is missing or invalid
+     * @throws NullPointerException when parameter {@code resource} is null
+     */
+    public static int[] readInts(final String resource, final int length) {
+        return readInts(url(resource), length);
+    }
+
+    /**
+     * Returns the int table stored at the url, or {@code null}.
+     *
+     * @param url    the table location, can be null
+     * @param length the expected element count
+     * @return       the table, or {@code null} when the url is null, or the table is missing or invalid
+     */
+    public static int[] readInts(final URL url, final int length) {
+        final ByteBuffer payload = payload(url, INT_SIZE, length);
+        if (payload == null) { return null; }
+        final int[] table = new int[length];
+        payload.asIntBuffer().get(table);
+        return table;
+    }
+
+    /**
+     * Writes the byte table into the file, creating the parent directories.
+     *
+     * @param file  the target file
+     * @param table the table
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(final File file, final byte[] table) throws IOException {
+        write(file, BYTE_SIZE, table.length, ByteBuffer.wrap(table));
+    }
+
+    /**
+     * Writes the short table into the file, creating the parent directories.
+     *
+     * @param file  the target file
+     * @param table the table
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(final File file, final short[] table) throws IOException {
+        final ByteBuffer payload = ByteBuffer.allocate(SHORT_SIZE * table.length).order(ByteOrder.BIG_ENDIAN);
+        payload.asShortBuffer().put(table);
+        write(file, SHORT_SIZE, table.length, payload);
+    }
+
+    /**
+     * Writes the int table into the file, creating the parent directories.
+     *
+     * @param file  the target file
+     * @param table the table
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(final File file, final int[] table) throws IOException {
+        final ByteBuffer payload = ByteBuffer.allocate(INT_SIZE * table.length).order(ByteOrder.BIG_ENDIAN);
+        payload.asIntBuffer().put(table);
+        write(file, INT_SIZE, table.length, payload);
+    }
+
+    /**
+     * Writes the header and the payload into the file.
+     *
+     * @param file        the target file
+     * @param elementSize the element size
+     * @param length      the element count
+     * @param payload     the payload
+     * @throws IOException when the file cannot be written
+     */
+    private static void write(final File file, final int elementSize, final int length, final ByteBuffer payload)
+        throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create directory " + parent);
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(elementSize).putInt(length).putLong(crc(payload.duplicate()));
+        header.flip();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            final FileChannel channel = out.getChannel();
+            channel.write(header);
+            final ByteBuffer body = payload.duplicate();
+            body.rewind();
+            while (body.hasRemaining()) { channel.write(body); }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the url of the resource, or {@code null} when it is not found.
+     *
+     * @param resource the resource name
+     * @return         the resource url, or {@code null}
+     */
+    private static URL url(final String resource) {
+        if (resource == null) { throw new NullPointerException("Parameter resource cannot be null."); }
+        return BinaryTable.class.getClassLoader().getResource(resource);
+    }
+
+    /**
+     * Returns the payload of the table positioned at its start, or {@code null}.
+     *
+     * @param url         the table location
+     * @param elementSize the expected element size
+     * @param length      the expected element count
+     * @return            the payload, or {@code null}
+     */
+    private static ByteBuffer payload(final URL url, final int elementSize, final int length) {
+        if (url == null) { return null; }
+        final ByteBuffer buffer;
+        try {
+            buffer = open(url);
+        } catch (IOException ioe) {
+            return null;
+        }
+        if (buffer.remaining() != HEADER_SIZE + (long) elementSize * length) { return null; }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+            || buffer.getInt() != elementSize || buffer.getInt() != length) {
+            return null;
+        }
+        final long checksum = buffer.getLong();
+        final ByteBuffer payload = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if (crc(payload.duplicate()) != checksum) { return null; }
+        return payload;
+    }
+
+    /**
+     * Returns the content found at the url, memory mapped when the url is a file.
+     *
+     * @param url the table location
+     * @return    the content
+     * @throws IOException when the content cannot be read
+     */
+    private static ByteBuffer open(final URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ);
+            } catch (URISyntaxException use) {
+                throw new IOException(use);
+            }
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                channel.close();
+            }
+        }
+        final InputStream in = url.openStream();
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[BUFFER_SIZE];
+            for (int n = in.read(buf); n != -1; n = in.read(buf)) { out.write(buf, 0, n); }
+            return ByteBuffer.wrap(out.toByteArray());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the CRC-32 of the remaining bytes of the buffer.
+     *
+     * @param buffer the buffer
+     * @return       the checksum
+     */
+    private static long crc(final ByteBuffer buffer) {
+        final CRC32 crc = new CRC32();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            final byte[] chunk = new byte[BUFFER_SIZE];
+            while (buffer.hasRemaining()) {
+                final int n = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, n);
+                crc.update(chunk, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /** Class constructor. */
+    private BinaryTable() { }
+
+}
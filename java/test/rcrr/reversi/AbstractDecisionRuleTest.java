@@ -24,22 +24,34 @@
 
 package rcrr.reversi;
 
+import org.joda.time.Duration;
+
+import rcrr.reversi.board.Player;
 import rcrr.reversi.board.Square;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * The tests provided by this class verify that
  * the {@code maximizer} static method
  * defined by {@code AbstractDecisionRule} works properly.
  * The method is equivalent to a minimax search that is one ply deep.
+ * <p>
+ * The class tests also the time managed strategy returned by the {@code timedSearcher} method.
  */
 public class AbstractDecisionRuleTest {
 
     /** CountDifference is the evaluation function used for testing. */
     private static final EvalFunction COUNT_DIFF = new CountDifference();
 
+    /**
+     * The timed searcher must return within this multiple of its budget. The allowance covers the first
+     * iteration, always completed, and the thread scheduling of a loaded machine.
+     */
+    private static final long TIMED_SEARCH_FACTOR = 3L;
+
     /** Class constructor. */
     public AbstractDecisionRuleTest() { }
 
@@ -67,4 +79,71 @@ public class AbstractDecisionRuleTest {
                      .move(GameSnapshotFixtures.BLACK_HAS_TO_PASS));
     }
 
+    /** Test the moveBudget method. */
+    @Test
+    public final void testMoveBudget() {
+        assertEquals(1875L, AbstractDecisionRule.moveBudget(CommonFixtures.ONE_MINUTE_DURATION, 60));
+        assertEquals(0L, AbstractDecisionRule.moveBudget(new Duration(-1L), 60));
+    }
+
+    /** Test the timed searcher when no legal move is available. */
+    @Test
+    public final void testTimedSearcherWhenNoLegalMoveIsAvailable() {
+        assertEquals(Move.valueOf(Move.Action.PASS),
+                     AlphaBeta3.getInstance().timedSearcher(COUNT_DIFF)
+                     .move(GameSnapshotFixtures.BLACK_HAS_TO_PASS));
+    }
+
+    /**
+     * Test the timed searcher when the clock has no time left.
+     * The first iteration is always completed, the move is the one selected by a one ply search.
+     */
+    @Test
+    public final void testTimedSearcherWhenTimeIsOver() {
+        final GameSnapshot snapshot = GameSnapshot.valueOf(GamePositionFixtures.MINIMAX_TEST_CASE_A,
+                                                           Clock.initialClock(Duration.ZERO),
+                                                           MoveRegister.empty(Player.WHITE));
+        assertEquals(AlphaBeta3.getInstance().searcher(1, COUNT_DIFF).move(snapshot),
+                     AlphaBeta3.getInstance().timedSearcher(COUNT_DIFF).move(snapshot));
+    }
+
+    /**
+     * Test that the timed searcher of every decision rule stops, and returns a legal move, soon after
+     * the time budget is spent.
+     * <p>
+     * Without the deadline, iterative deepening from the initial position would go on for a very long time.
+     * The elapsed time must stay within a small multiple of the budget, so that a rule checking the deadline
+     * only between iterations fails the test.
+     */
+    @Test
+    public final void testTimedSearcherStopsAtTheDeadline() {
+        final Duration clock = new Duration(6400L);
+        final GameSnapshot snapshot = GameSnapshot.valueOf(GamePosition.initialGamePosition(),
+                                                           Clock.initialClock(clock),
+                                                           MoveRegister.empty(Player.BLACK));
+        final long budget = AbstractDecisionRule.moveBudget(clock, 60);
+        /** The first call to the eval function loads the edge table, it is done before measuring the time. */
+        IagoStrategy.IAGO_EVAL_FUNCTION.eval(GamePosition.initialGamePosition());
+        final AbstractDecisionRule[] rules = new AbstractDecisionRule[] {
+            Minimax.getInstance(),
+            AlphaBeta.getInstance(),
+            AlphaBeta2.getInstance(AlphaBeta2.Variant.UNORDERED_ALPHABETA, null),
+            AlphaBeta3.getInstance(TranspositionTable.valueOf(1 << 16)),
+            NegaScout.getInstance(),
+            MTDf.getInstance(TranspositionTable.valueOf(1 << 16), null),
+            ParallelAlphaBeta.getInstance()
+        };
+        for (final AbstractDecisionRule rule : rules) {
+            final String label = rule.getClass().getSimpleName();
+            final long start = System.currentTimeMillis();
+            final Move move = rule.timedSearcher(IagoStrategy.IAGO_EVAL_FUNCTION).move(snapshot);
+            final long elapsed = System.currentTimeMillis() - start;
+            assertTrue(label + ": the move must be legal. move=" + move,
+                       GamePosition.initialGamePosition().isLegal(move.square()));
+            assertTrue(label + ": the search must stop soon after the deadline. elapsed=" + elapsed
+                       + ", budget=" + budget,
+                       elapsed < TIMED_SEARCH_FACTOR * budget);
+        }
+    }
+
 }
@@ -128,6 +128,10 @@ public class AlphaBeta2Analytics {
 		}
 		System.out.print("]\n");
 	    }
+	    Map<String, Object> mtdfStatistics = new HashMap<String, Object>();
+	    MTDf.getInstance(TranspositionTable.valueOf(MTDf.DEFAULT_TABLE_CAPACITY), mtdfStatistics)
+		.searcher(PLY, EF).move(game.lastGameSnapshot());
+	    System.out.println("statistics=" + mtdfStatistics);
 	    Move randomMove = game.move();
 	    System.out.println("--- --- ---");
 	}
@@ -0,0 +1,117 @@
+/*
+ *  AlphaBeta3ComparisonTestUtils.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Compares the search nodes returned by a decision rule with the ones returned by {@code AlphaBeta3},
+ * taken as the reference alpha-beta implementation.
+ * <p>
+ * The rule searches a list of random game positions, with the {@code CountDifference} and the
+ * {@code ModifiedWeightedSquares} evaluation functions, at depths from one to {@code MAX_PLY}.
+ * The reference {@code AlphaBeta3} receives the evaluation functions hidden behind a plain {@code EvalFunction},
+ * so that it searches on the immutable boards, while the rule under test can search on a {@code SearchBoard}.
+ */
+final class AlphaBeta3ComparisonTestUtils {
+
+    /** The number of random game positions. */
+    static final int NUMBER_OF_POSITIONS = 20;
+
+    /** The maximum search depth. */
+    static final int MAX_PLY = 5;
+
+    /**
+     * Prepares the decision rule under test.
+     */
+    interface RuleFactory {
+
+        /**
+         * Returns the rule that searches a game position at increasing depths.
+         * It is called once for each position and evaluation function, a rule backed by
+         * a transposition table gets a new one, shared by the searches of the position.
+         *
+         * @return the decision rule under test
+         */
+        DecisionRule newRule();
+    }
+
+    /** Class constructor. */
+    private AlphaBeta3ComparisonTestUtils() { }
+
+    /**
+     * Returns an evaluation function that delegates to {@code ef}, without implementing
+     * {@code SearchBoardEvalFunction}.
+     *
+     * @param ef the evaluation function
+     * @return   an evaluation function evaluating game positions only
+     */
+    static EvalFunction onImmutableBoards(final EvalFunction ef) {
+        return new EvalFunction() {
+            public int eval(final GamePosition position) {
+                return ef.eval(position);
+            }
+        };
+    }
+
+    /**
+     * Asserts that the rules prepared by the factory return the same values of {@code AlphaBeta3}.
+     * <p>
+     * When {@code sameMove} is true the move must be the one selected by {@code AlphaBeta3}, otherwise
+     * it must only be legal: a rule can select a different move having the same value.
+     *
+     * @param label    the rule description, reported by the failure messages
+     * @param factory  the rule factory
+     * @param seed     the seed of the random game positions
+     * @param sameMove when true the move must be equal to the one of {@code AlphaBeta3}
+     */
+    static void assertSameAsAlphaBeta3(final String label,
+                                       final RuleFactory factory,
+                                       final long seed,
+                                       final boolean sameMove) {
+        final EvalFunction[] efs = new EvalFunction[] {new CountDifference(), new ModifiedWeightedSquares()};
+        final AlphaBeta3 reference = AlphaBeta3.getInstance();
+        for (final EvalFunction ef : efs) {
+            for (final GamePosition position : new RandomGamePositionList(NUMBER_OF_POSITIONS, seed).positions()) {
+                final DecisionRule rule = factory.newRule();
+                for (int ply = 1; ply <= MAX_PLY; ply++) {
+                    final SearchNode expected = reference.search(position, ply, onImmutableBoards(ef));
+                    final SearchNode node = rule.search(position, ply, ef);
+                    final String context = " rule=" + label + ", position=" + position + ", ply=" + ply;
+                    assertThat("The value must be equal to AlphaBeta3." + context, node.value(), is(expected.value()));
+                    if (sameMove) {
+                        assertThat("The move must be equal to AlphaBeta3." + context, node.move(), is(expected.move()));
+                    } else if (node.move() != null) {
+                        assertTrue("The move must be legal." + context, position.isLegal(node.move()));
+                    }
+                }
+            }
+        }
+    }
+
+}
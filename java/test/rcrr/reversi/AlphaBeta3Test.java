@@ -0,0 +1,51 @@
+/*
+ *  AlphaBeta3Test.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import org.junit.Test;
+
+/**
+ * Test Suite for the {@code AlphaBeta3} class.
+ */
+public class AlphaBeta3Test {
+
+    /** Class constructor. */
+    public AlphaBeta3Test() { }
+
+    /**
+     * Tests that the search running on a {@code SearchBoard} returns the same search nodes
+     * of the search running on the immutable boards.
+     */
+    @Test
+    public final void testSearch_onSearchBoard_comparedWithImmutableBoards() {
+        final AlphaBeta3ComparisonTestUtils.RuleFactory factory = new AlphaBeta3ComparisonTestUtils.RuleFactory() {
+                public DecisionRule newRule() {
+                    return AlphaBeta3.getInstance();
+                }
+            };
+        AlphaBeta3ComparisonTestUtils.assertSameAsAlphaBeta3("AlphaBeta3 on SearchBoard", factory, 47L, true);
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ *  AlphaBeta3TranspositionTableTest.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Suite for the {@code AlphaBeta3} class, when backed by a transposition table.
+ */
+public class AlphaBeta3TranspositionTableTest {
+
+    /** The capacity of the transposition table used by the tests. */
+    private static final int TABLE_CAPACITY = 1 << 14;
+
+    /** Class constructor. */
+    public AlphaBeta3TranspositionTableTest() { }
+
+    /**
+     * Tests that the search value is the same of the one returned by {@code AlphaBeta3}
+     * without the table, when the table is reused by searches at increasing depths.
+     */
+    @Test
+    public final void testSearch_comparedWithAlphaBeta3() {
+        final List<TranspositionTable> tables = new ArrayList<TranspositionTable>();
+        final AlphaBeta3ComparisonTestUtils.RuleFactory factory = new AlphaBeta3ComparisonTestUtils.RuleFactory() {
+                public DecisionRule newRule() {
+                    final TranspositionTable table = TranspositionTable.valueOf(TABLE_CAPACITY);
+                    tables.add(table);
+                    return AlphaBeta3.getInstance(table);
+                }
+            };
+        AlphaBeta3ComparisonTestUtils.assertSameAsAlphaBeta3("AlphaBeta3 with table", factory, 17L, false);
+        long hits = 0L;
+        for (final TranspositionTable table : tables) { hits += table.hits(); }
+        assertTrue("The table must have been hit.", hits > 0L);
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ *  CachingEvalFunctionTest.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for the {@code CachingEvalFunction} class.
+ *
+ * @see CachingEvalFunction
+ */
+public class CachingEvalFunctionTest {
+
+    /** The number of positions used by the tests. */
+    private static final int POSITIONS = 200;
+
+    /** The positions used by the tests. */
+    private static final List<GamePosition> POSITION_LIST = new RandomGamePositionList(POSITIONS, 5L).positions();
+
+    /** An evaluation function that counts its calls. */
+    private static final class CountingEvalFunction implements EvalFunction {
+
+        /** The decorated evaluation function. */
+        private final EvalFunction ef = new ModifiedWeightedSquares();
+
+        /** The calls counter. */
+        private final AtomicInteger calls = new AtomicInteger();
+
+        /** Class constructor. */
+        CountingEvalFunction() { }
+
+        /** {@inheritDoc} */
+        public int eval(final GamePosition position) {
+            calls.incrementAndGet();
+            return ef.eval(position);
+        }
+
+        /**
+         * Returns the number of calls.
+         *
+         * @return the number of calls
+         */
+        int calls() {
+            return calls.get();
+        }
+    }
+
+    /** Class constructor. */
+    public CachingEvalFunctionTest() { }
+
+    /** Tests that the cached values are the ones returned by the decorated function. */
+    @Test
+    public final void testEval() {
+        final EvalFunction ef = new ModifiedWeightedSquares();
+        final CachingEvalFunction cache = CachingEvalFunction.valueOf(ef, 1);
+        for (int pass = 0; pass < 2; pass++) {
+            for (final GamePosition position : POSITION_LIST) {
+                assertThat("CachingEvalFunction.eval() must return the value of the decorated function.",
+                           cache.eval(position), is(ef.eval(position)));
+            }
+        }
+    }
+
+    /** Tests that an evaluation found in the cache doesn't call the decorated function, and is counted. */
+    @Test
+    public final void testEval_hitsAreCounted() {
+        final CountingEvalFunction ef = new CountingEvalFunction();
+        final CachingEvalFunction cache = CachingEvalFunction.valueOf(ef, 1);
+        final GamePosition position = POSITION_LIST.get(0);
+        cache.eval(position);
+        cache.eval(position);
+        cache.eval(position);
+        assertThat("The decorated function must be called once.", ef.calls(), is(1));
+        assertThat("CachingEvalFunction.hits() must be 2.", cache.hits(), is(2L));
+        assertThat("CachingEvalFunction.misses() must be 1.", cache.misses(), is(1L));
+        assertThat("CachingEvalFunction.hitRate() must be 2/3.", cache.hitRate(), is(2. / 3.));
+    }
+
+    /** Tests that the second pass over a set of positions is mostly taken from the cache. */
+    @Test
+    public final void testHitRate() {
+        final CachingEvalFunction cache = CachingEvalFunction.valueOf(new ModifiedWeightedSquares(), 1);
+        assertThat("CachingEvalFunction.hitRate() must be zero before any evaluation.", cache.hitRate(), is(0.));
+        for (final GamePosition position : POSITION_LIST) { cache.eval(position); }
+        cache.resetCounters();
+        for (final GamePosition position : POSITION_LIST) { cache.eval(position); }
+        assertThat("The second pass must be counted.", cache.hits() + cache.misses(), is((long) POSITIONS));
+        assertThat("The second pass must hit the cache, hitRate=" + cache.hitRate() + ".",
+                   cache.hitRate() > 0.9, is(true));
+    }
+
+    /** Tests that {@code clear()} empties the cache. */
+    @Test
+    public final void testClear() {
+        final CountingEvalFunction ef = new CountingEvalFunction();
+        final CachingEvalFunction cache = CachingEvalFunction.valueOf(ef, 1);
+        final GamePosition position = POSITION_LIST.get(0);
+        cache.eval(position);
+        cache.clear();
+        assertThat("CachingEvalFunction.hits() must be zero after clear().", cache.hits(), is(0L));
+        cache.eval(position);
+        assertThat("The decorated function must be called again after clear().", ef.calls(), is(2));
+    }
+
+    /** Tests that the capacity is given by the size in megabytes, rounded down to a power of two. */
+    @Test
+    public final void testCapacity() {
+        final EvalFunction ef = new ModifiedWeightedSquares();
+        assertThat("One megabyte must hold 65536 values.",
+                   CachingEvalFunction.valueOf(ef, 1).capacity(), is(1 << 16));
+        assertThat("Three megabytes must be rounded down to two.",
+                   CachingEvalFunction.valueOf(ef, 3).capacity(), is(1 << 17));
+    }
+
+    /**
+     * Tests that threads sharing the cache always get the value of the decorated function.
+     *
+     * @throws InterruptedException if a thread is interrupted
+     */
+    @Test
+    public final void testEval_concurrentThreads() throws InterruptedException {
+        final EvalFunction ef = new ModifiedWeightedSquares();
+        final CachingEvalFunction cache = CachingEvalFunction.valueOf(ef, 1);
+        final AtomicInteger errors = new AtomicInteger();
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                    public void run() {
+                        for (int pass = 0; pass < 50; pass++) {
+                            for (final GamePosition position : POSITION_LIST) {
+                                if (cache.eval(position) != ef.eval(position)) { errors.incrementAndGet(); }
+                            }
+                        }
+                    }
+                });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) { thread.join(); }
+        assertThat("No thread must get a wrong value.", errors.get(), is(0));
+        assertThat("All the evaluations must be counted.",
+                   cache.hits() + cache.misses(), is((long) threads.length * 50 * POSITIONS));
+    }
+
+    /** Tests that the {@code ef} parameter cannot be null. */
+    @Test(expected = NullPointerException.class)
+    public final void testValueOf_boundaryConditions_checkNullParameter_ef() {
+        CachingEvalFunction.valueOf(null, 1);
+    }
+
+    /** Tests that the {@code megabytes} parameter must be positive. */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testValueOf_boundaryConditions_checkMegabytesIsPositive() {
+        CachingEvalFunction.valueOf(new ModifiedWeightedSquares(), 0);
+    }
+
+    /** Tests that the {@code position} parameter cannot be null. */
+    @Test(expected = NullPointerException.class)
+    public final void testEval_boundaryConditions_checkNullParameter_position() {
+        CachingEvalFunction.valueOf(new ModifiedWeightedSquares(), 1).eval(null);
+    }
+
+}
@@ -24,6 +24,8 @@
 
 package rcrr.reversi;
 
+import rcrr.reversi.board.SearchBoard;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertThat;
@@ -79,4 +81,20 @@ public abstract class EvalFunctionTestUtils {
                    is(expectedValue));
     }
 
+    /**
+     * Tests the {@code eval(SearchBoard)} method, when the evaluation function implements it.
+     * The value must be equal to the one of the corresponding game position.
+     * The test passes doing nothing for the other evaluation functions.
+     *
+     * @see SearchBoardEvalFunction#eval(SearchBoard)
+     */
+    @Test
+    public final void testEval_onSearchBoard() {
+        if (!(fn instanceof SearchBoardEvalFunction)) { return; }
+        assertThat(testFailureMessage,
+                   ((SearchBoardEvalFunction) fn).eval(SearchBoard.valueOf(gamePosition.board(),
+                                                                           gamePosition.player())),
+                   is(expectedValue));
+    }
+
 }
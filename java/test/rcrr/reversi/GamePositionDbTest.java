@@ -0,0 +1,206 @@
+/*
+ *  GamePositionDbTest.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.SquareState;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code GamePositionDb}, {@code GamePositionDbReader}, and {@code GamePositionDbSyntaxError} classes.
+ * <p>
+ * The test vectors are the ones of {@code c/test/game_position_db_test.c}.
+ */
+public class GamePositionDbTest {
+
+    /** The test database, relative to the java directory. */
+    private static final String GPDB_TEST_DB = "../c/db/gpdb-test-db.txt";
+
+    /** The FFO database, relative to the java directory. */
+    private static final String GPDB_FFO = "../c/db/gpdb-ffo.txt";
+
+    /** A valid board field. */
+    private static final String BOARD = "ww.wwwwbbwwbbbbbwwbwwwwbwwbwwwbbwwwwwwbb...wwwwb....w...........";
+
+    /** Class constructor. */
+    public GamePositionDbTest() { }
+
+    /**
+     * Asserts that loading the line logs one error of the given type, and loads no entry.
+     *
+     * @param line      the database line
+     * @param errorType the expected error type
+     * @throws IOException when the line cannot be read
+     */
+    private static void assertLoadLogsError(final String line,
+                                            final GamePositionDbSyntaxError.Type errorType) throws IOException {
+        final List<GamePositionDbSyntaxError> log = new ArrayList<GamePositionDbSyntaxError>();
+        final GamePositionDb db = new GamePositionDb("test");
+        db.load(new StringReader(line), "test-source", log);
+        assertThat("The db must be empty. line=" + line, db.size(), is(0));
+        assertThat("The log must have one error. line=" + line, log.size(), is(1));
+        assertThat("The error type must be " + errorType + ".", log.get(0).type(), is(errorType));
+        assertThat("The error line number must be 1.", log.get(0).lineNumber(), is(1));
+        assertThat("The error source must be test-source.", log.get(0).source(), is("test-source"));
+    }
+
+    /**
+     * Tests the errors logged by the {@code load()} method.
+     *
+     * @throws IOException when the lines cannot be read
+     */
+    @Test
+    public final void testLoad_returnedErrors() throws IOException {
+        assertLoadLogsError("I-am-a-not-a-terminated-id", GamePositionDbSyntaxError.Type.ON_ID);
+        assertLoadLogsError("I-am-a-again a-not-terminated-id\n", GamePositionDbSyntaxError.Type.ON_ID);
+        assertLoadLogsError("test-error-on-board-size-63;" + BOARD.substring(1) + ";b;The board has 63 squares;\n",
+                            GamePositionDbSyntaxError.Type.BOARD_SIZE_IS_NOT_64);
+        assertLoadLogsError("test-error-on-board-size-65;." + BOARD + ";b;The board has 65 squares;\n",
+                            GamePositionDbSyntaxError.Type.BOARD_SIZE_IS_NOT_64);
+        assertLoadLogsError("test-error-on-board-size-0;;b;The board has no squares;\n",
+                            GamePositionDbSyntaxError.Type.BOARD_SIZE_IS_NOT_64);
+        assertLoadLogsError("test-error-on-board-wrong-square-char;" + BOARD.replace('b', 'x') + ";b;Wrong char;\n",
+                            GamePositionDbSyntaxError.Type.SQUARE_CHAR_IS_INVALID);
+        assertLoadLogsError("test-error-on-board-not-terminated;" + BOARD + "\n",
+                            GamePositionDbSyntaxError.Type.BOARD_FIELD_IS_INVALID);
+        assertLoadLogsError("test-error-on-player-wrong-size;" + BOARD + ";bb;Two chars;\n",
+                            GamePositionDbSyntaxError.Type.PLAYER_IS_NOT_ONE_CHAR);
+        assertLoadLogsError("test-error-on-player-wrong-char;" + BOARD + ";.;The player char is invalid;\n",
+                            GamePositionDbSyntaxError.Type.PLAYER_CHAR_IS_INVALID);
+        assertLoadLogsError("test-error-on-player-not-terminated;" + BOARD + ";.\n",
+                            GamePositionDbSyntaxError.Type.PLAYER_FIELD_IS_INVALID);
+        assertLoadLogsError("test-error-on-description-not-terminated;" + BOARD + ";w;Not terminated\n",
+                            GamePositionDbSyntaxError.Type.DESC_FIELD_IS_INVALID);
+    }
+
+    /**
+     * Tests the {@code valueOf()} factory on the test database.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void testValueOf() throws IOException {
+        final List<GamePositionDbSyntaxError> log = new ArrayList<GamePositionDbSyntaxError>();
+        final GamePositionDb db = GamePositionDb.valueOf(GPDB_TEST_DB, log);
+        assertThat("The db must have 6 entries.", db.size(), is(6));
+        assertThat("The log must have 2 errors.", log.size(), is(2));
+        assertThat("The second error must be the duplicated key.",
+                   log.get(1).type(), is(GamePositionDbSyntaxError.Type.DUPLICATE_ENTRY_KEY));
+
+        final GamePositionDb.Entry allBlack = db.lookup("all-black");
+        assertThat("The id must be all-black.", allBlack.id(), is("all-black"));
+        assertThat("The description must be A full black board.", allBlack.description(), is("A full black board"));
+        assertThat("The player must be BLACK.", allBlack.player(), is(Player.BLACK));
+        assertThat("The blacks must fill the board.", allBlack.blacks(), is(0xFFFFFFFFFFFFFFFFL));
+        assertThat("The whites must be empty.", allBlack.whites(), is(0x0000000000000000L));
+
+        final GamePositionDb.Entry allWhite = db.lookup("all-white");
+        assertThat("The player must be WHITE.", allWhite.player(), is(Player.WHITE));
+        assertThat("The blacks must be empty.", allWhite.blacks(), is(0x0000000000000000L));
+        assertThat("The whites must fill the board.", allWhite.whites(), is(0xFFFFFFFFFFFFFFFFL));
+
+        final GamePositionDb.Entry duplicate = db.lookup("duplicate-entry");
+        assertThat("The duplicated entry must not be overwritten.",
+                   duplicate.description(), is("Test inserting a position twice: first time"));
+        assertThat("The player must be WHITE.", duplicate.player(), is(Player.WHITE));
+        assertThat("The blacks must be empty.", duplicate.blacks(), is(0x0000000000000000L));
+
+        assertNull("A missing id must return null.", db.lookup("missing"));
+    }
+
+    /**
+     * Tests that the FFO database is loaded without errors, and that game positions are built as expected.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void testValueOf_ffo() throws IOException {
+        final List<GamePositionDbSyntaxError> log = new ArrayList<GamePositionDbSyntaxError>();
+        final GamePositionDb db = GamePositionDb.valueOf(GPDB_FFO, log);
+        assertTrue("The log must be empty. log=" + log, log.isEmpty());
+        assertThat("The first id must be ffo-01.", db.ids().get(0), is("ffo-01"));
+        for (final String id : db.ids()) {
+            assertTrue("The id must be found. id=" + id, db.contains(id));
+            assertThat("The entry id must match. id=" + id, db.lookup(id).id(), is(id));
+        }
+        final GamePosition ffo40 = db.gamePosition("ffo-40");
+        assertThat("ffo-40 must have 20 empty squares.", ffo40.board().countPieces(SquareState.EMPTY), is(20));
+        assertThat("ffo-40 must have black to move.", ffo40.player(), is(Player.BLACK));
+    }
+
+    /**
+     * Tests that a large number of entries is indexed.
+     */
+    @Test
+    public final void testAdd_manyEntries() {
+        final int n = 100000;
+        final GamePositionDb db = new GamePositionDb("many");
+        for (int i = 0; i < n; i++) {
+            final Player player = (i % 3 == 0) ? Player.WHITE : Player.BLACK;
+            assertTrue("The entry must be added.",
+                       db.add(new GamePositionDb.Entry("id-" + i, (long) i, ((long) i) << 32, player, "")));
+        }
+        assertThat("The size must be n.", db.size(), is(n));
+        for (int i = 0; i < n; i += 997) {
+            final GamePositionDb.Entry entry = db.lookup("id-" + i);
+            assertThat("The blacks must match.", entry.blacks(), is((long) i));
+            assertThat("The whites must match.", entry.whites(), is(((long) i) << 32));
+            assertThat("The player must match.", entry.player(), is((i % 3 == 0) ? Player.WHITE : Player.BLACK));
+        }
+        assertTrue("A duplicated id must be refused.",
+                   !db.add(new GamePositionDb.Entry("id-0", 0L, 0L, Player.BLACK, "")));
+    }
+
+    /**
+     * Tests the {@code printError()} method.
+     */
+    @Test
+    public final void testPrintError() {
+        final GamePositionDbSyntaxError error
+            = new GamePositionDbSyntaxError(GamePositionDbSyntaxError.Type.ON_ID,
+                                            "dummy-source", 123, "a-record-line", "error-message");
+        assertThat("printError() must match the C format.",
+                   error.printError(),
+                   is("Error type:    The id field is not correctly assigned.\n"
+                      + "Error message: error-message\n"
+                      + "Source label:  dummy-source\n"
+                      + "Line number:   123\n"
+                      + "Line:          a-record-line\n"));
+    }
+
+}
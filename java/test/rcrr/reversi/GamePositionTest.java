@@ -27,6 +27,7 @@ package rcrr.reversi;
 import rcrr.reversi.board.Player;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.BoardFixtures;
+import rcrr.reversi.board.Zobrist;
 
 import org.junit.Test;
 import static org.junit.Assert.assertThat;
@@ -239,4 +240,25 @@ public class GamePositionTest {
                    instanceOf(GamePosition.class));
     }
 
+    /**
+     * Tests the {@code zobrist()} method.
+     * <p>
+     * Game positions sharing the board differ in the key when the player differs,
+     * and the key with black to move is equal to the board key.
+     *
+     * @see GamePosition#zobrist()
+     */
+    @Test
+    public final void testZobrist() {
+        assertThat("INITIAL.zobrist() must be equal to the board key.",
+                   INITIAL.zobrist(),
+                   is(INITIAL.board().zobrist()));
+        assertThat("The key must depend on the player to move.",
+                   GamePosition.valueOf(INITIAL.board(), Player.WHITE).zobrist() == INITIAL.zobrist(),
+                   is(false));
+        assertThat("The key after D3 must be the board key xored with the white key.",
+                   INITIAL.makeMove(Square.D3).zobrist(),
+                   is(BoardFixtures.FIRST_MOVE_D3.zobrist() ^ Zobrist.playerKey(Player.WHITE)));
+    }
+
 }
@@ -32,12 +32,18 @@ import java.util.Comparator;
 import java.io.InputStream;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
 import rcrr.reversi.board.Board;
 import rcrr.reversi.board.BoardFixtures;
 import rcrr.reversi.board.BoardBuilder;
+import rcrr.reversi.board.BoardFactoryHolder;
 import rcrr.reversi.board.Player;
+import rcrr.reversi.board.RandomBoardList;
 import rcrr.reversi.board.Square;
 import rcrr.reversi.board.SquareState;
 
@@ -108,6 +114,27 @@ public class IagoMethodsTest {
 
     }
 
+    /**
+     * Tests that the interior stability term is zero on the initial position, and that on a full board
+     * it moves the evaluation toward the player having more interior stable discs.
+     */
+    @Test
+    public final void testEval_interiorStability() {
+        final GamePosition initial = GamePosition.valueOf(BoardFixtures.INITIAL, Player.BLACK);
+        assertThat("The initial position has no stable disc.",
+                   new Iago(true).eval(initial),
+                   is(new Iago().eval(initial)));
+        final long interior = 0x007E7E7E7E7E7E00L & ~0x0042000000004200L;
+        for (final Player player : Player.values()) {
+            final GamePosition full = GamePosition.valueOf(BoardFixtures.FINAL_B37_W27, player);
+            final int difference = Long.bitCount(BoardFixtures.FINAL_B37_W27.stableDiscs(player) & interior)
+                - Long.bitCount(BoardFixtures.FINAL_B37_W27.stableDiscs(player.opponent()) & interior);
+            assertThat("The interior stability term must follow the stable disc difference.",
+                       Integer.signum(new Iago(true).eval(full) - new Iago().eval(full)),
+                       is(Integer.signum(difference)));
+        }
+    }
+
     /**
      * Tests the {@code load(String)} method in class {@code Iago.EdgeTable}.
      *
@@ -169,6 +196,38 @@ public class IagoMethodsTest {
 	}
     }
 
+    /**
+     * Tests that the {@code write(String)} method in class {@code Iago.EdgeTable} writes a table loaded
+     * from a reference file in the same format, so that it can be read back by the {@code load(String)} method.
+     *
+     * @see Iago.EdgeTable#write(String)
+     */
+    @Test
+    public final void testEdgeTableWrite_isCompatibleWithLoad() throws NoSuchMethodException,
+                                                                       IllegalAccessException,
+                                                                       InvocationTargetException,
+                                                                       IOException {
+        final Iago.EdgeTable expected = loadProxy("rcrr/reversi/data/edge-table-00_Java.dat");
+        final File file = File.createTempFile("edge-table", ".dat");
+        try {
+            writeProxy(expected, file.getPath());
+            final List<String> lines = Files.readAllLines(file.toPath(), Charset.forName("UTF-8"));
+            assertThat("The written file must have a header, the table length, and the values.",
+                       lines.size(),
+                       is(EDGE_TABLE_SIZE + 2));
+            assertThat("The written file must declare the table length.",
+                       lines.get(1).trim(),
+                       is(Integer.toString(EDGE_TABLE_SIZE)));
+            for (int index = 0; index < EDGE_TABLE_SIZE; index++) {
+                assertThat("The written value at index=" + index + " must match the loaded one.",
+                           Integer.valueOf(lines.get(index + 2).trim()),
+                           is(getProxy(expected, index)));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     /**
      * Tests the {@code mobility(GamePosition)} method.
      *
@@ -263,6 +322,29 @@ public class IagoMethodsTest {
 		   is(Arrays.asList(1, 0, 2, null, 1, null, 1, null, null, 2)));
     }
 
+    /**
+     * Tests that the {@code Iago.EdgeTable.index(long, long, Iago.Edge)} method agrees with
+     * {@code Iago.EdgeTable.index(Player, Board, Iago.Edge)} on a set of random boards.
+     *
+     * @see Iago.EdgeTable#index(long, long, Iago.Edge)
+     */
+    @Test
+    public final void testEdgeTableIndex_fromBitboards() throws NoSuchMethodException,
+                                                                IllegalAccessException,
+                                                                InvocationTargetException {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       100, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                for (final Iago.Edge edge : Iago.Edge.values()) {
+                    assertThat("Iago.EdgeTable.index(long, long, " + edge + ") must match index(Player, Board, Edge).",
+                               Iago.EdgeTable.index(board.discsMask(player), board.discsMask(player.opponent()), edge),
+                               is(indexProxy(player, board, edge)));
+                }
+            }
+        }
+    }
+
     /**
      * Tests the {@code Iago.EdgeTable.index(Player, Board, Iago.Edge)} method.
      *
@@ -673,6 +755,16 @@ public class IagoMethodsTest {
         return result;
     }
 
+    private static void writeProxy(final Iago.EdgeTable table,
+                                   final String fileOut)
+        throws NoSuchMethodException,
+               IllegalAccessException,
+               InvocationTargetException {
+        final Method method = Iago.EdgeTable.class.getDeclaredMethod("write", String.class);
+        method.setAccessible(true);
+        method.invoke(table, fileOut);
+    }
+
     private static void refineProxy(final Iago.EdgeTable table)
         throws NoSuchMethodException,
                IllegalAccessException,
@@ -0,0 +1,88 @@
+/*
+ *  MTDfTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for the {@code MTDf} class.
+ */
+public class MTDfTest {
+
+    /** The capacity of the transposition table used by the tests. */
+    private static final int TABLE_CAPACITY = 1 << 14;
+
+    /** Class constructor. */
+    public MTDfTest() { }
+
+    /**
+     * Tests the {@code getInstance(TranspositionTable, Map)} factory when parameter {@code table} is null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testGetInstance_boundaryConditions_checkNullParameter_table() {
+        MTDf.getInstance(null, null);
+    }
+
+    /**
+     * Tests that the search value is the same of the one returned by {@code AlphaBeta3},
+     * and that the move is legal.
+     */
+    @Test
+    public final void testSearch_comparedWithAlphaBeta3() {
+        final AlphaBeta3ComparisonTestUtils.RuleFactory factory = new AlphaBeta3ComparisonTestUtils.RuleFactory() {
+                public DecisionRule newRule() {
+                    return MTDf.getInstance(TranspositionTable.valueOf(TABLE_CAPACITY), null);
+                }
+            };
+        AlphaBeta3ComparisonTestUtils.assertSameAsAlphaBeta3("MTDf", factory, 29L, false);
+    }
+
+    /**
+     * Tests that the statistics map is filled with the entries written by {@code MTDf}.
+     */
+    @Test
+    public final void testSearch_statistics() {
+        final Map<String, Object> statistics = new HashMap<String, Object>();
+        final GamePosition position = new RandomGamePositionList(1, 29L).positions().get(0);
+        final SearchNode result = MTDf.getInstance(TranspositionTable.valueOf(TABLE_CAPACITY), statistics)
+            .search(position, 6, new ModifiedWeightedSquares());
+        assertThat("The result entry must be the returned node.", statistics.get("result"), is((Object) result));
+        assertThat("The variant entry must be MTDF.", statistics.get("variant"), is((Object) MTDf.VARIANT));
+        assertTrue("The statistics must have the cutoffCount entry.", statistics.get("cutoffCount") instanceof int[]);
+        assertTrue("The efInvokeCount must be positive.", (Integer) statistics.get("efInvokeCount") > 0);
+        assertTrue("At least one zero window search per ply.", (Integer) statistics.get("iterationCount") >= 6);
+        assertTrue("The statistics must have the searchTimeInMilliseconds entry.",
+                   statistics.containsKey("searchTimeInMilliseconds"));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *  NegaScoutAnalytics.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rcrr.reversi.endgame.GpdbTestUtils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Analytics Suite that compares the nodes visited by the {@code NegaScout} variants.
+ * <p>
+ * The positions are {@code ffo-40} and the first ones found in the {@code c/db/gpdb-ffo.txt}
+ * database, searched from depth 6 to 10 with the {@code Iago} evaluation function.
+ * Run it with: {@code ant test -Dtest.class.name=rcrr.reversi.NegaScoutAnalytics}.
+ */
+public class NegaScoutAnalytics {
+
+    /** The id of the FFO position #40 in the database. */
+    private static final String FFO_40_ID = "ffo-40";
+
+    /** The number of positions read from the database. */
+    private static final int GPDB_POSITIONS = 10;
+
+    /** The minimum search depth. */
+    private static final int MIN_PLY = 6;
+
+    /** The maximum search depth. */
+    private static final int MAX_PLY = 10;
+
+    /** The evaluation function. */
+    private static final EvalFunction EF = new Iago();
+
+    /** Class constructor. */
+    public NegaScoutAnalytics() { }
+
+    /**
+     * Prints, for each position and depth, the nodes visited by the two variants and the reduction.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void nodeReduction() throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final List<GamePosition> positions = new ArrayList<GamePosition>();
+        final GamePositionDb.Entry ffo40 = GamePositionDb.valueOf(GpdbTestUtils.GPDB_FFO,
+                                                                  new ArrayList<GamePositionDbSyntaxError>())
+            .lookup(FFO_40_ID);
+        names.add(ffo40.id());
+        positions.add(ffo40.gamePosition());
+        positions.addAll(GpdbTestUtils.readGpdb(GpdbTestUtils.GPDB_FFO, GPDB_POSITIONS, names));
+
+        for (int i = 0; i < positions.size(); i++) {
+            for (int ply = MIN_PLY; ply <= MAX_PLY; ply++) {
+                final Map<String, Object> ab = new HashMap<String, Object>();
+                final Map<String, Object> ns = new HashMap<String, Object>();
+                NegaScout.getInstance(NegaScout.Variant.ALPHABETA, ab).search(positions.get(i), ply, EF);
+                NegaScout.getInstance(NegaScout.Variant.NEGASCOUT, ns).search(positions.get(i), ply, EF);
+                final long abNodes = (Long) ab.get("nodeCount");
+                final long nsNodes = (Long) ns.get("nodeCount");
+                System.out.println(String.format("%-8s ply=%2d  alphabeta: nodes=%10d, ms=%6d"
+                                                 + "  negascout: nodes=%10d, ms=%6d, researches=%7d  reduction=%5.1f%%",
+                                                 names.get(i), ply,
+                                                 abNodes, ab.get("searchTimeInMilliseconds"),
+                                                 nsNodes, ns.get("searchTimeInMilliseconds"), ns.get("researchCount"),
+                                                 100.0 * (abNodes - nsNodes) / abNodes));
+                assertThat("NegaScout must return the same value of alpha-beta.",
+                           ns.get("result").toString(),
+                           is(ab.get("result").toString()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ *  NegaScoutTest.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for the {@code NegaScout} class.
+ */
+public class NegaScoutTest {
+
+    /** Class constructor. */
+    public NegaScoutTest() { }
+
+    /**
+     * Tests the {@code getInstance(Variant, Map)} factory when parameter {@code variant} is null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testGetInstance_boundaryConditions_checkNullParameter_variant() {
+        NegaScout.getInstance(null, null);
+    }
+
+    /**
+     * Tests that both variants return the same search nodes of {@code AlphaBeta3}.
+     */
+    @Test
+    public final void testSearch_comparedWithAlphaBeta3() {
+        for (final NegaScout.Variant variant : NegaScout.Variant.values()) {
+            final AlphaBeta3ComparisonTestUtils.RuleFactory factory = new AlphaBeta3ComparisonTestUtils.RuleFactory() {
+                    public DecisionRule newRule() {
+                        return NegaScout.getInstance(variant, null);
+                    }
+                };
+            AlphaBeta3ComparisonTestUtils.assertSameAsAlphaBeta3("NegaScout variant=" + variant, factory, 43L, true);
+        }
+    }
+
+    /**
+     * Tests that the statistics map is filled.
+     */
+    @Test
+    public final void testSearch_statistics() {
+        final Map<String, Object> abStatistics = new HashMap<String, Object>();
+        final Map<String, Object> nsStatistics = new HashMap<String, Object>();
+        final GamePosition position = new RandomGamePositionList(1, 43L).positions().get(0);
+        final EvalFunction ef = new ModifiedWeightedSquares();
+        NegaScout.getInstance(NegaScout.Variant.ALPHABETA, abStatistics).search(position, 6, ef);
+        NegaScout.getInstance(NegaScout.Variant.NEGASCOUT, nsStatistics).search(position, 6, ef);
+        assertThat("The variant entry must be NEGASCOUT.",
+                   nsStatistics.get("variant"), is((Object) NegaScout.Variant.NEGASCOUT));
+        assertThat("The alpha-beta variant never searches again.",
+                   abStatistics.get("researchCount"), is((Object) 0L));
+        assertTrue("The node count must be positive.", (Long) nsStatistics.get("nodeCount") > 0L);
+        assertTrue("The statistics must have the cutoffCount entry.",
+                   nsStatistics.get("cutoffCount") instanceof long[]);
+    }
+
+    /**
+     * Tests that the search running on a {@code SearchBoard} visits the same nodes
+     * of the search running on the immutable boards.
+     */
+    @Test
+    public final void testSearch_onSearchBoard_sameStatistics() {
+        final Map<String, Object> boardStatistics = new HashMap<String, Object>();
+        final Map<String, Object> immutableStatistics = new HashMap<String, Object>();
+        final GamePosition position = new RandomGamePositionList(1, 43L).positions().get(0);
+        final EvalFunction ef = new ModifiedWeightedSquares();
+        final SearchNode boardNode = NegaScout.getInstance(NegaScout.Variant.NEGASCOUT, boardStatistics)
+            .search(position, 6, ef);
+        final SearchNode immutableNode = NegaScout.getInstance(NegaScout.Variant.NEGASCOUT, immutableStatistics)
+            .search(position, 6, AlphaBeta3ComparisonTestUtils.onImmutableBoards(ef));
+        assertThat("The move must be the same.", boardNode.move(), is(immutableNode.move()));
+        assertThat("The value must be the same.", boardNode.value(), is(immutableNode.value()));
+        for (final String key : new String[] {"nodeCount", "efInvokeCount", "researchCount"}) {
+            assertThat("The statistics entry " + key + " must be the same.",
+                       boardStatistics.get(key), is(immutableStatistics.get(key)));
+        }
+    }
+
+}
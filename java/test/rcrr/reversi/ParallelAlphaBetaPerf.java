@@ -0,0 +1,108 @@
+/*
+ *  ParallelAlphaBetaPerf.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.List;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Performance Suite for the {@code ParallelAlphaBeta} class.
+ * <p>
+ * It reports the speedup of the parallel search over {@code AlphaBeta3}, for a growing number of threads
+ * up to the available processors. Run it with: {@code ant test -Dtest.class.name=rcrr.reversi.ParallelAlphaBetaPerf}.
+ */
+public class ParallelAlphaBetaPerf {
+
+    /** The number of game positions searched. */
+    private static final int NUMBER_OF_POSITIONS = 8;
+
+    /** The search depth. */
+    private static final int PLY = 7;
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Returns the time in milliseconds taken by the rule to search all the positions.
+     *
+     * @param rule      the decision rule
+     * @param positions the game positions
+     * @param expected  the nodes returned by the reference rule, or null
+     * @param results   the array filled with the returned nodes
+     * @return          the elapsed time in milliseconds
+     */
+    private static long time(final DecisionRule rule,
+                             final List<GamePosition> positions,
+                             final SearchNode[] expected,
+                             final SearchNode[] results) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < positions.size(); i++) {
+            results[i] = rule.search(positions.get(i), PLY, IagoStrategy.IAGO_EVAL_FUNCTION);
+        }
+        final long elapsed = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        if (expected != null) {
+            for (int i = 0; i < positions.size(); i++) {
+                assertThat("The move must be equal to AlphaBeta3.", results[i].move(), is(expected[i].move()));
+                assertThat("The value must be equal to AlphaBeta3.", results[i].value(), is(expected[i].value()));
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * Prints the speedup of the root split and of the Young Brothers Wait variants against the core count.
+     */
+    @Test
+    public final void speedup() {
+        final List<GamePosition> positions = new RandomGamePositionList(NUMBER_OF_POSITIONS, 7L).positions();
+        final SearchNode[] expected = new SearchNode[positions.size()];
+        final SearchNode[] results = new SearchNode[positions.size()];
+        time(AlphaBeta3.getInstance(), positions, null, expected);
+        final long serial = time(AlphaBeta3.getInstance(), positions, null, expected);
+        System.out.println("AlphaBeta3: " + serial + " ms, ply=" + PLY + ", positions=" + positions.size());
+        final int cores = Runtime.getRuntime().availableProcessors();
+        int threads = 0;
+        while (threads < cores) {
+            threads = (threads == 0) ? 1 : Math.min(2 * threads, cores);
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            final long root = time(ParallelAlphaBeta.getInstance(pool, null, false, ParallelAlphaBeta.DEFAULT_SPLIT_DEPTH),
+                                   positions, expected, results);
+            final long ybw = time(ParallelAlphaBeta.getInstance(pool, null, true, ParallelAlphaBeta.DEFAULT_SPLIT_DEPTH),
+                                  positions, expected, results);
+            pool.shutdown();
+            System.out.println(String.format("threads=%3d  root split: %7d ms, speedup=%5.2f"
+                                             + "  young brothers wait: %7d ms, speedup=%5.2f",
+                                             threads, root, (double) serial / root, ybw, (double) serial / ybw));
+        }
+    }
+
+}
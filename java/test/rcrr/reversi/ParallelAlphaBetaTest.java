@@ -0,0 +1,109 @@
+/*
+ *  ParallelAlphaBetaTest.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test Suite for the {@code ParallelAlphaBeta} class.
+ */
+public class ParallelAlphaBetaTest {
+
+    /** The parallelism of the pool used by the tests. */
+    private static final int PARALLELISM = 4;
+
+    /** The pool used by the tests. */
+    private static ForkJoinPool pool;
+
+    /** Class constructor. */
+    public ParallelAlphaBetaTest() { }
+
+    /** Creates the pool. */
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(PARALLELISM);
+    }
+
+    /** Shuts the pool down. */
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * Asserts that the parallel decision rule returns the same search nodes of {@code AlphaBeta3}.
+     * <p>
+     * When the transposition table is used, a new one is prepared for each position and evaluation function,
+     * and it is shared by the searches done at increasing depths.
+     *
+     * @param useTable          when true the rule uses a transposition table
+     * @param youngBrothersWait the young brothers wait option
+     * @param splitDepth        the split depth
+     */
+    private static void assertSameAsAlphaBeta3(final boolean useTable,
+                                               final boolean youngBrothersWait,
+                                               final int splitDepth) {
+        final AlphaBeta3ComparisonTestUtils.RuleFactory factory = new AlphaBeta3ComparisonTestUtils.RuleFactory() {
+                public DecisionRule newRule() {
+                    final TranspositionTable table = useTable ? TranspositionTable.valueOf(1 << 16) : null;
+                    return ParallelAlphaBeta.getInstance(pool, table, youngBrothersWait, splitDepth);
+                }
+            };
+        AlphaBeta3ComparisonTestUtils.assertSameAsAlphaBeta3("ParallelAlphaBeta useTable=" + useTable
+                                                             + ", youngBrothersWait=" + youngBrothersWait
+                                                             + ", splitDepth=" + splitDepth,
+                                                             factory, 31L, true);
+    }
+
+    /**
+     * Tests that splitting the root returns the same search nodes of {@code AlphaBeta3}.
+     */
+    @Test
+    public final void testSearch_rootSplit() {
+        assertSameAsAlphaBeta3(false, false, ParallelAlphaBeta.DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Tests that the Young Brothers Wait variant returns the same search nodes of {@code AlphaBeta3}.
+     */
+    @Test
+    public final void testSearch_youngBrothersWait() {
+        assertSameAsAlphaBeta3(false, true, 2);
+    }
+
+    /**
+     * Tests that the variant sharing a transposition table returns the same search nodes of {@code AlphaBeta3}.
+     */
+    @Test
+    public final void testSearch_withTranspositionTable() {
+        assertSameAsAlphaBeta3(true, true, 2);
+    }
+
+}
@@ -0,0 +1,471 @@
+/*
+ *  PatternEvalTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import rcrr.reversi.board.BitWorks;
+import rcrr.reversi.board.Board;
+import rcrr.reversi.board.BoardFactoryHolder;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.RandomBoardList;
+import rcrr.reversi.board.Square;
+import rcrr.reversi.board.SquareState;
+
+/**
+ * Test Suite for the {@code PatternEval} class.
+ *
+ * @see PatternEval
+ */
+public class PatternEvalTest {
+
+    /**
+     * The squares of each pattern instance, in the order of the {@code PatternEval.Pattern} enum,
+     * and, within a pattern, in the order used by {@code PatternEval.indexes(long, long, int[])}.
+     * Square {@code k} of an instance is the ternary digit of weight {@code 3^k}.
+     */
+    private static final String[][] INSTANCE_SQUARES = {
+        {
+            "A1 B1 C1 D1 E1 F1 G1 H1 B2 G2",
+            "A8 B8 C8 D8 E8 F8 G8 H8 B7 G7",
+            "A1 A2 A3 A4 A5 A6 A7 A8 B2 B7",
+            "H1 H2 H3 H4 H5 H6 H7 H8 G2 G7"
+        },
+        {
+            "A1 B1 C1 A2 B2 C2 A3 B3 C3",
+            "A8 B8 C8 A7 B7 C7 A6 B6 C6",
+            "H1 G1 F1 H2 G2 F2 H3 G3 F3",
+            "H8 G8 F8 H7 G7 F7 H6 G6 F6"
+        },
+        {
+            "A1 B1 C1 D1 E1 A2 B2 C2 D2 E2",
+            "A8 B8 C8 D8 E8 A7 B7 C7 D7 E7",
+            "H1 G1 F1 E1 D1 H2 G2 F2 E2 D2",
+            "H8 G8 F8 E8 D8 H7 G7 F7 E7 D7",
+            "A1 A2 A3 A4 A5 B1 B2 B3 B4 B5",
+            "H1 H2 H3 H4 H5 G1 G2 G3 G4 G5",
+            "A8 A7 A6 A5 A4 B8 B7 B6 B5 B4",
+            "H8 H7 H6 H5 H4 G8 G7 G6 G5 G4"
+        },
+        {
+            "A2 B2 C2 D2 E2 F2 G2 H2",
+            "A7 B7 C7 D7 E7 F7 G7 H7",
+            "B1 B2 B3 B4 B5 B6 B7 B8",
+            "G1 G2 G3 G4 G5 G6 G7 G8"
+        },
+        {
+            "A3 B3 C3 D3 E3 F3 G3 H3",
+            "A6 B6 C6 D6 E6 F6 G6 H6",
+            "C1 C2 C3 C4 C5 C6 C7 C8",
+            "F1 F2 F3 F4 F5 F6 F7 F8"
+        },
+        {
+            "A4 B4 C4 D4 E4 F4 G4 H4",
+            "A5 B5 C5 D5 E5 F5 G5 H5",
+            "D1 D2 D3 D4 D5 D6 D7 D8",
+            "E1 E2 E3 E4 E5 E6 E7 E8"
+        },
+        {
+            "E1 F2 G3 H4",
+            "E8 F7 G6 H5",
+            "D1 C2 B3 A4",
+            "D8 C7 B6 A5"
+        },
+        {
+            "D1 E2 F3 G4 H5",
+            "D8 E7 F6 G5 H4",
+            "E1 D2 C3 B4 A5",
+            "E8 D7 C6 B5 A4"
+        },
+        {
+            "C1 D2 E3 F4 G5 H6",
+            "C8 D7 E6 F5 G4 H3",
+            "F1 E2 D3 C4 B5 A6",
+            "F8 E7 D6 C5 B4 A3"
+        },
+        {
+            "B1 C2 D3 E4 F5 G6 H7",
+            "B8 C7 D6 E5 F4 G3 H2",
+            "G1 F2 E3 D4 C5 B6 A7",
+            "G8 F7 E6 D5 C4 B3 A2"
+        },
+        {
+            "A1 B2 C3 D4 E5 F6 G7 H8",
+            "A8 B7 C6 D5 E4 F3 G2 H1"
+        }
+    };
+
+    /**
+     * The permutation of the squares of each pattern given by the board symmetry that maps the canonical
+     * instance onto itself, in the order of the {@code PatternEval.Pattern} enum.
+     * The two by five corner has none, and is given the identity.
+     */
+    private static final int[][] SELF_SYMMETRIES = {
+        {7, 6, 5, 4, 3, 2, 1, 0, 9, 8},
+        {0, 3, 6, 1, 4, 7, 2, 5, 8},
+        {0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+        {7, 6, 5, 4, 3, 2, 1, 0},
+        {7, 6, 5, 4, 3, 2, 1, 0},
+        {7, 6, 5, 4, 3, 2, 1, 0},
+        {3, 2, 1, 0},
+        {4, 3, 2, 1, 0},
+        {5, 4, 3, 2, 1, 0},
+        {6, 5, 4, 3, 2, 1, 0},
+        {7, 6, 5, 4, 3, 2, 1, 0}
+    };
+
+    /** Class constructor.
+    public PatternEvalTest() { }
+
+    /**
+     * Computes the instance indexes reading the board square by square.
+     *
+     * @param board  the board
+     * @param player the player to move
+     * @return       the indexes
+     */
+    private static int[] referenceIndexes(final Board board, final Player player) {
+        final int[] indexes = new int[PatternEval.INSTANCE_COUNT];
+        int k = 0;
+        for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+            final String[] instances = INSTANCE_SQUARES[pattern.ordinal()];
+            assertThat("The reference instances of " + pattern + " are wrong.",
+                       instances.length, is(pattern.instances()));
+            for (final String instance : instances) {
+                final String[] squares = instance.split(" ");
+                assertThat("The reference squares of " + pattern + " are wrong.",
+                           squares.length, is(pattern.squares()));
+                int index = 0;
+                for (int i = squares.length - 1; i >= 0; i--) {
+                    final SquareState state = board.get(Square.valueOf(squares[i]));
+                    final int digit = (state == SquareState.EMPTY) ? 0 : (state == player.color()) ? 1 : 2;
+                    index = index * 3 + digit;
+                }
+                indexes[k++] = index;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns random weights that fit into a short.
+     *
+     * @param seed the random seed
+     * @return     the weights
+     */
+    private static int[][][] randomWeights(final long seed) {
+        final Random random = new Random(seed);
+        final int[][][] weights = new int[PatternEval.PHASE_COUNT][PatternEval.Pattern.values().length][];
+        for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+            for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+                final int[] table = new int[pattern.size()];
+                for (int i = 0; i < table.length; i++) { table[i] = random.nextInt(2001) - 1000; }
+                weights[phase][pattern.ordinal()] = table;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Returns random weights that fit into a short, being equal for the indexes of a pattern configuration
+     * and of its image under the pattern self symmetry. Only such weights give an evaluation that doesn't
+     * change when the board is flipped or rotated.
+     *
+     * @param seed the random seed
+     * @return     the weights
+     */
+    private static int[][][] randomSymmetricWeights(final long seed) {
+        final int[][][] weights = randomWeights(seed);
+        for (final int[][] phase : weights) {
+            for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+                final int[] table = phase[pattern.ordinal()];
+                final int[] permutation = SELF_SYMMETRIES[pattern.ordinal()];
+                for (int i = 0; i < table.length; i++) {
+                    int image = 0;
+                    for (int k = 0, rest = i; k < permutation.length; k++, rest /= 3) {
+                        int power = 1;
+                        for (int j = 0; j < permutation[k]; j++) { power *= 3; }
+                        image += (rest % 3) * power;
+                    }
+                    if (image < i) { table[i] = table[image]; }
+                }
+            }
+        }
+        return weights;
+    }
+
+    /** Tests the instance count, and the phase size. */
+    @Test
+    public final void testConstants() {
+        assertThat("PatternEval.INSTANCE_COUNT is 46.", PatternEval.INSTANCE_COUNT, is(46));
+        assertThat("PatternEval.PHASE_SIZE is 167265.", PatternEval.PHASE_SIZE, is(167265));
+    }
+
+    /**
+     * Tests the {@code phase(int)} method.
+     *
+     * @see PatternEval#phase(int)
+     */
+    @Test
+    public final void testPhase() {
+        assertThat("PatternEval.phase(4) is 0.", PatternEval.phase(4), is(0));
+        assertThat("PatternEval.phase(8) is 0.", PatternEval.phase(8), is(0));
+        assertThat("PatternEval.phase(9) is 1.", PatternEval.phase(9), is(1));
+        assertThat("PatternEval.phase(64) is PHASE_COUNT - 1.",
+                   PatternEval.phase(64), is(PatternEval.PHASE_COUNT - 1));
+        for (int discs = 1; discs <= 64; discs++) {
+            assertThat("PatternEval.phase(int) must not decrease.",
+                       PatternEval.phase(discs) >= PatternEval.phase(discs - 1), is(true));
+        }
+    }
+
+    /**
+     * Tests that {@code phase(int)} rejects a disc count out of range.
+     *
+     * @see PatternEval#phase(int)
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testPhase_boundaryConditions_checkRange() {
+        PatternEval.phase(65);
+    }
+
+    /**
+     * Tests that the indexes computed on the bitboards match the ones computed square by square.
+     *
+     * @see PatternEval#indexes(long, long, int[])
+     */
+    @Test
+    public final void testIndexes_matchSquareBySquareComputation() {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       200, 4, 64).boards();
+        final int[] indexes = new int[PatternEval.INSTANCE_COUNT];
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                PatternEval.indexes(board.discsMask(player), board.discsMask(player.opponent()), indexes);
+                assertThat("PatternEval.indexes must match the square by square computation.",
+                           indexes, is(referenceIndexes(board, player)));
+            }
+        }
+    }
+
+    /**
+     * Tests that the evaluation doesn't change when the board is flipped or rotated.
+     *
+     * @see PatternEval#eval(long, long)
+     */
+    @Test
+    public final void testEval_isInvariantUnderTheBoardSymmetries() {
+        final PatternEval eval = PatternEval.valueOf(randomSymmetricWeights(41L));
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       200, 4, 64).boards();
+        for (final Board board : boards) {
+            final long p = board.discsMask(Player.BLACK);
+            final long o = board.discsMask(Player.WHITE);
+            final int expected = eval.eval(p, o);
+            for (int symmetry = 0; symmetry < 8; symmetry++) {
+                assertThat("PatternEval.eval must not change under symmetry " + symmetry + ".",
+                           eval.eval(image(p, symmetry), image(o, symmetry)), is(expected));
+            }
+        }
+    }
+
+    /**
+     * Returns one of the eight symmetric images of the bitboard.
+     *
+     * @param b        the bitboard
+     * @param symmetry the symmetry, bit 0 is the vertical flip, bit 1 the horizontal mirror,
+     *                 and bit 2 the diagonal flip
+     * @return         the image
+     */
+    private static long image(final long b, final int symmetry) {
+        long result = b;
+        if ((symmetry & 4) != 0) { result = BitWorks.flipDiagonal(result); }
+        if ((symmetry & 2) != 0) { result = BitWorks.mirrorHorizontal(result); }
+        if ((symmetry & 1) != 0) { result = BitWorks.flipVertical(result); }
+        return result;
+    }
+
+    /**
+     * Tests that the instances of each diagonal pattern read every square of the diagonals having
+     * the pattern length once, and no other square.
+     *
+     * @see PatternEval#indexes(long, long, int[])
+     */
+    @Test
+    public final void testIndexes_diagonalPatternsCoverAllTheDiagonals() {
+        final int[] indexes = new int[PatternEval.INSTANCE_COUNT];
+        int first = 0;
+        for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+            if (pattern.name().startsWith("DIAGONAL_")) {
+                final int distance = 8 - pattern.squares();
+                final Set<Square> expected = new HashSet<Square>();
+                final Set<Square> covered = new HashSet<Square>();
+                for (final Square square : Square.values()) {
+                    final int row = square.row().ordinal();
+                    final int column = square.column().ordinal();
+                    if (Math.abs(column - row) == distance || Math.abs(column + row - 7) == distance) {
+                        expected.add(square);
+                    }
+                    PatternEval.indexes(1L << square.ordinal(), 0L, indexes);
+                    int readers = 0;
+                    for (int i = first; i < first + pattern.instances(); i++) {
+                        if (indexes[i] != 0) { readers++; }
+                    }
+                    assertThat("Square " + square + " must be read by one instance of " + pattern + " at most.",
+                               readers <= 1, is(true));
+                    if (readers == 1) { covered.add(square); }
+                }
+                assertThat("The instances of " + pattern + " must cover all the diagonals of its length.",
+                           covered, is(expected));
+                assertThat("The diagonals of " + pattern + " must have " + pattern.squares() * pattern.instances()
+                           + " squares.", expected.size(), is(pattern.squares() * pattern.instances()));
+            }
+            first += pattern.instances();
+        }
+    }
+
+    /**
+     * Tests that the eval function is the sum of the weights selected by the instances.
+     *
+     * @see PatternEval#eval(GamePosition)
+     */
+    @Test
+    public final void testEval_isTheSumOfTheInstanceWeights() {
+        final PatternEval eval = PatternEval.valueOf(randomWeights(17L));
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       200, 4, 64).boards();
+        final int[] indexes = new int[PatternEval.INSTANCE_COUNT];
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                final long p = board.discsMask(player);
+                final long o = board.discsMask(player.opponent());
+                final int phase = PatternEval.phase(Long.bitCount(p | o));
+                PatternEval.indexes(p, o, indexes);
+                int expected = 0;
+                int k = 0;
+                for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+                    for (int i = 0; i < pattern.instances(); i++) {
+                        expected += eval.weight(phase, pattern, indexes[k++]);
+                    }
+                }
+                assertThat("PatternEval.eval must be the sum of the instance weights.",
+                           eval.eval(GamePosition.valueOf(board, player)), is(expected));
+            }
+        }
+    }
+
+    /**
+     * Tests that the weights written to a file are loaded back.
+     *
+     * @throws IOException when the file cannot be written
+     * @see PatternEval#write(File)
+     * @see PatternEval#load(File)
+     */
+    @Test
+    public final void testWriteLoad_roundTrip() throws IOException {
+        final PatternEval eval = PatternEval.valueOf(randomWeights(23L));
+        final File file = File.createTempFile("pattern-weights", ".bin");
+        try {
+            eval.write(file);
+            final PatternEval loaded = PatternEval.load(file);
+            for (int phase = 0; phase < PatternEval.PHASE_COUNT; phase++) {
+                for (final PatternEval.Pattern pattern : PatternEval.Pattern.values()) {
+                    for (int i = 0; i < pattern.size(); i++) {
+                        if (loaded.weight(phase, pattern, i) != eval.weight(phase, pattern, i)) {
+                            assertThat("The weight of " + pattern + ", phase " + phase + ", index " + i
+                                       + " must be loaded back.",
+                                       loaded.weight(phase, pattern, i), is(eval.weight(phase, pattern, i)));
+                        }
+                    }
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that {@code load(File)} rejects a file that is not a weight table.
+     *
+     * @throws IOException when the file is invalid, as expected
+     * @see PatternEval#load(File)
+     */
+    @Test(expected = IOException.class)
+    public final void testLoad_boundaryConditions_checkFileIsValid() throws IOException {
+        final File file = File.createTempFile("pattern-weights", ".bin");
+        try {
+            PatternEval.load(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that {@code valueOf(int[][][])} rejects a weight out of the short range.
+     *
+     * @see PatternEval#valueOf(int[][][])
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testValueOf_boundaryConditions_checkWeightRange() {
+        final int[][][] weights = randomWeights(29L);
+        weights[0][0][0] = Short.MAX_VALUE + 1;
+        PatternEval.valueOf(weights);
+    }
+
+    /**
+     * Tests that {@code valueOf(int[][][])} rejects tables having a wrong size.
+     *
+     * @see PatternEval#valueOf(int[][][])
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testValueOf_boundaryConditions_checkTableSize() {
+        final int[][][] weights = randomWeights(31L);
+        weights[1][2] = new int[1];
+        PatternEval.valueOf(weights);
+    }
+
+    /**
+     * Tests that {@code eval(GamePosition)} rejects a null position.
+     *
+     * @see PatternEval#eval(GamePosition)
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testEval_boundaryConditions_checkPositionIsNotNull() {
+        PatternEval.valueOf(randomWeights(37L)).eval(null);
+    }
+
+}
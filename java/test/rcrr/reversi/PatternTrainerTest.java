@@ -0,0 +1,216 @@
+/*
+ *  PatternTrainerTest.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Random;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import rcrr.reversi.board.BoardBuilder;
+import rcrr.reversi.board.Player;
+import rcrr.reversi.board.Square;
+import rcrr.reversi.board.SquareState;
+
+import rcrr.reversi.endgame.ExactSolver;
+
+/**
+ * Test Suite for the {@code PatternTrainer} class.
+ *
+ * @see PatternTrainer
+ */
+public class PatternTrainerTest {
+
+    /** The number of empty squares from where the generated games are solved. */
+    private static final int SOLVE_EMPTIES = 10;
+
+    /** The temporary file used by the tests. */
+    private File file;
+
+    /** The pool used by the tests. */
+    private ForkJoinPool pool;
+
+    /** Class constructor. */
+    public PatternTrainerTest() { }
+
+    /**
+     * Creates the temporary file, and the pool.
+     *
+     * @throws IOException when the file cannot be created
+     */
+    @Before
+    public final void setUp() throws IOException {
+        file = File.createTempFile("training-set", ".bin");
+        pool = new ForkJoinPool(2);
+    }
+
+    /** Deletes the temporary file, and shuts down the pool. */
+    @After
+    public final void tearDown() {
+        file.delete();
+        pool.shutdown();
+    }
+
+    /**
+     * Returns the game position given by the bitboards, black being the player to move.
+     *
+     * @param player   the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return         the game position
+     */
+    private static GamePosition position(final long player, final long opponent) {
+        final BoardBuilder builder = new BoardBuilder();
+        for (final Square square : Square.values()) {
+            final long bit = 1L << square.ordinal();
+            builder.withSquare(square, ((player & bit) != 0L) ? SquareState.BLACK
+                               : ((opponent & bit) != 0L) ? SquareState.WHITE : SquareState.EMPTY);
+        }
+        return GamePosition.valueOf(builder.build(), Player.BLACK);
+    }
+
+    /**
+     * Tests that the generated positions that are solved are labelled with their exact value.
+     *
+     * @throws IOException when the training set cannot be written
+     */
+    @Test
+    public final void testGenerate_solvedPositionsHaveTheExactValue() throws IOException {
+        final TrainingSet.Writer writer = new TrainingSet.Writer(file, false);
+        long positions;
+        try {
+            positions = PatternTrainer.generate(writer, 4, 10, 1, SOLVE_EMPTIES, new Iago(), pool);
+        } finally {
+            writer.close();
+        }
+        final TrainingSet set = TrainingSet.open(file);
+        try {
+            assertThat("The training set must have all the generated positions.", set.size(), is(positions));
+            final long[] players = new long[(int) set.size()];
+            final long[] opponents = new long[players.length];
+            final byte[] scores = new byte[players.length];
+            set.read(0, players, opponents, scores);
+            int solved = 0;
+            for (int i = 0; i < players.length; i++) {
+                if (Long.bitCount(players[i] | opponents[i]) >= 64 - SOLVE_EMPTIES) {
+                    solved++;
+                    assertThat("A solved position must be labelled with its exact value.",
+                               (int) scores[i],
+                               is(new ExactSolver(position(players[i], opponents[i])).solve().value()));
+                }
+            }
+            assertThat("The games must have solved positions.", solved > 0, is(true));
+        } finally {
+            set.close();
+        }
+    }
+
+    /**
+     * Tests that the fit reduces the error on a set labelled by a known pattern evaluation.
+     *
+     * @throws IOException when the training set cannot be written
+     */
+    @Test
+    public final void testFit_reducesTheError() throws IOException {
+        final Random random = new Random(11L);
+        final double[] target = new double[PatternEval.PHASE_COUNT * PatternEval.PHASE_SIZE];
+        for (int j = 0; j < target.length; j++) { target[j] = random.nextInt(65) - 32; }
+        final PatternEval targetEval = PatternTrainer.toPatternEval(target);
+        final TrainingSet.Writer writer = new TrainingSet.Writer(file, false);
+        try {
+            for (final GamePosition position : new RandomGamePositionList(2000, 13L).positions()) {
+                final long player = position.board().discsMask(position.player());
+                final long opponent = position.board().discsMask(position.player().opponent());
+                final int score = Math.round(targetEval.eval(player, opponent) / (float) PatternEval.DISC_VALUE);
+                writer.add(player, opponent, Math.max(-64, Math.min(64, score)));
+            }
+        } finally {
+            writer.close();
+        }
+        final TrainingSet set = TrainingSet.open(file);
+        try {
+            final double[] weights = new double[target.length];
+            final double initial = PatternTrainer.evaluate(set, PatternTrainer.toPatternEval(weights), pool)
+                .trainingRmse();
+            final PatternTrainer.Statistics statistics = PatternTrainer.fit(set, weights, 20, 1., pool, null);
+            assertThat("The fit must halve the training error, initial=" + initial
+                       + ", final=" + statistics.trainingRmse() + ".",
+                       statistics.trainingRmse() < initial / 2., is(true));
+        } finally {
+            set.close();
+        }
+    }
+
+    /** Tests that the validation records are held out in whole blocks, one block every stride. */
+    @Test
+    public final void testIsValidationRecord() {
+        final long size = (long) PatternTrainer.VALIDATION_BLOCK_SIZE * PatternTrainer.VALIDATION_STRIDE * 3;
+        long validation = 0;
+        for (long record = 0; record < size; record++) {
+            final boolean held = PatternTrainer.isValidationRecord(record);
+            if (held) { validation++; }
+            if (record % PatternTrainer.VALIDATION_BLOCK_SIZE != 0) {
+                assertThat("The records of a block must share the split.",
+                           held, is(PatternTrainer.isValidationRecord(record - 1)));
+            }
+        }
+        assertThat("One block every stride must be held out.",
+                   validation, is(size / PatternTrainer.VALIDATION_STRIDE));
+        assertThat("The first block must be used for training.", PatternTrainer.isValidationRecord(0L), is(false));
+    }
+
+    /** Tests that {@code weights(PatternEval)} inverts {@code toPatternEval(double[])} for integer weights. */
+    @Test
+    public final void testToPatternEval_roundTrip() {
+        final Random random = new Random(19L);
+        final double[] weights = new double[PatternEval.PHASE_COUNT * PatternEval.PHASE_SIZE];
+        for (int j = 0; j < weights.length; j++) { weights[j] = random.nextInt(20001) - 10000; }
+        assertThat("PatternTrainer.weights must return the weights given to toPatternEval.",
+                   PatternTrainer.weights(PatternTrainer.toPatternEval(weights)), is(weights));
+    }
+
+    /** Tests that {@code toPatternEval(double[])} clamps the weights to the short range. */
+    @Test
+    public final void testToPatternEval_clampsTheWeights() {
+        final double[] weights = new double[PatternEval.PHASE_COUNT * PatternEval.PHASE_SIZE];
+        weights[0] = 1e6;
+        weights[1] = -1e6;
+        final PatternEval eval = PatternTrainer.toPatternEval(weights);
+        assertThat("A large weight is clamped to Short.MAX_VALUE.",
+                   eval.weight(0, PatternEval.Pattern.EDGE_2X, 0), is((int) Short.MAX_VALUE));
+        assertThat("A large negative weight is clamped to Short.MIN_VALUE.",
+                   eval.weight(0, PatternEval.Pattern.EDGE_2X, 1), is((int) Short.MIN_VALUE));
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ *  RandomGamePositionList.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import rcrr.reversi.board.Square;
+
+/**
+ * A list of game positions, reached by random games played from the initial position,
+ * used to compare decision rules.
+ * <p>
+ * The positions always have a legal move for the player that has to move.
+ */
+public class RandomGamePositionList {
+
+    /** The minimum number of moves played. */
+    private static final int MIN_MOVES = 4;
+
+    /** The range of the number of moves played. */
+    private static final int MOVES_RANGE = 40;
+
+    /** The positions field. */
+    private final List<GamePosition> positions;
+
+    /**
+     * Class constructor.
+     *
+     * @param numberOfPositions the number of positions
+     * @param seed              the seed of the random generator
+     */
+    public RandomGamePositionList(final int numberOfPositions, final long seed) {
+        final Random random = new Random(seed);
+        final List<GamePosition> transientResult = new ArrayList<GamePosition>(numberOfPositions);
+        while (transientResult.size() < numberOfPositions) {
+            GamePosition position = GamePosition.initialGamePosition();
+            final int moves = MIN_MOVES + random.nextInt(MOVES_RANGE);
+            for (int i = 0; i < moves && position.hasAnyLegalMove(); i++) {
+                final List<Square> legalMoves = position.board().legalMoves(position.player());
+                position = position.makeMove(legalMoves.get(random.nextInt(legalMoves.size())));
+                if (!position.hasAnyLegalMove() && position.hasAnyPlayerAnyLegalMove()) {
+                    position = GamePosition.valueOf(position.board(), position.player().opponent());
+                }
+            }
+            if (position.hasAnyLegalMove()) { transientResult.add(position); }
+        }
+        this.positions = Collections.unmodifiableList(transientResult);
+    }
+
+    /**
+     * Returns the positions.
+     *
+     * @return the list of game positions
+     */
+    public List<GamePosition> positions() {
+        return positions;
+    }
+
+}
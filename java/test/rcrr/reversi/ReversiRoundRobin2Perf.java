@@ -35,11 +35,7 @@ import static org.junit.Assert.assertTrue;
 import org.joda.time.Duration;
 import org.joda.time.Period;
 
-import rcrr.reversi.board.BitBoard;
-import rcrr.reversi.board.BitBoard0;
-import rcrr.reversi.board.BitBoard1;
-import rcrr.reversi.board.BitBoard2;
-import rcrr.reversi.board.BitBoard3;
+import rcrr.reversi.board.BoardMetrics;
 
 /**
  * Test Suite for reversi general performances, using Minimax and a very simple eval function.
@@ -79,6 +75,9 @@ public class ReversiRoundRobin2Perf {
     @Test
     public final void testRoundRobin() {
 
+        BoardMetrics.setEnabled(true);
+        final BoardMetrics.Snapshot start = BoardMetrics.snapshot();
+
         Set<Actor> actors = new HashSet<Actor>();
         actors.add(Actor.valueOf("Minimax A",
                                  Minimax.getInstance().searcher(PLY,
@@ -100,10 +99,9 @@ public class ReversiRoundRobin2Perf {
                           "ReversiRoundRobinPerf",
                           "Method=testRoundRobin");
 
-        System.out.println("BitBoard0.printLog() = " + BitBoard0.printLog());
-        System.out.println("BitBoard1.printLog() = " + BitBoard1.printLog());
-        System.out.println("BitBoard2.printLog() = " + BitBoard2.printLog());
-        System.out.println("BitBoard3.printLog() = " + BitBoard3.printLog());
+        final BoardMetrics.Snapshot calls = BoardMetrics.snapshot().since(start);
+        System.out.print(calls.report(calls.nanoTime()));
+        BoardMetrics.setEnabled(false);
 
         assertTrue("The test must run without exceptions.", true);
 
@@ -35,10 +35,7 @@ import static org.junit.Assert.assertTrue;
 import org.joda.time.Duration;
 import org.joda.time.Period;
 
-import rcrr.reversi.board.BitBoard;
-import rcrr.reversi.board.BitBoard0;
-import rcrr.reversi.board.BitBoard1;
-import rcrr.reversi.board.BitBoard2;
+import rcrr.reversi.board.BoardMetrics;
 
 /**
  * Test Suite for reversi general performances.
@@ -82,6 +79,9 @@ public class ReversiRoundRobinPerf {
     @Test
     public final void testRoundRobin() {
 
+        BoardMetrics.setEnabled(true);
+        final BoardMetrics.Snapshot start = BoardMetrics.snapshot();
+
         Set<Actor> actors = new HashSet<Actor>();
         actors.add(Actor.valueOf("Alpha-Beta " + PLY + " ply Count Difference", AlphaBeta.getInstance().searcher(PLY, new CountDifference())));
         actors.add(Actor.valueOf("Alpha-Beta " + PLY + " ply Mobility", AlphaBeta.getInstance().searcher(PLY, new Mobility())));
@@ -96,9 +96,9 @@ public class ReversiRoundRobinPerf {
                           "ReversiRoundRobinPerf",
                           "Method=testRoundRobin");
 
-        System.out.println("BitBoard0.printLog() = " + BitBoard0.printLog());
-        System.out.println("BitBoard1.printLog() = " + BitBoard1.printLog());
-        System.out.println("BitBoard2.printLog() = " + BitBoard2.printLog());
+        final BoardMetrics.Snapshot calls = BoardMetrics.snapshot().since(start);
+        System.out.print(calls.report(calls.nanoTime()));
+        BoardMetrics.setEnabled(false);
 
         assertTrue("The test must run without exceptions.", true);
 
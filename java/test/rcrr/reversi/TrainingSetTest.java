@@ -0,0 +1,164 @@
+/*
+ *  TrainingSetTest.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for the {@code TrainingSet} class.
+ *
+ * @see TrainingSet
+ */
+public class TrainingSetTest {
+
+    /** The temporary file used by the tests. */
+    private File file;
+
+    /** Class constructor. */
+    public TrainingSetTest() { }
+
+    /**
+     * Creates the temporary file.
+     *
+     * @throws IOException when the file cannot be created
+     */
+    @Before
+    public final void setUp() throws IOException {
+        file = File.createTempFile("training-set", ".bin");
+    }
+
+    /** Deletes the temporary file. */
+    @After
+    public final void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Writes {@code count} records, the record {@code i} having the player discs {@code i}, the opponent
+     * discs {@code i << 32}, and the score {@code i % 129 - 64}.
+     *
+     * @param count  the number of records
+     * @param append true when the records are appended
+     * @throws IOException when the file cannot be written
+     */
+    private void writeRecords(final int count, final boolean append) throws IOException {
+        final TrainingSet.Writer writer = new TrainingSet.Writer(file, append);
+        try {
+            final long first = writer.size();
+            for (long i = first; i < first + count; i++) { writer.add(i, i << 32, (int) (i % 129) - 64); }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Tests that the records are read back as written, across chunks, and after an append.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testRead_roundTrip() throws IOException {
+        writeRecords(6000, false);
+        writeRecords(4000, true);
+        final TrainingSet set = TrainingSet.open(file);
+        try {
+            assertThat("TrainingSet.size() must be 10000.", set.size(), is(10000L));
+            final long[] players = new long[3000];
+            final long[] opponents = new long[3000];
+            final byte[] scores = new byte[3000];
+            long from = 0;
+            for (int count = set.read(from, players, opponents, scores); count > 0;
+                 count = set.read(from, players, opponents, scores)) {
+                for (int i = 0; i < count; i++) {
+                    final long r = from + i;
+                    if (players[i] != r || opponents[i] != r << 32 || scores[i] != (int) (r % 129) - 64) {
+                        assertThat("Record " + r + " must be read back as written.", false, is(true));
+                    }
+                }
+                from += count;
+            }
+            assertThat("All the records must be read.", from, is(10000L));
+        } finally {
+            set.close();
+        }
+    }
+
+    /**
+     * Tests that a file that is not a training set is rejected.
+     *
+     * @throws IOException when the file is invalid, as expected
+     */
+    @Test(expected = IOException.class)
+    public final void testOpen_boundaryConditions_checkFileIsValid() throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+        } finally {
+            out.close();
+        }
+        TrainingSet.open(file);
+    }
+
+    /**
+     * Tests that a score out of range is rejected.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testAdd_boundaryConditions_checkScoreRange() throws IOException {
+        final TrainingSet.Writer writer = new TrainingSet.Writer(file, false);
+        try {
+            writer.add(1L, 2L, 65);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Tests that overlapping discs are rejected.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testAdd_boundaryConditions_checkDiscsDoNotOverlap() throws IOException {
+        final TrainingSet.Writer writer = new TrainingSet.Writer(file, false);
+        try {
+            writer.add(3L, 2L, 0);
+        } finally {
+            writer.close();
+        }
+    }
+
+}
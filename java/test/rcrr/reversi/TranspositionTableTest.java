@@ -0,0 +1,119 @@
+/*
+ *  TranspositionTableTest.java
+ *
+ *  Copyright (c) 2010, 2011 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi;
+
+import rcrr.reversi.board.Square;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertNull;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code TranspositionTable} class.
+ */
+public class TranspositionTableTest {
+
+    /** A key used by the tests. */
+    private static final long KEY_A = 0x123456789ABCDEF0L;
+
+    /** A key that shares the bucket with {@code KEY_A} in a one bucket table. */
+    private static final long KEY_B = 0x0FEDCBA987654321L;
+
+    /** A key that shares the bucket with {@code KEY_A} in a one bucket table. */
+    private static final long KEY_C = 0x7777777777777777L;
+
+    /** Class constructor. */
+    public TranspositionTableTest() { }
+
+    /**
+     * Tests the {@code valueOf(int)} factory when parameter {@code capacity} is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testValueOf_boundaryConditions_checkCapacity() {
+        TranspositionTable.valueOf(0);
+    }
+
+    /**
+     * Tests that the capacity is rounded up to a power of two.
+     */
+    @Test
+    public final void testCapacity() {
+        assertThat("TranspositionTable.valueOf(1000).capacity() must be 1024.",
+                   TranspositionTable.valueOf(1000).capacity(),
+                   is(1024));
+    }
+
+    /**
+     * Tests that a stored entry is retrieved with the same fields.
+     */
+    @Test
+    public final void testStoreAndProbe() {
+        final TranspositionTable table = TranspositionTable.valueOf(16);
+        assertThat("An empty table must return NOT_FOUND.", table.probe(KEY_A), is(TranspositionTable.NOT_FOUND));
+        table.store(KEY_A, 7, TranspositionTable.Bound.LOWER, -123456, Square.C4);
+        final long entry = table.probe(KEY_A);
+        assertThat("depth must be 7.", TranspositionTable.depth(entry), is(7));
+        assertThat("bound must be LOWER.", TranspositionTable.bound(entry), is(TranspositionTable.Bound.LOWER));
+        assertThat("value must be -123456.", TranspositionTable.value(entry), is(-123456));
+        assertThat("move must be C4.", TranspositionTable.move(entry), is(Square.C4));
+        table.store(KEY_A, 300, TranspositionTable.Bound.EXACT, AbstractDecisionRule.LOSING_VALUE, null);
+        final long replaced = table.probe(KEY_A);
+        assertThat("depth must be clamped to 255.", TranspositionTable.depth(replaced), is(255));
+        assertThat("value must be LOSING_VALUE.",
+                   TranspositionTable.value(replaced), is(AbstractDecisionRule.LOSING_VALUE));
+        assertNull("move must be null.", TranspositionTable.move(replaced));
+        assertThat("hits must be 2.", table.hits(), is(2L));
+        assertThat("misses must be 1.", table.misses(), is(1L));
+    }
+
+    /**
+     * Tests the two slots replacement scheme.
+     */
+    @Test
+    public final void testReplacementScheme() {
+        final TranspositionTable table = TranspositionTable.valueOf(1);
+        table.store(KEY_A, 5, TranspositionTable.Bound.EXACT, 1, Square.A1);
+        table.store(KEY_B, 3, TranspositionTable.Bound.EXACT, 2, Square.B2);
+        assertThat("the deeper entry must stay.", TranspositionTable.value(table.probe(KEY_A)), is(1));
+        assertThat("the shallower entry must go into the always-replace slot.",
+                   TranspositionTable.value(table.probe(KEY_B)), is(2));
+        table.store(KEY_C, 4, TranspositionTable.Bound.EXACT, 3, Square.C3);
+        assertThat("the deeper entry must stay.", TranspositionTable.value(table.probe(KEY_A)), is(1));
+        assertThat("the always-replace slot must be overwritten.",
+                   table.probe(KEY_B), is(TranspositionTable.NOT_FOUND));
+        assertThat("collisions must be 1.", table.collisions(), is(1L));
+        table.store(KEY_B, 6, TranspositionTable.Bound.EXACT, 4, Square.D4);
+        assertThat("a deeper search must replace the depth-preferred slot.",
+                   TranspositionTable.value(table.probe(KEY_B)), is(4));
+        assertThat("the evicted entry must be not found.", table.probe(KEY_A), is(TranspositionTable.NOT_FOUND));
+        table.clear();
+        assertThat("clear must remove the entries.", table.probe(KEY_B), is(TranspositionTable.NOT_FOUND));
+        assertThat("clear must reset the counters.", table.hits(), is(0L));
+    }
+
+}
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.EnumMap;
 import java.util.Arrays;
+import java.util.List;
 
 import java.io.IOException;
 import java.io.ByteArrayOutputStream;
@@ -56,6 +57,9 @@ import static org.hamcrest.CoreMatchers.instanceOf;
  */
 public class AbstractBoardTest {
 
+    /** The number of random boards used by the bitmask move API test. */
+    private static final int NUMBER_OF_RANDOM_BOARDS = 200;
+
     /**
      * Returns a string object reporting the content of the {@code bytes} parameter.
      *
@@ -881,6 +885,139 @@ public class AbstractBoardTest {
 
     }
 
+    /**
+     * Tests that {@code legalMovesMask(Player)}, {@code flips(Square, Player)}, and
+     * {@code makeMoveWithFlips(long, long, Player)} agree with {@code legalMoves(Player)}
+     * and {@code makeMove(Square, Player)} on a set of random boards.
+     */
+    @Test
+    public final void testBitmaskMoveApi_comparedWithMakeMove() {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                long expectedMask = 0L;
+                for (final Square move : board.legalMoves(player)) {
+                    expectedMask |= 1L << move.ordinal();
+                }
+                assertThat("legalMovesMask must match legalMoves.",
+                           board.legalMovesMask(player),
+                           is(expectedMask));
+                for (final Square square : Square.values()) {
+                    final long flips = board.flips(square, player);
+                    if (!board.isLegal(square, player)) {
+                        assertThat("flips must be 0L for an illegal move.", flips, is(0L));
+                        continue;
+                    }
+                    final Board expected = board.makeMove(square, player);
+                    assertThat("flips must not be empty for a legal move.", flips != 0L, is(true));
+                    assertThat("makeMoveWithFlips must match makeMove.",
+                               board.makeMoveWithFlips(1L << square.ordinal(), flips, player),
+                               is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that {@code discsMask(Player)} agrees with {@code get(Square)} on a set of random boards.
+     */
+    @Test
+    public final void testDiscsMask_comparedWithGet() {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                long expectedMask = 0L;
+                for (final Square square : Square.values()) {
+                    if (board.get(square) == player.color()) { expectedMask |= 1L << square.ordinal(); }
+                }
+                assertThat("discsMask must match get.",
+                           board.discsMask(player),
+                           is(expectedMask));
+            }
+        }
+    }
+
+    /**
+     * Tests the {@code stableDiscs(Player)} method on fixtures.
+     * <p>
+     * The initial board has no stable disc, a full board has all the discs stable,
+     * and a lone corner disc is stable.
+     */
+    @Test
+    public final void testStableDiscs() {
+        final Board initial = new BoardBuilder(BoardFixtures.INITIAL).build();
+        final Board full = new BoardBuilder(BoardFixtures.FINAL_B37_W27).build();
+        final Board corner = new BoardBuilder()
+            .withSquaresLiteral(1, 0, 0, 0, 0, 0, 0, 0,
+                                0, 0, 0, 0, 0, 0, 0, 0,
+                                0, 0, 0, 0, 0, 0, 0, 0,
+                                0, 0, 0, 2, 1, 0, 0, 0,
+                                0, 0, 0, 1, 2, 0, 0, 0,
+                                0, 0, 0, 0, 0, 0, 0, 0,
+                                0, 0, 0, 0, 0, 0, 0, 0,
+                                0, 0, 0, 0, 0, 0, 0, 0)
+            .build();
+        for (final Player player : Player.values()) {
+            assertThat("The initial board has no stable disc.", initial.stableDiscs(player), is(0L));
+            assertThat("All the discs of a full board are stable.",
+                       Long.bitCount(full.stableDiscs(player)),
+                       is(full.countPieces(player.color())));
+        }
+        assertThat("The corner disc is the only stable one.",
+                   corner.stableDiscs(Player.BLACK),
+                   is(1L << Square.A1.ordinal()));
+    }
+
+    /**
+     * Tests on a set of random boards that the discs returned by {@code stableDiscs(Player)}
+     * belong to the player and are not flipped by any legal move of the opponent.
+     */
+    @Test
+    public final void testStableDiscs_neverFlipped() {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                final long stable = board.stableDiscs(player);
+                for (final Square sq : Square.values()) {
+                    if ((stable & (1L << sq.ordinal())) != 0L) {
+                        assertThat("A stable disc must belong to the player.", board.get(sq), is(player.color()));
+                    }
+                }
+                for (final Square move : board.legalMoves(player.opponent())) {
+                    assertThat("A stable disc cannot be flipped.",
+                               board.flips(move, player.opponent()) & stable,
+                               is(0L));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the Zobrist key of a board returned by {@code makeMove(Square, Player)},
+     * that is computed incrementally, is equal to the one of the same board built from scratch.
+     */
+    @Test
+    public final void testZobrist_incrementalUpdate() {
+        final List<Board> boards = new RandomBoardList(BoardFactoryHolder.getInstance().boardFactory(),
+                                                       NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                for (final Square move : board.legalMoves(player)) {
+                    final Board next = board.makeMove(move, player);
+                    assertThat("makeMove must update the zobrist key.",
+                               next.zobrist(),
+                               is(new BoardBuilder(next).build().zobrist()));
+                    assertThat("equal boards must have the same zobrist key.",
+                               next.zobrist(),
+                               is(EnumMapBoard.valueOf(squareMap(next)).zobrist()));
+                }
+            }
+        }
+    }
+
     /**
      * Tests the {@code printBoard()} method.
      * <p>
@@ -970,6 +1107,20 @@ public class AbstractBoardTest {
                    is("[@=26 0=28 (-2)]"));
     }
 
+    /**
+     * Util method that returns the square map of the {@code board}.
+     *
+     * @param board the board
+     * @return      the board square map
+     */
+    private static Map<Square, SquareState> squareMap(final Board board) {
+        final Map<Square, SquareState> squares = new EnumMap<Square, SquareState>(Square.class);
+        for (final Square sq : Square.values()) {
+            squares.put(sq, board.get(sq));
+        }
+        return squares;
+    }
+
     /**
      * Util method used by testHashCode_isConsistentWhenCalledMoreThanOnce.
      *
@@ -0,0 +1,102 @@
+/*
+ *  BitBoard4Test.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.instanceOf;
+
+/**
+ * Test Suite for {@code BitBoard4} class.
+ */
+public class BitBoard4Test extends AbstractBoardTest {
+
+    /** The number of random boards used by the comparison tests. */
+    private static final int NUMBER_OF_RANDOM_BOARDS = 2000;
+
+    /** The applicationWideBoardFactory field. */
+    private BoardFactory applicationWideBoardFactory = null;
+
+    /** Class constructor. */
+    public BitBoard4Test() { }
+
+    @Before
+    public void setBoardFactory() {
+        this.applicationWideBoardFactory = BoardFactoryHolder.getInstance().boardFactory();
+        BoardFactoryHolder.getInstance().setBoardFactory(new BitBoardFactory.Type4());
+    }
+
+    @After
+    public void unsetBoardFactory() {
+        BoardFactoryHolder.getInstance().setBoardFactory(this.applicationWideBoardFactory);
+        this.applicationWideBoardFactory = null;
+    }
+
+    /**
+     * Tests that the board factory returns {@code BitBoard4} instances.
+     */
+    @Test
+    public final void testBoardClass() {
+        assertThat("new BoardBuilder().build() must be an instance of BitBoard4.",
+                   new BoardBuilder().build(),
+                   instanceOf(BitBoard4.class));
+    }
+
+    /**
+     * Tests that {@code legalMoves(Player)} and {@code makeMove(Square, Player)} agree with
+     * the {@code BitBoard0} reference implementation on a set of random boards.
+     */
+    @Test
+    public final void testLegalMovesAndMakeMove_comparedWithBitBoard0() {
+        final BoardFactory reference = new BitBoardFactory.Type0();
+        final List<Board> boards = new RandomBoardList(reference, NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board referenceBoard : boards) {
+            final Board board = new BoardBuilder(referenceBoard).build();
+            for (final Player player : Player.values()) {
+                final List<Square> expected = referenceBoard.legalMoves(player);
+                assertThat("legalMoves must match BitBoard0.",
+                           (List<Square>) new ArrayList<Square>(board.legalMoves(player)),
+                           is((List<Square>) new ArrayList<Square>(expected)));
+                assertThat("hasAnyLegalMove must match BitBoard0.",
+                           board.hasAnyLegalMove(player),
+                           is(!expected.isEmpty()));
+                for (final Square move : expected) {
+                    assertThat("makeMove must match BitBoard0.",
+                               board.makeMove(move, player),
+                               is(referenceBoard.makeMove(move, player)));
+                }
+            }
+        }
+    }
+
+}
@@ -347,4 +347,97 @@ public class BitWorksTest {
                    is(0x7FFFFFFFFFFFFFFFL));
     }
 
+    /**
+     * Tests the {@code packColumn(long)} method.
+     *
+     * @see BitWorks#packColumn(long)
+     */
+    @Test
+    public final void testPackColumn() {
+        assertThat("BitWorks.packColumn(0x0101010101010101L) is 0xFF.",
+                   BitWorks.packColumn(0x0101010101010101L),
+                   is(0xFF));
+        assertThat("BitWorks.packColumn(0xFEFEFEFEFEFEFEFEL) is 0x00.",
+                   BitWorks.packColumn(0xFEFEFEFEFEFEFEFEL),
+                   is(0x00));
+        assertThat("BitWorks.packColumn(0x0100000000000001L) is 0x81.",
+                   BitWorks.packColumn(0x0100000000000001L),
+                   is(0x81));
+        assertThat("BitWorks.packColumn(0x0000000001000100L) is 0x0A.",
+                   BitWorks.packColumn(0x0000000001000100L),
+                   is(0x0A));
+    }
+
+    /**
+     * Tests the {@code binaryToTernary(int)} method.
+     *
+     * @see BitWorks#binaryToTernary(int)
+     */
+    @Test
+    public final void testBinaryToTernary() {
+        assertThat("BitWorks.binaryToTernary(0x000) is 0.", BitWorks.binaryToTernary(0x000), is(0));
+        assertThat("BitWorks.binaryToTernary(0x001) is 1.", BitWorks.binaryToTernary(0x001), is(1));
+        assertThat("BitWorks.binaryToTernary(0x005) is 10.", BitWorks.binaryToTernary(0x005), is(10));
+        assertThat("BitWorks.binaryToTernary(0x200) is 3^9.", BitWorks.binaryToTernary(0x200), is(19683));
+        assertThat("BitWorks.binaryToTernary(0x3FF) is (3^10 - 1) / 2.", BitWorks.binaryToTernary(0x3FF), is(29524));
+    }
+
+    /**
+     * Tests the {@code neighbors(long)} method.
+     *
+     * @see BitWorks#neighbors(long)
+     */
+    @Test
+    public final void testNeighbors() {
+        assertThat("BitWorks.neighbors(A1) is B1, A2, and B2.",
+                   BitWorks.neighbors(1L << Square.A1.ordinal()),
+                   is((1L << Square.B1.ordinal()) | (1L << Square.A2.ordinal()) | (1L << Square.B2.ordinal())));
+        assertThat("BitWorks.neighbors(H4) must not wrap to column A.",
+                   BitWorks.neighbors(1L << Square.H4.ordinal()),
+                   is((1L << Square.G3.ordinal()) | (1L << Square.H3.ordinal()) | (1L << Square.G4.ordinal())
+                      | (1L << Square.G5.ordinal()) | (1L << Square.H5.ordinal())));
+        for (final Square square : Square.values()) {
+            long expected = 0L;
+            for (final Square neighbor : square.neighbors().values()) {
+                if (neighbor != null) { expected |= 1L << neighbor.ordinal(); }
+            }
+            assertThat("BitWorks.neighbors(" + square + ") must match Square.neighbors().",
+                       BitWorks.neighbors(1L << square.ordinal()),
+                       is(expected));
+        }
+    }
+
+    /**
+     * Tests the {@code flipVertical(long)}, {@code mirrorHorizontal(long)}, and {@code flipDiagonal(long)} methods.
+     *
+     * @see BitWorks#flipVertical(long)
+     * @see BitWorks#mirrorHorizontal(long)
+     * @see BitWorks#flipDiagonal(long)
+     */
+    @Test
+    public final void testSymmetries() {
+        final Row[] rows = Row.values();
+        final Column[] columns = Column.values();
+        for (final Square square : Square.values()) {
+            final int r = square.row().ordinal();
+            final int c = square.column().ordinal();
+            final long bit = 1L << square.ordinal();
+            assertThat("BitWorks.flipVertical(" + square + ") is wrong.",
+                       BitWorks.flipVertical(bit),
+                       is(1L << Square.getInstance(rows[rows.length - 1 - r], columns[c]).ordinal()));
+            assertThat("BitWorks.mirrorHorizontal(" + square + ") is wrong.",
+                       BitWorks.mirrorHorizontal(bit),
+                       is(1L << Square.getInstance(rows[r], columns[columns.length - 1 - c]).ordinal()));
+            assertThat("BitWorks.flipDiagonal(" + square + ") is wrong.",
+                       BitWorks.flipDiagonal(bit),
+                       is(1L << Square.getInstance(rows[c], columns[r]).ordinal()));
+        }
+        assertThat("BitWorks.flipDiagonal(0x0101010101010101L) is 0xFF.",
+                   BitWorks.flipDiagonal(0x0101010101010101L),
+                   is(0xFFL));
+        assertThat("BitWorks.mirrorHorizontal(mirrorHorizontal(x)) is x.",
+                   BitWorks.mirrorHorizontal(BitWorks.mirrorHorizontal(0x0123456789ABCDEFL)),
+                   is(0x0123456789ABCDEFL));
+    }
+
 }
@@ -0,0 +1,140 @@
+/*
+ *  BoardMetricsTest.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code BoardMetrics} class.
+ */
+public class BoardMetricsTest {
+
+    /** The name of the board class used by the tests. */
+    private static final String BOARD = BitBoard2.class.getName();
+
+    /** The enabled flag found before the test. */
+    private boolean wasEnabled;
+
+    /** Class constructor. */
+    public BoardMetricsTest() { }
+
+    /** Saves the enabled flag. */
+    @Before
+    public final void setUp() {
+        wasEnabled = BoardMetrics.isEnabled();
+    }
+
+    /** Restores the enabled flag. */
+    @After
+    public final void tearDown() {
+        BoardMetrics.setEnabled(wasEnabled);
+    }
+
+    /**
+     * Tests that the enabled counters collect the calls to makeMove.
+     */
+    @Test
+    public final void testSnapshot_countsMakeMove() {
+        final Board board = new BitBoardFactory.Type2().initialBoard();
+        BoardMetrics.setEnabled(true);
+        final BoardMetrics.Snapshot before = BoardMetrics.snapshot();
+        board.makeMove(Square.D3, Player.BLACK);
+        board.makeMove(Square.C4, Player.BLACK);
+        final BoardMetrics.Snapshot delta = BoardMetrics.snapshot().since(before);
+        assertThat("Two calls to makeMove must be counted.",
+                   delta.count(BOARD, BoardMetrics.Event.MAKE_MOVE),
+                   is(2L));
+        assertThat("Two calls to the constructor must be counted.",
+                   delta.count(BOARD, BoardMetrics.Event.CONSTRUCTOR),
+                   is(2L));
+    }
+
+    /**
+     * Tests that the disabled counters don't change.
+     */
+    @Test
+    public final void testSetEnabled_false() {
+        final Board board = new BitBoardFactory.Type2().initialBoard();
+        BoardMetrics.setEnabled(false);
+        final BoardMetrics.Snapshot before = BoardMetrics.snapshot();
+        board.makeMove(Square.D3, Player.BLACK);
+        assertThat("Calls must not be counted when metrics are disabled.",
+                   BoardMetrics.snapshot().since(before).count(BOARD, BoardMetrics.Event.MAKE_MOVE),
+                   is(0L));
+    }
+
+    /**
+     * Tests that concurrent calls are all counted.
+     */
+    @Test
+    public final void testCounters_concurrentIncrements() throws InterruptedException {
+        final BoardMetrics.Counters counters = BoardMetrics.counters(BitBoard2.class);
+        final int threads = 4;
+        final int calls = 100000;
+        BoardMetrics.setEnabled(true);
+        final long before = counters.count(BoardMetrics.Event.IS_LEGAL);
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                    public void run() {
+                        for (int i = 0; i < calls; i++) { counters.increment(BoardMetrics.Event.IS_LEGAL); }
+                    }
+                });
+            workers[t].start();
+        }
+        for (final Thread worker : workers) { worker.join(); }
+        assertThat("All the concurrent increments must be counted.",
+                   counters.count(BoardMetrics.Event.IS_LEGAL) - before,
+                   is((long) threads * calls));
+    }
+
+    /**
+     * Tests that reset zeroes the counters.
+     */
+    @Test
+    public final void testReset() {
+        BoardMetrics.setEnabled(true);
+        new BitBoardFactory.Type2().initialBoard().makeMove(Square.D3, Player.BLACK);
+        BoardMetrics.reset();
+        assertThat("Counters must be zero after reset.",
+                   BoardMetrics.snapshot().count(BOARD, BoardMetrics.Event.MAKE_MOVE),
+                   is(0L));
+    }
+
+    /**
+     * Tests that counters rejects a null class.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testCounters_boundaryConditions_checkBoardClassIsNotNull() {
+        BoardMetrics.counters(null);
+    }
+
+}
@@ -47,6 +47,9 @@ import static org.hamcrest.CoreMatchers.is;
 
 /**
  * Performance Suite for {@code Board} class.
+ * <p>
+ * Timings are taken by wall-clock loops, the JMH benchmark {@code BoardBench}, run by {@code ant bench},
+ * gives steadier figures and the allocation rate.
  */
 public class BoardPerf {
 
@@ -118,6 +121,7 @@ public class BoardPerf {
         boardFactories.add(new BitBoardFactory.Type1());
         boardFactories.add(new BitBoardFactory.Type2());
         boardFactories.add(new BitBoardFactory.Type3());
+        boardFactories.add(new BitBoardFactory.Type4());
         return boardFactories;
     }
 
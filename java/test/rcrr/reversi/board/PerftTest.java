@@ -0,0 +1,149 @@
+/*
+ *  PerftTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code Perft} class.
+ */
+public class PerftTest {
+
+    /** The leaf counts from the initial position, by depth, passes included. */
+    private static final long[] INITIAL_COUNTS = {
+        1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L, 212258800L
+    };
+
+    /** The board factories under test. */
+    private static final BoardFactory[] FACTORIES = {
+        new EnumMapBoardFactory(),
+        new BitBoardFactory.Type0(),
+        new BitBoardFactory.Type1(),
+        new BitBoardFactory.Type2(),
+        new BitBoardFactory.Type3(),
+        new BitBoardFactory.Type4()
+    };
+
+    /** The initial board. */
+    private static final Board INITIAL = BoardFixtures.INITIAL;
+
+    /** Class constructor. */
+    public PerftTest() { }
+
+    /**
+     * Tests that the serial count matches the known values up to depth eight.
+     */
+    @Test
+    public final void testCount() {
+        for (int depth = 0; depth <= 8; depth++) {
+            assertThat("Perft.count(INITIAL, BLACK, " + depth + ") must be " + INITIAL_COUNTS[depth] + ".",
+                       Perft.count(INITIAL, Player.BLACK, depth),
+                       is(INITIAL_COUNTS[depth]));
+        }
+    }
+
+    /**
+     * Tests that every board factory gives the known count at depth six.
+     */
+    @Test
+    public final void testCount_byFactory() {
+        final int depth = 6;
+        for (final BoardFactory factory : FACTORIES) {
+            final Board board = factory.initialBoard();
+            assertThat("Perft.count must be " + INITIAL_COUNTS[depth] + " for " + factory.getClass().getName() + ".",
+                       Perft.count(board, Player.BLACK, depth),
+                       is(INITIAL_COUNTS[depth]));
+        }
+    }
+
+    /**
+     * Tests that a game over position is a leaf, and that a pass is a ply.
+     */
+    @Test
+    public final void testCount_passAndGameOver() {
+        assertThat("A game over position must count one leaf at any depth.",
+                   Perft.count(BoardFixtures.FINAL_B37_W27, Player.BLACK, 3),
+                   is(1L));
+        assertThat("A position where black has to pass must count as white to move one ply less.",
+                   Perft.count(BoardFixtures.BLACK_HAS_TO_PASS, Player.BLACK, 2),
+                   is(Perft.count(BoardFixtures.BLACK_HAS_TO_PASS, Player.WHITE, 1)));
+    }
+
+    /**
+     * Tests that the parallel hashed search matches the known values from depth nine to eleven.
+     */
+    @Test
+    public final void testPerft_parallelWithHash() {
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            final Perft perft = new Perft(pool, 1 << 22);
+            for (int depth = 9; depth <= 11; depth++) {
+                assertThat("perft.perft(INITIAL, BLACK, " + depth + ") must be " + INITIAL_COUNTS[depth] + ".",
+                           perft.perft(INITIAL, Player.BLACK, depth),
+                           is(INITIAL_COUNTS[depth]));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the serial hashed search matches the unhashed one, and reports hash hits.
+     */
+    @Test
+    public final void testPerft_serialWithHash() {
+        final Perft perft = new Perft(null, 1 << 16);
+        final int depth = 8;
+        assertThat("perft.perft(INITIAL, BLACK, 8) must be " + INITIAL_COUNTS[depth] + ".",
+                   perft.perft(INITIAL, Player.BLACK, depth),
+                   is(INITIAL_COUNTS[depth]));
+        assertThat("perft.hashHits() must be positive.",
+                   perft.hashHits() > 0L,
+                   is(true));
+    }
+
+    /**
+     * Tests that the constructor rejects a negative hash capacity.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_boundaryConditions_checkHashCapacityIsNotNegative() {
+        new Perft(null, -1);
+    }
+
+    /**
+     * Tests that the count rejects a null board.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testCount_boundaryConditions_checkBoardIsNotNull() {
+        Perft.count(null, Player.BLACK, 1);
+    }
+
+}
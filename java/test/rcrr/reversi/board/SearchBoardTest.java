@@ -0,0 +1,142 @@
+/*
+ *  SearchBoardTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code SearchBoard} class.
+ */
+public class SearchBoardTest {
+
+    /** The number of random boards used by the comparison tests. */
+    private static final int NUMBER_OF_RANDOM_BOARDS = 1000;
+
+    /** Class constructor. */
+    public SearchBoardTest() { }
+
+    /**
+     * Tests the {@code valueOf(Board, Player)} factory when parameter {@code board} is {@code null}.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testValueOf_boundaryConditions_checkNullParameter_board() {
+        SearchBoard.valueOf(null, Player.BLACK);
+    }
+
+    /**
+     * Tests the {@code valueOf(long, long, Player)} factory when the bitboards overlap.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testValueOf_boundaryConditions_checkOverlappingBitboards() {
+        SearchBoard.valueOf(1L, 1L, Player.BLACK);
+    }
+
+    /**
+     * Tests the {@code play(Square)} method when the move is not legal.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testPlay_boundaryConditions_checkIllegalMove() {
+        SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK).play(Square.A1);
+    }
+
+    /**
+     * Tests the {@code undo(int)} method when the token is not valid.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testUndo_boundaryConditions_checkInvalidToken() {
+        SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK).undo(1);
+    }
+
+    /**
+     * Tests that {@code toBoard()} returns the board given to the factory.
+     */
+    @Test
+    public final void testToBoard() {
+        assertThat("SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK).toBoard() must be equal to the initial board.",
+                   SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK).toBoard(),
+                   is(BoardFixtures.INITIAL));
+    }
+
+    /**
+     * Tests that {@code play(Square)} agrees with {@code Board.makeMove(Square, Player)},
+     * and that {@code undo(int)} restores the original state, on a set of random boards.
+     */
+    @Test
+    public final void testPlayAndUndo_comparedWithBoard() {
+        final List<Board> boards = new RandomBoardList(new BitBoardFactory.Type0(),
+                                                       NUMBER_OF_RANDOM_BOARDS, 4, 64).boards();
+        for (final Board board : boards) {
+            for (final Player player : Player.values()) {
+                final SearchBoard sb = SearchBoard.valueOf(board, player);
+                assertThat("legalMoves must match.",
+                           new SquareList(sb.legalMoves()).size(),
+                           is(board.legalMoves(player).size()));
+                for (final Square move : board.legalMoves(player)) {
+                    final int token = sb.play(move);
+                    assertThat("play must match makeMove.",
+                               sb.toBoard(),
+                               is(board.makeMove(move, player)));
+                    assertThat("play must pass the turn.",
+                               sb.player(),
+                               is(player.opponent()));
+                    sb.undo(token);
+                    assertThat("undo must restore the board.",
+                               sb.toBoard(),
+                               is(board));
+                    assertThat("undo must restore the player.",
+                               sb.player(),
+                               is(player));
+                }
+                assertThat("the undo stack must be empty.",
+                           sb.stackSize(),
+                           is(0));
+            }
+        }
+    }
+
+    /**
+     * Tests that a sequence of moves and passes is taken back by the first token.
+     */
+    @Test
+    public final void testUndo_multipleLevels() {
+        final SearchBoard sb = SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK);
+        final int token = sb.play(Square.D3);
+        sb.play(Square.C3);
+        sb.pass();
+        sb.play(Long.lowestOneBit(sb.legalMoves()));
+        assertThat("stackSize must be 4.", sb.stackSize(), is(4));
+        sb.undo(token);
+        assertThat("undo must restore the initial board.", sb.toBoard(), is(BoardFixtures.INITIAL));
+        assertThat("undo must restore the player.", sb.player(), is(Player.BLACK));
+        assertThat("stackSize must be 0.", sb.stackSize(), is(0));
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ *  ZobristTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+
+/**
+ * Test Suite for {@code Zobrist} class.
+ */
+public class ZobristTest {
+
+    /** Class constructor. */
+    public ZobristTest() { }
+
+    /**
+     * Tests that the key of the empty board is zero.
+     */
+    @Test
+    public final void testKey_emptyBoard() {
+        assertThat("Zobrist.key(0L, 0L) must be 0L.",
+                   Zobrist.key(0L, 0L),
+                   is(0L));
+    }
+
+    /**
+     * Tests that the key of a board is the xor of its square keys.
+     */
+    @Test
+    public final void testKey_isTheXorOfSquareKeys() {
+        final long black = 0x0000000810000000L;
+        final long white = 0x0000001008000000L;
+        long expected = 0L;
+        for (final Square sq : Square.values()) {
+            final long bit = 1L << sq.ordinal();
+            if ((black & bit) != 0L) { expected ^= Zobrist.squareKey(Player.BLACK.ordinal(), sq); }
+            if ((white & bit) != 0L) { expected ^= Zobrist.squareKey(Player.WHITE.ordinal(), sq); }
+        }
+        assertThat("Zobrist.key(black, white) must be the xor of the square keys.",
+                   Zobrist.key(black, white),
+                   is(expected));
+    }
+
+    /**
+     * Tests that the move key applied to the initial board gives the key of the board after the move.
+     */
+    @Test
+    public final void testMoveKey() {
+        final long black = 0x0000000810000000L;
+        final long white = 0x0000001008000000L;
+        final long move = 1L << Square.D3.ordinal();
+        final long flips = 1L << Square.D4.ordinal();
+        assertThat("Zobrist.moveKey must update the key of the initial board after D3.",
+                   Zobrist.key(black, white) ^ Zobrist.moveKey(Player.BLACK.ordinal(), move, flips),
+                   is(Zobrist.key(black | move | flips, white & ~flips)));
+    }
+
+    /**
+     * Tests that the key of a board obtained by a move is right, both when the key of the parent board
+     * is already computed, and it is updated incrementally, and when it is not, and it is left lazy.
+     */
+    @Test
+    public final void testBoardAfterMove() {
+        for (final BoardFactory bf : new BoardFactory[] {new BitBoardFactory.Type0(), new BitBoardFactory.Type4()}) {
+            for (final boolean hashParent : new boolean[] {true, false}) {
+                final List<Board> boards = new ArrayList<Board>();
+                Board board = bf.initialBoard();
+                Player player = Player.BLACK;
+                while (board.hasAnyLegalMove(player) || board.hasAnyLegalMove(player.opponent())) {
+                    if (!board.hasAnyLegalMove(player)) { player = player.opponent(); }
+                    if (hashParent) { board.zobrist(); }
+                    board = board.makeMove(board.legalMoves(player).get(0), player);
+                    player = player.opponent();
+                    boards.add(board);
+                }
+                for (final Board b : boards) {
+                    assertThat("Board.zobrist() must match the key computed from scratch.",
+                               b.zobrist(),
+                               is(Zobrist.key(b.discsMask(Player.BLACK), b.discsMask(Player.WHITE))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the {@code playerKey(Player)} method.
+     */
+    @Test
+    public final void testPlayerKey() {
+        assertThat("Zobrist.playerKey(Player.BLACK) must be 0L.",
+                   Zobrist.playerKey(Player.BLACK),
+                   is(0L));
+        assertThat("Zobrist.playerKey(Player.WHITE) must not be 0L.",
+                   Zobrist.playerKey(Player.WHITE),
+                   is(not(0L)));
+        assertThat("Zobrist.playerKey(null) must differ from Zobrist.playerKey(Player.WHITE).",
+                   Zobrist.playerKey(null),
+                   is(not(Zobrist.playerKey(Player.WHITE))));
+    }
+
+    /**
+     * Tests that the search board key agrees with the board key and the player key.
+     */
+    @Test
+    public final void testSearchBoardZobrist() {
+        final SearchBoard sb = SearchBoard.valueOf(BoardFixtures.INITIAL, Player.BLACK);
+        sb.play(Square.D3);
+        assertThat("SearchBoard.zobrist() must agree with Board.zobrist() and Zobrist.playerKey().",
+                   sb.zobrist(),
+                   is(BoardFixtures.FIRST_MOVE_D3.zobrist() ^ Zobrist.playerKey(Player.WHITE)));
+    }
+
+}
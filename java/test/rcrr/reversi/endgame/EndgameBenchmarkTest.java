@@ -0,0 +1,90 @@
+/*
+ *  EndgameBenchmarkTest.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import rcrr.reversi.GamePositionDb;
+import rcrr.reversi.GamePositionDbSyntaxError;
+
+import rcrr.reversi.board.Square;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code EndgameBenchmark} class.
+ */
+public class EndgameBenchmarkTest {
+
+    /** Class constructor. */
+    public EndgameBenchmarkTest() { }
+
+    /**
+     * Tests the {@code moveValues(String)} method.
+     */
+    @Test
+    public final void testMoveValues() {
+        final Map<Square, Integer> values = EndgameBenchmark.moveValues(" G8:+18. H1:+12. A4:-22. B2:+0.");
+        assertThat("There must be four values.", values.size(), is(4));
+        assertThat("G8 must be +18.", values.get(Square.G8), is(18));
+        assertThat("A4 must be -22.", values.get(Square.A4), is(-22));
+        assertThat("B2 must be 0.", values.get(Square.B2), is(0));
+        assertTrue("A free text must have no values.",
+                   EndgameBenchmark.moveValues("FFO position 40, black to move.").isEmpty());
+    }
+
+    /**
+     * Tests that every solver checks FFO position #05 as {@code OK}.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void testRun_ffo05() throws IOException {
+        final GamePositionDb db = GamePositionDb.valueOf(GpdbTestUtils.GPDB_FFO,
+                                                         new ArrayList<GamePositionDbSyntaxError>());
+        for (final EndgameBenchmark.Solver solver : EndgameBenchmark.Solver.values()) {
+            final EndgameBenchmark benchmark = new EndgameBenchmark(solver);
+            try {
+                final EndgameBenchmark.Result result = benchmark.run(db.lookup("ffo-05"));
+                assertThat("The check must be OK. solver=" + solver, result.check(), is(EndgameBenchmark.Check.OK));
+                assertThat("The move must be G8. solver=" + solver, result.node().move(), is(Square.G8));
+                assertTrue("The node count must be positive. solver=" + solver, result.nodeCount() > 0L);
+                assertThat("The hit rate must be known only by the parallel solver. solver=" + solver,
+                           Double.isNaN(result.tableHitRate()), is(solver != EndgameBenchmark.Solver.PARALLEL));
+            } finally {
+                benchmark.shutdown();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ *  ExactSolverModeAnalytics.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.SearchNode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Analytics Suite that compares time and nodes of the {@code ExactSolver} modes.
+ * <p>
+ * The positions are the first {@code GPDB_POSITIONS} records of the {@code c/db/gpdb-ffo.txt} database.
+ * Run it with: {@code ant test -Dtest.class.name=rcrr.reversi.endgame.ExactSolverModeAnalytics}.
+ */
+public class ExactSolverModeAnalytics {
+
+    /** The number of positions read from the database. */
+    private static final int GPDB_POSITIONS = 19;
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** Class constructor. */
+    public ExactSolverModeAnalytics() { }
+
+    /**
+     * Prints, for each position and mode, the value, the nodes, and the time.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void modeComparison() throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final List<GamePosition> positions = GpdbTestUtils.readGpdb(GpdbTestUtils.GPDB_FFO, GPDB_POSITIONS, names);
+        final long[] totalNodes = new long[ExactSolver.Mode.values().length];
+        final long[] totalTime = new long[ExactSolver.Mode.values().length];
+        for (int i = 0; i < positions.size(); i++) {
+            int exact = 0;
+            for (final ExactSolver.Mode mode : ExactSolver.Mode.values()) {
+                final ExactSolver solver = new ExactSolver(positions.get(i));
+                final SearchNode result = solver.solve(mode);
+                totalNodes[mode.ordinal()] += solver.nodeCount();
+                totalTime[mode.ordinal()] += solver.solveTimeInNanoseconds();
+                System.out.println(String.format("%-8s %-16s value=%+3d, move=%s, nodes=%10d, ms=%6d, nodes/s=%9d",
+                                                 names.get(i), mode, result.value(), result.move(),
+                                                 solver.nodeCount(),
+                                                 solver.solveTimeInNanoseconds() / NANOS_PER_MILLI,
+                                                 solver.nodesPerSecond()));
+                if (mode == ExactSolver.Mode.EXACT) {
+                    exact = result.value();
+                } else if (mode == ExactSolver.Mode.WLD) {
+                    assertThat("WLD must agree with the exact value.", result.value(), is(Integer.signum(exact)));
+                } else {
+                    assertThat("EXACT_AFTER_WLD must agree with the exact value.", result.value(), is(exact));
+                }
+            }
+        }
+        for (final ExactSolver.Mode mode : ExactSolver.Mode.values()) {
+            System.out.println(String.format("TOTAL    %-16s nodes=%10d, ms=%6d",
+                                             mode, totalNodes[mode.ordinal()],
+                                             totalTime[mode.ordinal()] / NANOS_PER_MILLI));
+        }
+    }
+
+}
@@ -35,6 +35,7 @@ import rcrr.reversi.board.Square;
 import org.junit.Test;
 
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import static org.hamcrest.CoreMatchers.is;
 
@@ -104,4 +105,48 @@ public class ExactSolverTest {
                    result.move(),
                    is(Square.G8));
     }
+
+    /**
+     * Tests that the value doesn't depend on the parity threshold, and that the counters are filled.
+     */
+    @Test
+    public final void testSolveFFO_05_parityThreshold() {
+        for (final int threshold : new int[] {0, ExactSolver.DEFAULT_PARITY_THRESHOLD, 64}) {
+            final ExactSolver solver = new ExactSolver(FFO_05, threshold);
+            assertThat("The value is 32. threshold=" + threshold,
+                       solver.solve().value(),
+                       is(32));
+            assertTrue("The node count must be positive.", solver.nodeCount() > 0L);
+            assertTrue("The leaf count cannot exceed the node count.", solver.leafCount() <= solver.nodeCount());
+        }
+    }
+
+    /**
+     * Tests that the constructor rejects a negative parity threshold.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_boundaryConditions_checkNegativeParityThreshold() {
+        new ExactSolver(FFO_05, -1);
+    }
+
+    /**
+     * Tests the {@code solve(Mode)} method for each mode.
+     */
+    @Test
+    public final void testSolveFFO_05_modes() {
+        final ExactSolver solver = new ExactSolver(FFO_05);
+        assertThat("The WLD value is +1.", solver.solve(ExactSolver.Mode.WLD).value(), is(+1));
+        assertThat("The WLD move is G8.", solver.solve(ExactSolver.Mode.WLD).move(), is(Square.G8));
+        final SearchNode result = solver.solve(ExactSolver.Mode.EXACT_AFTER_WLD);
+        assertThat("The EXACT_AFTER_WLD value is 32.", result.value(), is(32));
+        assertThat("The EXACT_AFTER_WLD move is G8.", result.move(), is(Square.G8));
+    }
+
+    /**
+     * Tests the {@code solve(Mode)} method when parameter {@code mode} is null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testSolve_boundaryConditions_checkNullParameter_mode() {
+        new ExactSolver(FFO_05).solve(null);
+    }
 }
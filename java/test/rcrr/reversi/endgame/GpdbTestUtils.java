@@ -0,0 +1,81 @@
+/*
+ *  GpdbTestUtils.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.GamePositionDb;
+import rcrr.reversi.GamePositionDbReader;
+import rcrr.reversi.GamePositionDbSyntaxError;
+
+/**
+ * Reads the game position database used by the endgame analytics.
+ */
+public final class GpdbTestUtils {
+
+    /**
+     * The game position database, relative to the java directory.
+     * It can be changed by the {@code rcrr.reversi.gpdb} system property.
+     */
+    public static final String GPDB_FFO = System.getProperty("rcrr.reversi.gpdb", "../c/db/gpdb-ffo.txt");
+
+    /** Class constructor. */
+    private GpdbTestUtils() { }
+
+    /**
+     * Reads the first {@code max} records of the game position database.
+     * <p>
+     * Records are read by {@code GamePositionDbReader}, lines having syntax errors are skipped.
+     *
+     * @param path  the database file
+     * @param max   the maximum number of records read
+     * @param names the list filled with the position ids
+     * @return      the game positions
+     * @throws IOException when the database cannot be read
+     */
+    public static List<GamePosition> readGpdb(final String path,
+                                              final int max,
+                                              final List<String> names) throws IOException {
+        final List<GamePosition> positions = new ArrayList<GamePosition>();
+        final GamePositionDbReader reader = new GamePositionDbReader(new FileReader(path), path,
+                                                                     new ArrayList<GamePositionDbSyntaxError>());
+        try {
+            GamePositionDb.Entry entry;
+            while (positions.size() < max && (entry = reader.next()) != null) {
+                names.add(entry.id());
+                positions.add(entry.gamePosition());
+            }
+        } finally {
+            reader.close();
+        }
+        return positions;
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ *  ImprovedFastEndgameSolverTest.java
+ *
+ *  Copyright (c) 2010, 2011, 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import rcrr.reversi.SearchNode;
+
+import rcrr.reversi.board.Square;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code ImprovedFastEndgameSolver} class.
+ * <p>
+ * The test vectors are the ones of {@code c/test/improved_fast_endgame_solver_test.c}.
+ */
+public class ImprovedFastEndgameSolverTest {
+
+    /** Class constructor. */
+    public ImprovedFastEndgameSolverTest() { }
+
+    /**
+     * Tests the {@code solve()} method on FFO position #05.
+     */
+    @Test
+    public final void testSolveFFO_05() {
+        final ImprovedFastEndgameSolver solver = new ImprovedFastEndgameSolver(ExactSolverTest.FFO_05);
+        final SearchNode result = solver.solve();
+        assertThat("The value is 32.", result.value(), is(32));
+        assertThat("The move is G8.", result.move(), is(Square.G8));
+        assertTrue("The node count must be positive.", solver.nodeCount() > 0L);
+        assertTrue("The leaf count cannot exceed the node count.", solver.leafCount() <= solver.nodeCount());
+    }
+
+    /**
+     * Tests that the value doesn't depend on the thresholds, using the corner cases listed by the C module.
+     */
+    @Test
+    public final void testSolveFFO_05_thresholds() {
+        final int[][] thresholds = {{0, 7}, {0, 0}, {4, 4}, {4, 0}, {6, 4}, {64, 64}};
+        for (final int[] t : thresholds) {
+            final SearchNode result = new ImprovedFastEndgameSolver(ExactSolverTest.FFO_05, t[0], t[1]).solve();
+            assertThat("The value is 32. useParity=" + t[0] + ", fastestFirst=" + t[1], result.value(), is(32));
+            assertThat("The move is G8. useParity=" + t[0] + ", fastestFirst=" + t[1], result.move(), is(Square.G8));
+        }
+    }
+
+    /**
+     * Tests that the board array translation gives back the original board.
+     */
+    @Test
+    public final void testIfesBoardTranslation() {
+        assertThat("The translated board must be equal to the original one.",
+                   ImprovedFastEndgameSolver.toBoard(ImprovedFastEndgameSolver.toIfesBoard(ExactSolverTest.FFO_05.board())),
+                   is(ExactSolverTest.FFO_05.board()));
+        assertThat("A1 must be cell 10.", ImprovedFastEndgameSolver.cell(Square.A1), is(10));
+        assertThat("H8 must be cell 80.", ImprovedFastEndgameSolver.cell(Square.H8), is(80));
+        for (final Square sq : Square.values()) {
+            assertThat("square(cell(sq)) must be sq.",
+                       ImprovedFastEndgameSolver.square(ImprovedFastEndgameSolver.cell(sq)),
+                       is(sq));
+        }
+    }
+
+    /**
+     * Tests the constructor when parameter {@code root} is null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testConstructor_boundaryConditions_checkNullParameter_root() {
+        new ImprovedFastEndgameSolver(null);
+    }
+
+    /**
+     * Tests the constructor when parameter {@code fastestFirst} is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_boundaryConditions_checkNegativeFastestFirst() {
+        new ImprovedFastEndgameSolver(ExactSolverTest.FFO_05, ImprovedFastEndgameSolver.DEFAULT_USE_PARITY, -1);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ *  ParallelExactSolverPerf.java
+ *
+ *  Copyright (c) 2010, 2011, 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ForkJoinPool;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.SearchNode;
+import rcrr.reversi.TranspositionTable;
+
+import rcrr.reversi.board.SquareState;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Performance Suite for the {@code ParallelExactSolver} class.
+ * <p>
+ * It reports the speedup of the parallel solver over {@code ExactSolver}, for a growing number of threads
+ * up to the available processors. The positions are {@code ExactSolver.FFO_40} and the records of the
+ * {@code c/db/gpdb-ffo.txt} database having {@code EMPTIES} empty squares among the first {@code GPDB_POSITIONS}.
+ * Run it with: {@code ant test -Dtest.class.name=rcrr.reversi.endgame.ParallelExactSolverPerf}.
+ */
+public class ParallelExactSolverPerf {
+
+    /** The number of records read from the database. */
+    private static final int GPDB_POSITIONS = 34;
+
+    /** The count of empty squares of the selected records. */
+    private static final int EMPTIES = 20;
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** Class constructor. */
+    public ParallelExactSolverPerf() { }
+
+    /**
+     * Prints the time, the node count, and the speedup against the core count.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void speedup() throws IOException {
+        final List<GamePosition> positions = new ArrayList<GamePosition>();
+        positions.add(ExactSolver.FFO_40);
+        for (final GamePosition position
+                 : GpdbTestUtils.readGpdb(GpdbTestUtils.GPDB_FFO, GPDB_POSITIONS, new ArrayList<String>())) {
+            if (position.board().countPieces(SquareState.EMPTY) == EMPTIES) {
+                positions.add(position);
+            }
+        }
+
+        final SearchNode[] expected = new SearchNode[positions.size()];
+        long serialNodes = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < positions.size(); i++) {
+            final ExactSolver solver = new ExactSolver(positions.get(i));
+            expected[i] = solver.solve();
+            serialNodes += solver.nodeCount();
+        }
+        final long serial = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        System.out.println(String.format("ExactSolver: %7d ms, nodes=%12d, positions=%d",
+                                         serial, serialNodes, positions.size()));
+
+        final int cores = Runtime.getRuntime().availableProcessors();
+        int threads = 0;
+        while (threads < cores) {
+            threads = (threads == 0) ? 1 : Math.min(2 * threads, cores);
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            final TranspositionTable table = TranspositionTable.valueOf(ParallelExactSolver.DEFAULT_TABLE_CAPACITY);
+            long nodes = 0L;
+            start = System.nanoTime();
+            for (int i = 0; i < positions.size(); i++) {
+                final ParallelExactSolver solver = new ParallelExactSolver(positions.get(i), pool, table,
+                                                                           ParallelExactSolver.DEFAULT_SPLIT_EMPTIES);
+                final SearchNode result = solver.solve();
+                nodes += solver.nodeCount();
+                assertThat("The value must be equal to ExactSolver.", result.value(), is(expected[i].value()));
+                assertThat("The move must be equal to ExactSolver.", result.move(), is(expected[i].move()));
+            }
+            final long elapsed = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            pool.shutdown();
+            System.out.println(String.format("threads=%3d  %7d ms, nodes=%12d, speedup=%5.2f",
+                                             threads, elapsed, nodes, (double) serial / elapsed));
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *  ParallelExactSolverTest.java
+ *
+ *  Copyright (c) 2010, 2011, 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.util.concurrent.ForkJoinPool;
+
+import rcrr.reversi.GamePosition;
+import rcrr.reversi.SearchNode;
+import rcrr.reversi.TranspositionTable;
+
+import rcrr.reversi.board.Square;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Test Suite for {@code ParallelExactSolver} class.
+ */
+public class ParallelExactSolverTest {
+
+    /** The table capacity used by the tests. */
+    private static final int TABLE_CAPACITY = 1 << 16;
+
+    /** Class constructor. */
+    public ParallelExactSolverTest() { }
+
+    /**
+     * Tests that the solver returns the move and the value found by {@code ExactSolver},
+     * for several pool sizes and split thresholds.
+     */
+    @Test
+    public final void testSolveFFO_05_comparedWithExactSolver() {
+        final SearchNode expected = new ExactSolver(ExactSolverTest.FFO_05).solve();
+        for (final int threads : new int[] {1, 2, 4}) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (final int splitEmpties : new int[] {7, ParallelExactSolver.DEFAULT_SPLIT_EMPTIES, 64}) {
+                    final ParallelExactSolver solver
+                        = new ParallelExactSolver(ExactSolverTest.FFO_05, pool,
+                                                  TranspositionTable.valueOf(TABLE_CAPACITY), splitEmpties);
+                    final SearchNode result = solver.solve();
+                    assertThat("The value must be 32. threads=" + threads + ", splitEmpties=" + splitEmpties,
+                               result.value(),
+                               is(expected.value()));
+                    assertThat("The move must be G8. threads=" + threads + ", splitEmpties=" + splitEmpties,
+                               result.move(),
+                               is(Square.G8));
+                    assertTrue("The node count must be positive.", solver.nodeCount() > 0L);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Tests that solving twice returns the same result, the table being cleared by each call.
+     */
+    @Test
+    public final void testSolve_repeated() {
+        final ParallelExactSolver solver = new ParallelExactSolver(ExactSolverTest.FFO_05);
+        final SearchNode first = solver.solve();
+        final SearchNode second = solver.solve();
+        assertThat("The value must not change.", second.value(), is(first.value()));
+        assertThat("The move must not change.", second.move(), is(first.move()));
+    }
+
+    /**
+     * Tests the constructor when parameter {@code root} is null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testConstructor_boundaryConditions_checkNullParameter_root() {
+        new ParallelExactSolver((GamePosition) null);
+    }
+
+    /**
+     * Tests the constructor when parameter {@code splitEmpties} is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_boundaryConditions_checkSplitEmpties() {
+        final ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            new ParallelExactSolver(ExactSolverTest.FFO_05, pool, TranspositionTable.valueOf(TABLE_CAPACITY), 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
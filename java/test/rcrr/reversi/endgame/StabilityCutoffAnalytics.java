@@ -0,0 +1,102 @@
+/*
+ *  StabilityCutoffAnalytics.java
+ *
+ *  Copyright (c) 2012 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.endgame;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rcrr.reversi.GamePosition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Analytics Suite that measures the stable disc cutoff of the {@code ExactSolver}.
+ * <p>
+ * The positions are {@code ExactSolver.FFO_40} and the first {@code GPDB_POSITIONS} records of the
+ * {@code c/db/gpdb-ffo.txt} database. Each one is solved with and without the cutoff, the table printed
+ * at the end gives, for each count of empty squares, the stable disc computations, the cutoffs, and the
+ * pruning rate.
+ * Run it with: {@code ant test -Dtest.class.name=rcrr.reversi.endgame.StabilityCutoffAnalytics}.
+ */
+public class StabilityCutoffAnalytics {
+
+    /** The number of positions read from the database. */
+    private static final int GPDB_POSITIONS = 19;
+
+    /** Macic number 64. */
+    private static final int SIXTY_FOUR = 64;
+
+    /** Nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** Class constructor. */
+    public StabilityCutoffAnalytics() { }
+
+    /**
+     * Prints the node counts of each position and the pruning rate by empty squares.
+     *
+     * @throws IOException when the database cannot be read
+     */
+    @Test
+    public final void pruningRate() throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final List<GamePosition> positions = new ArrayList<GamePosition>();
+        names.add("FFO_40");
+        positions.add(ExactSolver.FFO_40);
+        positions.addAll(GpdbTestUtils.readGpdb(GpdbTestUtils.GPDB_FFO, GPDB_POSITIONS, names));
+
+        final long[] tests = new long[SIXTY_FOUR + 1];
+        final long[] cutoffs = new long[SIXTY_FOUR + 1];
+        for (int i = 0; i < positions.size(); i++) {
+            final ExactSolver plain = new ExactSolver(positions.get(i), ExactSolver.DEFAULT_PARITY_THRESHOLD, false);
+            final ExactSolver stability = new ExactSolver(positions.get(i), ExactSolver.DEFAULT_PARITY_THRESHOLD, true);
+            final int expected = plain.solve().value();
+            assertThat("The stable disc cutoff must not change the value.", stability.solve().value(), is(expected));
+            final long[] t = stability.stabilityTestCount();
+            final long[] c = stability.stabilityCutoffCount();
+            for (int e = 0; e <= SIXTY_FOUR; e++) {
+                tests[e] += t[e];
+                cutoffs[e] += c[e];
+            }
+            System.out.println(String.format("%-8s value=%+3d  plain: nodes=%10d, ms=%6d  stability: nodes=%10d, ms=%6d",
+                                             names.get(i), expected,
+                                             plain.nodeCount(), plain.solveTimeInNanoseconds() / NANOS_PER_MILLI,
+                                             stability.nodeCount(),
+                                             stability.solveTimeInNanoseconds() / NANOS_PER_MILLI));
+        }
+        for (int e = 0; e <= SIXTY_FOUR; e++) {
+            if (tests[e] == 0L) { continue; }
+            System.out.println(String.format("empties=%2d  tests=%10d  cutoffs=%10d  rate=%5.1f%%",
+                                             e, tests[e], cutoffs[e], 100.0 * cutoffs[e] / tests[e]));
+        }
+    }
+
+}
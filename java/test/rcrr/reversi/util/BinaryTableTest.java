@@ -0,0 +1,185 @@
+/*
+ *  BinaryTableTest.java
+ *
+ *  Copyright (c) 2013 Roberto Corradini. All rights reserved.
+ *
+ *  This file is part of the reversi program
+ *  http://github.com/rcrr/reversi
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the
+ *  Free Software Foundation; either version 3, or (at your option) any
+ *  later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA
+ *  or visit the site <http://www.gnu.org/licenses/>.
+ */
+
+package rcrr.reversi.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.net.URL;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+/**
+ * Test Suite for the {@code BinaryTable} class.
+ *
+ * @see BinaryTable
+ */
+public class BinaryTableTest {
+
+    /** The temporary file used by the tests. */
+    private File file;
+
+    /** Class constructor. */
+    public BinaryTableTest() { }
+
+    /**
+     * Creates the temporary file.
+     *
+     * @throws IOException when the file cannot be created
+     */
+    @Before
+    public final void setUp() throws IOException {
+        file = File.createTempFile("binary-table", ".bin");
+    }
+
+    /** Deletes the temporary file. */
+    @After
+    public final void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Tests that a byte table is read back as written.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testReadBytes_roundTrip() throws IOException {
+        final byte[] table = new byte[1000];
+        for (int i = 0; i < table.length; i++) { table[i] = (byte) (i * 31); }
+        BinaryTable.write(file, table);
+        assertThat("BinaryTable.readBytes must return the written table.",
+                   Arrays.equals(BinaryTable.readBytes(url(), table.length), table),
+                   is(true));
+    }
+
+    /**
+     * Tests that a short table is read back as written.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testReadShorts_roundTrip() throws IOException {
+        final short[] table = new short[1000];
+        for (int i = 0; i < table.length; i++) { table[i] = (short) (i * -31); }
+        BinaryTable.write(file, table);
+        assertThat("BinaryTable.readShorts must return the written table.",
+                   Arrays.equals(BinaryTable.readShorts(url(), table.length), table),
+                   is(true));
+        assertThat("A short table must not be read as an int table.",
+                   BinaryTable.readInts(url(), table.length / 2),
+                   is(nullValue()));
+    }
+
+    /**
+     * Tests that an int table is read back as written.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testReadInts_roundTrip() throws IOException {
+        final int[] table = new int[1000];
+        for (int i = 0; i < table.length; i++) { table[i] = i * -7919; }
+        BinaryTable.write(file, table);
+        assertThat("BinaryTable.readInts must return the written table.",
+                   Arrays.equals(BinaryTable.readInts(url(), table.length), table),
+                   is(true));
+    }
+
+    /**
+     * Tests that a table having a different length, or element size, is rejected.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testRead_wrongShape() throws IOException {
+        BinaryTable.write(file, new int[10]);
+        assertThat("A table having a different length must be rejected.",
+                   BinaryTable.readInts(url(), 11),
+                   is(nullValue()));
+        assertThat("An int table must not be read as a byte table.",
+                   BinaryTable.readBytes(url(), 40),
+                   is(nullValue()));
+    }
+
+    /**
+     * Tests that a corrupted payload is rejected by the checksum.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Test
+    public final void testRead_corruptedPayload() throws IOException {
+        BinaryTable.write(file, new byte[100]);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length() - 1);
+            raf.write(1);
+        } finally {
+            raf.close();
+        }
+        assertThat("A corrupted table must be rejected.",
+                   BinaryTable.readBytes(url(), 100),
+                   is(nullValue()));
+    }
+
+    /**
+     * Tests that a missing resource returns null.
+     */
+    @Test
+    public final void testRead_missingResource() {
+        assertThat("A missing resource must return null.",
+                   BinaryTable.readBytes("rcrr/reversi/util/missing-table.bin", 1),
+                   is(nullValue()));
+    }
+
+    /**
+     * Tests that a null resource name is rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testReadBytes_boundaryConditions_checkResourceIsNotNull() {
+        BinaryTable.readBytes((String) null, 1);
+    }
+
+    /**
+     * Returns the url of the temporary file.
+     *
+     * @return the url of the temporary file
+     * @throws IOException when the url cannot be built
+     */
+    private URL url() throws IOException {
+        return file.toURI().toURL();
+    }
+
+}